@@ -0,0 +1,87 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Compara dos corridas de Benchmarks/ejecutar.sh (directorios resultados/<commit>/ con un JSON por servicio).
+// Uso: java CompararResultados.java resultados/<antes> resultados/<despues> [umbral-%]
+// Termina con código 1 si algún benchmark empeora más que el umbral (10 % por defecto).
+public class CompararResultados {
+
+    // JMH escribe un objeto por benchmark con "benchmark", "params" opcional y "primaryMetric.score"
+    private static final Pattern BENCHMARK = Pattern.compile("\"benchmark\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern PARAMS = Pattern.compile("\"params\"\\s*:\\s*\\{([^}]*)}");
+    private static final Pattern SCORE = Pattern.compile("\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([-0-9.Ee]+)");
+    private static final Pattern UNIDAD = Pattern.compile("\"scoreUnit\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern MODO = Pattern.compile("\"mode\"\\s*:\\s*\"([^\"]+)\"");
+
+    record Resultado(double score, String unidad, boolean mayorEsMejor) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: java CompararResultados.java <resultados-antes> <resultados-despues> [umbral-%]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Resultado> antes = leer(Path.of(args[0]));
+        Map<String, Resultado> despues = leer(Path.of(args[1]));
+
+        boolean regresion = false;
+        System.out.printf(Locale.ROOT, "%-110s %14s %14s %9s%n", "Benchmark", "Antes", "Después", "Cambio");
+        for (Map.Entry<String, Resultado> entrada : despues.entrySet()) {
+            Resultado nuevo = entrada.getValue();
+            Resultado anterior = antes.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf(Locale.ROOT, "%-110s %14s %14.3f %9s%n", entrada.getKey(), "-", nuevo.score(), "nuevo");
+                continue;
+            }
+            // En throughput un score menor es peor; en los modos de tiempo, uno mayor
+            double cambio = (nuevo.score() - anterior.score()) / anterior.score() * 100;
+            boolean empeora = nuevo.mayorEsMejor() ? cambio < -umbral : cambio > umbral;
+            regresion |= empeora;
+            System.out.printf(Locale.ROOT, "%-110s %14.3f %14.3f %+8.1f%% %s%s%n", entrada.getKey(),
+                    anterior.score(), nuevo.score(), cambio, nuevo.unidad(), empeora ? "  REGRESIÓN" : "");
+        }
+        System.exit(regresion ? 1 : 0);
+    }
+
+    private static Map<String, Resultado> leer(Path directorio) throws IOException {
+        Map<String, Resultado> resultados = new TreeMap<>();
+        List<Path> archivos;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            archivos = new ArrayList<>(listado.filter(p -> p.toString().endsWith(".json")).toList());
+        }
+        for (Path archivo : archivos) {
+            String json = Files.readString(archivo);
+            Matcher benchmark = BENCHMARK.matcher(json);
+            List<Integer> inicios = new ArrayList<>();
+            List<String> nombres = new ArrayList<>();
+            while (benchmark.find()) {
+                inicios.add(benchmark.start());
+                nombres.add(benchmark.group(1));
+            }
+            for (int i = 0; i < inicios.size(); i++) {
+                String bloque = json.substring(inicios.get(i), i + 1 < inicios.size() ? inicios.get(i + 1) : json.length());
+                Matcher params = PARAMS.matcher(bloque);
+                Matcher score = SCORE.matcher(bloque);
+                Matcher unidad = UNIDAD.matcher(bloque);
+                Matcher modo = MODO.matcher(bloque);
+                if (!score.find()) {
+                    continue;
+                }
+                String clave = nombres.get(i) + (params.find() ? " {" + params.group(1).replaceAll("\\s+", "") + "}" : "");
+                resultados.put(clave, new Resultado(Double.parseDouble(score.group(1)),
+                        unidad.find() ? unidad.group(1) : "", modo.find() && modo.group(1).equals("thrpt")));
+            }
+        }
+        return resultados;
+    }
+}
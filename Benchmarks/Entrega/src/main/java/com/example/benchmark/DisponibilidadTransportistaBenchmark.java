@@ -0,0 +1,77 @@
+package com.example.benchmark;
+
+import com.example.EntregaApplication;
+import com.example.Model.EntregaModel;
+import com.example.Repository.EntregaRepository;
+import com.example.Service.EntregaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// EntregaService.validarDisponibilidadTransportista sobre H2: entregas repartidas entre transportistas
+// y los próximos 30 días; cada llamada consulta un transportista y un día al azar.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DisponibilidadTransportistaBenchmark {
+
+    private static final String[] ESTADOS = {"PROGRAMADA", "EN_TRANSITO", "ENTREGADA", "CANCELADA"};
+    private static final int TRANSPORTISTAS = 50;
+    private static final int DIAS = 30;
+
+    @Param({"1000", "10000"})
+    public int entregas;
+
+    private ConfigurableApplicationContext contexto;
+    private EntregaService entregaService;
+    private LocalDateTime hoy;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(EntregaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos());
+        entregaService = contexto.getBean(EntregaService.class);
+
+        hoy = LocalDateTime.now().withHour(9).withMinute(0).withSecond(0).withNano(0);
+        List<EntregaModel> lote = new ArrayList<>(entregas);
+        for (int i = 0; i < entregas; i++) {
+            EntregaModel entrega = new EntregaModel();
+            entrega.setDireccionEntrega("Parcela " + i);
+            entrega.setCiudad("Chillán");
+            entrega.setRegion("Ñuble");
+            entrega.setEstado(ESTADOS[i % ESTADOS.length]);
+            entrega.setTipoEntrega("EQUIPO");
+            entrega.setTransportista(transportista(i % TRANSPORTISTAS));
+            entrega.setFechaProgramada(hoy.plusDays((i / TRANSPORTISTAS) % DIAS));
+            lote.add(entrega);
+        }
+        contexto.getBean(EntregaRepository.class).saveAll(lote);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public boolean validarDisponibilidadTransportista() {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        return entregaService.validarDisponibilidadTransportista(
+                transportista(azar.nextInt(TRANSPORTISTAS)), hoy.plusDays(azar.nextInt(DIAS)));
+    }
+
+    private static String transportista(int indice) {
+        return "Transportista " + indice;
+    }
+}
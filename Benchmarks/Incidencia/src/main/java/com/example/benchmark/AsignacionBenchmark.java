@@ -0,0 +1,103 @@
+package com.example.benchmark;
+
+import com.example.DTO.AsignacionDTO;
+import com.example.IncidenciaApplication;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.TecnicoModel;
+import com.example.Model.UsuarioModel;
+import com.example.Repository.IncidenciaRepository;
+import com.example.Service.ColaDespacho;
+import com.example.Service.IncidenciaService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Asignación automática de una ráfaga de incidencias nuevas en una sola transacción.
+// El resultado se informa en asignaciones por segundo.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AsignacionBenchmark {
+
+    private static final int RAFAGA = 500;
+    private static final String[] TIPOS = {"TRACTOR", "COSECHADORA", "RIEGO", "PULVERIZADOR", "SEMBRADORA"};
+    private static final String[] ZONAS = {"Norte", "Centro", "Sur"};
+
+    @Param({"50"})
+    public int tecnicos;
+
+    private ConfigurableApplicationContext contexto;
+    private IncidenciaService incidenciaService;
+    private IncidenciaRepository incidenciaRepository;
+    private ColaDespacho colaDespacho;
+    private UsuarioModel usuario;
+    private final List<EquipoModel> equipos = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(IncidenciaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos());
+        incidenciaService = contexto.getBean(IncidenciaService.class);
+        incidenciaRepository = contexto.getBean(IncidenciaRepository.class);
+        colaDespacho = contexto.getBean(ColaDespacho.class);
+
+        EntityManager entityManager = contexto.getBean(EntityManager.class);
+        contexto.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            usuario = new UsuarioModel(null, "Ana", "Rojas", "ana@agrotech.cl", "benchmark", "+56900000000", 1L);
+            entityManager.persist(usuario);
+            for (int e = 0; e < TIPOS.length; e++) {
+                EquipoModel equipo = new EquipoModel(null, "Equipo " + e, "Equipo de prueba", "John Deere", "S770",
+                        "NUEVO", 1500.0, "BM-" + e, TIPOS[e]);
+                entityManager.persist(equipo);
+                equipos.add(equipo);
+            }
+            for (int t = 0; t < tecnicos; t++) {
+                UsuarioModel usuarioTecnico = new UsuarioModel(null, "Técnico" + t, "Prueba", "tecnico" + t + "@agrotech.cl",
+                        "benchmark-" + t, "+5691" + (1_000_000 + t), 2L);
+                entityManager.persist(usuarioTecnico);
+                entityManager.persist(new TecnicoModel(null, usuarioTecnico, "Mantención de " + TIPOS[t % TIPOS.length],
+                        true, ZONAS[t % ZONAS.length], null, null));
+            }
+        });
+    }
+
+    // Fuera de la medición: una ráfaga de incidencias nuevas en la cola de despacho
+    @Setup(Level.Invocation)
+    public void nuevaRafaga() {
+        List<IncidenciaModel> rafaga = new ArrayList<>(RAFAGA);
+        for (int i = 0; i < RAFAGA; i++) {
+            IncidenciaModel incidencia = new IncidenciaModel();
+            incidencia.setUsuario(usuario);
+            incidencia.setEquipo(equipos.get(i % equipos.size()));
+            incidencia.setDescripcion("Falla reportada " + i);
+            incidencia.setFechaReporte(new Date());
+            rafaga.add(incidencia);
+        }
+        incidenciaRepository.saveAll(rafaga);
+        colaDespacho.cargar();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RAFAGA)
+    public List<AsignacionDTO> asignarRafaga() {
+        return incidenciaService.asignarPendientes(RAFAGA, "Centro");
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.benchmark;
+
+import com.example.Controller.IncidenciaController;
+import com.example.DTO.ResultadoBusquedaDTO;
+import com.example.IncidenciaApplication;
+import com.example.Model.EquipoModel;
+import com.example.Model.UsuarioModel;
+import com.example.Service.IndiceIncidencias;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Búsqueda de texto sobre el índice de incidencias, solo el índice y el endpoint completo (índice más la
+// carga de la página desde H2). Para la escala de producción: -p incidencias=1000000.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BusquedaBenchmark {
+
+    private static final String[] ESTADOS = {"ABIERTA", "EN_PROCESO", "RESUELTA", "CERRADA"};
+    private static final String[] EQUIPOS = {"Tractor", "Cosechadora", "Pulverizador", "Sembradora", "Enfardadora",
+            "Empacadora", "Motobomba", "Generador", "Chipeadora", "Retroexcavadora"};
+    private static final String[] COMPONENTES = {"el compresor", "el motor", "la bomba de riego", "el sistema hidráulico",
+            "la transmisión", "el radiador", "el embrague", "el alternador", "la batería", "el inyector",
+            "el cardán", "la toma de fuerza", "el diferencial", "el tablero", "el arranque", "el ventilador",
+            "la dirección", "el freno de mano", "el cilindro", "la válvula de alivio", "el turbo", "la caja de cambios",
+            "el cabezal", "la cadena"};
+    private static final String[] FALLAS = {"pierde presión", "no arranca", "hace ruido", "se recalienta",
+            "tiene una fuga de aceite", "vibra al acelerar", "no enciende", "corta la correa", "se traba",
+            "gotea combustible", "emite humo negro", "pierde potencia", "marca error en pantalla", "se descalibra",
+            "chirría al frenar", "consume demasiado"};
+    private static final String[] CONTEXTOS = {"durante la cosecha", "en el potrero norte", "después de la lluvia",
+            "al partir en frío", "con carga completa", "en pendiente", "tras el último servicio", "en el galpón",
+            "al final de la jornada", "con temperatura alta", "en el camino de acceso", "después del lavado"};
+    private static final String[] SOLUCIONES = {"Se cambió el filtro", "Se reemplazó el sello", "Se ajustó la correa",
+            "Se recargó el refrigerante", "Se cambió el rodamiento", "Se purgó el circuito", "Se soldó el soporte",
+            "Se actualizó el software", "Se reemplazó el fusible", "Se calibró el sensor"};
+    // De una palabra frecuente a una combinación poco frecuente, con y sin filtro de estado
+    private static final String[][] CONSULTAS = {{"motor", null}, {"fuga aceite", null},
+            {"compresor presión", "ABIERTA"}, {"\"bomba de riego\" ruido", null}, {"radiador refrigerante", "CERRADA"}};
+
+    @Param({"100000"})
+    public int incidencias;
+
+    private ConfigurableApplicationContext contexto;
+    private IncidenciaController incidenciaController;
+    private IndiceIncidencias indiceIncidencias;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(IncidenciaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos());
+        incidenciaController = contexto.getBean(IncidenciaController.class);
+        indiceIncidencias = contexto.getBean(IndiceIncidencias.class);
+
+        EntityManager entityManager = contexto.getBean(EntityManager.class);
+        List<Long> equipos = new ArrayList<>();
+        UsuarioModel usuario = new UsuarioModel(null, "Ana", "Rojas", "ana@agrotech.cl", "benchmark", "+56900000000", 1L);
+        contexto.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            entityManager.persist(usuario);
+            for (int e = 0; e < 20; e++) {
+                EquipoModel equipo = new EquipoModel(null, "Equipo " + e, "Equipo de prueba", "John Deere", "6110M",
+                        "NUEVO", 1500.0, "BM-" + e, "TRACTOR");
+                entityManager.persist(equipo);
+                equipos.add(equipo.getIdEquipo());
+            }
+        });
+
+        // Carga directa por JDBC en lotes con IDs propios, sin pasar por las vistas en memoria del servicio
+        Random azar = new Random(42);
+        Timestamp ahora = new Timestamp(System.currentTimeMillis());
+        List<Object[]> lote = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        for (int i = 0; i < incidencias; i++) {
+            String estado = ESTADOS[i % ESTADOS.length];
+            String descripcion = EQUIPOS[azar.nextInt(EQUIPOS.length)] + " serie " + azar.nextInt(100_000) + ": "
+                    + COMPONENTES[azar.nextInt(COMPONENTES.length)] + " " + FALLAS[azar.nextInt(FALLAS.length)] + " "
+                    + CONTEXTOS[azar.nextInt(CONTEXTOS.length)];
+            String solucion = "CERRADA".equals(estado) ? SOLUCIONES[azar.nextInt(SOLUCIONES.length)] : null;
+            lote.add(new Object[]{i + 1L, usuario.getIdusuario(), equipos.get(i % equipos.size()), ahora, ahora,
+                    descripcion, estado, "MEDIA", solucion});
+            if (lote.size() == 5000 || i == incidencias - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO incidencia (id_incidencia, usuario_id, id_equipo, fecha_reporte, " +
+                        "fecha_creacion, descripcion, estado, prioridad, solucion) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", lote);
+                lote.clear();
+            }
+        }
+        indiceIncidencias.reconstruir();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public IndiceIncidencias.Pagina buscarEnIndice() {
+        String[] consulta = CONSULTAS[siguiente++ % CONSULTAS.length];
+        return indiceIncidencias.buscar(consulta[0], consulta[1], 0, 20);
+    }
+
+    @Benchmark
+    public ResponseEntity<ResultadoBusquedaDTO> buscarIncidencias() {
+        String[] consulta = CONSULTAS[siguiente++ % CONSULTAS.length];
+        return incidenciaController.buscarIncidencias(consulta[0], consulta[1], 0, 20);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.benchmark;
+
+import com.example.Controller.IncidenciaController;
+import com.example.DTO.EstadisticasIncidenciasDTO;
+import com.example.IncidenciaApplication;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.UsuarioModel;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// IncidenciaController.getEstadisticas sobre H2, con distintas cantidades de incidencias registradas.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EstadisticasBenchmark {
+
+    private static final String[] ESTADOS = {"ABIERTA", "EN_PROCESO", "RESUELTA", "CERRADA"};
+    private static final String[] PRIORIDADES = {"BAJA", "MEDIA", "ALTA", "CRITICA"};
+
+    @Param({"1000", "10000"})
+    public int incidencias;
+
+    // 0 recalcula en cada llamada (mide la consulta); con TTL casi todas las llamadas usan la instantánea
+    @Param({"0", "5000"})
+    public long ttlMs;
+
+    private ConfigurableApplicationContext contexto;
+    private IncidenciaController incidenciaController;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(IncidenciaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos("--incidencia.estadisticas.ttl-ms=" + ttlMs));
+        incidenciaController = contexto.getBean(IncidenciaController.class);
+
+        EntityManager entityManager = contexto.getBean(EntityManager.class);
+        contexto.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            UsuarioModel usuario = new UsuarioModel();
+            usuario.setNombre("Ana");
+            usuario.setApellido("Rojas");
+            usuario.setCorreo("ana@agrotech.cl");
+            usuario.setContraseña("benchmark");
+            usuario.setTelefono("+56900000000");
+            usuario.setIdperfil(1L);
+            entityManager.persist(usuario);
+
+            List<EquipoModel> equipos = new ArrayList<>();
+            for (int e = 0; e < 20; e++) {
+                EquipoModel equipo = new EquipoModel();
+                equipo.setNombre("Cosechadora " + e);
+                equipo.setDescripcion("Equipo de prueba");
+                equipo.setMarca("John Deere");
+                equipo.setModelo("S770");
+                equipo.setEstado("NUEVO");
+                equipo.setPrecioventa(1500.0);
+                equipo.setPatente("BM-" + e);
+                equipo.setTipoEquipo("COSECHADORA");
+                entityManager.persist(equipo);
+                equipos.add(equipo);
+            }
+
+            List<IncidenciaModel> lote = new ArrayList<>(incidencias);
+            for (int i = 0; i < incidencias; i++) {
+                IncidenciaModel incidencia = new IncidenciaModel();
+                incidencia.setUsuario(usuario);
+                incidencia.setEquipo(equipos.get(i % equipos.size()));
+                incidencia.setFechaReporte(new Date());
+                incidencia.setDescripcion("Falla reportada " + i);
+                incidencia.setEstado(ESTADOS[i % ESTADOS.length]);
+                incidencia.setPrioridad(PRIORIDADES[(i / ESTADOS.length) % PRIORIDADES.length]);
+                lote.add(incidencia);
+            }
+            contexto.getBean(IncidenciaRepository.class).saveAll(lote);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<EstadisticasIncidenciasDTO> getEstadisticas() {
+        return incidenciaController.getEstadisticas();
+    }
+}
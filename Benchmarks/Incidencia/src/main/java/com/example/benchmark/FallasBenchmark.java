@@ -0,0 +1,102 @@
+package com.example.benchmark;
+
+import com.example.DTO.FallasEquipoDTO;
+import com.example.IncidenciaApplication;
+import com.example.Model.EquipoModel;
+import com.example.Model.UsuarioModel;
+import com.example.Service.FallasEquipos;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Ranking de equipos con más fallas desde el acumulado en memoria, y la reconstrucción en paralelo
+// del acumulado desde la tabla, con dos años de historial repartido entre los equipos.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FallasBenchmark {
+
+    private static final long DOS_AÑOS_MS = TimeUnit.DAYS.toMillis(730);
+
+    @Param({"100000"})
+    public int incidencias;
+
+    @Param({"2000"})
+    public int equipos;
+
+    private ConfigurableApplicationContext contexto;
+    private FallasEquipos fallasEquipos;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(IncidenciaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos());
+        fallasEquipos = contexto.getBean(FallasEquipos.class);
+
+        EntityManager entityManager = contexto.getBean(EntityManager.class);
+        List<Long> idsEquipos = new ArrayList<>();
+        UsuarioModel usuario = new UsuarioModel(null, "Ana", "Rojas", "ana@agrotech.cl", "benchmark", "+56900000000", 1L);
+        contexto.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            entityManager.persist(usuario);
+            for (int e = 0; e < equipos; e++) {
+                EquipoModel equipo = new EquipoModel(null, "Equipo " + e, "Equipo de prueba", "John Deere", "6110M",
+                        "NUEVO", 1500.0, "BM-" + e, "TRACTOR");
+                entityManager.persist(equipo);
+                idsEquipos.add(equipo.getIdEquipo());
+            }
+        });
+
+        Random azar = new Random(42);
+        long ahora = System.currentTimeMillis();
+        List<Object[]> lote = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        for (int i = 0; i < incidencias; i++) {
+            // Algunos equipos fallan mucho más que el resto
+            int equipo = (int) (idsEquipos.size() * Math.pow(azar.nextDouble(), 3));
+            Timestamp reporte = new Timestamp(ahora - (long) (azar.nextDouble() * DOS_AÑOS_MS));
+            Timestamp resolucion = azar.nextBoolean() ? null
+                    : new Timestamp(reporte.getTime() + TimeUnit.HOURS.toMillis(1 + azar.nextInt(72)));
+            lote.add(new Object[]{i + 1L, usuario.getIdusuario(), idsEquipos.get(equipo), reporte, reporte, resolucion,
+                    "Falla " + i, resolucion == null ? "ABIERTA" : "CERRADA", "MEDIA"});
+            if (lote.size() == 5000 || i == incidencias - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO incidencia (id_incidencia, usuario_id, id_equipo, fecha_reporte, " +
+                        "fecha_creacion, fecha_resolucion, descripcion, estado, prioridad) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", lote);
+                lote.clear();
+            }
+        }
+        fallasEquipos.reconstruir();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<FallasEquipoDTO> topEquipos() {
+        return fallasEquipos.top(10, 12);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long reconstruir() {
+        return fallasEquipos.reconstruir();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.benchmark;
+
+import com.example.DTO.ResultadoIngestaDTO;
+import com.example.IncidenciaApplication;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.UsuarioModel;
+import com.example.Service.IncidenciaService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Alta de alarmas de telemetría: una incidencia por petición (save, una transacción y un INSERT cada una)
+// frente a la ingesta NDJSON (lotes de 500 líneas por transacción e INSERT en lotes JDBC).
+// El resultado se informa en alarmas ingeridas por segundo.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IngestaBenchmark {
+
+    private static final int RAFAGA = 2000;
+
+    @Param({"200"})
+    public int equipos;
+
+    private ConfigurableApplicationContext contexto;
+    private IncidenciaService incidenciaService;
+    private UsuarioModel usuario;
+    private final List<EquipoModel> listaEquipos = new ArrayList<>();
+    private long rafaga;
+    private String cuerpo;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(IncidenciaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos());
+        incidenciaService = contexto.getBean(IncidenciaService.class);
+
+        EntityManager entityManager = contexto.getBean(EntityManager.class);
+        contexto.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            usuario = new UsuarioModel(null, "Ana", "Rojas", "ana@agrotech.cl", "benchmark", "+56900000000", 1L);
+            entityManager.persist(usuario);
+            for (int e = 0; e < equipos; e++) {
+                EquipoModel equipo = new EquipoModel(null, "Equipo " + e, "Equipo de prueba", "John Deere", "6110M",
+                        "NUEVO", 1500.0, "BM-" + e, "TRACTOR");
+                entityManager.persist(equipo);
+                listaEquipos.add(equipo);
+            }
+        });
+    }
+
+    // Fuera de la medición: códigos nuevos en cada ráfaga para que ninguna alarma se descarte como repetida
+    @Setup(Level.Invocation)
+    public void nuevaRafaga() {
+        rafaga++;
+        StringBuilder lineas = new StringBuilder(RAFAGA * 100);
+        for (int i = 0; i < RAFAGA; i++) {
+            lineas.append("{\"idEquipo\": ").append(listaEquipos.get(i % equipos).getIdEquipo())
+                    .append(", \"idUsuario\": ").append(usuario.getIdusuario())
+                    .append(", \"codigoFalla\": \"R").append(rafaga).append("-").append(i)
+                    .append("\", \"prioridad\": \"ALTA\"}\n");
+        }
+        cuerpo = lineas.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RAFAGA)
+    public long unaPorUna() {
+        long creadas = 0;
+        for (int i = 0; i < RAFAGA; i++) {
+            IncidenciaModel incidencia = new IncidenciaModel();
+            incidencia.setUsuario(usuario);
+            incidencia.setEquipo(listaEquipos.get(i % equipos));
+            incidencia.setCodigoFalla("R" + rafaga + "-" + i);
+            incidencia.setDescripcion("Alarma R" + rafaga + "-" + i);
+            incidencia.setPrioridad("ALTA");
+            incidencia.setFechaReporte(new Date());
+            incidenciaService.save(incidencia);
+            creadas++;
+        }
+        return creadas;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RAFAGA)
+    public ResultadoIngestaDTO ndjson() throws IOException {
+        return incidenciaService.ingerirAlarmas(new StringReader(cuerpo));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.benchmark;
+
+import com.example.Service.RuedaTemporizadores;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Programar y cancelar un vencimiento de SLA con la rueda ya cargada con `pendientes` temporizadores
+// repartidos en los próximos tres días, y avanzar un tick de un segundo.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VencimientosSlaBenchmark {
+
+    private static final long TRES_DIAS_MS = TimeUnit.DAYS.toMillis(3);
+
+    @Param({"100000"})
+    public int pendientes;
+
+    private RuedaTemporizadores rueda;
+    private Random random;
+    private long ahora;
+    private long siguienteId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        ahora = System.currentTimeMillis();
+        rueda = new RuedaTemporizadores(1000, 512, ahora);
+        random = new Random(42);
+        for (long id = 0; id < pendientes; id++) {
+            rueda.programar(id, ahora + 60_000 + (long) (random.nextDouble() * TRES_DIAS_MS));
+        }
+        siguienteId = pendientes;
+    }
+
+    @Benchmark
+    public boolean programarYCancelar() {
+        Long id = siguienteId++;
+        rueda.programar(id, ahora + 60_000 + (long) (random.nextDouble() * TRES_DIAS_MS));
+        return rueda.cancelar(id);
+    }
+
+    // Solo recorre la ranura del tick; los temporizadores de vueltas futuras no vencen
+    @Benchmark
+    public int avanzarUnTick() {
+        ahora += 1000;
+        return rueda.avanzar(ahora).size() + rueda.tamaño();
+    }
+}
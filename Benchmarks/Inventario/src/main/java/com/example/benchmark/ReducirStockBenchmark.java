@@ -0,0 +1,86 @@
+package com.example.benchmark;
+
+import com.example.InventarioApplication;
+import com.example.Model.EquipoModel;
+import com.example.Model.InventarioModel;
+import com.example.Repository.EquipoRepository;
+import com.example.Service.InventarioService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// InventarioService.reducirStock sobre H2: UPDATE condicional + registro de movimiento, o el camino write-behind.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReducirStockBenchmark {
+
+    // Stock suficiente para que ninguna iteración agote un inventario
+    private static final int STOCK_INICIAL = 1_000_000_000;
+
+    @Param({"false", "true"})
+    public boolean writeBehind;
+
+    @Param({"1000"})
+    public int inventarios;
+
+    private ConfigurableApplicationContext contexto;
+    private InventarioService inventarioService;
+    private Path journal;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        journal = Files.createTempDirectory("benchmark-journal");
+        contexto = new SpringApplicationBuilder(InventarioApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos(
+                        "--inventario.write-behind.enabled=" + writeBehind,
+                        "--inventario.write-behind.journal-dir=" + journal));
+        inventarioService = contexto.getBean(InventarioService.class);
+        EquipoRepository equipos = contexto.getBean(EquipoRepository.class);
+
+        ids = new long[inventarios];
+        for (int i = 0; i < inventarios; i++) {
+            EquipoModel equipo = equipos.save(new EquipoModel(null, "Tractor " + i, "Tractor de prueba", "New Holland",
+                    "T7", "NUEVO", 1200.0, "BM-" + i, "TRACTOR"));
+            InventarioModel inventario = new InventarioModel();
+            inventario.setEquipo(equipo);
+            inventario.setStockDisponible(STOCK_INICIAL);
+            inventario.setStockTotal(STOCK_INICIAL);
+            inventario.setStockArrendado(0);
+            inventario.setStockMinimo(5);
+            inventario.setUbicacion("Bodega " + (i % 10));
+            ids[i] = inventarioService.save(inventario).getIdInventario();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws IOException {
+        contexto.close();
+        FileSystemUtils.deleteRecursively(journal);
+    }
+
+    @Benchmark
+    public InventarioModel reducirStock() {
+        return inventarioService.reducirStock(ids[ThreadLocalRandom.current().nextInt(ids.length)], 1);
+    }
+
+    // Ocho clientes a la vez sobre el mismo conjunto de inventarios
+    @Benchmark
+    @Threads(8)
+    public InventarioModel reducirStockConcurrente() {
+        return inventarioService.reducirStock(ids[ThreadLocalRandom.current().nextInt(ids.length)], 1);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.benchmark;
+
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.PrioridadPedido;
+import com.example.PedidoApplication;
+import com.example.Service.PedidoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Cambiar el costo final de un pedido: PUT con el pedido completo (updatePedido), JSON Merge Patch leyendo el
+// pedido (patchPedido) y Merge Patch con versión, sin leerlo (patchPedidoSinLeer). Antes de medir se imprimen
+// las sentencias de cada camino y las columnas que escribe su UPDATE.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ActualizarPedidoBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private PedidoService pedidoService;
+    private ObjectMapper objectMapper;
+    private Long id;
+    private long version;
+    private long costo;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(PedidoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos("--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + Sentencias.class.getName()));
+        pedidoService = contexto.getBean(PedidoService.class);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+        PedidoModel pedido = pedidoService.savePedido(pedidoCompleto());
+        id = pedido.getIdPedido();
+        version = pedido.getVersion();
+
+        imprimir("put", this::put);
+        imprimir("patchLeyendo", this::patchLeyendo);
+        imprimir("patchSinLeer", this::patchSinLeer);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    // El cuerpo que enviaría un cliente con PUT: todos los campos, aunque solo cambie uno
+    @Benchmark
+    public Object put() {
+        PedidoModel pedido = pedidoCompleto();
+        pedido.setCostoFinal(BigDecimal.valueOf(++costo));
+        PedidoModel actualizado = pedidoService.updatePedido(id, pedido);
+        version = actualizado.getVersion();
+        return actualizado;
+    }
+
+    @Benchmark
+    public Object patchLeyendo() {
+        PedidoModel actualizado = pedidoService.patchPedido(id, objectMapper.createObjectNode().put("costoFinal", ++costo));
+        version = actualizado.getVersion();
+        return actualizado;
+    }
+
+    @Benchmark
+    public long patchSinLeer() {
+        ObjectNode parche = objectMapper.createObjectNode().put("version", version).put("costoFinal", ++costo);
+        version = pedidoService.patchPedidoSinLeer(id, parche);
+        return version;
+    }
+
+    private PedidoModel pedidoCompleto() {
+        PedidoModel pedido = new PedidoModel();
+        pedido.setIdCliente(1L);
+        pedido.setDescripcionServicio("Instalación de sistema de riego por goteo en el sector norte del predio");
+        pedido.setTipoServicio("INSTALACION");
+        pedido.setPrioridad(PrioridadPedido.MEDIA);
+        pedido.setDireccionServicio("Av. Los Agricultores 123, Chillán");
+        pedido.setTelefonoContacto("+56912345678");
+        pedido.setCostoEstimado(BigDecimal.valueOf(150_000));
+        pedido.setObservaciones("Requiere aprobación del supervisor antes de comenzar la instalación.");
+        pedido.setMaterialesNecesarios("Tuberías de PVC, aspersores, válvulas, programador de riego");
+        return pedido;
+    }
+
+    private void imprimir(String camino, Runnable operacion) {
+        Sentencias.capturadas.clear();
+        operacion.run();
+        System.out.println("[" + camino + "]");
+        for (String sql : Sentencias.capturadas) {
+            String update = sql.toLowerCase();
+            int columnas = update.startsWith("update") ? update.substring(0, update.indexOf(" where ")).split("=").length - 1 : 0;
+            System.out.println("  " + (columnas > 0 ? columnas + " columnas: " : "") + sql);
+        }
+    }
+
+    public static class Sentencias implements StatementInspector {
+
+        static final List<String> capturadas = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            capturadas.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.benchmark;
+
+import com.example.DTO.HorarioDTO;
+import com.example.Service.AgendaTecnicos;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// AgendaTecnicos sin base de datos: 20 técnicos con 1500 servicios ya agendados desde el lunes (cerca de la mitad
+// del horizonte de 30 días). buscarHorario consulta un técnico; reservarYLiberar elige entre los 20 y devuelve
+// el horario para que la agenda no cambie entre invocaciones.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AgendaBenchmark {
+
+    private static final LocalDateTime LUNES = LocalDateTime.of(2030, 1, 7, 8, 0);
+    private static final List<Long> TECNICOS = LongStream.rangeClosed(1, 20).boxed().toList();
+    private static final String[] TIPOS = {"Instalación", "Mantención", "Reparación"};
+
+    private AgendaTecnicos agenda;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        agenda = new AgendaTecnicos(null, 30, "08:00", "18:00", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                30, 120, "INSTALACION:240,MANTENCION:120,REPARACION:180");
+        for (long id = 1; id <= 1500; id++) {
+            agenda.reservar(id, TECNICOS, TIPOS[(int) (id % TIPOS.length)], LUNES);
+        }
+    }
+
+    @Benchmark
+    public Optional<HorarioDTO> buscarHorario() {
+        return agenda.buscarHorario(7L, "INSTALACION", LUNES);
+    }
+
+    @Benchmark
+    public Optional<HorarioDTO> reservarYLiberar() {
+        Optional<HorarioDTO> horario = agenda.reservar(0L, TECNICOS, "REPARACION", LUNES);
+        agenda.liberar(0L);
+        return horario;
+    }
+}
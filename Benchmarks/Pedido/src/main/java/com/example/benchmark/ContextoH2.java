@@ -0,0 +1,30 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Argumentos de línea de comandos para levantar el servicio contra una base H2 en memoria propia de cada fork.
+// Como argumentos tienen prioridad sobre el application.properties del servicio, que apunta a MySQL.
+final class ContextoH2 {
+
+    private ContextoH2() {
+    }
+
+    static String[] argumentos(String... adicionales) {
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        argumentos.addAll(Arrays.asList(adicionales));
+        return argumentos.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.benchmark;
+
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.EstadoPedido;
+import com.example.Model.PedidoModel.PrioridadPedido;
+import com.example.PedidoApplication;
+import com.example.Repository.PedidoRepository;
+import com.example.Service.ColaUrgentes;
+import com.example.Service.PedidoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// PedidoService.findPedidosUrgentes (lee ColaUrgentes) frente a la consulta indexada que la carga, sobre H2,
+// con pedidos repartidos entre todas las prioridades y estados.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PedidosUrgentesBenchmark {
+
+    @Param({"1000", "10000"})
+    public int pedidos;
+
+    private ConfigurableApplicationContext contexto;
+    private PedidoService pedidoService;
+    private PedidoRepository pedidoRepository;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(PedidoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos());
+        pedidoService = contexto.getBean(PedidoService.class);
+
+        EstadoPedido[] estados = EstadoPedido.values();
+        PrioridadPedido[] prioridades = PrioridadPedido.values();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(30);
+        List<PedidoModel> lote = new ArrayList<>(pedidos);
+        for (int i = 0; i < pedidos; i++) {
+            PedidoModel pedido = new PedidoModel();
+            pedido.setDescripcionServicio("Mantención de sistema de riego " + i);
+            pedido.setTipoServicio("MANTENIMIENTO");
+            pedido.setEstado(estados[i % estados.length]);
+            pedido.setPrioridad(prioridades[(i / estados.length) % prioridades.length]);
+            pedido.setFechaCreacion(inicio.plusMinutes(i));
+            pedido.setDireccionServicio("Camino Rural " + i);
+            pedido.setTelefonoContacto("+569" + (10_000_000 + i));
+            pedido.setCostoEstimado(BigDecimal.valueOf(150_000));
+            lote.add(pedido);
+        }
+        pedidoRepository = contexto.getBean(PedidoRepository.class);
+        pedidoRepository.saveAll(lote);
+        // Los pedidos se insertaron sin pasar por el servicio
+        contexto.getBean(ColaUrgentes.class).cargar();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<PedidoModel> findPedidosUrgentes() {
+        return pedidoService.findPedidosUrgentes();
+    }
+
+    @Benchmark
+    public List<PedidoModel> consultaIndexada() {
+        return pedidoRepository.findPedidosUrgentes(List.of(PrioridadPedido.URGENTE, PrioridadPedido.ALTA),
+                List.of(EstadoPedido.PENDIENTE, EstadoPedido.ASIGNADO));
+    }
+}
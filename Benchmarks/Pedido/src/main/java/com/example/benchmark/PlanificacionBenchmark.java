@@ -0,0 +1,89 @@
+package com.example.benchmark;
+
+import com.example.DTO.ResultadoPlanificacionDTO;
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.PrioridadPedido;
+import com.example.PedidoApplication;
+import com.example.Repository.PedidoRepository;
+import com.example.Service.AgendaTecnicos;
+import com.example.Service.ColaUrgentes;
+import com.example.Service.PedidoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// PedidoService.planificar sobre H2: 5000 pedidos PENDIENTE de tres tipos de servicio (120, 180 y 240 minutos) y
+// 300 técnicos, en una semana de lunes a viernes. Cada invocación parte con todos los pedidos PENDIENTE y la
+// agenda vacía, y mide la búsqueda de horarios, el lote JDBC y la actualización de la cola y la agenda.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+public class PlanificacionBenchmark {
+
+    private static final int PEDIDOS = 5000;
+    private static final LocalDateTime LUNES = LocalDateTime.of(2030, 1, 7, 8, 0);
+    private static final List<Long> TECNICOS = LongStream.rangeClosed(1, 300).boxed().toList();
+
+    private ConfigurableApplicationContext contexto;
+    private PedidoService pedidoService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(PedidoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos("--pedido.agenda.horizonte-dias=7",
+                        "--pedido.agenda.duraciones=INSTALACION:240,MANTENCION:120,REPARACION:180"));
+        pedidoService = contexto.getBean(PedidoService.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+
+        String[] tipos = {"Instalación", "Mantención", "Reparación"};
+        PrioridadPedido[] prioridades = PrioridadPedido.values();
+        List<PedidoModel> lote = new ArrayList<>(PEDIDOS);
+        for (int i = 0; i < PEDIDOS; i++) {
+            PedidoModel pedido = new PedidoModel();
+            pedido.setDescripcionServicio("Servicio de riego " + i);
+            pedido.setTipoServicio(tipos[i % tipos.length]);
+            pedido.setPrioridad(prioridades[(i / tipos.length) % prioridades.length]);
+            pedido.setDireccionServicio("Camino Rural " + i);
+            pedido.setTelefonoContacto("+569" + (10_000_000 + i));
+            pedido.setCostoEstimado(BigDecimal.valueOf(150_000));
+            lote.add(pedido);
+        }
+        contexto.getBean(PedidoRepository.class).saveAll(lote);
+
+        reiniciar();
+        ResultadoPlanificacionDTO resultado = planificar();
+        System.out.println("agendados: " + resultado.getAgendados() + ", sin horario: " + resultado.getSinHorario().size());
+    }
+
+    // Deshace la planificación anterior por fuera del servicio y recarga la cola y la agenda
+    @Setup(Level.Invocation)
+    public void reiniciar() {
+        jdbcTemplate.update("UPDATE pedido SET estado = 'PENDIENTE', id_tecnico = NULL, fecha_programada = NULL");
+        contexto.getBean(ColaUrgentes.class).cargar();
+        contexto.getBean(AgendaTecnicos.class).cargar();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ResultadoPlanificacionDTO planificar() {
+        return pedidoService.planificar(TECNICOS, LUNES);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.Usuario.benchmark;
+
+import com.example.Usuario.Model.Usuario;
+import com.example.Usuario.Repository.UsuarioRepository;
+import com.example.Usuario.Service.UsuarioService;
+import com.example.Usuario.UsuarioApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// UsuarioService.login sobre H2: búsqueda por correo y verificación BCrypt, con contraseña correcta e incorrecta.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoginBenchmark {
+
+    private static final String CONTRASENA = "agrotech-2025";
+
+    @Param({"1000"})
+    public int usuarios;
+
+    private ConfigurableApplicationContext contexto;
+    private UsuarioService usuarioService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(UsuarioApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(ContextoH2.argumentos());
+        usuarioService = contexto.getBean(UsuarioService.class);
+
+        // Un solo hash para todos: codificar mil contraseñas con BCrypt tomaría más que el benchmark
+        String hash = contexto.getBean(PasswordEncoder.class).encode(CONTRASENA);
+        List<Usuario> lote = new ArrayList<>(usuarios);
+        for (int i = 0; i < usuarios; i++) {
+            lote.add(new Usuario(null, "Usuario" + i, "Prueba", correo(i), hash, "+569" + (10_000_000 + i), 1L));
+        }
+        contexto.getBean(UsuarioRepository.class).saveAll(lote);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Usuario login() {
+        return usuarioService.login(correo(ThreadLocalRandom.current().nextInt(usuarios)), CONTRASENA);
+    }
+
+    @Benchmark
+    public RuntimeException loginContrasenaIncorrecta() {
+        try {
+            usuarioService.login(correo(ThreadLocalRandom.current().nextInt(usuarios)), "incorrecta");
+            throw new IllegalStateException("El login debía fallar");
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static String correo(int indice) {
+        return "usuario" + indice + "@agrotech.cl";
+    }
+}
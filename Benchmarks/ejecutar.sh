@@ -0,0 +1,19 @@
+#!/usr/bin/env bash
+# Ejecuta los benchmarks JMH de todos los servicios y guarda un JSON por servicio en resultados/<commit>/.
+# Los argumentos se pasan a JMH, por ejemplo: ./ejecutar.sh -f 1 -wi 1 -i 3 ReducirStock
+# Para comparar dos commits: java CompararResultados.java resultados/<antes> resultados/<despues>
+set -euo pipefail
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+COMMIT="$(git -C "$DIR" rev-parse --short HEAD)"
+if [ -n "$(git -C "$DIR/.." status --porcelain -- . ':!Benchmarks/resultados' 2>/dev/null)" ]; then
+  COMMIT="$COMMIT-modificado"
+fi
+RESULTADOS="$DIR/resultados/$COMMIT"
+mkdir -p "$RESULTADOS"
+
+mvn -B -q -f "$DIR/pom.xml" package exec:exec \
+  -Dbenchmarks.resultados="$RESULTADOS" \
+  -Djmh.args="$*"
+
+echo "Resultados en $RESULTADOS"
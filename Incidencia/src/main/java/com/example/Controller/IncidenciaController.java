@@ -1,5 +1,14 @@
 package com.example.Controller;
 
+import com.example.DTO.AlarmaTelemetriaDTO;
+import com.example.DTO.AsignacionDTO;
+import com.example.DTO.CacheEquiposDTO;
+import com.example.DTO.EstadisticasIncidenciasDTO;
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.DTO.FallasEquipoDTO;
+import com.example.DTO.IncidenciaHistorialDTO;
+import com.example.DTO.ResultadoBusquedaDTO;
+import com.example.DTO.ResultadoIngestaDTO;
 import com.example.Model.IncidenciaModel;
 import com.example.Model.TecnicoModel;
 import com.example.Service.IncidenciaService;
@@ -18,14 +27,21 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
 
 @RestController
 @RequestMapping("/api/v1/incidencias")
@@ -178,6 +194,79 @@ public class IncidenciaController {
         return ResponseEntity.ok(incidencias);
     }
 
+    @GetMapping("/equipo/{idEquipo}/fallas")
+    @Operation(
+        summary = "Obtener el historial de fallas de un equipo", 
+        description = "Retorna las fallas por semana, el tiempo medio entre fallas y el tiempo medio de reparación del equipo, sin recorrer sus incidencias"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Historial de fallas obtenido exitosamente",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = FallasEquipoDTO.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404", 
+            description = "El equipo no tiene incidencias registradas"
+        )
+    })
+    public ResponseEntity<FallasEquipoDTO> getFallasEquipo(
+            @Parameter(description = "Identificador único del equipo", required = true, example = "1")
+            @PathVariable Long idEquipo,
+            @Parameter(description = "Semanas a detallar, incluida la actual", example = "12")
+            @RequestParam(defaultValue = "12") int semanas) {
+        if (semanas <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return incidenciaService.findFallasEquipo(idEquipo, semanas)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/equipos/fallas")
+    @Operation(
+        summary = "Equipos con más fallas", 
+        description = "Retorna los equipos con más incidencias reportadas en las últimas semanas; a igual cantidad, primero el de menor tiempo entre fallas"
+    )
+    @ApiResponse(
+        responseCode = "200", 
+        description = "Ranking obtenido exitosamente",
+        content = @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = FallasEquipoDTO.class))
+        )
+    )
+    public ResponseEntity<List<FallasEquipoDTO>> getEquiposConMasFallas(
+            @Parameter(description = "Cantidad de equipos a retornar", example = "10")
+            @RequestParam(defaultValue = "10") int top,
+            @Parameter(description = "Semanas a considerar, incluida la actual", example = "12")
+            @RequestParam(defaultValue = "12") int semanas) {
+        if (top <= 0 || semanas <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(incidenciaService.findEquiposConMasFallas(top, semanas));
+    }
+
+    @PostMapping("/equipos/fallas/reconstruir")
+    @Operation(
+        summary = "Reconstruir las fallas por equipo", 
+        description = "Vuelve a calcular las fallas por equipo desde el historial de incidencias, leyendo la tabla por tramos en paralelo. Retorna la cantidad de incidencias leídas"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Fallas por equipo reconstruidas"),
+        @ApiResponse(responseCode = "409", description = "Ya hay una reconstrucción en curso")
+    })
+    public ResponseEntity<Long> reconstruirFallasEquipos() {
+        try {
+            return ResponseEntity.ok(incidenciaService.reconstruirFallasEquipos());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     @GetMapping("/tecnico/{idTecnico}")
     @Operation(
         summary = "Obtener incidencias por técnico", 
@@ -261,6 +350,60 @@ public class IncidenciaController {
         return ResponseEntity.ok(incidencias);
     }
 
+    @GetMapping("/historial")
+    @Operation(
+        summary = "Obtener el historial completo por rango de fechas", 
+        description = "Retorna las incidencias reportadas entre ambas fechas (incluidas), tanto las vigentes como las cerradas que ya se trasladaron al archivo, ordenadas por fecha de reporte. " +
+                      "Los demás listados solo incluyen las incidencias vigentes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Historial obtenido exitosamente",
+            content = @Content(
+                mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = IncidenciaHistorialDTO.class))
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Rango de fechas incorrecto o límite fuera de rango"
+        )
+    })
+    public ResponseEntity<List<IncidenciaHistorialDTO>> getHistorial(
+            @Parameter(description = "Fecha de inicio del rango", required = true, example = "2023-01-01",
+                       schema = @Schema(type = "string", format = "date"))
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date inicio,
+            @Parameter(description = "Fecha de fin del rango, incluida", required = true, example = "2024-12-31",
+                       schema = @Schema(type = "string", format = "date"))
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date fin,
+            @Parameter(description = "Equipo por el que filtrar", example = "1")
+            @RequestParam(required = false) Long idEquipo,
+            @Parameter(description = "Cantidad máxima de incidencias, entre 1 y 5000", example = "1000")
+            @RequestParam(defaultValue = "1000") int limite) {
+        if (inicio.after(fin) || limite <= 0 || limite > 5000) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(incidenciaService.findHistorial(inicio, fin, idEquipo, limite));
+    }
+
+    @PostMapping("/archivo")
+    @Operation(
+        summary = "Archivar incidencias cerradas", 
+        description = "Traslada al archivo, por lotes, las incidencias cerradas hace más de incidencia.archivo.edad-dias. Se ejecuta también cada noche; retorna la cantidad trasladada"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Incidencias archivadas"),
+        @ApiResponse(responseCode = "409", description = "Ya hay un archivo en curso")
+    })
+    public ResponseEntity<Long> archivarCerradas() {
+        try {
+            return ResponseEntity.ok(incidenciaService.archivarCerradas());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     @GetMapping("/estado/{estado}")
     @Operation(
         summary = "Obtener incidencias por estado", 
@@ -352,6 +495,39 @@ public class IncidenciaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevaIncidencia);
     }
 
+    @PostMapping(value = "/alarmas", consumes = "application/x-ndjson")
+    @Operation(
+        summary = "Ingerir alarmas de telemetría", 
+        description = "Crea una incidencia por cada alarma del cuerpo NDJSON (una alarma JSON por línea, UTF-8), en lotes con inserciones agrupadas. " +
+                      "Se descartan las alarmas del mismo equipo y código a menos de incidencia.ingesta.ventana-min de otra ya registrada o del mismo cuerpo, " +
+                      "y se rechazan las líneas inválidas sin detener la ingesta. Reenviar el cuerpo tras un error no duplica lo ya ingerido"
+    )
+    @ApiResponse(
+        responseCode = "200", 
+        description = "Alarmas procesadas; el resultado indica cuántas se crearon, descartaron o rechazaron",
+        content = @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = ResultadoIngestaDTO.class)
+        )
+    )
+    public ResponseEntity<ResultadoIngestaDTO> ingerirAlarmas(
+            @Parameter(
+                description = "Alarmas en NDJSON", 
+                required = true,
+                content = @Content(
+                    mediaType = "application/x-ndjson",
+                    schema = @Schema(implementation = AlarmaTelemetriaDTO.class),
+                    examples = @ExampleObject(
+                        value = "{\"idEquipo\": 7, \"idUsuario\": 1, \"codigoFalla\": \"E-1042\", \"prioridad\": \"ALTA\", \"fecha\": \"2024-01-15T10:30:00.000Z\"}\n" +
+                                "{\"idEquipo\": 8, \"idUsuario\": 1, \"codigoFalla\": \"E-2001\", \"descripcion\": \"Temperatura de motor alta\"}"
+                    )
+                )
+            )
+            InputStream cuerpo) throws IOException {
+        Reader lector = new InputStreamReader(cuerpo, StandardCharsets.UTF_8);
+        return ResponseEntity.ok(incidenciaService.ingerirAlarmas(lector));
+    }
+
     @PutMapping("/{id}")
     @Operation(
         summary = "Actualizar incidencia completa", 
@@ -507,6 +683,81 @@ public class IncidenciaController {
         }
     }
 
+    @PutMapping("/{id}/asignar-automatico")
+    @Operation(
+        summary = "Asignar técnico automáticamente", 
+        description = "Elige entre los técnicos disponibles según especialidad, zona de cobertura y carga de incidencias abiertas, y lo asigna como asignar-tecnico"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Técnico asignado exitosamente",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = IncidenciaModel.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404", 
+            description = "Incidencia no encontrada",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "409", 
+            description = "No hay técnicos disponibles"
+        )
+    })
+    public ResponseEntity<IncidenciaModel> asignarAutomaticamente(
+            @Parameter(description = "Identificador único de la incidencia", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Zona donde se atiende la incidencia, para preferir técnicos que la cubren", example = "Región Metropolitana")
+            @RequestParam(required = false) String zona) {
+        try {
+            return ResponseEntity.ok(incidenciaService.asignarAutomaticamente(id, zona));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/asignacion-automatica")
+    @Operation(
+        summary = "Asignar técnicos a las incidencias pendientes", 
+        description = "Toma hasta 'limite' incidencias de la cola de despacho y asigna a cada una el técnico de mayor puntaje, en una sola transacción"
+    )
+    @ApiResponse(
+        responseCode = "200", 
+        description = "Asignaciones realizadas; vacío si no hay incidencias pendientes o técnicos disponibles",
+        content = @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = AsignacionDTO.class))
+        )
+    )
+    public ResponseEntity<List<AsignacionDTO>> asignarPendientes(
+            @Parameter(description = "Cantidad máxima de incidencias a asignar", example = "500")
+            @RequestParam(defaultValue = "500") int limite,
+            @Parameter(description = "Zona donde se atienden las incidencias", example = "Región Metropolitana")
+            @RequestParam(required = false) String zona) {
+        if (limite <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(incidenciaService.asignarPendientes(limite, zona));
+    }
+
+    @GetMapping("/asignacion-automatica/cargas")
+    @Operation(
+        summary = "Carga de los técnicos", 
+        description = "Incidencias abiertas o en proceso de cada técnico, por ID de técnico, según el motor de asignación"
+    )
+    @ApiResponse(responseCode = "200", description = "Cargas obtenidas exitosamente")
+    public ResponseEntity<Map<Long, Integer>> getCargasTecnicos() {
+        return ResponseEntity.ok(incidenciaService.getCargasTecnicos());
+    }
+
     @PutMapping("/{id}/cerrar")
     @Operation(
         summary = "Cerrar incidencia", 
@@ -577,6 +828,95 @@ public class IncidenciaController {
         return ResponseEntity.ok(incidencias);
     }
 
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Suscribirse a los cambios de incidencias", 
+        description = "Flujo Server-Sent Events con las incidencias creadas, asignadas, cerradas, actualizadas y eliminadas, para los tableros de despacho en lugar de consultar /pendientes. " +
+                      "Con estado o idTecnico solo llegan los cambios que entran o salen de ese filtro. " +
+                      "Al reconectarse, el cliente envía Last-Event-ID (o desde) y recibe los eventos que se perdió; si ya no están disponibles, " +
+                      "recibe primero un evento RESINCRONIZAR y debe recargar su lista. A un cliente que no alcanza a leer los eventos se le cierra el flujo para que se reconecte"
+    )
+    @ApiResponse(
+        responseCode = "200", 
+        description = "Flujo de eventos abierto",
+        content = @Content(
+            mediaType = "text/event-stream",
+            schema = @Schema(implementation = EventoIncidenciaDTO.class)
+        )
+    )
+    public Flux<ServerSentEvent<EventoIncidenciaDTO>> getEventos(
+            @Parameter(description = "Estado por el que filtrar", example = "ABIERTA")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Técnico por el que filtrar", example = "1")
+            @RequestParam(required = false) Long idTecnico,
+            @Parameter(description = "ID del último evento recibido, para clientes que no envían Last-Event-ID", example = "1760789000000042")
+            @RequestParam(required = false) Long desde,
+            @Parameter(hidden = true)
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+        return incidenciaService.suscribirEventos(estado, idTecnico, ultimoEvento != null ? ultimoEvento : desde);
+    }
+
+    @GetMapping("/despacho")
+    @Operation(
+        summary = "Ver la cola de despacho", 
+        description = "Retorna las incidencias abiertas sin técnico en el orden en que se despacharán: por prioridad (CRITICA, ALTA, MEDIA, BAJA) y luego por fecha de reporte"
+    )
+    @ApiResponse(
+        responseCode = "200", 
+        description = "Cola de despacho obtenida exitosamente",
+        content = @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = IncidenciaModel.class))
+        )
+    )
+    public ResponseEntity<List<IncidenciaModel>> getColaDespacho(
+            @Parameter(description = "Cantidad máxima de incidencias a retornar", example = "20")
+            @RequestParam(defaultValue = "20") int limite) {
+        if (limite <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(incidenciaService.findColaDespacho(limite));
+    }
+
+    @PostMapping("/despacho/siguiente")
+    @Operation(
+        summary = "Reclamar la siguiente incidencia", 
+        description = "Toma la primera incidencia de la cola de despacho y la asigna al técnico indicado, cambiando su estado a EN_PROCESO. Dos despachadores nunca reciben la misma incidencia"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Incidencia asignada al técnico",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = IncidenciaModel.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "204", 
+            description = "No hay incidencias pendientes de despacho"
+        ),
+        @ApiResponse(
+            responseCode = "404", 
+            description = "Técnico no encontrado",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public ResponseEntity<IncidenciaModel> reclamarSiguiente(
+            @Parameter(description = "Identificador del técnico que recibe la incidencia", required = true, example = "1")
+            @RequestParam Long idTecnico) {
+        try {
+            return incidenciaService.reclamarSiguiente(idTecnico)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.noContent().build());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/cliente/{idCliente}/count")
     @Operation(
         summary = "Contar incidencias por cliente", 
@@ -601,34 +941,113 @@ public class IncidenciaController {
         return ResponseEntity.ok(count);
     }
 
+    @GetMapping("/catalogo-equipos/cache")
+    @Operation(
+        summary = "Obtener métricas de la caché de equipos", 
+        description = "Retorna aciertos, fallos, inserciones, desalojos y expiraciones de la caché del catálogo de equipos"
+    )
+    @ApiResponse(
+        responseCode = "200", 
+        description = "Métricas obtenidas exitosamente",
+        content = @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = CacheEquiposDTO.class)
+        )
+    )
+    public ResponseEntity<CacheEquiposDTO> getEstadisticasCacheEquipos() {
+        return ResponseEntity.ok(incidenciaService.getEstadisticasCacheEquipos());
+    }
+
+    @DeleteMapping("/catalogo-equipos/cache")
+    @Operation(
+        summary = "Invalidar la caché de equipos", 
+        description = "Descarta de la caché un equipo modificado en otro servicio, o todo el catálogo si no se indica el equipo"
+    )
+    @ApiResponse(
+        responseCode = "204", 
+        description = "Caché invalidada exitosamente"
+    )
+    public ResponseEntity<Void> invalidarCacheEquipos(
+            @Parameter(
+                description = "Identificador del equipo a invalidar", 
+                example = "1"
+            )
+            @RequestParam(required = false) Long idEquipo) {
+        incidenciaService.invalidarCacheEquipos(idEquipo);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/estadisticas")
     @Operation(
         summary = "Obtener estadísticas de incidencias", 
-        description = "Retorna estadísticas generales sobre el estado de las incidencias"
+        description = "Retorna conteos por estado, prioridad, técnico y equipo, y el tiempo medio de resolución. Se calcula en la base de datos y se reutiliza por unos segundos"
     )
     @ApiResponse(
         responseCode = "200", 
         description = "Estadísticas obtenidas exitosamente",
         content = @Content(
             mediaType = "application/json",
-            schema = @Schema(implementation = EstadisticasResponse.class)
+            schema = @Schema(implementation = EstadisticasIncidenciasDTO.class)
         )
     )
-    public ResponseEntity<Map<String, Object>> getEstadisticas() {
-        Map<String, Object> estadisticas = new HashMap<>();
-        
-        List<IncidenciaModel> todas = incidenciaService.findAll();
-        estadisticas.put("total", todas.size());
-        
-        long abiertas = todas.stream().filter(i -> "ABIERTA".equals(i.getEstado())).count();
-        long enProceso = todas.stream().filter(i -> "EN_PROCESO".equals(i.getEstado())).count();
-        long cerradas = todas.stream().filter(i -> "CERRADA".equals(i.getEstado())).count();
-        
-        estadisticas.put("abiertas", abiertas);
-        estadisticas.put("en_proceso", enProceso);
-        estadisticas.put("cerradas", cerradas);
-        
-        return ResponseEntity.ok(estadisticas);
+    public ResponseEntity<EstadisticasIncidenciasDTO> getEstadisticas() {
+        return ResponseEntity.ok(incidenciaService.getEstadisticas());
+    }
+
+    @GetMapping("/busqueda")
+    @Operation(
+        summary = "Buscar incidencias por texto", 
+        description = "Busca en la descripción y la solución de las incidencias y retorna una página ordenada por relevancia. " +
+                      "Las palabras se buscan todas a la vez; admite \"frases\", prefijos* y | para alternativas"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Página de resultados obtenida exitosamente",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ResultadoBusquedaDTO.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Texto vacío, tamaño fuera de rango o página más allá de los primeros 10000 resultados"
+        )
+    })
+    public ResponseEntity<ResultadoBusquedaDTO> buscarIncidencias(
+            @Parameter(description = "Texto a buscar", required = true, example = "compresor presión")
+            @RequestParam String q,
+            @Parameter(description = "Estado por el que filtrar", example = "ABIERTA")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Número de página, desde 0", example = "0")
+            @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Resultados por página, entre 1 y 100", example = "20")
+            @RequestParam(defaultValue = "20") int tamano) {
+        if (tamano > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(incidenciaService.buscar(q, estado, pagina, tamano));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/busqueda/reconstruir")
+    @Operation(
+        summary = "Reconstruir el índice de búsqueda", 
+        description = "Vacía el índice de texto de incidencias y lo vuelve a llenar desde la tabla. Retorna la cantidad de incidencias indexadas"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Índice reconstruido"),
+        @ApiResponse(responseCode = "409", description = "Ya hay una reconstrucción en curso")
+    })
+    public ResponseEntity<Long> reconstruirIndiceBusqueda() {
+        try {
+            return ResponseEntity.ok(incidenciaService.reconstruirIndiceBusqueda());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     // Clases auxiliares para la documentación
@@ -659,31 +1078,4 @@ public class IncidenciaController {
         public String getTimestamp() { return timestamp; }
         public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
     }
-
-    @Schema(description = "Estadísticas de incidencias")
-    public static class EstadisticasResponse {
-        @Schema(description = "Total de incidencias", example = "150")
-        private Long total;
-        
-        @Schema(description = "Incidencias abiertas", example = "25")
-        private Long abiertas;
-        
-        @Schema(description = "Incidencias en proceso", example = "50")
-        private Long enProceso;
-        
-        @Schema(description = "Incidencias cerradas", example = "75")
-        private Long cerradas;
-
-        // Constructores, getters y setters
-        public EstadisticasResponse() {}
-
-        public Long getTotal() { return total; }
-        public void setTotal(Long total) { this.total = total; }
-        public Long getAbiertas() { return abiertas; }
-        public void setAbiertas(Long abiertas) { this.abiertas = abiertas; }
-        public Long getEnProceso() { return enProceso; }
-        public void setEnProceso(Long enProceso) { this.enProceso = enProceso; }
-        public Long getCerradas() { return cerradas; }
-        public void setCerradas(Long cerradas) { this.cerradas = cerradas; }
-    }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Alarma de falla enviada por un gateway de telemetría; una por línea en la ingesta NDJSON")
+public class AlarmaTelemetriaDTO {
+
+    @Schema(description = "ID del equipo que reporta la falla", example = "7", required = true)
+    private Long idEquipo;
+
+    @Schema(description = "ID del usuario (cliente) dueño del equipo", example = "1", required = true)
+    private Long idUsuario;
+
+    @Schema(description = "Código de la falla según el equipo", example = "E-1042", required = true, maxLength = 50)
+    private String codigoFalla;
+
+    @Schema(description = "Descripción de la falla; si falta se usa el código", example = "Presión de aceite baja", maxLength = 1000)
+    private String descripcion;
+
+    @Schema(description = "Prioridad de la incidencia", example = "ALTA",
+            allowableValues = {"BAJA", "MEDIA", "ALTA", "CRITICA"}, defaultValue = "MEDIA")
+    private String prioridad;
+
+    @Schema(description = "Momento de la alarma en el equipo; si falta se usa la hora de recepción",
+            example = "2024-01-15T10:30:00.000Z")
+    private Date fecha;
+}
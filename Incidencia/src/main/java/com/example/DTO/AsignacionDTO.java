@@ -0,0 +1,25 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Técnico elegido para una incidencia por la asignación automática")
+public class AsignacionDTO {
+
+    @Schema(description = "ID de la incidencia asignada", example = "42")
+    private Long idIncidencia;
+
+    @Schema(description = "ID del técnico elegido", example = "3")
+    private Long idTecnico;
+
+    @Schema(description = "Puntaje con que se eligió al técnico", example = "13")
+    private Integer puntaje;
+
+    @Schema(description = "Incidencias abiertas del técnico antes de esta asignación", example = "2")
+    private Integer cargaAnterior;
+}
@@ -0,0 +1,68 @@
+package com.example.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Estadísticas de incidencias")
+public class EstadisticasIncidenciasDTO {
+
+    @Schema(description = "Total de incidencias", example = "150")
+    private Long total;
+
+    @Schema(description = "Incidencias abiertas", example = "25")
+    private Long abiertas;
+
+    @JsonProperty("en_proceso")
+    @Schema(description = "Incidencias en proceso", example = "50")
+    private Long enProceso;
+
+    @Schema(description = "Incidencias resueltas", example = "20")
+    private Long resueltas;
+
+    @Schema(description = "Incidencias cerradas", example = "55")
+    private Long cerradas;
+
+    @Schema(description = "Tiempo medio entre el reporte y la resolución, en horas; nulo si no hay incidencias resueltas",
+            example = "26.5")
+    private Double tiempoMedioResolucionHoras;
+
+    @Schema(description = "Desglose por estado")
+    private Map<String, Desglose> porEstado;
+
+    @Schema(description = "Desglose por prioridad")
+    private Map<String, Desglose> porPrioridad;
+
+    @Schema(description = "Desglose por ID de técnico; SIN_ASIGNAR agrupa las incidencias sin técnico")
+    private Map<String, Desglose> porTecnico;
+
+    @Schema(description = "Desglose por ID de equipo")
+    private Map<String, Desglose> porEquipo;
+
+    @Schema(description = "Momento en que se calcularon las estadísticas", example = "2024-01-15T10:30:00.000Z")
+    private Date generadoEn;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Conteo y tiempo medio de resolución de un grupo de incidencias")
+    public static class Desglose {
+
+        @Schema(description = "Incidencias del grupo", example = "40")
+        private Long total;
+
+        @Schema(description = "Incidencias del grupo con fecha de resolución", example = "12")
+        private Long resueltas;
+
+        @Schema(description = "Tiempo medio de resolución del grupo, en horas", example = "18.25")
+        private Double tiempoMedioResolucionHoras;
+    }
+}
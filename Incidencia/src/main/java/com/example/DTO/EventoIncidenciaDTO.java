@@ -0,0 +1,46 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cambio confirmado de una incidencia, tal como se envía a los tableros de despacho")
+public class EventoIncidenciaDTO {
+
+    @Schema(description = "ID del evento, creciente; se usa como Last-Event-ID para reanudar el flujo", example = "1760789000000042")
+    private Long id;
+
+    @Schema(description = "Tipo de evento", example = "ASIGNADA",
+            allowableValues = {"CREADA", "ASIGNADA", "CERRADA", "ACTUALIZADA", "ELIMINADA", "SLA_VENCIDA", "RESINCRONIZAR"})
+    private String tipo;
+
+    @Schema(description = "ID de la incidencia", example = "15")
+    private Long idIncidencia;
+
+    @Schema(description = "Estado después del cambio; nulo si se eliminó", example = "EN_PROCESO")
+    private String estado;
+
+    @Schema(description = "Estado antes del cambio; nulo si se acaba de crear", example = "ABIERTA")
+    private String estadoAnterior;
+
+    @Schema(description = "Prioridad de la incidencia", example = "ALTA")
+    private String prioridad;
+
+    @Schema(description = "ID del técnico después del cambio", example = "3")
+    private Long idTecnico;
+
+    @Schema(description = "ID del técnico antes del cambio", example = "1")
+    private Long idTecnicoAnterior;
+
+    @Schema(description = "ID del equipo afectado", example = "7")
+    private Long idEquipo;
+
+    @Schema(description = "Momento en que se publicó el evento")
+    private Date fecha;
+}
@@ -0,0 +1,36 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Historial de fallas de un equipo: frecuencia, tiempo medio entre fallas y tiempo medio de reparación")
+public class FallasEquipoDTO {
+
+    @Schema(description = "ID del equipo", example = "7")
+    private Long idEquipo;
+
+    @Schema(description = "Incidencias reportadas para el equipo desde el inicio", example = "23")
+    private Long fallas;
+
+    @Schema(description = "Incidencias reportadas en las semanas consultadas", example = "5")
+    private Long fallasPeriodo;
+
+    @Schema(description = "Incidencias del equipo con fecha de resolución", example = "20")
+    private Long reparaciones;
+
+    @Schema(description = "Tiempo medio entre fallas (MTBF), en horas; nulo con menos de dos fallas", example = "312.4")
+    private Double tiempoMedioEntreFallasHoras;
+
+    @Schema(description = "Tiempo medio de reparación (MTTR), en horas; nulo si no hay reparaciones", example = "18.5")
+    private Double tiempoMedioReparacionHoras;
+
+    @Schema(description = "Fallas por semana de las semanas consultadas, por lunes de cada semana (yyyy-MM-dd)")
+    private Map<String, Long> porSemana;
+}
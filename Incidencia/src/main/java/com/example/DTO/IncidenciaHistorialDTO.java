@@ -0,0 +1,48 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Incidencia del historial completo, vigente o archivada, con sus asociaciones como IDs")
+public class IncidenciaHistorialDTO {
+
+    @Schema(description = "ID de la incidencia", example = "1")
+    private Long idIncidencia;
+
+    @Schema(description = "ID del usuario que reportó la incidencia", example = "1")
+    private Long idUsuario;
+
+    @Schema(description = "ID del equipo afectado", example = "1")
+    private Long idEquipo;
+
+    @Schema(description = "ID del técnico asignado", example = "1")
+    private Long idTecnico;
+
+    @Schema(description = "Fecha en que se reportó la incidencia", example = "2024-01-15T10:30:00.000Z")
+    private Date fechaReporte;
+
+    @Schema(description = "Fecha en que se resolvió la incidencia", example = "2024-01-16T14:30:00.000Z")
+    private Date fechaResolucion;
+
+    @Schema(description = "Descripción de la incidencia", example = "El compresor hace ruidos extraños y pierde presión")
+    private String descripcion;
+
+    @Schema(description = "Estado de la incidencia", example = "CERRADA")
+    private String estado;
+
+    @Schema(description = "Prioridad de la incidencia", example = "MEDIA")
+    private String prioridad;
+
+    @Schema(description = "Descripción de la solución aplicada", example = "Se reemplazó el filtro de aire")
+    private String solucion;
+
+    @Schema(description = "true si la incidencia ya se trasladó al archivo", example = "true")
+    private Boolean archivada;
+}
@@ -0,0 +1,45 @@
+package com.example.DTO;
+
+import com.example.Model.IncidenciaModel;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Página de incidencias que coinciden con una búsqueda de texto, de la más a la menos relevante")
+public class ResultadoBusquedaDTO {
+
+    @Schema(description = "Incidencias que coinciden con la búsqueda", example = "134")
+    private Long total;
+
+    @Schema(description = "Falso si el total es una cota inferior (sobre 1000 coincidencias no se cuentan todas)",
+            example = "true")
+    private Boolean totalExacto;
+
+    @Schema(description = "Número de página, desde 0", example = "0")
+    private Integer pagina;
+
+    @Schema(description = "Tamaño de página pedido", example = "20")
+    private Integer tamano;
+
+    @Schema(description = "Incidencias de la página con su puntaje de relevancia")
+    private List<Coincidencia> resultados;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Incidencia encontrada y su puntaje de relevancia")
+    public static class Coincidencia {
+
+        @Schema(description = "Incidencia encontrada")
+        private IncidenciaModel incidencia;
+
+        @Schema(description = "Puntaje de relevancia (BM25); mayor es más relevante", example = "7.31")
+        private Float puntaje;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de una ingesta de alarmas de telemetría")
+public class ResultadoIngestaDTO {
+
+    @Schema(description = "Líneas con una alarma (sin contar las vacías)", example = "5000")
+    private Long recibidas;
+
+    @Schema(description = "Incidencias creadas", example = "4890")
+    private Long creadas;
+
+    @Schema(description = "Alarmas descartadas por repetir el mismo equipo y código dentro de la ventana", example = "100")
+    private Long duplicadas;
+
+    @Schema(description = "Alarmas rechazadas por formato o datos inválidos", example = "10")
+    private Long rechazadas;
+
+    @Schema(description = "Detalle de las primeras líneas rechazadas")
+    private List<Rechazo> errores;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Línea rechazada de la ingesta")
+    public static class Rechazo {
+
+        @Schema(description = "Número de línea en el cuerpo, desde 1", example = "17")
+        private Long linea;
+
+        @Schema(description = "Motivo del rechazo", example = "Equipo no encontrado: 99")
+        private String mensaje;
+    }
+}
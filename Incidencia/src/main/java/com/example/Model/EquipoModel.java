@@ -8,12 +8,18 @@ import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "equipos")
+@Table(name = "equipos", indexes = {
+    @Index(name = "idx_equipos_tipo_equipo", columnList = "tipo_equipo")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "equipos")
 @Schema(description = "Modelo que representa un equipo en el sistema")
 public class EquipoModel {
     
@@ -51,4 +57,4 @@ public class EquipoModel {
     @NotBlank(message = "El tipo de equipo es obligatorio")
     @Schema(description = "Tipo de equipo", example = "Tractor", allowableValues = {"TRACTOR", "COSECHADORA", "SEMBRADORA", "ARADO", "RASTRILLO", "OTRO"})
     private String tipoEquipo;
-}
\ No newline at end of file
+}
\ No newline at end of file
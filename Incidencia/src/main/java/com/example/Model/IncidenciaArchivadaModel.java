@@ -0,0 +1,86 @@
+package com.example.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Date;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Incidencia CERRADA trasladada fuera de la tabla "incidencia" por ArchivoIncidencias. Conserva su ID y guarda
+// usuario, equipo y técnico solo como IDs: en MySQL la tabla va particionada por año de reporte y comprimida
+// (ver db/mysql/incidencia_archivo.sql), y una tabla particionada no admite claves foráneas.
+@Entity
+@Table(name = "incidencia_archivo", indexes = {
+    @Index(name = "idx_incidencia_archivo_reporte", columnList = "fecha_reporte"),
+    @Index(name = "idx_incidencia_archivo_equipo", columnList = "id_equipo, fecha_reporte")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Incidencia cerrada archivada")
+public class IncidenciaArchivadaModel {
+
+    @Id
+    @Column(name = "id_incidencia")
+    @Schema(description = "ID de la incidencia, el mismo que tenía antes de archivarse", example = "1")
+    private Long idIncidencia;
+
+    @Column(name = "usuario_id", nullable = false)
+    @Schema(description = "ID del usuario que reportó la incidencia", example = "1")
+    private Long idUsuario;
+
+    @Column(name = "id_equipo", nullable = false)
+    @Schema(description = "ID del equipo afectado", example = "1")
+    private Long idEquipo;
+
+    @Column(name = "id_tecnico")
+    @Schema(description = "ID del técnico que la atendió", example = "1")
+    private Long idTecnico;
+
+    @Column(name = "fecha_reporte", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @Schema(description = "Fecha en que se reportó la incidencia", example = "2024-01-15T10:30:00.000Z")
+    private Date fechaReporte;
+
+    @Column(name = "fecha_creacion")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Schema(description = "Fecha de creación del registro", example = "2024-01-15T10:30:00.000Z")
+    private Date fechaCreacion;
+
+    @Column(name = "fecha_resolucion")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Schema(description = "Fecha en que se resolvió la incidencia", example = "2024-01-16T14:30:00.000Z")
+    private Date fechaResolucion;
+
+    @Column(nullable = false, length = 1000)
+    @Schema(description = "Descripción de la incidencia", example = "El compresor hace ruidos extraños y pierde presión")
+    private String descripcion;
+
+    @Column(length = 50)
+    @Schema(description = "Estado al archivarse", example = "CERRADA")
+    private String estado;
+
+    @Column(length = 50)
+    @Schema(description = "Prioridad de la incidencia", example = "MEDIA")
+    private String prioridad;
+
+    @Column(length = 1000)
+    @Schema(description = "Descripción de la solución aplicada", example = "Se reemplazó el filtro de aire y se ajustó la presión")
+    private String solucion;
+
+    @Column(name = "codigo_falla", length = 50)
+    @Schema(description = "Código de la alarma de telemetría que originó la incidencia; nulo si la reportó un usuario",
+            example = "E-1042")
+    private String codigoFalla;
+
+    @Column(name = "vencimiento_sla")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Schema(description = "Fecha límite que tenía según el SLA de su prioridad", example = "2024-01-16T10:30:00.000Z")
+    private Date vencimientoSla;
+
+    @Column(name = "fecha_archivo", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @Schema(description = "Fecha en que se archivó", example = "2025-01-16T03:30:00.000Z")
+    private Date fechaArchivo;
+}
@@ -1,22 +1,48 @@
 package com.example.Model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.util.Date;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+// Plan de carga de los listados: usuario, equipo y técnico (con su usuario) en la misma consulta,
+// en lugar de una consulta adicional por cada asociación distinta de las filas
+@NamedEntityGraph(
+    name = IncidenciaModel.GRAFO_LISTADO,
+    attributeNodes = {
+        @NamedAttributeNode("usuario"),
+        @NamedAttributeNode("equipo"),
+        @NamedAttributeNode(value = "tecnico", subgraph = "tecnico")
+    },
+    subgraphs = @NamedSubgraph(name = "tecnico", attributeNodes = @NamedAttributeNode("usuario"))
+)
 @Entity
-@Table(name = "incidencia")
+// Índices para el archivo de cerradas antiguas (estado, fecha_resolucion), para los listados por fecha
+// y para descartar alarmas de telemetría repetidas (equipo, código, fecha)
+@Table(name = "incidencia", indexes = {
+    @Index(name = "idx_incidencia_estado_resolucion", columnList = "estado, fechaResolucion"),
+    @Index(name = "idx_incidencia_fecha_reporte", columnList = "fechaReporte"),
+    @Index(name = "idx_incidencia_alarma", columnList = "id_equipo, codigoFalla, fechaReporte")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Schema(description = "Modelo de Incidencia reportada")
 public class IncidenciaModel {
+
+    public static final String GRAFO_LISTADO = "Incidencia.listado";
     
+    // Secuencia con bloques de 50 IDs en memoria (optimizador pooled): a diferencia de IDENTITY, Hibernate conoce
+    // el ID antes del INSERT y puede enviar las altas en lotes JDBC. En MySQL la secuencia es la tabla incidencia_seq
+    // (ver db/mysql/incidencia_seq.sql)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incidencia_seq")
+    @SequenceGenerator(name = "incidencia_seq", sequenceName = "incidencia_seq", allocationSize = 50)
     @Schema(description = "ID único de la incidencia", example = "1")
     private Long idIncidencia;
     
@@ -25,7 +51,9 @@ public class IncidenciaModel {
     @Schema(description = "Usuario que reporta la incidencia")
     private UsuarioModel usuario;
     
+    // Carga por id en una consulta aparte, para que se resuelva desde la caché de equipos en lugar de un JOIN
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "id_equipo", nullable = false)
     @Schema(description = "Equipo afectado por la incidencia")
     private EquipoModel equipo;
@@ -79,6 +107,21 @@ public class IncidenciaModel {
             maxLength = 1000)
     private String solucion;
     
+    @Column(length = 50)
+    @Schema(description = "Código de la alarma de telemetría que originó la incidencia; nulo si la reportó un usuario", 
+            example = "E-1042")
+    private String codigoFalla;
+    
+    // Lo calcula el servicio según la prioridad (VencimientosSla); se guarda para reconstruir los
+    // temporizadores al reiniciar sin volver a escalar las incidencias ya escaladas
+    @Column
+    @Temporal(TemporalType.TIMESTAMP)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Fecha límite para resolver la incidencia según el SLA de su prioridad", 
+            example = "2024-01-16T10:30:00.000Z", 
+            accessMode = Schema.AccessMode.READ_ONLY)
+    private Date vencimientoSla;
+    
     @PrePersist
     protected void onCreate() {
         if (this.fechaCreacion == null) {
@@ -88,4 +131,4 @@ public class IncidenciaModel {
             this.fechaReporte = new Date();
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
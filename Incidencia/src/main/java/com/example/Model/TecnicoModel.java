@@ -1,9 +1,12 @@
 package com.example.Model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.util.List;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -35,11 +38,19 @@ public class TecnicoModel {
     @Schema(description = "Zona de cobertura del técnico", example = "Región Metropolitana")
     private String zonaCobertura;
     
+    // Fuera del JSON y de equals/hashCode/toString: se cargarían por cada técnico de un listado
+    // y las incidencias volverían a serializar al técnico
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "tecnico", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Schema(description = "Lista de mantenimientos asignados al técnico")
     private List<MantenimientoModel> mantenimientos;
     
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "tecnico", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Schema(description = "Lista de incidencias asignadas al técnico")
     private List<IncidenciaModel> incidencias;
-}
\ No newline at end of file
+}
\ No newline at end of file
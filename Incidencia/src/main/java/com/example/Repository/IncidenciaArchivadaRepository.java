@@ -0,0 +1,47 @@
+package com.example.Repository;
+
+import com.example.DTO.IncidenciaHistorialDTO;
+import com.example.Model.IncidenciaArchivadaModel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface IncidenciaArchivadaRepository extends JpaRepository<IncidenciaArchivadaModel, Long> {
+
+    // Mitad archivada del historial; el rango de fechas recorta las particiones que se leen
+    @Query("SELECT new com.example.DTO.IncidenciaHistorialDTO(a.idIncidencia, a.idUsuario, a.idEquipo, a.idTecnico, " +
+           "a.fechaReporte, a.fechaResolucion, a.descripcion, a.estado, a.prioridad, a.solucion, true) " +
+           "FROM IncidenciaArchivadaModel a " +
+           "WHERE a.fechaReporte >= :desde AND a.fechaReporte < :hasta " +
+           "AND (:idEquipo IS NULL OR a.idEquipo = :idEquipo) " +
+           "ORDER BY a.fechaReporte, a.idIncidencia")
+    List<IncidenciaHistorialDTO> findHistorial(@Param("desde") Date desde, @Param("hasta") Date hasta,
+                                               @Param("idEquipo") Long idEquipo, Pageable pagina);
+
+    // Mismas columnas que IncidenciaRepository.streamFallas, para reconstruir las fallas por equipo
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.idIncidencia, a.idEquipo, a.fechaReporte, a.fechaResolucion FROM IncidenciaArchivadaModel a " +
+           "WHERE a.idIncidencia BETWEEN :desde AND :hasta")
+    Stream<Object[]> streamFallas(@Param("desde") Long desde, @Param("hasta") Long hasta);
+
+    @Query("SELECT a.idIncidencia, a.idEquipo, a.fechaReporte, a.fechaResolucion FROM IncidenciaArchivadaModel a " +
+           "WHERE a.idIncidencia IN :ids")
+    List<Object[]> findFallasByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MIN(a.idIncidencia), MAX(a.idIncidencia) FROM IncidenciaArchivadaModel a")
+    List<Object[]> findRangoIds();
+}
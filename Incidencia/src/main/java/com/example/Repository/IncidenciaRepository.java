@@ -1,53 +1,84 @@
 package com.example.Repository;
 
+import com.example.DTO.IncidenciaHistorialDTO;
 import com.example.Model.IncidenciaModel;
+import com.example.Model.TecnicoModel;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Date;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface IncidenciaRepository extends JpaRepository<IncidenciaModel, Long> {
     
+    // Los listados cargan usuario, equipo y técnico con el grafo IncidenciaModel.GRAFO_LISTADO:
+    // una sola consulta por listado, sin importar cuántas asociaciones distintas traigan las filas.
+    @Override
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
+    List<IncidenciaModel> findAll();
+    
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
+    @Query("SELECT i FROM IncidenciaModel i WHERE i.idIncidencia IN :ids")
+    List<IncidenciaModel> findListadoByIds(@Param("ids") Collection<Long> ids);
+    
   
     @Query("SELECT COUNT(i) FROM IncidenciaModel i WHERE i.usuario.idusuario = :idUsuario")
     Long countIncidenciasByUsuario(@Param("idUsuario") Long idUsuario);
     
    
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.usuario.idusuario = :idUsuario")
     List<IncidenciaModel> findByUsuarioId(@Param("idUsuario") Long idUsuario);
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.estado = :estado")
     List<IncidenciaModel> findByEstado(@Param("estado") String estado);
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.prioridad = :prioridad")
     List<IncidenciaModel> findByPrioridad(@Param("prioridad") String prioridad);
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.usuario.idusuario = :idUsuario AND i.estado = :estado")
     List<IncidenciaModel> findByUsuarioIdAndEstado(@Param("idUsuario") Long idUsuario, 
                                                    @Param("estado") String estado);
     
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i ORDER BY i.fechaReporte DESC")
     List<IncidenciaModel> findAllOrderByFechaCreacionDesc();
 
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.usuario.idusuario = :idUsuario ORDER BY i.fechaReporte DESC")
     List<IncidenciaModel> findByUsuarioIdOrderByFechaCreacionDesc(@Param("idUsuario") Long idUsuario);
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.tecnico.idTecnico = :idTecnico")
     List<IncidenciaModel> findByTecnicoId(@Param("idTecnico") Long idTecnico);
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.tecnico IS NULL")
     List<IncidenciaModel> findIncidenciasSinAsignar();
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.equipo.id = :idEquipo")
     List<IncidenciaModel> findByEquipoId(@Param("idEquipo") Long idEquipo);
     
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.fechaReporte BETWEEN :fechaInicio AND :fechaFin")
     List<IncidenciaModel> findByFechaReporteBetween(@Param("fechaInicio") Date fechaInicio, 
                                                    @Param("fechaFin") Date fechaFin);
@@ -58,9 +89,134 @@ public interface IncidenciaRepository extends JpaRepository<IncidenciaModel, Lon
     @Query("SELECT i.prioridad, COUNT(i) FROM IncidenciaModel i GROUP BY i.prioridad")
     List<Object[]> countByPrioridad();
     
+    // Una fila por combinación de estado, prioridad, técnico y equipo:
+    // [estado, prioridad, idTecnico, idEquipo, total, resueltas, segundos de resolución sumados].
+    // Técnico y equipo se agrupan por su clave foránea, sin JOIN. Debe consumirse dentro de una transacción.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i.estado, i.prioridad, i.tecnico.idTecnico, i.equipo.idEquipo, COUNT(i), COUNT(i.fechaResolucion), " +
+           "SUM((i.fechaResolucion - i.fechaReporte) BY SECOND) FROM IncidenciaModel i " +
+           "GROUP BY i.estado, i.prioridad, i.tecnico.idTecnico, i.equipo.idEquipo")
+    Stream<Object[]> streamResumen();
+    
+    // Reconstrucción del índice de búsqueda: [idIncidencia, descripcion, solucion, estado] de todas las incidencias.
+    // Debe consumirse dentro de una transacción.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i.idIncidencia, i.descripcion, i.solucion, i.estado FROM IncidenciaModel i")
+    Stream<Object[]> streamTextos();
+    
+    // Reconstrucción de las fallas por equipo, por tramos de ID: [idIncidencia, idEquipo, fechaReporte, fechaResolucion].
+    // Debe consumirse dentro de una transacción.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i.idIncidencia, i.equipo.idEquipo, i.fechaReporte, i.fechaResolucion FROM IncidenciaModel i " +
+           "WHERE i.idIncidencia BETWEEN :desde AND :hasta")
+    Stream<Object[]> streamFallas(@Param("desde") Long desde, @Param("hasta") Long hasta);
+    
+    // Las mismas columnas que streamFallas, solo para las incidencias indicadas
+    @Query("SELECT i.idIncidencia, i.equipo.idEquipo, i.fechaReporte, i.fechaResolucion FROM IncidenciaModel i " +
+           "WHERE i.idIncidencia IN :ids")
+    List<Object[]> findFallasByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT MIN(i.idIncidencia), MAX(i.idIncidencia) FROM IncidenciaModel i")
+    List<Object[]> findRangoIds();
+    
+    // Mitad vigente del historial, con las mismas columnas que IncidenciaArchivadaRepository.findHistorial
+    @Query("SELECT new com.example.DTO.IncidenciaHistorialDTO(i.idIncidencia, i.usuario.idusuario, i.equipo.idEquipo, " +
+           "t.idTecnico, i.fechaReporte, i.fechaResolucion, i.descripcion, i.estado, i.prioridad, i.solucion, false) " +
+           "FROM IncidenciaModel i LEFT JOIN i.tecnico t " +
+           "WHERE i.fechaReporte >= :desde AND i.fechaReporte < :hasta " +
+           "AND (:idEquipo IS NULL OR i.equipo.idEquipo = :idEquipo) " +
+           "ORDER BY i.fechaReporte, i.idIncidencia")
+    List<IncidenciaHistorialDTO> findHistorial(@Param("desde") Date desde, @Param("hasta") Date hasta,
+                                               @Param("idEquipo") Long idEquipo, Pageable pagina);
+    
+    // Lo que la incidencia aporta hoy a las fallas de su equipo: [idEquipo, fechaReporte, fechaResolucion]
+    @Query("SELECT i.equipo.idEquipo, i.fechaReporte, i.fechaResolucion FROM IncidenciaModel i WHERE i.idIncidencia = :id")
+    List<Object[]> findFallaById(@Param("id") Long id);
+    
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.estado = 'ABIERTA' ORDER BY i.fechaReporte ASC")
     List<IncidenciaModel> findIncidenciasAbiertasAntiguasFirst();
     
+    @EntityGraph(IncidenciaModel.GRAFO_LISTADO)
     @Query("SELECT i FROM IncidenciaModel i WHERE i.estado IN :estados")
     List<IncidenciaModel> findByEstadoIn(@Param("estados") List<String> estados);
-}
\ No newline at end of file
+    
+    // Carga de la cola de despacho: [idIncidencia, prioridad, fechaReporte] de las abiertas sin técnico
+    @Query("SELECT i.idIncidencia, i.prioridad, i.fechaReporte FROM IncidenciaModel i " +
+           "WHERE i.estado = 'ABIERTA' AND i.tecnico IS NULL")
+    List<Object[]> findPendientesDeDespacho();
+    
+    // Las mismas columnas, solo para las incidencias indicadas que siguen pendientes de despacho
+    @Query("SELECT i.idIncidencia, i.prioridad, i.fechaReporte FROM IncidenciaModel i " +
+           "WHERE i.idIncidencia IN :ids AND i.estado = 'ABIERTA' AND i.tecnico IS NULL")
+    List<Object[]> findPendientesDeDespachoByIds(@Param("ids") Collection<Long> ids);
+    
+    // Relectura de un lote de asignaciones sin conteo de filas: [idIncidencia, idTecnico] de las que están en proceso
+    @Query("SELECT i.idIncidencia, i.tecnico.idTecnico FROM IncidenciaModel i " +
+           "WHERE i.idIncidencia IN :ids AND i.estado = 'EN_PROCESO'")
+    List<Object[]> findTecnicosEnProcesoByIds(@Param("ids") Collection<Long> ids);
+    
+    // Carga inicial de la asignación automática: [idTecnico, incidencias abiertas o en proceso]
+    @Query("SELECT i.tecnico.idTecnico, COUNT(i) FROM IncidenciaModel i " +
+           "WHERE i.tecnico IS NOT NULL AND i.estado IN ('ABIERTA', 'EN_PROCESO') GROUP BY i.tecnico.idTecnico")
+    List<Object[]> contarAbiertasPorTecnico();
+    
+    // Alarmas recientes, para cargar la ventana de repetidas de la ingesta: [idEquipo, codigoFalla, fechaReporte]
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i.equipo.idEquipo, i.codigoFalla, i.fechaReporte FROM IncidenciaModel i " +
+           "WHERE i.codigoFalla IS NOT NULL AND i.fechaReporte >= :desde")
+    Stream<Object[]> streamAlarmasDesde(@Param("desde") Date desde);
+    
+    // Para alarmas más antiguas que la ventana en memoria; recorre idx_incidencia_alarma
+    @Query("SELECT COUNT(i) > 0 FROM IncidenciaModel i WHERE i.equipo.idEquipo = :idEquipo " +
+           "AND i.codigoFalla = :codigoFalla AND i.fechaReporte > :desde AND i.fechaReporte < :hasta")
+    boolean existsAlarma(@Param("idEquipo") Long idEquipo, @Param("codigoFalla") String codigoFalla,
+                         @Param("desde") Date desde, @Param("hasta") Date hasta);
+    
+    @Query("SELECT e.idEquipo FROM EquipoModel e WHERE e.idEquipo IN :ids")
+    List<Long> findIdsEquipoExistentes(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT u.idusuario FROM UsuarioModel u WHERE u.idusuario IN :ids")
+    List<Long> findIdsUsuarioExistentes(@Param("ids") Collection<Long> ids);
+    
+    // Lo guardado antes de aplicar un cambio: [estado, idTecnico, prioridad, vencimientoSla]
+    @Query("SELECT i.estado, t.idTecnico, i.prioridad, i.vencimientoSla FROM IncidenciaModel i LEFT JOIN i.tecnico t " +
+           "WHERE i.idIncidencia = :id")
+    List<Object[]> findGuardadaById(@Param("id") Long id);
+    
+    // Para cargar los temporizadores de SLA: [idIncidencia, prioridad, fechaReporte, vencimientoSla]
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i.idIncidencia, i.prioridad, i.fechaReporte, i.vencimientoSla FROM IncidenciaModel i " +
+           "WHERE i.estado IN ('ABIERTA', 'EN_PROCESO')")
+    Stream<Object[]> streamVencimientosSla();
+    
+    // Escalado por SLA vencido: solo si nadie cambió la prioridad ni la cerró desde que se leyó
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE IncidenciaModel i SET i.prioridad = :nueva, i.vencimientoSla = :vencimiento " +
+           "WHERE i.idIncidencia = :id AND i.prioridad = :actual AND i.estado IN ('ABIERTA', 'EN_PROCESO')")
+    int escalarSiSigueAbierta(@Param("id") Long id, @Param("actual") String actual, @Param("nueva") String nueva,
+                              @Param("vencimiento") Date vencimiento);
+    
+    // Asignación condicional: solo si sigue abierta y sin técnico. Devuelve 0 si otro despachador se adelantó.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE IncidenciaModel i SET i.tecnico = :tecnico, i.estado = 'EN_PROCESO' " +
+           "WHERE i.idIncidencia = :id AND i.estado = 'ABIERTA' AND i.tecnico IS NULL")
+    int asignarSiPendiente(@Param("id") Long id, @Param("tecnico") TecnicoModel tecnico);
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.Repository;
+
+import com.example.Model.TecnicoModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TecnicoRepository extends JpaRepository<TecnicoModel, Long> {
+
+    // Solo lo que usa la asignación automática: [idTecnico, especialidad, zonaCobertura], sin cargar cada usuario
+    @Query("SELECT t.idTecnico, t.especialidad, t.zonaCobertura FROM TecnicoModel t WHERE t.disponibilidad = true " +
+           "ORDER BY t.idTecnico")
+    List<Object[]> findCandidatosDisponibles();
+}
@@ -0,0 +1,122 @@
+package com.example.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Traslada las incidencias CERRADAS hace más de incidencia.archivo.edad-dias desde "incidencia" a
+// "incidencia_archivo", para que la tabla vigente y sus consultas solo recorran las incidencias activas
+// y las cerradas recientes. Cada lote de hasta incidencia.archivo.lote filas es una transacción propia
+// (bloquea, copia y borra solo esas filas) con una pausa entre lotes, así nunca retiene la tabla vigente.
+@Component
+public class ArchivoIncidencias {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoIncidencias.class);
+
+    // Recorre el índice (estado, fecha_resolucion); las cerradas sin fecha de resolución se archivan por fecha de reporte
+    private static final String CANDIDATAS =
+            "SELECT id_incidencia FROM incidencia WHERE estado = 'CERRADA' " +
+            "AND (fecha_resolucion < :limite OR (fecha_resolucion IS NULL AND fecha_reporte < :limite)) " +
+            "LIMIT :lote FOR UPDATE";
+    private static final String COPIAR =
+            "INSERT INTO incidencia_archivo (id_incidencia, usuario_id, id_equipo, id_tecnico, fecha_reporte, " +
+            "fecha_creacion, fecha_resolucion, descripcion, estado, prioridad, solucion, codigo_falla, " +
+            "vencimiento_sla, fecha_archivo) " +
+            "SELECT id_incidencia, usuario_id, id_equipo, id_tecnico, fecha_reporte, fecha_creacion, " +
+            "fecha_resolucion, descripcion, estado, prioridad, solucion, codigo_falla, vencimiento_sla, :ahora " +
+            "FROM incidencia WHERE id_incidencia IN (:ids)";
+    private static final String BORRAR = "DELETE FROM incidencia WHERE id_incidencia IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IndiceIncidencias indiceIncidencias;
+    private final long edadMs;
+    private final int lote;
+    private final long pausaMs;
+    private final ReentrantLock archivado = new ReentrantLock();
+
+    @Autowired
+    public ArchivoIncidencias(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              IndiceIncidencias indiceIncidencias,
+                              @Value("${incidencia.archivo.edad-dias:365}") int edadDias,
+                              @Value("${incidencia.archivo.lote:500}") int lote,
+                              @Value("${incidencia.archivo.pausa-ms:100}") long pausaMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.indiceIncidencias = indiceIncidencias;
+        this.edadMs = TimeUnit.DAYS.toMillis(edadDias);
+        this.lote = Math.max(1, lote);
+        this.pausaMs = pausaMs;
+    }
+
+    @Scheduled(cron = "${incidencia.archivo.cron:0 30 3 * * *}")
+    public void archivarPeriodicamente() {
+        try {
+            archivar();
+        } catch (IllegalStateException e) {
+            log.debug("Archivo de incidencias omitido: {}", e.getMessage());
+        }
+    }
+
+    // Archiva por lotes hasta que no quedan candidatas; retorna cuántas incidencias trasladó
+    public long archivar() {
+        if (!archivado.tryLock()) {
+            throw new IllegalStateException("Ya hay un archivo de incidencias en curso");
+        }
+        try {
+            Timestamp limite = new Timestamp(System.currentTimeMillis() - edadMs);
+            long total = 0;
+            int trasladadas;
+            do {
+                trasladadas = archivarLote(limite);
+                total += trasladadas;
+                if (trasladadas == lote && pausaMs > 0) {
+                    Thread.sleep(pausaMs);
+                }
+            } while (trasladadas == lote);
+            if (total > 0) {
+                log.info("{} incidencias cerradas antes de {} trasladadas al archivo", total, limite);
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archivo de incidencias interrumpido", e);
+        } finally {
+            archivado.unlock();
+        }
+    }
+
+    private int archivarLote(Timestamp limite) {
+        Integer trasladadas = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(CANDIDATAS,
+                    new MapSqlParameterSource("limite", limite).addValue("lote", lote), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids)
+                    .addValue("ahora", new Timestamp(System.currentTimeMillis()));
+            jdbcTemplate.update(COPIAR, parametros);
+            jdbcTemplate.update(BORRAR, parametros);
+            quitarDelIndiceAlConfirmar(ids);
+            return ids.size();
+        });
+        return trasladadas == null ? 0 : trasladadas;
+    }
+
+    // La búsqueda de texto cubre solo las incidencias vigentes
+    private void quitarDelIndiceAlConfirmar(List<Long> ids) {
+        Transacciones.despuesDeConfirmar(() -> ids.forEach(indiceIncidencias::eliminar));
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.Service;
+
+import com.example.DTO.AsignacionDTO;
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Repository.IncidenciaRepository;
+import com.example.Repository.TecnicoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Asignación automática de técnicos. Entre los técnicos disponibles elige el de mayor puntaje:
+// especialidad acorde al tipo de equipo, zona de cobertura pedida y menor carga de incidencias abiertas.
+// La carga de cada técnico se lleva en memoria (se carga al iniciar con un GROUP BY e IncidenciaService
+// la mueve con cada cambio confirmado), así elegir no consulta las incidencias de cada técnico.
+@Component
+public class AsignadorTecnicos {
+
+    static final int PESO_ESPECIALIDAD = 10;
+    static final int PESO_ZONA = 5;
+    static final int PESO_CARGA = 1;
+
+    private static final String ASIGNAR_SI_PENDIENTE =
+            "UPDATE incidencia SET id_tecnico = ?, estado = 'EN_PROCESO' " +
+            "WHERE id_incidencia = ? AND estado = 'ABIERTA' AND id_tecnico IS NULL";
+
+    private final IncidenciaRepository incidenciaRepository;
+    private final TecnicoRepository tecnicoRepository;
+    private final ColaDespacho colaDespacho;
+    private final JdbcTemplate jdbcTemplate;
+    private final IndiceIncidencias indiceIncidencias;
+    private final EventosIncidencias eventosIncidencias;
+    private final Map<Long, AtomicInteger> cargas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AsignadorTecnicos(IncidenciaRepository incidenciaRepository, TecnicoRepository tecnicoRepository,
+                             ColaDespacho colaDespacho, JdbcTemplate jdbcTemplate,
+                             IndiceIncidencias indiceIncidencias, EventosIncidencias eventosIncidencias) {
+        this.incidenciaRepository = incidenciaRepository;
+        this.tecnicoRepository = tecnicoRepository;
+        this.colaDespacho = colaDespacho;
+        this.jdbcTemplate = jdbcTemplate;
+        this.indiceIncidencias = indiceIncidencias;
+        this.eventosIncidencias = eventosIncidencias;
+    }
+
+    @PostConstruct
+    public void cargar() {
+        cargas.clear();
+        for (Object[] fila : incidenciaRepository.contarAbiertasPorTecnico()) {
+            cargas.put((Long) fila[0], new AtomicInteger(((Number) fila[1]).intValue()));
+        }
+    }
+
+    public List<Candidato> disponibles() {
+        return tecnicoRepository.findCandidatosDisponibles().stream()
+                .map(fila -> new Candidato((Long) fila[0], (String) fila[1], (String) fila[2]))
+                .toList();
+    }
+
+    // El técnico de mayor puntaje; a igual puntaje, el de menor carga y luego el de menor ID
+    public Optional<AsignacionDTO> elegir(IncidenciaModel incidencia, String zona, List<Candidato> candidatos) {
+        String tipoEquipo = tipoEquipo(incidencia.getEquipo());
+        String zonaBuscada = normalizar(zona);
+        AsignacionDTO mejor = null;
+        for (Candidato candidato : candidatos) {
+            int carga = getCarga(candidato.idTecnico());
+            int puntaje = -PESO_CARGA * carga;
+            if (coincide(normalizar(candidato.especialidad()), tipoEquipo)) {
+                puntaje += PESO_ESPECIALIDAD;
+            }
+            if (zonaBuscada != null && zonaBuscada.equals(normalizar(candidato.zonaCobertura()))) {
+                puntaje += PESO_ZONA;
+            }
+            if (mejor == null || puntaje > mejor.getPuntaje()
+                    || (puntaje == mejor.getPuntaje() && carga < mejor.getCargaAnterior())
+                    || (puntaje == mejor.getPuntaje() && carga == mejor.getCargaAnterior()
+                        && candidato.idTecnico() < mejor.getIdTecnico())) {
+                mejor = new AsignacionDTO(incidencia.getIdIncidencia(), candidato.idTecnico(), puntaje, carga);
+            }
+        }
+        return Optional.ofNullable(mejor);
+    }
+
+    // Asigna en una sola transacción hasta `limite` incidencias de la cola de despacho, en su orden.
+    // Los UPDATE condicionales van en un lote JDBC; las que otro camino asignó antes se descartan.
+    // La carga se reserva al elegir, para que cada elección del lote vea las anteriores.
+    @Transactional
+    public List<AsignacionDTO> asignarPendientes(int limite, String zona) {
+        List<Candidato> candidatos = disponibles();
+        if (candidatos.isEmpty()) {
+            return List.of();
+        }
+        List<ColaDespacho.Entrada> tomadas = new ArrayList<>();
+        for (int i = 0; i < limite; i++) {
+            Optional<ColaDespacho.Entrada> entrada = colaDespacho.tomar();
+            if (entrada.isEmpty()) {
+                break;
+            }
+            tomadas.add(entrada.get());
+        }
+        if (tomadas.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, IncidenciaModel> incidencias = incidenciaRepository
+                .findListadoByIds(tomadas.stream().map(ColaDespacho.Entrada::idIncidencia).toList()).stream()
+                .collect(Collectors.toMap(IncidenciaModel::getIdIncidencia, Function.identity()));
+
+        List<AsignacionDTO> elegidas = new ArrayList<>();
+        for (ColaDespacho.Entrada entrada : tomadas) {
+            IncidenciaModel incidencia = incidencias.get(entrada.idIncidencia());
+            if (incidencia == null) {
+                continue;
+            }
+            elegir(incidencia, zona, candidatos).ifPresent(asignacion -> {
+                sumarCarga(asignacion.getIdTecnico(), 1);
+                elegidas.add(asignacion);
+            });
+        }
+
+        int[][] filas = jdbcTemplate.batchUpdate(ASIGNAR_SI_PENDIENTE, elegidas, elegidas.size(),
+                (sentencia, asignacion) -> {
+                    sentencia.setLong(1, asignacion.getIdTecnico());
+                    sentencia.setLong(2, asignacion.getIdIncidencia());
+                });
+        int[] conteos = Arrays.stream(filas).flatMapToInt(Arrays::stream).toArray();
+        Set<Long> confirmadas = releerSinConteo(elegidas, conteos);
+        List<AsignacionDTO> asignadas = new ArrayList<>();
+        for (int i = 0; i < conteos.length; i++) {
+            AsignacionDTO asignacion = elegidas.get(i);
+            // 0: otro camino la asignó o cerró antes
+            if (conteos[i] > 0 || confirmadas.contains(asignacion.getIdIncidencia())) {
+                asignadas.add(asignacion);
+            } else {
+                sumarCarga(asignacion.getIdTecnico(), -1);
+            }
+        }
+        liberarSiNoSeConfirma(tomadas, asignadas);
+        notificarAlConfirmar(asignadas.stream()
+                .map(asignacion -> IndiceIncidencias.Documento.de(incidencias.get(asignacion.getIdIncidencia()))
+                        .conEstado("EN_PROCESO"))
+                .toList(),
+                asignadas.stream()
+                .map(asignacion -> EventosIncidencias.asignacion(incidencias.get(asignacion.getIdIncidencia()),
+                        asignacion.getIdTecnico()))
+                .toList());
+        return asignadas;
+    }
+
+    // Con rewriteBatchedStatements el driver responde SUCCESS_NO_INFO (-2) por cada fila del lote: se relee la
+    // incidencia en la misma transacción y solo cuenta la que quedó en proceso con el técnico elegido
+    private Set<Long> releerSinConteo(List<AsignacionDTO> elegidas, int[] conteos) {
+        Map<Long, Long> dudosas = new HashMap<>();
+        for (int i = 0; i < conteos.length; i++) {
+            if (conteos[i] == Statement.SUCCESS_NO_INFO) {
+                dudosas.put(elegidas.get(i).getIdIncidencia(), elegidas.get(i).getIdTecnico());
+            }
+        }
+        if (dudosas.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> confirmadas = new HashSet<>();
+        for (Object[] fila : incidenciaRepository.findTecnicosEnProcesoByIds(dudosas.keySet())) {
+            if (fila[1].equals(dudosas.get((Long) fila[0]))) {
+                confirmadas.add((Long) fila[0]);
+            }
+        }
+        return confirmadas;
+    }
+
+    public int getCarga(Long idTecnico) {
+        AtomicInteger carga = cargas.get(idTecnico);
+        return carga == null ? 0 : carga.get();
+    }
+
+    public Map<Long, Integer> getCargas() {
+        Map<Long, Integer> resultado = new TreeMap<>();
+        cargas.forEach((id, carga) -> {
+            if (carga.get() != 0) {
+                resultado.put(id, carga.get());
+            }
+        });
+        return resultado;
+    }
+
+    // Traslada una incidencia abierta de un técnico a otro; null significa "sin técnico o ya no abierta"
+    public void moverCarga(Long desde, Long hacia) {
+        if (desde != null && desde.equals(hacia)) {
+            return;
+        }
+        if (desde != null) {
+            sumarCarga(desde, -1);
+        }
+        if (hacia != null) {
+            sumarCarga(hacia, 1);
+        }
+    }
+
+    private void sumarCarga(Long idTecnico, int delta) {
+        cargas.computeIfAbsent(idTecnico, id -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    // Si la transacción no se confirma, se devuelve la carga reservada y las incidencias vuelven a la cola
+    private void liberarSiNoSeConfirma(List<ColaDespacho.Entrada> tomadas, List<AsignacionDTO> asignadas) {
+        Transacciones.siNoSeConfirma(() -> {
+            asignadas.forEach(asignacion -> sumarCarga(asignacion.getIdTecnico(), -1));
+            tomadas.forEach(colaDespacho::devolver);
+        });
+    }
+
+    // El UPDATE por JDBC no pasa por las entidades: el nuevo estado se lleva al índice de búsqueda y a los
+    // tableros de despacho al confirmar
+    private void notificarAlConfirmar(List<IndiceIncidencias.Documento> documentos, List<EventoIncidenciaDTO> eventos) {
+        Transacciones.despuesDeConfirmar(() -> {
+            documentos.forEach(indiceIncidencias::actualizar);
+            eventos.forEach(eventosIncidencias::publicar);
+        });
+    }
+
+    private static String tipoEquipo(EquipoModel equipo) {
+        return equipo == null ? null : normalizar(equipo.getTipoEquipo());
+    }
+
+    // "Mantención de tractores" coincide con el tipo "TRACTOR", y "Riego" con "SISTEMA DE RIEGO"
+    private static boolean coincide(String especialidad, String tipoEquipo) {
+        return especialidad != null && tipoEquipo != null
+                && (especialidad.contains(tipoEquipo) || tipoEquipo.contains(especialidad));
+    }
+
+    private static String normalizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        return Normalizer.normalize(texto.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    public record Candidato(Long idTecnico, String especialidad, String zonaCobertura) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.Service;
+
+import com.example.DTO.CacheEquiposDTO;
+import com.example.Model.EquipoModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Catálogo de equipos. Los equipos de cada incidencia se leen desde la región "equipos" de la caché
+// de segundo nivel (acotada por tamaño y TTL en ehcache-equipos.xml); este componente expone sus
+// métricas y permite invalidarla cuando un equipo cambia en otro servicio.
+@Component
+public class CatalogoEquipos {
+
+    public static final String REGION = "equipos";
+
+    private final SessionFactory sessionFactory;
+
+    @Autowired
+    public CatalogoEquipos(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    // El CacheManager de JCache se comparte por URI dentro de la JVM: se descarta lo que haya
+    // dejado otro contexto de Spring sobre otra base de datos (por ejemplo, entre pruebas).
+    @PostConstruct
+    public void iniciar() {
+        invalidarTodo();
+    }
+
+    public void invalidar(Long idEquipo) {
+        sessionFactory.getCache().evictEntityData(EquipoModel.class, idEquipo);
+    }
+
+    public void invalidarTodo() {
+        sessionFactory.getCache().evictEntityData(EquipoModel.class);
+    }
+
+    public CacheEquiposDTO estadisticas() {
+        CacheRegionStatistics region = sessionFactory.getStatistics().getDomainDataRegionStatistics(REGION);
+        long aciertos = region.getHitCount();
+        long fallos = region.getMissCount();
+        long lecturas = aciertos + fallos;
+        return new CacheEquiposDTO(aciertos, fallos, region.getPutCount(),
+                CatalogoEquiposEventos.getDesalojos(), CatalogoEquiposEventos.getExpiraciones(),
+                lecturas == 0 ? 0.0 : (double) aciertos / lecturas);
+    }
+}
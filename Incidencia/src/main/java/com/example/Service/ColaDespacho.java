@@ -0,0 +1,150 @@
+package com.example.Service;
+
+import com.example.Model.IncidenciaModel;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cola de despacho: incidencias ABIERTAS sin técnico, ordenadas por prioridad (CRITICA > ALTA > MEDIA > BAJA)
+// y luego por fecha de reporte. Se carga al iniciar e IncidenciaService la actualiza con cada cambio confirmado,
+// así los despachadores no vuelven a consultar y ordenar todas las incidencias abiertas.
+// tomar() extrae la primera de forma atómica: dos despachadores nunca reciben la misma entrada.
+// Los callbacks de dos transacciones sobre la misma incidencia pueden ejecutarse en cualquier orden, así que
+// cada cambio lleva una marca de secuencia tomada antes de leer el estado confirmado y solo se aplica si es
+// más nueva que la de la entrada vigente. Una entrada de más es inocua: el UPDATE condicional del despacho
+// la descarta; lo que no puede pasar es que una lectura vieja quite una incidencia pendiente.
+@Component
+public class ColaDespacho {
+
+    private static final List<String> PRIORIDADES = List.of("CRITICA", "ALTA", "MEDIA", "BAJA");
+    private static final Comparator<Entrada> ORDEN = Comparator.comparingInt(Entrada::rango)
+            .thenComparingLong(Entrada::fechaReporte)
+            .thenComparingLong(Entrada::idIncidencia);
+
+    private final IncidenciaRepository incidenciaRepository;
+    private final ConcurrentSkipListSet<Entrada> cola = new ConcurrentSkipListSet<>(ORDEN);
+    // Entrada vigente de cada incidencia, para reemplazarla o quitarla sin recorrer la cola
+    private final Map<Long, Vigente> porId = new ConcurrentHashMap<>();
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @Autowired
+    public ColaDespacho(IncidenciaRepository incidenciaRepository) {
+        this.incidenciaRepository = incidenciaRepository;
+    }
+
+    // También sirve para recargar la cola desde la base si se modificó por fuera del servicio.
+    // No vacía la cola: las entradas con una marca posterior a la recarga se conservan.
+    @PostConstruct
+    public void cargar() {
+        long marca = secuencia.incrementAndGet();
+        Map<Long, Entrada> pendientes = entradas(incidenciaRepository.findPendientesDeDespacho());
+        pendientes.forEach((id, entrada) -> aplicar(id, entrada, marca));
+        porId.keySet().forEach(id -> {
+            if (!pendientes.containsKey(id)) {
+                aplicar(id, null, marca);
+            }
+        });
+    }
+
+    // Relee de la base el estado confirmado de las incidencias y las pone, mueve o quita de la cola
+    public void refrescar(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        long marca = secuencia.incrementAndGet();
+        Map<Long, Entrada> pendientes = entradas(incidenciaRepository.findPendientesDeDespachoByIds(ids));
+        ids.forEach(id -> aplicar(id, pendientes.get(id), marca));
+    }
+
+    // Entrada que corresponde a la incidencia, o null si no debe estar en la cola (ya asignada o no abierta)
+    public static Entrada entradaDe(IncidenciaModel incidencia) {
+        if (incidencia.getIdIncidencia() == null || incidencia.getTecnico() != null
+                || !"ABIERTA".equals(incidencia.getEstado())) {
+            return null;
+        }
+        long fecha = incidencia.getFechaReporte() == null ? 0 : incidencia.getFechaReporte().getTime();
+        return new Entrada(incidencia.getIdIncidencia(), rango(incidencia.getPrioridad()), fecha);
+    }
+
+    // Aplica una entrada ya calculada como el cambio más reciente de la incidencia
+    public void actualizar(Long idIncidencia, Entrada entrada) {
+        aplicar(idIncidencia, entrada, secuencia.incrementAndGet());
+    }
+
+    public Optional<Entrada> tomar() {
+        Entrada entrada = cola.pollFirst();
+        if (entrada == null) {
+            return Optional.empty();
+        }
+        porId.computeIfPresent(entrada.idIncidencia(), (id, vigente) -> vigente.entrada() == entrada ? null : vigente);
+        return Optional.of(entrada);
+    }
+
+    // Para una entrada tomada cuyo despacho no se confirmó; no pisa una versión más nueva de la incidencia,
+    // y con marca 0 cualquier cambio posterior la reemplaza
+    public void devolver(Entrada entrada) {
+        porId.computeIfAbsent(entrada.idIncidencia(), id -> {
+            cola.add(entrada);
+            return new Vigente(entrada, 0);
+        });
+    }
+
+    public List<Long> primeras(int limite) {
+        return cola.stream().limit(limite).map(Entrada::idIncidencia).toList();
+    }
+
+    public int tamaño() {
+        return cola.size();
+    }
+
+    // entrada null quita la incidencia de la cola
+    private void aplicar(Long idIncidencia, Entrada entrada, long marca) {
+        porId.compute(idIncidencia, (id, vigente) -> {
+            if (vigente != null) {
+                if (vigente.marca() > marca) {
+                    return vigente;
+                }
+                cola.remove(vigente.entrada());
+            }
+            if (entrada == null) {
+                return null;
+            }
+            cola.add(entrada);
+            return new Vigente(entrada, marca);
+        });
+    }
+
+    // Filas [idIncidencia, prioridad, fechaReporte]
+    private static Map<Long, Entrada> entradas(List<Object[]> filas) {
+        Map<Long, Entrada> entradas = new HashMap<>();
+        for (Object[] fila : filas) {
+            Long id = (Long) fila[0];
+            entradas.put(id, new Entrada(id, rango((String) fila[1]), ((Date) fila[2]).getTime()));
+        }
+        return entradas;
+    }
+
+    // Prioridades desconocidas van al final
+    private static int rango(String prioridad) {
+        int rango = PRIORIDADES.indexOf(prioridad);
+        return rango < 0 ? PRIORIDADES.size() : rango;
+    }
+
+    public record Entrada(Long idIncidencia, int rango, long fechaReporte) {
+    }
+
+    private record Vigente(Entrada entrada, long marca) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.Service;
+
+import com.example.DTO.EstadisticasIncidenciasDTO;
+import com.example.DTO.EstadisticasIncidenciasDTO.Desglose;
+import com.example.Repository.IncidenciaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Estadísticas de incidencias calculadas en la base con un único GROUP BY. Las filas agrupadas se
+// recorren desde el cursor y se acumulan por dimensión, así la memoria depende de la cantidad de
+// estados, prioridades, técnicos y equipos, no de la cantidad de incidencias.
+// El resultado se guarda unos segundos (incidencia.estadisticas.ttl-ms) para no repetir la consulta
+// en cada llamada; mientras un hilo lo recalcula, el resto responde con la instantánea anterior.
+@Component
+public class EstadisticasIncidencias {
+
+    private static final String SIN_VALOR = "SIN_ASIGNAR";
+    private static final double SEGUNDOS_POR_HORA = 3600.0;
+
+    private final IncidenciaRepository incidenciaRepository;
+    private final TransactionTemplate soloLectura;
+    private final long ttlNanos;
+    private final ReentrantLock calculo = new ReentrantLock();
+    private volatile Instantanea instantanea;
+
+    @Autowired
+    public EstadisticasIncidencias(IncidenciaRepository incidenciaRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${incidencia.estadisticas.ttl-ms:5000}") long ttlMs) {
+        this.incidenciaRepository = incidenciaRepository;
+        this.soloLectura = new TransactionTemplate(transactionManager);
+        this.soloLectura.setReadOnly(true);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    public EstadisticasIncidenciasDTO obtener() {
+        Instantanea actual = instantanea;
+        if (actual != null && !actual.vencida(ttlNanos)) {
+            return actual.estadisticas();
+        }
+        if (actual != null && !calculo.tryLock()) {
+            return actual.estadisticas();
+        }
+        if (actual == null) {
+            calculo.lock();
+        }
+        try {
+            actual = instantanea;
+            if (actual == null || actual.vencida(ttlNanos)) {
+                actual = new Instantanea(calcular(), System.nanoTime());
+                instantanea = actual;
+            }
+            return actual.estadisticas();
+        } finally {
+            calculo.unlock();
+        }
+    }
+
+    public void invalidar() {
+        instantanea = null;
+    }
+
+    private EstadisticasIncidenciasDTO calcular() {
+        Acumulado global = new Acumulado();
+        Map<String, Acumulado> porEstado = new TreeMap<>();
+        Map<String, Acumulado> porPrioridad = new TreeMap<>();
+        Map<String, Acumulado> porTecnico = new TreeMap<>();
+        Map<String, Acumulado> porEquipo = new TreeMap<>();
+
+        soloLectura.executeWithoutResult(status -> {
+            try (Stream<Object[]> filas = incidenciaRepository.streamResumen()) {
+                filas.forEach(fila -> {
+                    long total = ((Number) fila[4]).longValue();
+                    long resueltas = ((Number) fila[5]).longValue();
+                    double segundos = fila[6] == null ? 0 : ((Number) fila[6]).doubleValue();
+                    global.sumar(total, resueltas, segundos);
+                    porEstado.computeIfAbsent(clave(fila[0]), k -> new Acumulado()).sumar(total, resueltas, segundos);
+                    porPrioridad.computeIfAbsent(clave(fila[1]), k -> new Acumulado()).sumar(total, resueltas, segundos);
+                    porTecnico.computeIfAbsent(clave(fila[2]), k -> new Acumulado()).sumar(total, resueltas, segundos);
+                    porEquipo.computeIfAbsent(clave(fila[3]), k -> new Acumulado()).sumar(total, resueltas, segundos);
+                });
+            }
+        });
+
+        return new EstadisticasIncidenciasDTO(global.total, conteo(porEstado, "ABIERTA"),
+                conteo(porEstado, "EN_PROCESO"), conteo(porEstado, "RESUELTA"), conteo(porEstado, "CERRADA"),
+                global.tiempoMedioHoras(), desglose(porEstado), desglose(porPrioridad),
+                desglose(porTecnico), desglose(porEquipo), new Date());
+    }
+
+    private static long conteo(Map<String, Acumulado> porEstado, String estado) {
+        Acumulado acumulado = porEstado.get(estado);
+        return acumulado == null ? 0 : acumulado.total;
+    }
+
+    private static Map<String, Desglose> desglose(Map<String, Acumulado> mapa) {
+        Map<String, Desglose> resultado = new TreeMap<>();
+        mapa.forEach((k, v) -> resultado.put(k, new Desglose(v.total, v.resueltas, v.tiempoMedioHoras())));
+        return resultado;
+    }
+
+    private static String clave(Object valor) {
+        return Objects.toString(valor, SIN_VALOR);
+    }
+
+    private static final class Acumulado {
+        private long total;
+        private long resueltas;
+        private double segundosResolucion;
+
+        private void sumar(long total, long resueltas, double segundosResolucion) {
+            this.total += total;
+            this.resueltas += resueltas;
+            this.segundosResolucion += segundosResolucion;
+        }
+
+        private Double tiempoMedioHoras() {
+            return resueltas == 0 ? null : segundosResolucion / resueltas / SEGUNDOS_POR_HORA;
+        }
+    }
+
+    private record Instantanea(EstadisticasIncidenciasDTO estadisticas, long calculadaEn) {
+        private boolean vencida(long ttlNanos) {
+            return System.nanoTime() - calculadaEn >= ttlNanos;
+        }
+    }
+}
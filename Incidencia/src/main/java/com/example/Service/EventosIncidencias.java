@@ -0,0 +1,186 @@
+package com.example.Service;
+
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.Model.IncidenciaModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Flujo de cambios de incidencias para los tableros de despacho (Server-Sent Events), en lugar de que cada
+// tablero consulte /pendientes cada pocos segundos. IncidenciaService publica cada cambio al confirmarse,
+// con la incidencia que ya tiene en memoria, así suscribirse y recibir eventos no consulta la base.
+// Cada suscriptor tiene su propio búfer acotado: si un cliente lento lo llena, se le cierra el flujo
+// (sin frenar a los demás) y al reconectarse con Last-Event-ID recupera lo perdido desde los eventos recientes.
+@Component
+public class EventosIncidencias {
+
+    private final int historial;
+    private final int capacidad;
+    private final Duration latido;
+    private final Object cerrojo = new Object();
+    // Últimos eventos publicados, para reanudar desde un ID; ids consecutivos
+    private final ArrayDeque<EventoIncidenciaDTO> recientes = new ArrayDeque<>();
+    private final Set<Suscripcion> suscripciones = new HashSet<>();
+    // Parte de la hora de inicio en microsegundos: un ID de antes de un reinicio siempre queda bajo la ventana
+    // de eventos recientes y el cliente recibe RESINCRONIZAR en lugar de eventos que no corresponden
+    private long ultimo = System.currentTimeMillis() * 1000;
+
+    @Autowired
+    public EventosIncidencias(@Value("${incidencia.eventos.historial:1000}") int historial,
+                              @Value("${incidencia.eventos.capacidad:256}") int capacidad,
+                              @Value("${incidencia.eventos.latido-ms:15000}") long latidoMs) {
+        this.historial = historial;
+        this.capacidad = capacidad;
+        this.latido = Duration.ofMillis(latidoMs);
+    }
+
+    // Evento para la incidencia tal como quedó; anterior es null si se acaba de crear
+    public static EventoIncidenciaDTO cambio(IncidenciaModel incidencia, Anterior anterior) {
+        Long idTecnico = incidencia.getTecnico() == null ? null : incidencia.getTecnico().getIdTecnico();
+        String tipo;
+        if (anterior == null) {
+            tipo = "CREADA";
+        } else if ("CERRADA".equals(incidencia.getEstado()) && !"CERRADA".equals(anterior.estado())) {
+            tipo = "CERRADA";
+        } else if (idTecnico != null && !idTecnico.equals(anterior.idTecnico())) {
+            tipo = "ASIGNADA";
+        } else {
+            tipo = "ACTUALIZADA";
+        }
+        return new EventoIncidenciaDTO(null, tipo, incidencia.getIdIncidencia(), incidencia.getEstado(),
+                anterior == null ? null : anterior.estado(), incidencia.getPrioridad(), idTecnico,
+                anterior == null ? null : anterior.idTecnico(), idEquipo(incidencia), null);
+    }
+
+    // Para las asignaciones con UPDATE condicional, que no pasan por la entidad: pendiente es la incidencia
+    // antes de asignarse
+    public static EventoIncidenciaDTO asignacion(IncidenciaModel pendiente, Long idTecnico) {
+        return new EventoIncidenciaDTO(null, "ASIGNADA", pendiente.getIdIncidencia(), "EN_PROCESO",
+                pendiente.getEstado(), pendiente.getPrioridad(), idTecnico, null, idEquipo(pendiente), null);
+    }
+
+    // La incidencia superó el plazo de su prioridad; si se escaló, ya trae la prioridad nueva
+    public static EventoIncidenciaDTO vencimientoSla(IncidenciaModel incidencia) {
+        Long idTecnico = incidencia.getTecnico() == null ? null : incidencia.getTecnico().getIdTecnico();
+        return new EventoIncidenciaDTO(null, "SLA_VENCIDA", incidencia.getIdIncidencia(), incidencia.getEstado(),
+                incidencia.getEstado(), incidencia.getPrioridad(), idTecnico, idTecnico, idEquipo(incidencia), null);
+    }
+
+    public static EventoIncidenciaDTO eliminacion(Long idIncidencia, Anterior anterior) {
+        return new EventoIncidenciaDTO(null, "ELIMINADA", idIncidencia, null,
+                anterior == null ? null : anterior.estado(), null, null,
+                anterior == null ? null : anterior.idTecnico(), null, null);
+    }
+
+    // Asigna el ID, lo guarda entre los recientes y lo deja en el búfer de cada suscriptor interesado
+    public void publicar(EventoIncidenciaDTO evento) {
+        synchronized (cerrojo) {
+            evento.setId(++ultimo);
+            evento.setFecha(new Date());
+            recientes.addLast(evento);
+            if (recientes.size() > historial) {
+                recientes.removeFirst();
+            }
+            suscripciones.removeIf(suscripcion -> !suscripcion.entregar(evento));
+        }
+    }
+
+    // Eventos que coinciden con los filtros (nulos = todos), empezando por los recientes posteriores a desde.
+    // Si desde ya no está entre los recientes, el primer evento es RESINCRONIZAR: el cliente debe recargar
+    // su lista completa una vez y seguir con el flujo.
+    public Flux<ServerSentEvent<EventoIncidenciaDTO>> suscribir(String estado, Long idTecnico, Long desde) {
+        return Flux.defer(() -> {
+            Suscripcion suscripcion = new Suscripcion(estado, idTecnico,
+                    Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(capacidad)));
+            List<EventoIncidenciaDTO> pendientes = new ArrayList<>();
+            synchronized (cerrojo) {
+                long primero = recientes.isEmpty() ? ultimo + 1 : recientes.getFirst().getId();
+                if (desde != null && (desde < primero - 1 || desde > ultimo)) {
+                    pendientes.add(new EventoIncidenciaDTO(ultimo, "RESINCRONIZAR", null, null, null, null, null,
+                            null, null, new Date()));
+                } else if (desde != null) {
+                    recientes.stream()
+                            .filter(evento -> evento.getId() > desde && suscripcion.coincide(evento))
+                            .forEach(pendientes::add);
+                }
+                // Registrada junto con la copia de los recientes: ningún evento queda entre ambos
+                suscripciones.add(suscripcion);
+            }
+
+            Sinks.Empty<Void> fin = Sinks.empty();
+            Flux<ServerSentEvent<EventoIncidenciaDTO>> eventos = Flux.fromIterable(pendientes)
+                    .concatWith(suscripcion.sink().asFlux())
+                    .map(evento -> ServerSentEvent.builder(evento)
+                            .id(String.valueOf(evento.getId()))
+                            .event(evento.getTipo())
+                            .build())
+                    .doOnTerminate(fin::tryEmitEmpty);
+            // Comentarios periódicos para que los proxies no corten una conexión sin cambios
+            Flux<ServerSentEvent<EventoIncidenciaDTO>> latidos = Flux.interval(latido)
+                    .onBackpressureDrop()
+                    .map(n -> ServerSentEvent.<EventoIncidenciaDTO>builder().comment("latido").build())
+                    .takeUntilOther(fin.asMono());
+            // Sin prefetch: lo que el cliente no alcanza a leer queda en su búfer, no en el merge
+            return Flux.merge(1, eventos, latidos).doFinally(senal -> quitar(suscripcion));
+        });
+    }
+
+    int getSuscriptores() {
+        synchronized (cerrojo) {
+            return suscripciones.size();
+        }
+    }
+
+    private void quitar(Suscripcion suscripcion) {
+        synchronized (cerrojo) {
+            suscripciones.remove(suscripcion);
+        }
+    }
+
+    private static Long idEquipo(IncidenciaModel incidencia) {
+        return incidencia.getEquipo() == null ? null : incidencia.getEquipo().getIdEquipo();
+    }
+
+    // Estado y técnico de la incidencia antes del cambio
+    public record Anterior(String estado, Long idTecnico) {
+
+        public static Anterior de(IncidenciaModel incidencia) {
+            return new Anterior(incidencia.getEstado(),
+                    incidencia.getTecnico() == null ? null : incidencia.getTecnico().getIdTecnico());
+        }
+    }
+
+    private record Suscripcion(String estado, Long idTecnico, Sinks.Many<EventoIncidenciaDTO> sink) {
+
+        // Un tablero filtrado también recibe las incidencias que salen del filtro, para poder quitarlas
+        boolean coincide(EventoIncidenciaDTO evento) {
+            return (estado == null || estado.equals(evento.getEstado()) || estado.equals(evento.getEstadoAnterior()))
+                    && (idTecnico == null || idTecnico.equals(evento.getIdTecnico())
+                    || idTecnico.equals(evento.getIdTecnicoAnterior()));
+        }
+
+        // false si la suscripción terminó: el cliente se fue o llenó su búfer (se cierra al vaciarlo)
+        boolean entregar(EventoIncidenciaDTO evento) {
+            if (!coincide(evento)) {
+                return true;
+            }
+            Sinks.EmitResult resultado = sink.tryEmitNext(evento);
+            if (resultado == Sinks.EmitResult.FAIL_OVERFLOW) {
+                sink.tryEmitComplete();
+            }
+            return resultado.isSuccess();
+        }
+    }
+}
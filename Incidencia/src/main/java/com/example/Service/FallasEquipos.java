@@ -0,0 +1,397 @@
+package com.example.Service;
+
+import com.example.DTO.FallasEquipoDTO;
+import com.example.Model.IncidenciaModel;
+import com.example.Repository.IncidenciaArchivadaRepository;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Fallas por equipo acumuladas en memoria: cantidad por semana, tiempo medio entre fallas (MTBF) y
+// tiempo medio de reparación (MTTR). IncidenciaService entrega cada alta, cambio y cierre ya confirmado,
+// así los rankings de equipos problemáticos no recorren la tabla de incidencias.
+// La reconstrucción desde el historial lee la tabla y el archivo en tramos de ID en paralelo, arma un
+// acumulado nuevo y lo reemplaza; los cambios que llegan mientras corre se vuelven a aplicar sobre el nuevo.
+// Un cambio confirmado justo antes de la instantánea de un tramo puede llegar después de que empezó su
+// lectura, así que por cada incidencia cambiada se relee en la misma instantánea lo que se contó y se
+// reemplaza por el estado del último cambio, en vez de sumar cada cambio otra vez.
+@Component
+public class FallasEquipos {
+
+    private static final Logger log = LoggerFactory.getLogger(FallasEquipos.class);
+    private static final double MS_POR_HORA = 3_600_000.0;
+
+    private final IncidenciaRepository incidenciaRepository;
+    private final IncidenciaArchivadaRepository incidenciaArchivadaRepository;
+    private final TransactionTemplate soloLectura;
+    private final int particiones;
+    private final ZoneId zona = ZoneId.systemDefault();
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    // Lectura: aplicar un cambio. Escritura: reemplazar el acumulado al terminar una reconstrucción.
+    private final ReentrantReadWriteLock reemplazo = new ReentrantReadWriteLock();
+    private volatile Acumulado acumulado = new Acumulado();
+    private volatile Queue<Cambio> cambiosDuranteReconstruccion;
+
+    @Autowired
+    public FallasEquipos(IncidenciaRepository incidenciaRepository,
+                         IncidenciaArchivadaRepository incidenciaArchivadaRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${incidencia.fallas.particiones:4}") int particiones) {
+        this.incidenciaRepository = incidenciaRepository;
+        this.incidenciaArchivadaRepository = incidenciaArchivadaRepository;
+        this.soloLectura = new TransactionTemplate(transactionManager);
+        this.soloLectura.setReadOnly(true);
+        this.particiones = Math.max(1, particiones);
+    }
+
+    @PostConstruct
+    public void cargar() {
+        reconstruir();
+    }
+
+    // Las bajas y los cambios de equipo no pueden deshacer la primera y la última falla de un equipo;
+    // la reconstrucción periódica corrige ese MTBF.
+    @Scheduled(initialDelayString = "${incidencia.fallas.reconstruccion-ms:3600000}",
+               fixedDelayString = "${incidencia.fallas.reconstruccion-ms:3600000}")
+    public void reconstruirPeriodicamente() {
+        try {
+            reconstruir();
+        } catch (IllegalStateException e) {
+            log.debug("Reconstrucción de fallas por equipo omitida: {}", e.getMessage());
+        }
+    }
+
+    public void reemplazar(Long idIncidencia, Falla antes, Falla despues) {
+        reemplazo.readLock().lock();
+        try {
+            acumulado.aplicar(antes, despues);
+            Queue<Cambio> pendientes = cambiosDuranteReconstruccion;
+            if (pendientes != null) {
+                pendientes.add(new Cambio(System.nanoTime(), idIncidencia, antes, despues));
+            }
+        } finally {
+            reemplazo.readLock().unlock();
+        }
+    }
+
+    public Optional<FallasEquipoDTO> obtener(Long idEquipo, int semanas) {
+        Equipo equipo = acumulado.porEquipo.get(idEquipo);
+        if (equipo == null || equipo.fallas.sum() <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(equipo.resumen(idEquipo, desde(semanas)));
+    }
+
+    // Los `n` equipos con más fallas en las últimas `semanas` (incluida la actual); a igual cantidad,
+    // el de menor tiempo entre fallas
+    public List<FallasEquipoDTO> top(int n, int semanas) {
+        if (n <= 0) {
+            return List.of();
+        }
+        LocalDate desde = desde(semanas);
+        Comparator<FallasEquipoDTO> orden = Comparator.comparingLong(FallasEquipoDTO::getFallasPeriodo)
+                .thenComparing(FallasEquipoDTO::getTiempoMedioEntreFallasHoras,
+                        Comparator.nullsFirst(Comparator.<Double>reverseOrder()));
+        PriorityQueue<FallasEquipoDTO> mejores = new PriorityQueue<>(n + 1, orden);
+        acumulado.porEquipo.forEach((idEquipo, equipo) -> {
+            long enPeriodo = equipo.fallasDesde(desde);
+            if (enPeriodo <= 0) {
+                return;
+            }
+            if (mejores.size() == n && enPeriodo < mejores.peek().getFallasPeriodo()) {
+                return;
+            }
+            mejores.add(equipo.resumen(idEquipo, desde));
+            if (mejores.size() > n) {
+                mejores.poll();
+            }
+        });
+        List<FallasEquipoDTO> resultado = new ArrayList<>(mejores);
+        resultado.sort(orden.reversed());
+        return resultado;
+    }
+
+    public long reconstruir() {
+        if (!reconstruccion.tryLock()) {
+            throw new IllegalStateException("Ya hay una reconstrucción de fallas por equipo en curso");
+        }
+        try {
+            cambiosDuranteReconstruccion = new ConcurrentLinkedQueue<>();
+            Acumulado nuevo = new Acumulado();
+            LongAdder leidas = new LongAdder();
+            Tramos tramos = tramos();
+            long[] inicios = new long[tramos.cantidad()];
+            // Lo que la instantánea de cada tramo contó para las incidencias que cambiaron mientras se leía
+            Map<Long, Optional<Falla>> vistas = new ConcurrentHashMap<>();
+            if (tramos.cantidad() > 0) {
+                try (ExecutorService hilos = Executors.newFixedThreadPool(tramos.cantidad())) {
+                    List<Future<?>> tareas = new ArrayList<>();
+                    for (int p = 0; p < tramos.cantidad(); p++) {
+                        int tramo = p;
+                        // Tabla y archivo en la misma transacción: con REPEATABLE READ ambas lecturas ven la
+                        // misma instantánea, y una incidencia que se archiva entre una y otra se cuenta una vez
+                        tareas.add(hilos.submit(() -> soloLectura.executeWithoutResult(status -> {
+                            inicios[tramo] = System.nanoTime();
+                            try (Stream<Object[]> filas = incidenciaRepository.streamFallas(
+                                    tramos.desde(tramo), tramos.hasta(tramo))) {
+                                sumar(nuevo, filas, leidas);
+                            }
+                            try (Stream<Object[]> filas = incidenciaArchivadaRepository.streamFallas(
+                                    tramos.desde(tramo), tramos.hasta(tramo))) {
+                                sumar(nuevo, filas, leidas);
+                            }
+                            vistas.putAll(releer(tocadas(tramos, tramo)));
+                        })));
+                    }
+                    esperar(tareas);
+                }
+            }
+            reemplazo.writeLock().lock();
+            try {
+                // Una incidencia releída cuenta una vez, con el estado de su último cambio. Para las que
+                // cambiaron recién después de releer su tramo, un cambio posterior al inicio de la lectura
+                // no quedó en lo leído.
+                Map<Long, Falla> ultimas = new LinkedHashMap<>();
+                for (Cambio cambio : cambiosDuranteReconstruccion) {
+                    int tramo = tramos.de(cambio.idIncidencia());
+                    if (vistas.containsKey(cambio.idIncidencia())) {
+                        ultimas.put(cambio.idIncidencia(), cambio.despues());
+                    } else if (tramo < 0 || cambio.instante() >= inicios[tramo]) {
+                        nuevo.aplicar(cambio.antes(), cambio.despues());
+                    }
+                }
+                ultimas.forEach((id, ultima) -> nuevo.aplicar(vistas.get(id).orElse(null), ultima));
+                acumulado = nuevo;
+            } finally {
+                reemplazo.writeLock().unlock();
+            }
+            log.info("Fallas por equipo reconstruidas desde {} incidencias en {} tramos", leidas.sum(), tramos.cantidad());
+            return leidas.sum();
+        } finally {
+            cambiosDuranteReconstruccion = null;
+            reconstruccion.unlock();
+        }
+    }
+
+    private static void sumar(Acumulado acumulado, Stream<Object[]> filas, LongAdder leidas) {
+        filas.forEach(fila -> {
+            acumulado.sumar(Falla.de((Long) fila[1], (Date) fila[2], (Date) fila[3]), 1);
+            leidas.increment();
+        });
+    }
+
+    private Set<Long> tocadas(Tramos tramos, int tramo) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Cambio cambio : cambiosDuranteReconstruccion) {
+            if (tramos.de(cambio.idIncidencia()) == tramo) {
+                ids.add(cambio.idIncidencia());
+            }
+        }
+        return ids;
+    }
+
+    // Debe llamarse en la transacción del tramo, para ver la misma instantánea que su lectura
+    private Map<Long, Optional<Falla>> releer(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Optional<Falla>> vistas = new LinkedHashMap<>();
+        ids.forEach(id -> vistas.put(id, Optional.empty()));
+        for (List<Object[]> filas : List.of(incidenciaRepository.findFallasByIds(ids),
+                incidenciaArchivadaRepository.findFallasByIds(ids))) {
+            for (Object[] fila : filas) {
+                vistas.put((Long) fila[0], Optional.ofNullable(Falla.de((Long) fila[1], (Date) fila[2], (Date) fila[3])));
+            }
+        }
+        return vistas;
+    }
+
+    // Rango de IDs que cubre la tabla y el archivo
+    private Tramos tramos() {
+        long minimo = Long.MAX_VALUE;
+        long maximo = Long.MIN_VALUE;
+        for (List<Object[]> rango : List.of(incidenciaRepository.findRangoIds(),
+                incidenciaArchivadaRepository.findRangoIds())) {
+            if (!rango.isEmpty() && rango.get(0)[0] != null) {
+                minimo = Math.min(minimo, ((Number) rango.get(0)[0]).longValue());
+                maximo = Math.max(maximo, ((Number) rango.get(0)[1]).longValue());
+            }
+        }
+        if (minimo > maximo) {
+            return new Tramos(0, -1, 0, 1);
+        }
+        long largo = (maximo - minimo) / particiones + 1;
+        int cantidad = (int) Math.min(particiones, (maximo - minimo) / largo + 1);
+        return new Tramos(minimo, maximo, cantidad, largo);
+    }
+
+    private static void esperar(List<Future<?>> tareas) {
+        try {
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No se pudieron reconstruir las fallas por equipo", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstrucción de fallas por equipo interrumpida", e);
+        }
+    }
+
+    private LocalDate desde(int semanas) {
+        return semana(LocalDate.now(zona)).minusWeeks(Math.max(semanas, 1) - 1L);
+    }
+
+    private LocalDate semana(long instante) {
+        return semana(Instant.ofEpochMilli(instante).atZone(zona).toLocalDate());
+    }
+
+    private static LocalDate semana(LocalDate dia) {
+        return dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static Double horas(double milisegundos) {
+        return Math.round(milisegundos / MS_POR_HORA * 100.0) / 100.0;
+    }
+
+    // Lo que aporta una incidencia a las fallas de su equipo
+    public record Falla(Long idEquipo, long reporte, Long resolucion) {
+
+        public static Falla de(IncidenciaModel incidencia) {
+            return incidencia.getEquipo() == null ? null : de(incidencia.getEquipo().getIdEquipo(),
+                    incidencia.getFechaReporte(), incidencia.getFechaResolucion());
+        }
+
+        static Falla de(Long idEquipo, Date fechaReporte, Date fechaResolucion) {
+            if (idEquipo == null || fechaReporte == null) {
+                return null;
+            }
+            return new Falla(idEquipo, fechaReporte.getTime(), fechaResolucion == null ? null : fechaResolucion.getTime());
+        }
+    }
+
+    private record Cambio(long instante, Long idIncidencia, Falla antes, Falla despues) {
+    }
+
+    // Tramos consecutivos de IDs [minimo, maximo], uno por hilo de la reconstrucción
+    private record Tramos(long minimo, long maximo, int cantidad, long largo) {
+
+        long desde(int tramo) {
+            return minimo + tramo * largo;
+        }
+
+        long hasta(int tramo) {
+            return Math.min(desde(tramo) + largo - 1, maximo);
+        }
+
+        // -1 para los IDs creados después de calcular los tramos, que ninguna lectura alcanzó a ver
+        int de(Long idIncidencia) {
+            if (cantidad == 0 || idIncidencia == null || idIncidencia < minimo || idIncidencia > maximo) {
+                return -1;
+            }
+            return (int) ((idIncidencia - minimo) / largo);
+        }
+    }
+
+    private final class Acumulado {
+        private final Map<Long, Equipo> porEquipo = new ConcurrentHashMap<>();
+
+        private void aplicar(Falla antes, Falla despues) {
+            if (antes != null) {
+                sumar(antes, -1);
+            }
+            if (despues != null) {
+                sumar(despues, 1);
+            }
+        }
+
+        private void sumar(Falla falla, int signo) {
+            if (falla != null) {
+                porEquipo.computeIfAbsent(falla.idEquipo(), id -> new Equipo()).sumar(falla, signo);
+            }
+        }
+    }
+
+    private final class Equipo {
+        private final LongAdder fallas = new LongAdder();
+        private final LongAdder reparaciones = new LongAdder();
+        private final LongAdder msReparacion = new LongAdder();
+        private final LongAccumulator primeraFalla = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator ultimaFalla = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final Map<LocalDate, LongAdder> porSemana = new ConcurrentHashMap<>();
+
+        private void sumar(Falla falla, int signo) {
+            fallas.add(signo);
+            porSemana.computeIfAbsent(semana(falla.reporte()), s -> new LongAdder()).add(signo);
+            if (signo > 0) {
+                primeraFalla.accumulate(falla.reporte());
+                ultimaFalla.accumulate(falla.reporte());
+            }
+            if (falla.resolucion() != null) {
+                reparaciones.add(signo);
+                msReparacion.add(signo * (falla.resolucion() - falla.reporte()));
+            }
+        }
+
+        private long fallasDesde(LocalDate desde) {
+            long total = 0;
+            for (Map.Entry<LocalDate, LongAdder> semana : porSemana.entrySet()) {
+                if (!semana.getKey().isBefore(desde)) {
+                    total += semana.getValue().sum();
+                }
+            }
+            return total;
+        }
+
+        private FallasEquipoDTO resumen(Long idEquipo, LocalDate desde) {
+            long total = fallas.sum();
+            long reparadas = reparaciones.sum();
+            Map<String, Long> semanas = new TreeMap<>();
+            porSemana.forEach((semana, cantidad) -> {
+                if (!semana.isBefore(desde) && cantidad.sum() != 0) {
+                    semanas.put(semana.toString(), cantidad.sum());
+                }
+            });
+            Double mtbf = total < 2 ? null : horas((double) (ultimaFalla.get() - primeraFalla.get()) / (total - 1));
+            Double mttr = reparadas <= 0 ? null : horas((double) msReparacion.sum() / reparadas);
+            return new FallasEquipoDTO(idEquipo, total, semanas.values().stream().mapToLong(Long::longValue).sum(),
+                    reparadas, mtbf, mttr, semanas);
+        }
+    }
+}
@@ -1,24 +1,78 @@
 package com.example.Service;
 
+import com.example.DTO.AsignacionDTO;
+import com.example.DTO.CacheEquiposDTO;
+import com.example.DTO.EstadisticasIncidenciasDTO;
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.DTO.FallasEquipoDTO;
+import com.example.DTO.IncidenciaHistorialDTO;
+import com.example.DTO.ResultadoBusquedaDTO;
+import com.example.DTO.ResultadoIngestaDTO;
 import com.example.Model.IncidenciaModel;
 import com.example.Model.TecnicoModel;
+import com.example.Repository.IncidenciaArchivadaRepository;
 import com.example.Repository.IncidenciaRepository;
+import com.example.Repository.TecnicoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class IncidenciaService {
 
     private final IncidenciaRepository incidenciaRepository;
+    private final CatalogoEquipos catalogoEquipos;
+    private final EstadisticasIncidencias estadisticasIncidencias;
+    private final TecnicoRepository tecnicoRepository;
+    private final ColaDespacho colaDespacho;
+    private final AsignadorTecnicos asignadorTecnicos;
+    private final IndiceIncidencias indiceIncidencias;
+    private final FallasEquipos fallasEquipos;
+    private final EventosIncidencias eventosIncidencias;
+    private final IncidenciaArchivadaRepository incidenciaArchivadaRepository;
+    private final ArchivoIncidencias archivoIncidencias;
+    private final VencimientosSla vencimientosSla;
+    private final IngestaAlarmas ingestaAlarmas;
 
     @Autowired
-    public IncidenciaService(IncidenciaRepository incidenciaRepository) {
+    public IncidenciaService(IncidenciaRepository incidenciaRepository, CatalogoEquipos catalogoEquipos,
+                             EstadisticasIncidencias estadisticasIncidencias, TecnicoRepository tecnicoRepository,
+                             ColaDespacho colaDespacho, AsignadorTecnicos asignadorTecnicos,
+                             IndiceIncidencias indiceIncidencias, FallasEquipos fallasEquipos,
+                             EventosIncidencias eventosIncidencias,
+                             IncidenciaArchivadaRepository incidenciaArchivadaRepository,
+                             ArchivoIncidencias archivoIncidencias, VencimientosSla vencimientosSla,
+                             IngestaAlarmas ingestaAlarmas) {
         this.incidenciaRepository = incidenciaRepository;
+        this.catalogoEquipos = catalogoEquipos;
+        this.estadisticasIncidencias = estadisticasIncidencias;
+        this.tecnicoRepository = tecnicoRepository;
+        this.colaDespacho = colaDespacho;
+        this.asignadorTecnicos = asignadorTecnicos;
+        this.indiceIncidencias = indiceIncidencias;
+        this.fallasEquipos = fallasEquipos;
+        this.eventosIncidencias = eventosIncidencias;
+        this.incidenciaArchivadaRepository = incidenciaArchivadaRepository;
+        this.archivoIncidencias = archivoIncidencias;
+        this.vencimientosSla = vencimientosSla;
+        this.ingestaAlarmas = ingestaAlarmas;
     }
 
     public List<IncidenciaModel> findAll() {
@@ -63,16 +117,34 @@ public class IncidenciaService {
 
     @Transactional
     public IncidenciaModel save(IncidenciaModel incidencia) {
-        if (incidencia.getFechaReporte() == null) {
-            incidencia.setFechaReporte(new Date());
-        }
-        if (incidencia.getEstado() == null || incidencia.getEstado().isEmpty()) {
-            incidencia.setEstado("ABIERTA");
-        }
-        if (incidencia.getPrioridad() == null || incidencia.getPrioridad().isEmpty()) {
-            incidencia.setPrioridad("MEDIA");
+        completarValoresPorDefecto(incidencia);
+        Long id = incidencia.getIdIncidencia();
+        Guardada previa = id == null ? null : guardada(id);
+        Antes antes = id == null ? null : antes(id, previa);
+        incidencia.setVencimientoSla(previa == null ? null : previa.vencimientoSla());
+        asignarVencimientoSla(incidencia, previa == null ? null : previa.prioridad());
+        IncidenciaModel guardada = incidenciaRepository.save(incidencia);
+        alConfirmar(guardada.getIdIncidencia(), antes, guardada);
+        return guardada;
+    }
+
+    // Alta de incidencias nuevas en bloque (ingesta de alarmas): los INSERT se envían en lotes JDBC al confirmar
+    @Transactional
+    public List<IncidenciaModel> saveAll(List<IncidenciaModel> nuevas) {
+        for (IncidenciaModel incidencia : nuevas) {
+            completarValoresPorDefecto(incidencia);
+            asignarVencimientoSla(incidencia, null);
         }
-        return incidenciaRepository.save(incidencia);
+        List<IncidenciaModel> guardadas = incidenciaRepository.saveAll(nuevas);
+        alConfirmar(guardadas.stream()
+                .map(guardada -> Cambio.de(guardada.getIdIncidencia(), null, guardada))
+                .toList());
+        return guardadas;
+    }
+
+    // Alarmas de telemetría en NDJSON; cada lote se confirma por separado
+    public ResultadoIngestaDTO ingerirAlarmas(Reader cuerpo) throws IOException {
+        return ingestaAlarmas.ingerir(cuerpo, this::saveAll);
     }
 
     @Transactional
@@ -80,6 +152,8 @@ public class IncidenciaService {
         Optional<IncidenciaModel> optionalIncidencia = findById(id);
         if (optionalIncidencia.isPresent()) {
             IncidenciaModel incidencia = optionalIncidencia.get();
+            Antes antes = Antes.de(incidencia);
+            String prioridadAnterior = incidencia.getPrioridad();
             
             if (incidenciaDetails.getDescripcion() != null) {
                 incidencia.setDescripcion(incidenciaDetails.getDescripcion());
@@ -109,7 +183,10 @@ public class IncidenciaService {
                 incidencia.setFechaResolucion(incidenciaDetails.getFechaResolucion());
             }
             
-            return incidenciaRepository.save(incidencia);
+            asignarVencimientoSla(incidencia, prioridadAnterior);
+            IncidenciaModel actualizada = incidenciaRepository.save(incidencia);
+            alConfirmar(id, antes, actualizada);
+            return actualizada;
         }
         throw new RuntimeException("Incidencia no encontrada con ID: " + id);
     }
@@ -119,13 +196,17 @@ public class IncidenciaService {
         Optional<IncidenciaModel> optionalIncidencia = findById(idIncidencia);
         if (optionalIncidencia.isPresent()) {
             IncidenciaModel incidencia = optionalIncidencia.get();
+            Antes antes = Antes.de(incidencia);
             incidencia.setTecnico(tecnico);
             
             if ("ABIERTA".equals(incidencia.getEstado())) {
                 incidencia.setEstado("EN_PROCESO");
             }
             
-            return incidenciaRepository.save(incidencia);
+            asignarVencimientoSla(incidencia, incidencia.getPrioridad());
+            IncidenciaModel asignada = incidenciaRepository.save(incidencia);
+            alConfirmar(idIncidencia, antes, asignada);
+            return asignada;
         }
         throw new RuntimeException("Incidencia no encontrada con ID: " + idIncidencia);
     }
@@ -135,11 +216,14 @@ public class IncidenciaService {
         Optional<IncidenciaModel> optionalIncidencia = findById(idIncidencia);
         if (optionalIncidencia.isPresent()) {
             IncidenciaModel incidencia = optionalIncidencia.get();
+            Antes antes = Antes.de(incidencia);
             incidencia.setEstado("CERRADA");
             incidencia.setSolucion(solucion);
             incidencia.setFechaResolucion(new Date());
             
-            return incidenciaRepository.save(incidencia);
+            IncidenciaModel cerrada = incidenciaRepository.save(incidencia);
+            alConfirmar(idIncidencia, antes, cerrada);
+            return cerrada;
         }
         throw new RuntimeException("Incidencia no encontrada con ID: " + idIncidencia);
     }
@@ -149,6 +233,252 @@ public class IncidenciaService {
         if (!incidenciaRepository.existsById(id)) {
             throw new RuntimeException("Incidencia no encontrada con ID: " + id);
         }
+        Antes antes = antes(id, guardada(id));
         incidenciaRepository.deleteById(id);
+        alConfirmar(id, antes, null);
+    }
+
+    // Toma la siguiente incidencia de la cola de despacho y se la asigna al técnico. El UPDATE condicional
+    // descarta las que ya se asignaron o cerraron por otro camino; si la transacción no se confirma,
+    // la incidencia tomada vuelve a la cola.
+    @Transactional
+    public Optional<IncidenciaModel> reclamarSiguiente(Long idTecnico) {
+        TecnicoModel tecnico = tecnicoRepository.findById(idTecnico)
+                .orElseThrow(() -> new RuntimeException("Técnico no encontrado con ID: " + idTecnico));
+        Optional<ColaDespacho.Entrada> siguiente;
+        while ((siguiente = colaDespacho.tomar()).isPresent()) {
+            ColaDespacho.Entrada entrada = siguiente.get();
+            if (incidenciaRepository.asignarSiPendiente(entrada.idIncidencia(), tecnico) == 1) {
+                Transacciones.siNoSeConfirma(() -> colaDespacho.devolver(entrada));
+                Optional<IncidenciaModel> reclamada = incidenciaRepository.findById(entrada.idIncidencia());
+                // El UPDATE condicional solo aplica sobre una ABIERTA sin técnico; el equipo y las fechas no cambian
+                reclamada.ifPresent(incidencia -> alConfirmar(entrada.idIncidencia(), new Antes(
+                        new EventosIncidencias.Anterior("ABIERTA", null), null, FallasEquipos.Falla.de(incidencia)),
+                        incidencia));
+                return reclamada;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Elige el técnico con el motor de asignación y lo asigna como asignarTecnico
+    @Transactional
+    public IncidenciaModel asignarAutomaticamente(Long idIncidencia, String zona) {
+        IncidenciaModel incidencia = findById(idIncidencia)
+                .orElseThrow(() -> new RuntimeException("Incidencia no encontrada con ID: " + idIncidencia));
+        AsignacionDTO asignacion = asignadorTecnicos.elegir(incidencia, zona, asignadorTecnicos.disponibles())
+                .orElseThrow(() -> new IllegalStateException("No hay técnicos disponibles"));
+        TecnicoModel tecnico = tecnicoRepository.findById(asignacion.getIdTecnico())
+                .orElseThrow(() -> new IllegalStateException("Técnico no encontrado con ID: " + asignacion.getIdTecnico()));
+        return asignarTecnico(idIncidencia, tecnico);
+    }
+
+    public List<AsignacionDTO> asignarPendientes(int limite, String zona) {
+        return asignadorTecnicos.asignarPendientes(limite, zona);
+    }
+
+    public Map<Long, Integer> getCargasTecnicos() {
+        return asignadorTecnicos.getCargas();
+    }
+
+    // Primeras incidencias de la cola de despacho, en el orden en que se entregarían
+    public List<IncidenciaModel> findColaDespacho(int limite) {
+        List<Long> ids = colaDespacho.primeras(limite);
+        Map<Long, IncidenciaModel> porId = incidenciaRepository.findListadoByIds(ids).stream()
+                .collect(Collectors.toMap(IncidenciaModel::getIdIncidencia, Function.identity()));
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Búsqueda de texto en descripción y solución desde el índice local; las incidencias de la página
+    // se cargan en una sola consulta y se devuelven en el orden de relevancia
+    public ResultadoBusquedaDTO buscar(String texto, String estado, int pagina, int tamano) {
+        IndiceIncidencias.Pagina encontradas = indiceIncidencias.buscar(texto, estado, pagina, tamano);
+        List<Long> ids = encontradas.resultados().stream().map(IndiceIncidencias.Resultado::idIncidencia).toList();
+        Map<Long, IncidenciaModel> porId = incidenciaRepository.findListadoByIds(ids).stream()
+                .collect(Collectors.toMap(IncidenciaModel::getIdIncidencia, Function.identity()));
+        List<ResultadoBusquedaDTO.Coincidencia> coincidencias = encontradas.resultados().stream()
+                .filter(resultado -> porId.containsKey(resultado.idIncidencia()))
+                .map(resultado -> new ResultadoBusquedaDTO.Coincidencia(porId.get(resultado.idIncidencia()),
+                        resultado.puntaje()))
+                .toList();
+        return new ResultadoBusquedaDTO(encontradas.total(), encontradas.totalExacto(), pagina, tamano, coincidencias);
+    }
+
+    public long reconstruirIndiceBusqueda() {
+        return indiceIncidencias.reconstruir();
+    }
+
+    public List<FallasEquipoDTO> findEquiposConMasFallas(int top, int semanas) {
+        return fallasEquipos.top(top, semanas);
+    }
+
+    public Optional<FallasEquipoDTO> findFallasEquipo(Long idEquipo, int semanas) {
+        return fallasEquipos.obtener(idEquipo, semanas);
+    }
+
+    public long reconstruirFallasEquipos() {
+        return fallasEquipos.reconstruir();
+    }
+
+    // Historial completo, vigente y archivado, de las incidencias reportadas entre los días inicio y fin
+    // (ambos incluidos), ordenado por fecha de reporte. Las demás consultas solo leen la tabla vigente.
+    public List<IncidenciaHistorialDTO> findHistorial(Date inicio, Date fin, Long idEquipo, int limite) {
+        Date hasta = new Date(fin.getTime() + TimeUnit.DAYS.toMillis(1));
+        Pageable primeras = PageRequest.of(0, limite);
+        List<IncidenciaHistorialDTO> historial = new ArrayList<>(
+                incidenciaArchivadaRepository.findHistorial(inicio, hasta, idEquipo, primeras));
+        historial.addAll(incidenciaRepository.findHistorial(inicio, hasta, idEquipo, primeras));
+        return historial.stream()
+                .sorted(Comparator.comparing(IncidenciaHistorialDTO::getFechaReporte)
+                        .thenComparing(IncidenciaHistorialDTO::getIdIncidencia))
+                .limit(limite)
+                .toList();
+    }
+
+    public long archivarCerradas() {
+        return archivoIncidencias.archivar();
+    }
+
+    public Flux<ServerSentEvent<EventoIncidenciaDTO>> suscribirEventos(String estado, Long idTecnico, Long desde) {
+        return eventosIncidencias.suscribir(estado, idTecnico, desde);
+    }
+
+    public EstadisticasIncidenciasDTO getEstadisticas() {
+        return estadisticasIncidencias.obtener();
+    }
+
+    public CacheEquiposDTO getEstadisticasCacheEquipos() {
+        return catalogoEquipos.estadisticas();
+    }
+
+    public void invalidarCacheEquipos(Long idEquipo) {
+        if (idEquipo == null) {
+            catalogoEquipos.invalidarTodo();
+        } else {
+            catalogoEquipos.invalidar(idEquipo);
+        }
+    }
+
+    private void alConfirmar(Long id, Antes antes, IncidenciaModel despues) {
+        alConfirmar(List.of(Cambio.de(id, antes, despues)));
+    }
+
+    // Lleva los cambios de la transacción a las vistas en memoria cuando se confirma. La cola de despacho relee
+    // el estado confirmado en una sola consulta: los callbacks de dos transacciones sobre la misma incidencia
+    // pueden llegar en cualquier orden y una entrada calculada aquí podría pisar otra más nueva. Las cargas y
+    // las fallas se trasladan de antes a después, el SLA se reprograma o se cancela y se publica el evento.
+    private void alConfirmar(List<Cambio> cambios) {
+        List<Long> ids = cambios.stream().map(Cambio::id).filter(Objects::nonNull).toList();
+        Transacciones.despuesDeConfirmar(() -> {
+            if (!ids.isEmpty()) {
+                colaDespacho.refrescar(ids);
+            }
+            for (Cambio cambio : cambios) {
+                vencimientosSla.actualizar(cambio.id(), cambio.vencimientoSla());
+                if (!Objects.equals(cambio.tecnicoAnterior(), cambio.tecnicoNuevo())) {
+                    asignadorTecnicos.moverCarga(cambio.tecnicoAnterior(), cambio.tecnicoNuevo());
+                }
+                if (cambio.documento() == null) {
+                    indiceIncidencias.eliminar(cambio.id());
+                } else {
+                    indiceIncidencias.actualizar(cambio.documento());
+                }
+                if (!Objects.equals(cambio.fallaAnterior(), cambio.fallaNueva())) {
+                    fallasEquipos.reemplazar(cambio.id(), cambio.fallaAnterior(), cambio.fallaNueva());
+                }
+                eventosIncidencias.publicar(cambio.evento());
+            }
+        });
+    }
+
+    private static void completarValoresPorDefecto(IncidenciaModel incidencia) {
+        if (incidencia.getFechaReporte() == null) {
+            incidencia.setFechaReporte(new Date());
+        }
+        if (incidencia.getEstado() == null || incidencia.getEstado().isEmpty()) {
+            incidencia.setEstado("ABIERTA");
+        }
+        if (incidencia.getPrioridad() == null || incidencia.getPrioridad().isEmpty()) {
+            incidencia.setPrioridad("MEDIA");
+        }
+    }
+
+    // Conserva el vencimiento mientras no cambie la prioridad; si cambia, el plazo de la nueva cuenta desde el reporte
+    private void asignarVencimientoSla(IncidenciaModel incidencia, String prioridadAnterior) {
+        if (incidencia.getVencimientoSla() == null || !Objects.equals(prioridadAnterior, incidencia.getPrioridad())) {
+            incidencia.setVencimientoSla(vencimientosSla.vencimiento(incidencia.getPrioridad(), incidencia.getFechaReporte()));
+        }
+    }
+
+    private Guardada guardada(Long id) {
+        List<Object[]> filas = incidenciaRepository.findGuardadaById(id);
+        if (filas.isEmpty()) {
+            return null;
+        }
+        Object[] fila = filas.get(0);
+        return new Guardada((String) fila[0], (Long) fila[1], (String) fila[2], (Date) fila[3]);
+    }
+
+    // Lo guardado antes del cambio según la base; sin fila guardada solo cuenta su falla, si la hubiera
+    private Antes antes(Long id, Guardada previa) {
+        FallasEquipos.Falla falla = fallaGuardada(id);
+        return previa == null ? new Antes(null, null, falla) : previa.antes(falla);
+    }
+
+    private FallasEquipos.Falla fallaGuardada(Long id) {
+        List<Object[]> filas = incidenciaRepository.findFallaById(id);
+        return filas.isEmpty() ? null : FallasEquipos.Falla.de((Long) filas.get(0)[0], (Date) filas.get(0)[1],
+                (Date) filas.get(0)[2]);
+    }
+
+    private static Long tecnicoConCarga(IncidenciaModel incidencia) {
+        return tecnicoConCarga(incidencia.getEstado(),
+                incidencia.getTecnico() == null ? null : incidencia.getTecnico().getIdTecnico());
+    }
+
+    private static Long tecnicoConCarga(String estado, Long idTecnico) {
+        return abierta(estado) ? idTecnico : null;
+    }
+
+    private static boolean abierta(String estado) {
+        return "ABIERTA".equals(estado) || "EN_PROCESO".equals(estado);
+    }
+
+    // Lo guardado antes de aplicar un cambio a la incidencia
+    private record Guardada(String estado, Long idTecnico, String prioridad, Date vencimientoSla) {
+
+        Antes antes(FallasEquipos.Falla falla) {
+            return new Antes(new EventosIncidencias.Anterior(estado, idTecnico), tecnicoConCarga(estado, idTecnico),
+                    falla);
+        }
+    }
+
+    // Lo que la incidencia aportaba a las vistas en memoria antes del cambio; null en un alta.
+    // tecnicoCargado es el técnico en cuya carga se contaba, si seguía abierta
+    private record Antes(EventosIncidencias.Anterior anterior, Long tecnicoCargado, FallasEquipos.Falla falla) {
+
+        static Antes de(IncidenciaModel incidencia) {
+            return new Antes(EventosIncidencias.Anterior.de(incidencia), tecnicoConCarga(incidencia),
+                    FallasEquipos.Falla.de(incidencia));
+        }
+    }
+
+    // Un cambio ya calculado dentro de la transacción; despues null es una eliminación
+    private record Cambio(Long id, Date vencimientoSla, Long tecnicoAnterior, Long tecnicoNuevo,
+                          IndiceIncidencias.Documento documento, FallasEquipos.Falla fallaAnterior,
+                          FallasEquipos.Falla fallaNueva, EventoIncidenciaDTO evento) {
+
+        static Cambio de(Long id, Antes antes, IncidenciaModel despues) {
+            EventosIncidencias.Anterior anterior = antes == null ? null : antes.anterior();
+            Long tecnicoAnterior = antes == null ? null : antes.tecnicoCargado();
+            FallasEquipos.Falla fallaAnterior = antes == null ? null : antes.falla();
+            if (despues == null) {
+                return new Cambio(id, null, tecnicoAnterior, null, null, fallaAnterior, null,
+                        EventosIncidencias.eliminacion(id, anterior));
+            }
+            return new Cambio(id, abierta(despues.getEstado()) ? despues.getVencimientoSla() : null,
+                    tecnicoAnterior, tecnicoConCarga(despues), IndiceIncidencias.Documento.de(despues),
+                    fallaAnterior, FallasEquipos.Falla.de(despues), EventosIncidencias.cambio(despues, anterior));
+        }
     }
-}
\ No newline at end of file
+}
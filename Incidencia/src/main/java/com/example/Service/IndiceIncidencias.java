@@ -0,0 +1,342 @@
+package com.example.Service;
+
+import com.example.Model.IncidenciaModel;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Índice invertido local (Lucene, en disco) sobre la descripción y la solución de las incidencias.
+// IncidenciaService lo actualiza con cada cambio confirmado; las búsquedas se responden desde el índice,
+// ordenadas por relevancia (BM25), sin recorrer la tabla con LIKE. Un hilo aparte reabre el buscador:
+// los cambios se ven en las búsquedas a más tardar incidencia.busqueda.refresco-ms después, sin que cada
+// búsqueda espere una reapertura. Se confirman en disco cada incidencia.busqueda.commit-ms; si el proceso
+// se detiene antes, reconstruir() repone el índice.
+@Component
+public class IndiceIncidencias {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceIncidencias.class);
+
+    static final String CAMPO_ID = "id";
+    static final String CAMPO_DESCRIPCION = "descripcion";
+    static final String CAMPO_SOLUCION = "solucion";
+    static final String CAMPO_ESTADO = "estado";
+    // Última posición que se puede pedir; más allá de esto las páginas profundas dejan de ser baratas
+    static final int MAXIMO_RESULTADOS = 10_000;
+    private static final Map<String, Float> PESOS = Map.of(CAMPO_DESCRIPCION, 1.0f, CAMPO_SOLUCION, 0.5f);
+
+    private final IncidenciaRepository incidenciaRepository;
+    private final TransactionTemplate soloLectura;
+    private final Analyzer analizador = new SpanishAnalyzer();
+    private final Directory directorio;
+    private final IndexWriter escritor;
+    private final SearcherManager buscadores;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reapertura;
+    // Número de secuencia del último cambio escrito, para esperar a que las búsquedas lo vean
+    private final AtomicLong ultimoCambio = new AtomicLong();
+    // Durante una reconstrucción, los ids que cambiaron por otro camino no se sobrescriben con la fila leída
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    private final ReentrantLock marcas = new ReentrantLock();
+    private final Set<Long> tocadasDuranteReconstruccion = ConcurrentHashMap.newKeySet();
+    private volatile boolean reconstruyendo;
+
+    @Autowired
+    public IndiceIncidencias(IncidenciaRepository incidenciaRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${incidencia.busqueda.directorio:data/incidencia-indice}") String directorio,
+                             @Value("${incidencia.busqueda.refresco-ms:1000}") long refrescoMs) {
+        this.incidenciaRepository = incidenciaRepository;
+        this.soloLectura = new TransactionTemplate(transactionManager);
+        this.soloLectura.setReadOnly(true);
+        try {
+            this.directorio = FSDirectory.open(Path.of(directorio));
+            this.escritor = new IndexWriter(this.directorio, new IndexWriterConfig(analizador)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            this.buscadores = new SearcherManager(escritor, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el índice de incidencias en " + directorio, e);
+        }
+        double maximoSegundos = refrescoMs / 1000.0;
+        this.reapertura = new ControlledRealTimeReopenThread<>(escritor, buscadores, maximoSegundos,
+                Math.min(0.025, maximoSegundos));
+        this.reapertura.setName("refrescar-indice-incidencias");
+        this.reapertura.setDaemon(true);
+        this.reapertura.start();
+    }
+
+    // Si el índice no tiene tantos documentos como filas la tabla (primer arranque, directorio borrado o
+    // cambios que no alcanzaron a confirmarse en disco), se reconstruye en segundo plano
+    @PostConstruct
+    public void iniciar() {
+        if (escritor.getDocStats().numDocs != incidenciaRepository.count()) {
+            Thread.ofVirtual().name("reconstruir-indice-incidencias").start(() -> {
+                try {
+                    reconstruir();
+                } catch (RuntimeException e) {
+                    log.error("No se pudo reconstruir el índice de incidencias", e);
+                }
+            });
+        }
+    }
+
+    public void actualizar(Documento documento) {
+        escribir(documento.id(), () -> escritor.updateDocument(termino(documento.id()), documento.aLucene()));
+    }
+
+    public void eliminar(Long id) {
+        escribir(id, () -> escritor.deleteDocuments(termino(id)));
+    }
+
+    // Página `pagina` (desde 0) de los resultados ordenados por relevancia. Para el total, Lucene cuenta
+    // exacto hasta 1000 coincidencias; sobre eso el total es una cota inferior (totalExacto = false).
+    public Pagina buscar(String texto, String estado, int pagina, int tamaño) {
+        if (texto == null || texto.isBlank()) {
+            throw new IllegalArgumentException("El texto a buscar es obligatorio");
+        }
+        if (pagina < 0 || tamaño <= 0) {
+            throw new IllegalArgumentException("Página o tamaño de página inválidos");
+        }
+        if ((long) pagina * tamaño >= MAXIMO_RESULTADOS) {
+            throw new IllegalArgumentException("Solo se pueden recorrer los primeros " + MAXIMO_RESULTADOS + " resultados");
+        }
+        int desde = pagina * tamaño;
+        int hasta = Math.min(desde + tamaño, MAXIMO_RESULTADOS);
+        Query consulta = consulta(texto, estado);
+        try {
+            IndexSearcher buscador = buscadores.acquire();
+            try {
+                TopDocs encontrados = buscador.search(consulta, hasta);
+                List<Resultado> resultados = new ArrayList<>();
+                ScoreDoc[] documentos = encontrados.scoreDocs;
+                for (int i = desde; i < documentos.length; i++) {
+                    resultados.add(new Resultado(id(buscador, documentos[i].doc), documentos[i].score));
+                }
+                TotalHits total = encontrados.totalHits;
+                return new Pagina(total.value, total.relation == TotalHits.Relation.EQUAL_TO, resultados);
+            } finally {
+                buscadores.release(buscador);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Vacía el índice y lo vuelve a llenar desde la tabla, recorriendo un cursor sin cargar entidades.
+    // Mientras corre, las búsquedas ven el índice a medio llenar.
+    public long reconstruir() {
+        if (!reconstruccion.tryLock()) {
+            throw new IllegalStateException("Ya hay una reconstrucción del índice en curso");
+        }
+        try {
+            reconstruyendo = true;
+            escritor.deleteAll();
+            AtomicLong indexadas = new AtomicLong();
+            soloLectura.executeWithoutResult(status -> {
+                try (Stream<Object[]> filas = incidenciaRepository.streamTextos()) {
+                    filas.forEach(fila -> {
+                        Documento documento = new Documento((Long) fila[0], (String) fila[1],
+                                (String) fila[2], (String) fila[3]);
+                        if (indexarSiNoCambio(documento)) {
+                            indexadas.incrementAndGet();
+                        }
+                    });
+                }
+            });
+            escritor.commit();
+            buscadores.maybeRefresh();
+            log.info("Índice de incidencias reconstruido con {} incidencias", indexadas.get());
+            return indexadas.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            marcas.lock();
+            try {
+                reconstruyendo = false;
+                tocadasDuranteReconstruccion.clear();
+            } finally {
+                marcas.unlock();
+            }
+            reconstruccion.unlock();
+        }
+    }
+
+    public int getCantidad() {
+        return escritor.getDocStats().numDocs;
+    }
+
+    // Bloquea hasta que las búsquedas vean todos los cambios escritos hasta ahora
+    void esperarCambios() throws InterruptedException {
+        reapertura.waitForGeneration(ultimoCambio.get());
+    }
+
+    @Scheduled(initialDelayString = "${incidencia.busqueda.commit-ms:5000}",
+               fixedDelayString = "${incidencia.busqueda.commit-ms:5000}")
+    public void confirmar() {
+        try {
+            if (escritor.hasUncommittedChanges()) {
+                escritor.commit();
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo confirmar el índice de incidencias", e);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        reapertura.close();
+        buscadores.close();
+        escritor.close();
+        directorio.close();
+    }
+
+    private Query consulta(String texto, String estado) {
+        SimpleQueryParser parser = new SimpleQueryParser(analizador, PESOS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder()
+                .add(parser.parse(texto), BooleanClause.Occur.MUST);
+        if (estado != null && !estado.isBlank()) {
+            consulta.add(new TermQuery(new Term(CAMPO_ESTADO, estado)), BooleanClause.Occur.FILTER);
+        }
+        return consulta.build();
+    }
+
+    private void escribir(Long id, Escritura escritura) {
+        try {
+            if (!reconstruyendo) {
+                registrarCambio(escritura.aplicar());
+                return;
+            }
+            marcas.lock();
+            try {
+                if (reconstruyendo) {
+                    tocadasDuranteReconstruccion.add(id);
+                }
+                registrarCambio(escritura.aplicar());
+            } finally {
+                marcas.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean indexarSiNoCambio(Documento documento) {
+        marcas.lock();
+        try {
+            if (tocadasDuranteReconstruccion.contains(documento.id())) {
+                return false;
+            }
+            registrarCambio(escritor.updateDocument(termino(documento.id()), documento.aLucene()));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            marcas.unlock();
+        }
+    }
+
+    private void registrarCambio(long secuencia) {
+        ultimoCambio.accumulateAndGet(secuencia, Math::max);
+    }
+
+    // El id se lee de los doc values: leerlo de los campos almacenados descomprime un bloque por resultado
+    private static Long id(IndexSearcher buscador, int documento) throws IOException {
+        List<LeafReaderContext> segmentos = buscador.getIndexReader().leaves();
+        LeafReaderContext segmento = segmentos.get(ReaderUtil.subIndex(documento, segmentos));
+        NumericDocValues ids = segmento.reader().getNumericDocValues(CAMPO_ID);
+        if (ids == null || !ids.advanceExact(documento - segmento.docBase)) {
+            throw new IllegalStateException("Documento sin id en el índice de incidencias");
+        }
+        return ids.longValue();
+    }
+
+    private static Term termino(Long id) {
+        return new Term(CAMPO_ID, id.toString());
+    }
+
+    @FunctionalInterface
+    private interface Escritura {
+        // Número de secuencia que IndexWriter asignó al cambio
+        long aplicar() throws IOException;
+    }
+
+    // Lo que se indexa de una incidencia: el texto buscable y el estado para filtrar
+    public record Documento(Long id, String descripcion, String solucion, String estado) {
+
+        public static Documento de(IncidenciaModel incidencia) {
+            return new Documento(incidencia.getIdIncidencia(), incidencia.getDescripcion(),
+                    incidencia.getSolucion(), incidencia.getEstado());
+        }
+
+        public Documento conEstado(String nuevoEstado) {
+            return new Documento(id, descripcion, solucion, nuevoEstado);
+        }
+
+        private Document aLucene() {
+            Document documento = new Document();
+            documento.add(new StringField(CAMPO_ID, id.toString(), Field.Store.NO));
+            documento.add(new NumericDocValuesField(CAMPO_ID, id));
+            if (descripcion != null) {
+                documento.add(new TextField(CAMPO_DESCRIPCION, descripcion, Field.Store.NO));
+            }
+            if (solucion != null) {
+                documento.add(new TextField(CAMPO_SOLUCION, solucion, Field.Store.NO));
+            }
+            if (estado != null) {
+                documento.add(new StringField(CAMPO_ESTADO, estado, Field.Store.NO));
+            }
+            return documento;
+        }
+    }
+
+    public record Resultado(Long idIncidencia, float puntaje) {
+    }
+
+    public record Pagina(long total, boolean totalExacto, List<Resultado> resultados) {
+    }
+}
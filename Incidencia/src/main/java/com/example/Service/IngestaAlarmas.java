@@ -0,0 +1,294 @@
+package com.example.Service;
+
+import com.example.DTO.AlarmaTelemetriaDTO;
+import com.example.DTO.ResultadoIngestaDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.UsuarioModel;
+import com.example.Repository.IncidenciaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Ingesta de alarmas de los gateways de telemetría en NDJSON (una alarma JSON por línea). El cuerpo se lee
+// por lotes de incidencia.ingesta.lote líneas y cada lote es una transacción: dos consultas validan equipos y
+// usuarios, se descartan las que repiten equipo y código dentro de incidencia.ingesta.ventana-min y el resto se
+// da de alta en bloque (IncidenciaService.saveAll, INSERT en lotes JDBC). Las repetidas se buscan en memoria: las
+// alarmas de las dos últimas ventanas se cargan al iniciar y se suman las de cada lote confirmado; solo una alarma
+// con fecha anterior a lo que se tiene en memoria consulta la base. Reenviar un cuerpo después de un error no
+// duplica los lotes que ya se confirmaron.
+@Component
+public class IngestaAlarmas {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestaAlarmas.class);
+
+    private static final Set<String> PRIORIDADES = Set.of("CRITICA", "ALTA", "MEDIA", "BAJA");
+    private static final int MAX_ERRORES = 100;
+
+    private final IncidenciaRepository incidenciaRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate soloLectura;
+    private final int lote;
+    private final long ventanaMs;
+    // Un lote a la vez: la búsqueda de repetidas y el alta de un lote no se cruzan con los de otra ingesta.
+    // También protege recientes, horizonte y proximaPoda
+    private final ReentrantLock ingesta = new ReentrantLock();
+    // Fechas de las alarmas registradas desde horizonte, por equipo y código
+    private final Map<Clave, TreeSet<Long>> recientes = new HashMap<>();
+    private long horizonte;
+    private long proximaPoda;
+
+    @Autowired
+    public IngestaAlarmas(IncidenciaRepository incidenciaRepository, ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${incidencia.ingesta.lote:500}") int lote,
+                          @Value("${incidencia.ingesta.ventana-min:30}") long ventanaMin) {
+        this.incidenciaRepository = incidenciaRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.soloLectura = new TransactionTemplate(transactionManager);
+        this.soloLectura.setReadOnly(true);
+        this.lote = Math.max(1, lote);
+        this.ventanaMs = TimeUnit.MINUTES.toMillis(ventanaMin);
+    }
+
+    @PostConstruct
+    public void cargar() {
+        ingesta.lock();
+        try {
+            recientes.clear();
+            long ahora = System.currentTimeMillis();
+            horizonte = ahora - 2 * ventanaMs;
+            proximaPoda = ahora + ventanaMs;
+            soloLectura.executeWithoutResult(status -> {
+                try (Stream<Object[]> filas = incidenciaRepository.streamAlarmasDesde(new Date(horizonte))) {
+                    filas.forEach(fila -> recientes.computeIfAbsent(new Clave((Long) fila[0], (String) fila[1]),
+                            clave -> new TreeSet<>()).add(((Date) fila[2]).getTime()));
+                }
+            });
+            log.info("{} equipos y códigos con alarmas recientes", recientes.size());
+        } finally {
+            ingesta.unlock();
+        }
+    }
+
+    // alta guarda las incidencias nuevas de un lote dentro de su transacción
+    public ResultadoIngestaDTO ingerir(Reader cuerpo, Consumer<List<IncidenciaModel>> alta) throws IOException {
+        Conteo conteo = new Conteo();
+        List<Linea> pendientes = new ArrayList<>(lote);
+        BufferedReader lector = new BufferedReader(cuerpo);
+        long numero = 0;
+        String texto;
+        while ((texto = lector.readLine()) != null) {
+            numero++;
+            if (texto.isBlank()) {
+                continue;
+            }
+            conteo.recibidas++;
+            try {
+                AlarmaTelemetriaDTO alarma = objectMapper.readValue(texto, AlarmaTelemetriaDTO.class);
+                String error = validar(alarma);
+                if (error != null) {
+                    conteo.rechazar(numero, error);
+                } else {
+                    if (alarma.getFecha() == null) {
+                        alarma.setFecha(new Date());
+                    }
+                    pendientes.add(new Linea(numero, alarma));
+                }
+            } catch (JsonProcessingException e) {
+                conteo.rechazar(numero, "JSON inválido: " + e.getOriginalMessage());
+            }
+            if (pendientes.size() == lote) {
+                procesar(pendientes, alta, conteo);
+                pendientes.clear();
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            procesar(pendientes, alta, conteo);
+        }
+        return new ResultadoIngestaDTO(conteo.recibidas, conteo.creadas, conteo.duplicadas,
+                (long) conteo.rechazos.size() + conteo.rechazosOmitidos, conteo.rechazos);
+    }
+
+    private void procesar(List<Linea> lineas, Consumer<List<IncidenciaModel>> alta, Conteo conteo) {
+        Conteo delLote = new Conteo();
+        Map<Clave, TreeSet<Long>> aceptadas = new HashMap<>();
+        ingesta.lock();
+        try {
+            podar();
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> equipos = new HashSet<>(incidenciaRepository.findIdsEquipoExistentes(
+                        lineas.stream().map(linea -> linea.alarma().getIdEquipo()).collect(Collectors.toSet())));
+                Set<Long> usuarios = new HashSet<>(incidenciaRepository.findIdsUsuarioExistentes(
+                        lineas.stream().map(linea -> linea.alarma().getIdUsuario()).collect(Collectors.toSet())));
+                List<IncidenciaModel> nuevas = new ArrayList<>();
+                for (Linea linea : lineas) {
+                    AlarmaTelemetriaDTO alarma = linea.alarma();
+                    if (!equipos.contains(alarma.getIdEquipo())) {
+                        delLote.rechazar(linea.numero(), "Equipo no encontrado: " + alarma.getIdEquipo());
+                    } else if (!usuarios.contains(alarma.getIdUsuario())) {
+                        delLote.rechazar(linea.numero(), "Usuario no encontrado: " + alarma.getIdUsuario());
+                    } else if (!registrar(aceptadas, alarma)) {
+                        delLote.duplicadas++;
+                    } else {
+                        nuevas.add(incidencia(alarma));
+                    }
+                }
+                if (!nuevas.isEmpty()) {
+                    alta.accept(nuevas);
+                }
+                delLote.creadas = nuevas.size();
+            });
+            // Solo si el lote se confirmó: un rollback no deja alarmas marcadas como vistas
+            aceptadas.forEach((clave, fechas) ->
+                    recientes.computeIfAbsent(clave, c -> new TreeSet<>()).addAll(fechas));
+        } finally {
+            ingesta.unlock();
+        }
+        // Solo si el lote se confirmó
+        conteo.sumar(delLote);
+    }
+
+    // false si ya hay otra alarma del mismo equipo y código a menos de la ventana, antes o después: entre las
+    // recientes, entre las aceptadas del lote o, si la ventana empieza antes del horizonte, en la base
+    private boolean registrar(Map<Clave, TreeSet<Long>> aceptadas, AlarmaTelemetriaDTO alarma) {
+        Clave clave = new Clave(alarma.getIdEquipo(), alarma.getCodigoFalla());
+        long fecha = alarma.getFecha().getTime();
+        TreeSet<Long> delLote = aceptadas.computeIfAbsent(clave, c -> new TreeSet<>());
+        if (cerca(recientes.get(clave), fecha) || cerca(delLote, fecha)) {
+            return false;
+        }
+        if (fecha - ventanaMs < horizonte && incidenciaRepository.existsAlarma(clave.idEquipo(), clave.codigoFalla(),
+                new Date(fecha - ventanaMs), new Date(fecha + ventanaMs))) {
+            return false;
+        }
+        delLote.add(fecha);
+        return true;
+    }
+
+    private boolean cerca(TreeSet<Long> fechas, long fecha) {
+        if (fechas == null) {
+            return false;
+        }
+        Long anterior = fechas.floor(fecha);
+        Long siguiente = fechas.ceiling(fecha);
+        return (anterior != null && fecha - anterior < ventanaMs) || (siguiente != null && siguiente - fecha < ventanaMs);
+    }
+
+    // Una vez por ventana se descartan las fechas que ya quedaron fuera de las dos últimas ventanas
+    private void podar() {
+        long ahora = System.currentTimeMillis();
+        if (ahora < proximaPoda) {
+            return;
+        }
+        horizonte = ahora - 2 * ventanaMs;
+        proximaPoda = ahora + ventanaMs;
+        Iterator<TreeSet<Long>> fechas = recientes.values().iterator();
+        while (fechas.hasNext()) {
+            TreeSet<Long> delEquipo = fechas.next();
+            delEquipo.headSet(horizonte).clear();
+            if (delEquipo.isEmpty()) {
+                fechas.remove();
+            }
+        }
+    }
+
+    private static String validar(AlarmaTelemetriaDTO alarma) {
+        if (alarma == null) {
+            return "Línea sin alarma";
+        }
+        if (alarma.getIdEquipo() == null) {
+            return "idEquipo es requerido";
+        }
+        if (alarma.getIdUsuario() == null) {
+            return "idUsuario es requerido";
+        }
+        if (alarma.getCodigoFalla() == null || alarma.getCodigoFalla().isBlank()) {
+            return "codigoFalla es requerido";
+        }
+        if (alarma.getCodigoFalla().length() > 50) {
+            return "codigoFalla supera los 50 caracteres";
+        }
+        if (alarma.getDescripcion() != null && alarma.getDescripcion().length() > 1000) {
+            return "descripcion supera los 1000 caracteres";
+        }
+        if (alarma.getPrioridad() != null && !PRIORIDADES.contains(alarma.getPrioridad())) {
+            return "Prioridad inválida: " + alarma.getPrioridad();
+        }
+        return null;
+    }
+
+    // Equipo y usuario solo con el ID: la asociación se guarda sin leerlos
+    private static IncidenciaModel incidencia(AlarmaTelemetriaDTO alarma) {
+        UsuarioModel usuario = new UsuarioModel();
+        usuario.setIdusuario(alarma.getIdUsuario());
+        EquipoModel equipo = new EquipoModel();
+        equipo.setIdEquipo(alarma.getIdEquipo());
+        IncidenciaModel incidencia = new IncidenciaModel();
+        incidencia.setUsuario(usuario);
+        incidencia.setEquipo(equipo);
+        incidencia.setCodigoFalla(alarma.getCodigoFalla());
+        incidencia.setDescripcion(alarma.getDescripcion() == null || alarma.getDescripcion().isBlank()
+                ? "Alarma " + alarma.getCodigoFalla() : alarma.getDescripcion());
+        incidencia.setPrioridad(alarma.getPrioridad());
+        incidencia.setFechaReporte(alarma.getFecha());
+        return incidencia;
+    }
+
+    private record Linea(long numero, AlarmaTelemetriaDTO alarma) {
+    }
+
+    private record Clave(Long idEquipo, String codigoFalla) {
+    }
+
+    private static final class Conteo {
+        private long recibidas;
+        private long creadas;
+        private long duplicadas;
+        private long rechazosOmitidos;
+        private final List<ResultadoIngestaDTO.Rechazo> rechazos = new ArrayList<>();
+
+        // Se detallan los primeros MAX_ERRORES; el resto solo se cuenta
+        private void rechazar(long linea, String mensaje) {
+            if (rechazos.size() < MAX_ERRORES) {
+                rechazos.add(new ResultadoIngestaDTO.Rechazo(linea, mensaje));
+            } else {
+                rechazosOmitidos++;
+            }
+        }
+
+        private void sumar(Conteo lote) {
+            creadas += lote.creadas;
+            duplicadas += lote.duplicadas;
+            lote.rechazos.forEach(rechazo -> rechazar(rechazo.getLinea(), rechazo.getMensaje()));
+            rechazosOmitidos += lote.rechazosOmitidos;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rueda de temporizadores con hash (como la de Netty): `ranuras` listas doblemente enlazadas, una por tick.
+// Un vencimiento cae en la ranura de su tick y guarda cuántas vueltas completas faltan para él, así
+// programar y cancelar son O(1) sin importar cuántos haya pendientes, y cada tick solo recorre su ranura.
+// Nunca vence antes de tiempo: como mucho un tick después.
+public class RuedaTemporizadores {
+
+    private final long tickMs;
+    private final Nodo[] ranuras;
+    private final Map<Long, Nodo> porId = new HashMap<>();
+    // Último tick ya recorrido, en ticks desde la época
+    private long tickActual;
+
+    public RuedaTemporizadores(long tickMs, int ranuras, long ahora) {
+        this.tickMs = Math.max(1, tickMs);
+        this.ranuras = new Nodo[Math.max(1, ranuras)];
+        for (int r = 0; r < this.ranuras.length; r++) {
+            Nodo centinela = new Nodo(null, 0);
+            centinela.anterior = centinela;
+            centinela.siguiente = centinela;
+            this.ranuras[r] = centinela;
+        }
+        this.tickActual = ahora / this.tickMs;
+    }
+
+    // Reemplaza el vencimiento anterior del mismo id, si lo había
+    public synchronized void programar(Long id, long vencimiento) {
+        quitar(porId.remove(id));
+        long tick = Math.max(Math.ceilDiv(vencimiento, tickMs), tickActual + 1);
+        Nodo nodo = new Nodo(id, vencimiento);
+        nodo.vueltas = (tick - tickActual - 1) / ranuras.length;
+        Nodo centinela = ranuras[(int) Math.floorMod(tick, (long) ranuras.length)];
+        nodo.anterior = centinela.anterior;
+        nodo.siguiente = centinela;
+        centinela.anterior.siguiente = nodo;
+        centinela.anterior = nodo;
+        porId.put(id, nodo);
+    }
+
+    // No pisa un vencimiento que se programó mientras tanto
+    public synchronized boolean programarSiFalta(Long id, long vencimiento) {
+        if (porId.containsKey(id)) {
+            return false;
+        }
+        programar(id, vencimiento);
+        return true;
+    }
+
+    public synchronized boolean cancelar(Long id) {
+        Nodo nodo = porId.remove(id);
+        quitar(nodo);
+        return nodo != null;
+    }
+
+    // Recorre los ticks hasta `ahora` y retorna los ids vencidos, que dejan de estar programados
+    public synchronized List<Long> avanzar(long ahora) {
+        List<Long> vencidos = new ArrayList<>();
+        long hasta = ahora / tickMs;
+        while (tickActual < hasta) {
+            tickActual++;
+            Nodo centinela = ranuras[(int) Math.floorMod(tickActual, (long) ranuras.length)];
+            Nodo nodo = centinela.siguiente;
+            while (nodo != centinela) {
+                Nodo siguiente = nodo.siguiente;
+                if (nodo.vueltas == 0) {
+                    quitar(nodo);
+                    porId.remove(nodo.id);
+                    vencidos.add(nodo.id);
+                } else {
+                    nodo.vueltas--;
+                }
+                nodo = siguiente;
+            }
+        }
+        return vencidos;
+    }
+
+    public synchronized Long vencimiento(Long id) {
+        Nodo nodo = porId.get(id);
+        return nodo == null ? null : nodo.vencimiento;
+    }
+
+    public synchronized int tamaño() {
+        return porId.size();
+    }
+
+    public synchronized void limpiar(long ahora) {
+        for (Nodo centinela : ranuras) {
+            centinela.anterior = centinela;
+            centinela.siguiente = centinela;
+        }
+        porId.clear();
+        tickActual = ahora / tickMs;
+    }
+
+    private static void quitar(Nodo nodo) {
+        if (nodo != null) {
+            nodo.anterior.siguiente = nodo.siguiente;
+            nodo.siguiente.anterior = nodo.anterior;
+            nodo.anterior = null;
+            nodo.siguiente = null;
+        }
+    }
+
+    private static final class Nodo {
+        private final Long id;
+        private final long vencimiento;
+        private long vueltas;
+        private Nodo anterior;
+        private Nodo siguiente;
+
+        private Nodo(Long id, long vencimiento) {
+            this.id = id;
+            this.vencimiento = vencimiento;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.Service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Callbacks de fin de transacción para las vistas en memoria (cola de despacho, cargas, índice, SLA, eventos).
+// Sin una transacción activa el cambio ya está confirmado: se aplica en el acto y no hay nada que deshacer.
+final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    static void despuesDeConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+
+    static void siNoSeConfirma(Runnable deshacer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deshacer.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.Service;
+
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.Model.IncidenciaModel;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Detecta las incidencias abiertas que superan el plazo de su prioridad (SLA). Cada incidencia ABIERTA o
+// EN_PROCESO tiene un temporizador en una RuedaTemporizadores, así programar y cancelar al guardar o cerrar
+// es O(1) y revisar cada tick no recorre las pendientes. El vencimiento se guarda en la incidencia y al
+// iniciar se reconstruye la rueda desde la base. Al vencer, la incidencia sube un nivel de prioridad con un
+// UPDATE condicional (y recibe el plazo de la nueva) y se publica SLA_VENCIDA en el flujo de eventos;
+// una CRITICA vencida solo se publica.
+@Component
+public class VencimientosSla {
+
+    private static final Logger log = LoggerFactory.getLogger(VencimientosSla.class);
+
+    // De mayor a menor, como en ColaDespacho
+    private static final List<String> PRIORIDADES = List.of("CRITICA", "ALTA", "MEDIA", "BAJA");
+
+    private final IncidenciaRepository incidenciaRepository;
+    private final ColaDespacho colaDespacho;
+    private final EventosIncidencias eventosIncidencias;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate soloLectura;
+    private final RuedaTemporizadores rueda;
+    private final Map<String, Long> plazosMs;
+    private final boolean escalar;
+    private final long reintentoMs;
+
+    @Autowired
+    public VencimientosSla(IncidenciaRepository incidenciaRepository, ColaDespacho colaDespacho,
+                           EventosIncidencias eventosIncidencias, PlatformTransactionManager transactionManager,
+                           @Value("${incidencia.sla.tick-ms:1000}") long tickMs,
+                           @Value("${incidencia.sla.ranuras:512}") int ranuras,
+                           @Value("${incidencia.sla.horas.critica:4}") long horasCritica,
+                           @Value("${incidencia.sla.horas.alta:8}") long horasAlta,
+                           @Value("${incidencia.sla.horas.media:24}") long horasMedia,
+                           @Value("${incidencia.sla.horas.baja:72}") long horasBaja,
+                           @Value("${incidencia.sla.escalar-prioridad:true}") boolean escalar,
+                           @Value("${incidencia.sla.reintento-ms:30000}") long reintentoMs) {
+        this.incidenciaRepository = incidenciaRepository;
+        this.colaDespacho = colaDespacho;
+        this.eventosIncidencias = eventosIncidencias;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.soloLectura = new TransactionTemplate(transactionManager);
+        this.soloLectura.setReadOnly(true);
+        this.rueda = new RuedaTemporizadores(tickMs, ranuras, System.currentTimeMillis());
+        this.plazosMs = Map.of(
+                "CRITICA", TimeUnit.HOURS.toMillis(horasCritica),
+                "ALTA", TimeUnit.HOURS.toMillis(horasAlta),
+                "MEDIA", TimeUnit.HOURS.toMillis(horasMedia),
+                "BAJA", TimeUnit.HOURS.toMillis(horasBaja));
+        this.escalar = escalar;
+        this.reintentoMs = reintentoMs;
+    }
+
+    // Las incidencias sin vencimiento guardado (anteriores al SLA) lo calculan desde su fecha de reporte
+    @PostConstruct
+    public void cargar() {
+        rueda.limpiar(System.currentTimeMillis());
+        soloLectura.executeWithoutResult(status -> {
+            try (Stream<Object[]> filas = incidenciaRepository.streamVencimientosSla()) {
+                filas.forEach(fila -> {
+                    Date vencimiento = fila[3] != null ? (Date) fila[3] : vencimiento((String) fila[1], (Date) fila[2]);
+                    rueda.programar((Long) fila[0], vencimiento.getTime());
+                });
+            }
+        });
+        log.info("{} vencimientos de SLA programados", rueda.tamaño());
+    }
+
+    // Plazo de la prioridad contado desde la fecha indicada; prioridades desconocidas usan el de MEDIA
+    public Date vencimiento(String prioridad, Date desde) {
+        long inicio = desde == null ? System.currentTimeMillis() : desde.getTime();
+        return new Date(inicio + plazosMs.getOrDefault(prioridad, plazosMs.get("MEDIA")));
+    }
+
+    // Vencimiento nulo = la incidencia ya no está abierta
+    public void actualizar(Long idIncidencia, Date vencimiento) {
+        if (vencimiento == null) {
+            rueda.cancelar(idIncidencia);
+        } else {
+            rueda.programar(idIncidencia, vencimiento.getTime());
+        }
+    }
+
+    public int getPendientes() {
+        return rueda.tamaño();
+    }
+
+    // Cada vencida se escala en su propia transacción; un error no detiene la revisión de las demás.
+    // La rueda ya soltó el temporizador de la que falló, así que se vuelve a programar reintento-ms más tarde.
+    @Scheduled(fixedDelayString = "${incidencia.sla.revision-ms:${incidencia.sla.tick-ms:1000}}")
+    public void revisar() {
+        for (Long idIncidencia : rueda.avanzar(System.currentTimeMillis())) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> vencer(idIncidencia));
+            } catch (RuntimeException e) {
+                log.warn("No se pudo escalar la incidencia {} con el SLA vencido; se reintenta en {} ms",
+                        idIncidencia, reintentoMs, e);
+                rueda.programarSiFalta(idIncidencia, System.currentTimeMillis() + reintentoMs);
+            }
+        }
+    }
+
+    private void vencer(Long idIncidencia) {
+        IncidenciaModel incidencia = incidenciaRepository.findById(idIncidencia).orElse(null);
+        if (incidencia == null || !abierta(incidencia.getEstado())) {
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        // Se reprogramó después de que la rueda lo tomara (p. ej. cambió la prioridad): se respeta el nuevo plazo
+        if (incidencia.getVencimientoSla() != null && incidencia.getVencimientoSla().getTime() > ahora) {
+            rueda.programar(idIncidencia, incidencia.getVencimientoSla().getTime());
+            return;
+        }
+        String actual = incidencia.getPrioridad();
+        int rango = PRIORIDADES.indexOf(actual);
+        String nueva = escalar && rango > 0 ? PRIORIDADES.get(rango - 1) : null;
+        if (nueva != null) {
+            Date vencimiento = vencimiento(nueva, new Date(ahora));
+            if (incidenciaRepository.escalarSiSigueAbierta(idIncidencia, actual, nueva, vencimiento) == 0) {
+                // Otro cambio se confirmó entre la lectura y el UPDATE; ese cambio ya reprogramó el temporizador
+                return;
+            }
+            incidencia.setPrioridad(nueva);
+            incidencia.setVencimientoSla(vencimiento);
+        }
+        EventoIncidenciaDTO evento = EventosIncidencias.vencimientoSla(incidencia);
+        Date siguiente = nueva == null ? null : incidencia.getVencimientoSla();
+        Transacciones.despuesDeConfirmar(() -> {
+            if (siguiente != null) {
+                colaDespacho.refrescar(List.of(idIncidencia));
+                rueda.programar(idIncidencia, siguiente.getTime());
+            }
+            eventosIncidencias.publicar(evento);
+        });
+    }
+
+    private static boolean abierta(String estado) {
+        return "ABIERTA".equals(estado) || "EN_PROCESO".equals(estado);
+    }
+}
@@ -0,0 +1,48 @@
+-- Archivo de incidencias cerradas (IncidenciaArchivadaModel) para MySQL 8.
+-- Ejecutar una vez antes de habilitar el archivo: spring.jpa.hibernate.ddl-auto=update crearía la tabla
+-- sin particiones ni compresión, y no modifica una tabla que ya existe.
+--
+-- Particionada por año de reporte: las consultas del historial por rango de fechas solo leen las
+-- particiones del rango, y los años viejos se pueden exportar o descartar con ALTER TABLE ... DROP PARTITION.
+-- MySQL exige que la columna de partición forme parte de la clave primaria y no admite claves foráneas
+-- en tablas particionadas: usuario, equipo y técnico se guardan como IDs sin restricción.
+CREATE TABLE IF NOT EXISTS incidencia_archivo (
+    id_incidencia    BIGINT        NOT NULL,
+    usuario_id       BIGINT        NOT NULL,
+    id_equipo        BIGINT        NOT NULL,
+    id_tecnico       BIGINT        NULL,
+    fecha_reporte    DATETIME(6)   NOT NULL,
+    fecha_creacion   DATETIME(6)   NULL,
+    fecha_resolucion DATETIME(6)   NULL,
+    descripcion      VARCHAR(1000) NOT NULL,
+    estado           VARCHAR(50)   NULL,
+    prioridad        VARCHAR(50)   NULL,
+    solucion         VARCHAR(1000) NULL,
+    codigo_falla     VARCHAR(50)   NULL,
+    vencimiento_sla  DATETIME(6)   NULL,
+    fecha_archivo    DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id_incidencia, fecha_reporte),
+    KEY idx_incidencia_archivo_reporte (fecha_reporte),
+    KEY idx_incidencia_archivo_equipo (id_equipo, fecha_reporte)
+) ENGINE = InnoDB
+  ROW_FORMAT = COMPRESSED
+  KEY_BLOCK_SIZE = 8
+PARTITION BY RANGE (YEAR(fecha_reporte)) (
+    PARTITION p2022 VALUES LESS THAN (2023),
+    PARTITION p2023 VALUES LESS THAN (2024),
+    PARTITION p2024 VALUES LESS THAN (2025),
+    PARTITION p2025 VALUES LESS THAN (2026),
+    PARTITION p2026 VALUES LESS THAN (2027),
+    PARTITION pfuturo VALUES LESS THAN MAXVALUE
+);
+
+-- Si la tabla se creó antes de que se archivaran el código de falla y el vencimiento del SLA:
+-- ALTER TABLE incidencia_archivo
+--     ADD COLUMN codigo_falla    VARCHAR(50) NULL AFTER solucion,
+--     ADD COLUMN vencimiento_sla DATETIME(6) NULL AFTER codigo_falla;
+
+-- Cada año, separar el nuevo año de la partición abierta, por ejemplo:
+-- ALTER TABLE incidencia_archivo REORGANIZE PARTITION pfuturo INTO (
+--     PARTITION p2027 VALUES LESS THAN (2028),
+--     PARTITION pfuturo VALUES LESS THAN MAXVALUE
+-- );
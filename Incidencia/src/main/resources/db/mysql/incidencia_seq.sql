@@ -0,0 +1,19 @@
+-- Secuencia de IDs de incidencia (IncidenciaModel usa SEQUENCE con bloques de 50) para MySQL 8.
+-- MySQL no tiene secuencias: Hibernate usa la tabla incidencia_seq. Ejecutar una vez al pasar de IDENTITY,
+-- con el servicio detenido, antes de iniciarlo: spring.jpa.hibernate.ddl-auto=update crearía la tabla
+-- empezando en 1 y las nuevas incidencias chocarían con las existentes.
+--
+-- Hibernate toma next_val como el final de su próximo bloque (usa next_val - 49 .. next_val), por eso
+-- se parte en el mayor ID vigente o archivado más 50 (requiere incidencia_archivo, ver incidencia_archivo.sql).
+-- La columna AUTO_INCREMENT de incidencia no se usa más.
+CREATE TABLE IF NOT EXISTS incidencia_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+DELETE FROM incidencia_seq;
+
+INSERT INTO incidencia_seq (next_val)
+SELECT GREATEST(
+           COALESCE((SELECT MAX(id_incidencia) FROM incidencia), 0),
+           COALESCE((SELECT MAX(id_incidencia) FROM incidencia_archivo), 0)
+       ) + 50;
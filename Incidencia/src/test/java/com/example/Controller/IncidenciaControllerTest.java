@@ -1,5 +1,13 @@
 package com.example.Controller;
 
+import com.example.DTO.AsignacionDTO;
+import com.example.DTO.CacheEquiposDTO;
+import com.example.DTO.EstadisticasIncidenciasDTO;
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.DTO.FallasEquipoDTO;
+import com.example.DTO.IncidenciaHistorialDTO;
+import com.example.DTO.ResultadoBusquedaDTO;
+import com.example.DTO.ResultadoIngestaDTO;
 import com.example.Model.IncidenciaModel;
 import com.example.Model.TecnicoModel;
 import com.example.Model.UsuarioModel;
@@ -14,11 +22,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.text.SimpleDateFormat;
 import java.util.*;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
@@ -219,6 +231,28 @@ class IncidenciaControllerTest {
         verify(incidenciaService, times(1)).save(any(IncidenciaModel.class));
     }
 
+    @Test
+    void ingerirAlarmas_ConNdjson_DeberiaRetornarElResultadoDeLaIngesta() throws Exception {
+        // Given
+        ResultadoIngestaDTO resultado = new ResultadoIngestaDTO(2L, 1L, 1L, 0L, List.of());
+        when(incidenciaService.ingerirAlarmas(any())).thenReturn(resultado);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/incidencias/alarmas")
+                .contentType("application/x-ndjson")
+                .content("{\"idEquipo\": 1, \"idUsuario\": 1, \"codigoFalla\": \"E-1042\"}\n"
+                        + "{\"idEquipo\": 1, \"idUsuario\": 1, \"codigoFalla\": \"E-1042\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creadas").value(1))
+                .andExpect(jsonPath("$.duplicadas").value(1));
+        mockMvc.perform(post("/api/v1/incidencias/alarmas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(incidenciaService, times(1)).ingerirAlarmas(any());
+    }
+
     @Test
     void updateIncidencia_CuandoExiste_DeberiaActualizarIncidencia() throws Exception {
         // Given
@@ -280,7 +314,7 @@ class IncidenciaControllerTest {
         // When & Then
         mockMvc.perform(delete("/api/v1/incidencias/1")
                 .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isNoContent());
 
         verify(incidenciaService, times(1)).findById(1L);
         verify(incidenciaService, times(1)).deleteById(1L);
@@ -366,4 +400,237 @@ class IncidenciaControllerTest {
 
         verify(incidenciaService, times(1)).findByFechaReporte(any(Date.class), any(Date.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void asignarAutomaticamente_DeberiaRetornarIncidenciaAsignada() throws Exception {
+        // Given
+        incidenciaTest.setTecnico(tecnicoTest);
+        incidenciaTest.setEstado("EN_PROCESO");
+        when(incidenciaService.asignarAutomaticamente(1L, "Norte")).thenReturn(incidenciaTest);
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/incidencias/1/asignar-automatico").param("zona", "Norte"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tecnico.idTecnico").value(1L));
+    }
+
+    @Test
+    void asignarAutomaticamente_SinTecnicosDisponibles_DeberiaRetornarConflict() throws Exception {
+        // Given
+        when(incidenciaService.asignarAutomaticamente(1L, null))
+                .thenThrow(new IllegalStateException("No hay técnicos disponibles"));
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/incidencias/1/asignar-automatico"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void asignarPendientes_DeberiaRetornarLasAsignaciones() throws Exception {
+        // Given
+        when(incidenciaService.asignarPendientes(500, null))
+                .thenReturn(Arrays.asList(new AsignacionDTO(1L, 1L, 10, 0), new AsignacionDTO(2L, 1L, 9, 1)));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/incidencias/asignacion-automatica"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].cargaAnterior").value(1));
+    }
+
+    @Test
+    void getColaDespacho_DeberiaRetornarIncidenciasEnOrdenDeDespacho() throws Exception {
+        // Given
+        when(incidenciaService.findColaDespacho(5)).thenReturn(Arrays.asList(incidenciaTest));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/incidencias/despacho").param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idIncidencia").value(1L));
+    }
+
+    @Test
+    void reclamarSiguiente_DeberiaRetornarIncidenciaAsignada() throws Exception {
+        // Given
+        incidenciaTest.setTecnico(tecnicoTest);
+        incidenciaTest.setEstado("EN_PROCESO");
+        when(incidenciaService.reclamarSiguiente(1L)).thenReturn(Optional.of(incidenciaTest));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/incidencias/despacho/siguiente").param("idTecnico", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("EN_PROCESO"));
+    }
+
+    @Test
+    void reclamarSiguiente_CuandoNoHayPendientes_DeberiaRetornarNoContent() throws Exception {
+        // Given
+        when(incidenciaService.reclamarSiguiente(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/incidencias/despacho/siguiente").param("idTecnico", "1"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void reclamarSiguiente_CuandoTecnicoNoExiste_DeberiaRetornarNotFound() throws Exception {
+        // Given
+        when(incidenciaService.reclamarSiguiente(999L)).thenThrow(new RuntimeException("Técnico no encontrado con ID: 999"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/incidencias/despacho/siguiente").param("idTecnico", "999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getEstadisticas_DeberiaRetornarConteosYDesgloses() throws Exception {
+        // Given
+        EstadisticasIncidenciasDTO.Desglose abiertas = new EstadisticasIncidenciasDTO.Desglose(3L, 0L, null);
+        EstadisticasIncidenciasDTO.Desglose resueltas = new EstadisticasIncidenciasDTO.Desglose(2L, 2L, 12.5);
+        EstadisticasIncidenciasDTO estadisticas = new EstadisticasIncidenciasDTO(5L, 3L, 0L, 2L, 0L, 12.5,
+                Map.of("ABIERTA", abiertas, "RESUELTA", resueltas), Map.of("ALTA", resueltas),
+                Map.of("1", resueltas, "SIN_ASIGNAR", abiertas), Map.of("1", resueltas), new Date());
+        when(incidenciaService.getEstadisticas()).thenReturn(estadisticas);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/incidencias/estadisticas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.abiertas").value(3))
+                .andExpect(jsonPath("$.en_proceso").value(0))
+                .andExpect(jsonPath("$.tiempoMedioResolucionHoras").value(12.5))
+                .andExpect(jsonPath("$.porTecnico.SIN_ASIGNAR.total").value(3))
+                .andExpect(jsonPath("$.porEstado.RESUELTA.resueltas").value(2));
+
+        verify(incidenciaService, never()).findAll();
+    }
+
+    @Test
+    void getEquiposConMasFallas_DeberiaRetornarElRanking() throws Exception {
+        // Given
+        FallasEquipoDTO fallas = new FallasEquipoDTO(1L, 23L, 5L, 20L, 312.4, 18.5, Map.of("2024-01-15", 5L));
+        when(incidenciaService.findEquiposConMasFallas(5, 12)).thenReturn(List.of(fallas));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/incidencias/equipos/fallas").param("top", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idEquipo").value(1))
+                .andExpect(jsonPath("$[0].fallasPeriodo").value(5))
+                .andExpect(jsonPath("$[0].tiempoMedioEntreFallasHoras").value(312.4));
+        mockMvc.perform(get("/api/v1/incidencias/equipos/fallas").param("top", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getHistorial_DeberiaIncluirLasArchivadasYValidarElRango() throws Exception {
+        // Given
+        IncidenciaHistorialDTO archivada = new IncidenciaHistorialDTO(1L, 1L, 1L, 1L, new Date(), new Date(),
+                "Falla en el tractor", "CERRADA", "MEDIA", "Se reemplazó el filtro", true);
+        when(incidenciaService.findHistorial(any(Date.class), any(Date.class), eq(1L), eq(1000)))
+                .thenReturn(List.of(archivada));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/incidencias/historial")
+                        .param("inicio", "2023-01-01").param("fin", "2024-12-31").param("idEquipo", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idIncidencia").value(1))
+                .andExpect(jsonPath("$[0].archivada").value(true));
+        mockMvc.perform(get("/api/v1/incidencias/historial")
+                        .param("inicio", "2024-12-31").param("fin", "2023-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getEventos_DeberiaReanudarDesdeLastEventIdYEnviarEventosSse() throws Exception {
+        // Given
+        EventoIncidenciaDTO evento = new EventoIncidenciaDTO(43L, "ASIGNADA", 1L, "EN_PROCESO", "ABIERTA", "ALTA",
+                1L, null, 1L, new Date());
+        when(incidenciaService.suscribirEventos("ABIERTA", null, 42L)).thenReturn(Flux.just(
+                ServerSentEvent.builder(evento).id("43").event("ASIGNADA").build()));
+
+        // When
+        MvcResult resultado = mockMvc.perform(get("/api/v1/incidencias/eventos")
+                        .param("estado", "ABIERTA")
+                        .header("Last-Event-ID", "42")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("id:43")))
+                .andExpect(content().string(containsString("event:ASIGNADA")));
+    }
+
+    @Test
+    void getFallasEquipo_SinIncidencias_DeberiaRetornarNotFound() throws Exception {
+        // Given
+        when(incidenciaService.findFallasEquipo(99L, 12)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/incidencias/equipo/99/fallas"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void buscarIncidencias_DeberiaRetornarLaPaginaDeResultados() throws Exception {
+        // Given
+        ResultadoBusquedaDTO resultado = new ResultadoBusquedaDTO(1L, true, 0, 20,
+                List.of(new ResultadoBusquedaDTO.Coincidencia(incidenciaTest, 2.5f)));
+        when(incidenciaService.buscar("compresor", "ABIERTA", 0, 20)).thenReturn(resultado);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/incidencias/busqueda").param("q", "compresor").param("estado", "ABIERTA"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.resultados[0].incidencia.idIncidencia").value(1))
+                .andExpect(jsonPath("$.resultados[0].puntaje").value(2.5));
+    }
+
+    @Test
+    void buscarIncidencias_ConTextoVacio_DeberiaRetornarBadRequest() throws Exception {
+        // Given
+        when(incidenciaService.buscar(" ", null, 0, 20)).thenThrow(new IllegalArgumentException("vacío"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/incidencias/busqueda").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/incidencias/busqueda").param("q", "motor").param("tamano", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reconstruirIndiceBusqueda_DeberiaRetornarLaCantidadIndexada() throws Exception {
+        // Given
+        when(incidenciaService.reconstruirIndiceBusqueda()).thenReturn(42L);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/incidencias/busqueda/reconstruir"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("42"));
+    }
+
+    @Test
+    void getEstadisticasCacheEquipos_DeberiaRetornarMetricas() throws Exception {
+        // Given
+        when(incidenciaService.getEstadisticasCacheEquipos())
+                .thenReturn(new CacheEquiposDTO(9L, 1L, 1L, 0L, 0L, 0.9));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/incidencias/catalogo-equipos/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aciertos").value(9))
+                .andExpect(jsonPath("$.tasaAciertos").value(0.9));
+    }
+
+    @Test
+    void invalidarCacheEquipos_DeberiaRetornarNoContent() throws Exception {
+        // When & Then
+        mockMvc.perform(delete("/api/v1/incidencias/catalogo-equipos/cache").param("idEquipo", "1"))
+                .andExpect(status().isNoContent());
+
+        verify(incidenciaService, times(1)).invalidarCacheEquipos(1L);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.Controller;
+
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.TecnicoModel;
+import com.example.Model.UsuarioModel;
+import com.example.Service.ColaDespacho;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Presupuesto de sentencias SQL por listado: cada endpoint debe ejecutar una cantidad fija de sentencias,
+// sin importar cuántas incidencias, usuarios, técnicos o equipos distintos devuelva.
+// Se cuentan con las estadísticas de Hibernate alrededor de la petición completa, incluida la serialización.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListadosIncidenciasTest {
+
+    private static final int INCIDENCIAS = 24;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ColaDespacho colaDespacho;
+
+    private Statistics estadisticas;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        estadisticas = sessionFactory.getStatistics();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<UsuarioModel> usuarios = new ArrayList<>();
+            List<TecnicoModel> tecnicos = new ArrayList<>();
+            List<EquipoModel> equipos = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                UsuarioModel usuario = new UsuarioModel(null, "Cliente" + i, "Pérez", "cliente" + i + "@test.com",
+                        "password-c" + i, "1234567" + i, 1L);
+                entityManager.persist(usuario);
+                usuarios.add(usuario);
+                UsuarioModel usuarioTecnico = new UsuarioModel(null, "Técnico" + i, "Rojas", "tecnico" + i + "@test.com",
+                        "password-t" + i, "9876543" + i, 2L);
+                entityManager.persist(usuarioTecnico);
+                TecnicoModel tecnico = new TecnicoModel(null, usuarioTecnico, "Mecánica", true, "Norte", null, null);
+                entityManager.persist(tecnico);
+                tecnicos.add(tecnico);
+                EquipoModel equipo = new EquipoModel(null, "Tractor " + i, "Tractor", "CASE", "4210A", "ACTIVO",
+                        999.99, "ABC12" + i, "TRACTOR");
+                entityManager.persist(equipo);
+                equipos.add(equipo);
+            }
+            for (int i = 0; i < INCIDENCIAS; i++) {
+                IncidenciaModel incidencia = new IncidenciaModel();
+                incidencia.setUsuario(usuarios.get(i % 4));
+                incidencia.setEquipo(equipos.get((i / 4) % 4));
+                // La mitad abiertas sin técnico, la otra mitad en proceso con técnicos distintos
+                incidencia.setTecnico(i % 2 == 0 ? null : tecnicos.get((i / 2) % 4));
+                incidencia.setEstado(i % 2 == 0 ? "ABIERTA" : "EN_PROCESO");
+                incidencia.setPrioridad("MEDIA");
+                incidencia.setDescripcion("Falla " + i);
+                incidencia.setFechaReporte(new Date());
+                entityManager.persist(incidencia);
+                ids.add(incidencia.getIdIncidencia());
+            }
+        });
+        colaDespacho.cargar();
+        // Sin caché de equipos: el presupuesto no debe depender de que esté tibia
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM IncidenciaModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM TecnicoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM EquipoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM UsuarioModel").executeUpdate();
+        });
+        colaDespacho.cargar();
+    }
+
+    @ParameterizedTest(name = "{0} -> {1} sentencias como máximo")
+    @CsvSource({
+        "/api/v1/incidencias, 1",
+        "/api/v1/incidencias/estado/EN_PROCESO, 1",
+        "/api/v1/incidencias/pendientes, 1",
+        "/api/v1/incidencias/despacho?limite=50, 1",
+        "/api/v1/incidencias/cliente/{usuario}, 1",
+        "/api/v1/incidencias/equipo/{equipo}, 1",
+        "/api/v1/incidencias/tecnico/{tecnico}, 1",
+        "/api/v1/incidencias/fecha?inicio=2000-01-01&fin=2100-01-01, 1"
+    })
+    void listado_DeberiaRespetarSuPresupuestoDeSentencias(String ruta, long presupuesto) throws Exception {
+        IncidenciaModel muestra = transactionTemplate.execute(status -> {
+            IncidenciaModel incidencia = entityManager.find(IncidenciaModel.class, ids.get(1));
+            entityManager.detach(incidencia);
+            return incidencia;
+        });
+        String url = ruta
+                .replace("{usuario}", muestra.getUsuario().getIdusuario().toString())
+                .replace("{equipo}", muestra.getEquipo().getIdEquipo().toString())
+                .replace("{tecnico}", muestra.getTecnico().getIdTecnico().toString());
+        entityManagerFactory.getCache().evictAll();
+
+        estadisticas.clear();
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isNotEmpty());
+        long sentencias = estadisticas.getPrepareStatementCount();
+
+        assertTrue(sentencias <= presupuesto,
+                url + " ejecutó " + sentencias + " sentencias; presupuesto: " + presupuesto);
+    }
+}
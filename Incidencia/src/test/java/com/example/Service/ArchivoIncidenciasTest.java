@@ -0,0 +1,157 @@
+package com.example.Service;
+
+import com.example.DTO.IncidenciaHistorialDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaArchivadaModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.TecnicoModel;
+import com.example.Model.UsuarioModel;
+import com.example.Repository.IncidenciaArchivadaRepository;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"incidencia.archivo.edad-dias=365", "incidencia.archivo.lote=2",
+        "incidencia.archivo.pausa-ms=0"})
+@ActiveProfiles("test")
+class ArchivoIncidenciasTest {
+
+    private static final long DIA = TimeUnit.DAYS.toMillis(1);
+
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    @Autowired
+    private IncidenciaRepository incidenciaRepository;
+
+    @Autowired
+    private IncidenciaArchivadaRepository incidenciaArchivadaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UsuarioModel usuario;
+    private EquipoModel equipo;
+    private TecnicoModel tecnico;
+    private long ahora;
+
+    @BeforeEach
+    void setUp() {
+        ahora = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            usuario = new UsuarioModel(null, "Juan", "Pérez", "juan@test.com", "password123", "123456789", 1L);
+            entityManager.persist(usuario);
+            equipo = new EquipoModel(null, "Tractor", "Tractor", "CASE", "4210A", "ACTIVO", 999.99, "ABC123", "MAQUINARIA");
+            entityManager.persist(equipo);
+            UsuarioModel usuarioTecnico = new UsuarioModel(null, "Técnico", "Norte", "tecnico@test.com",
+                    "password450", "987654320", 2L);
+            entityManager.persist(usuarioTecnico);
+            tecnico = new TecnicoModel(null, usuarioTecnico, "Mecánica", true, "Norte", null, null);
+            entityManager.persist(tecnico);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM IncidenciaArchivadaModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM IncidenciaModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM TecnicoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM EquipoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM UsuarioModel").executeUpdate();
+        });
+    }
+
+    @Test
+    void archivar_DeberiaTrasladarPorLotesSoloLasCerradasAntiguas() {
+        Map<Long, Long> vencimientos = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            IncidenciaModel cerrada = guardar("CERRADA", ahora - (500 + i) * DIA, ahora - (400 + i) * DIA);
+            vencimientos.put(cerrada.getIdIncidencia(), cerrada.getVencimientoSla().getTime());
+        }
+        IncidenciaModel cerradaReciente = guardar("CERRADA", ahora - 500 * DIA, ahora - 10 * DIA);
+        IncidenciaModel abiertaAntigua = guardar("ABIERTA", ahora - 500 * DIA, null);
+
+        assertEquals(5, incidenciaService.archivarCerradas());
+
+        assertEquals(List.of(cerradaReciente.getIdIncidencia()), incidenciaRepository.findByEstado("CERRADA").stream()
+                .map(IncidenciaModel::getIdIncidencia).toList());
+        assertTrue(incidenciaRepository.existsById(abiertaAntigua.getIdIncidencia()));
+        assertEquals(5, incidenciaArchivadaRepository.count());
+        IncidenciaArchivadaModel archivada = incidenciaArchivadaRepository.findAll().get(0);
+        assertEquals(equipo.getIdEquipo(), archivada.getIdEquipo());
+        assertEquals(tecnico.getIdTecnico(), archivada.getIdTecnico());
+        assertEquals("Se reemplazó el filtro", archivada.getSolucion());
+        assertEquals("E-1042", archivada.getCodigoFalla());
+        assertEquals(vencimientos.get(archivada.getIdIncidencia()), archivada.getVencimientoSla().getTime());
+        assertNotNull(archivada.getFechaArchivo());
+        // Una segunda pasada no encuentra nada más que archivar
+        assertEquals(0, incidenciaService.archivarCerradas());
+    }
+
+    @Test
+    void findHistorial_DeberiaUnirLasIncidenciasVigentesYLasArchivadas() {
+        for (int i = 0; i < 3; i++) {
+            guardar("CERRADA", ahora - (500 + i) * DIA, ahora - 400 * DIA);
+        }
+        guardar("ABIERTA", ahora - 499 * DIA, null);
+        incidenciaService.archivarCerradas();
+
+        List<IncidenciaHistorialDTO> historial = incidenciaService.findHistorial(new Date(ahora - 600 * DIA),
+                new Date(ahora), equipo.getIdEquipo(), 100);
+        List<IncidenciaHistorialDTO> primeras = incidenciaService.findHistorial(new Date(ahora - 600 * DIA),
+                new Date(ahora), null, 2);
+
+        assertEquals(4, historial.size());
+        assertEquals(List.of(true, true, true, false), historial.stream().map(IncidenciaHistorialDTO::getArchivada).toList());
+        assertTrue(historial.get(0).getFechaReporte().before(historial.get(3).getFechaReporte()));
+        assertEquals(historial.subList(0, 2), primeras);
+        assertTrue(incidenciaService.findHistorial(new Date(ahora - 600 * DIA), new Date(ahora), 999L, 100).isEmpty());
+    }
+
+    @Test
+    void reconstruirFallasEquipos_DeberiaContarTambienLasArchivadas() {
+        for (int i = 0; i < 3; i++) {
+            guardar("CERRADA", ahora - (500 + i) * DIA, ahora - 400 * DIA);
+        }
+        guardar("ABIERTA", ahora - DIA, null);
+        incidenciaService.archivarCerradas();
+
+        assertEquals(4, incidenciaService.reconstruirFallasEquipos());
+
+        assertEquals(4L, incidenciaService.findFallasEquipo(equipo.getIdEquipo(), 4).orElseThrow().getFallas());
+    }
+
+    private IncidenciaModel guardar(String estado, long reporte, Long resolucion) {
+        IncidenciaModel incidencia = new IncidenciaModel();
+        incidencia.setUsuario(usuario);
+        incidencia.setEquipo(equipo);
+        incidencia.setTecnico(tecnico);
+        incidencia.setDescripcion("Falla en el tractor");
+        incidencia.setEstado(estado);
+        incidencia.setFechaReporte(new Date(reporte));
+        if (resolucion != null) {
+            incidencia.setFechaResolucion(new Date(resolucion));
+            incidencia.setSolucion("Se reemplazó el filtro");
+            incidencia.setCodigoFalla("E-1042");
+        }
+        return incidenciaService.save(incidencia);
+    }
+}
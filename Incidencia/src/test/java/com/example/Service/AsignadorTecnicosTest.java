@@ -0,0 +1,163 @@
+package com.example.Service;
+
+import com.example.DTO.AsignacionDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Repository.IncidenciaRepository;
+import com.example.Repository.TecnicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsignadorTecnicosTest {
+
+    @Mock
+    private IncidenciaRepository incidenciaRepository;
+
+    @Mock
+    private TecnicoRepository tecnicoRepository;
+
+    @Mock
+    private ColaDespacho colaDespacho;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private IndiceIncidencias indiceIncidencias;
+
+    @Mock
+    private EventosIncidencias eventosIncidencias;
+
+    private AsignadorTecnicos asignadorTecnicos;
+    private IncidenciaModel incidenciaTractor;
+
+    private final AsignadorTecnicos.Candidato mecanico =
+            new AsignadorTecnicos.Candidato(1L, "Mantención de Tractores", "Norte");
+    private final AsignadorTecnicos.Candidato electricista =
+            new AsignadorTecnicos.Candidato(2L, "Electricidad Industrial", "Región Metropolitana");
+
+    @BeforeEach
+    void setUp() {
+        asignadorTecnicos = new AsignadorTecnicos(incidenciaRepository, tecnicoRepository, colaDespacho, jdbcTemplate,
+                indiceIncidencias, eventosIncidencias);
+
+        EquipoModel tractor = new EquipoModel();
+        tractor.setIdEquipo(1L);
+        tractor.setTipoEquipo("TRACTOR");
+        incidenciaTractor = new IncidenciaModel();
+        incidenciaTractor.setIdIncidencia(10L);
+        incidenciaTractor.setEquipo(tractor);
+    }
+
+    @Test
+    void elegir_DeberiaPreferirLaEspecialidadAcordeAlTipoDeEquipo() {
+        AsignacionDTO asignacion = asignadorTecnicos.elegir(incidenciaTractor, null, List.of(electricista, mecanico))
+                .orElseThrow();
+
+        assertEquals(1L, asignacion.getIdTecnico());
+        assertEquals(AsignadorTecnicos.PESO_ESPECIALIDAD, asignacion.getPuntaje());
+    }
+
+    @Test
+    void elegir_DeberiaSumarLaZonaSinDistinguirMayusculasNiTildes() {
+        incidenciaTractor.getEquipo().setTipoEquipo("COSECHADORA");
+
+        AsignacionDTO asignacion = asignadorTecnicos
+                .elegir(incidenciaTractor, "region metropolitana", List.of(mecanico, electricista)).orElseThrow();
+
+        assertEquals(2L, asignacion.getIdTecnico());
+        assertEquals(AsignadorTecnicos.PESO_ZONA, asignacion.getPuntaje());
+    }
+
+    @Test
+    void elegir_DeberiaDescontarLaCargaDeIncidenciasAbiertas() {
+        when(incidenciaRepository.contarAbiertasPorTecnico()).thenReturn(List.<Object[]>of(new Object[]{1L, 12L}));
+        asignadorTecnicos.cargar();
+
+        AsignacionDTO asignacion = asignadorTecnicos.elegir(incidenciaTractor, null, List.of(mecanico, electricista))
+                .orElseThrow();
+
+        assertEquals(2L, asignacion.getIdTecnico());
+        assertEquals(0, asignacion.getCargaAnterior());
+    }
+
+    @Test
+    void elegir_AIgualPuntajeYCarga_DeberiaPreferirElMenorId() {
+        incidenciaTractor.getEquipo().setTipoEquipo("COSECHADORA");
+
+        AsignacionDTO asignacion = asignadorTecnicos.elegir(incidenciaTractor, null, List.of(electricista, mecanico))
+                .orElseThrow();
+
+        assertEquals(1L, asignacion.getIdTecnico());
+    }
+
+    @Test
+    void elegir_SinCandidatos_DeberiaRetornarEmpty() {
+        assertTrue(asignadorTecnicos.elegir(incidenciaTractor, "Norte", List.of()).isEmpty());
+    }
+
+    @Test
+    void moverCarga_DeberiaTrasladarLaIncidenciaEntreTecnicos() {
+        asignadorTecnicos.moverCarga(null, 1L);
+        asignadorTecnicos.moverCarga(null, 1L);
+        asignadorTecnicos.moverCarga(1L, 2L);
+        asignadorTecnicos.moverCarga(2L, 2L);
+
+        assertEquals(Map.of(1L, 1, 2L, 1), asignadorTecnicos.getCargas());
+
+        asignadorTecnicos.moverCarga(1L, null);
+        assertEquals(Map.of(2L, 1), asignadorTecnicos.getCargas());
+    }
+
+    @Test
+    void asignarPendientes_SinTecnicosDisponibles_NoDeberiaTomarIncidenciasDeLaCola() {
+        when(tecnicoRepository.findCandidatosDisponibles()).thenReturn(List.of());
+
+        assertTrue(asignadorTecnicos.asignarPendientes(500, null).isEmpty());
+        verify(colaDespacho, never()).tomar();
+    }
+
+    @Test
+    void asignarPendientes_ConFilasSinConteo_DeberiaContarSoloLasQueQuedaronAsignadas() {
+        IncidenciaModel otra = new IncidenciaModel();
+        otra.setIdIncidencia(11L);
+        otra.setEquipo(incidenciaTractor.getEquipo());
+        when(tecnicoRepository.findCandidatosDisponibles())
+                .thenReturn(List.<Object[]>of(new Object[]{1L, mecanico.especialidad(), mecanico.zonaCobertura()}));
+        long ahora = System.currentTimeMillis();
+        when(colaDespacho.tomar()).thenReturn(
+                Optional.of(new ColaDespacho.Entrada(10L, 1, ahora)),
+                Optional.of(new ColaDespacho.Entrada(11L, 1, ahora)),
+                Optional.empty());
+        when(incidenciaRepository.findListadoByIds(List.of(10L, 11L))).thenReturn(List.of(incidenciaTractor, otra));
+        // rewriteBatchedStatements: el driver no informa cuántas filas cambió cada sentencia
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), eq(2), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}});
+        // La 11 ya la había tomado otro técnico
+        when(incidenciaRepository.findTecnicosEnProcesoByIds(Set.of(10L, 11L)))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 1L}, new Object[]{11L, 2L}));
+
+        List<AsignacionDTO> asignadas = asignadorTecnicos.asignarPendientes(500, null);
+
+        assertEquals(List.of(10L), asignadas.stream().map(AsignacionDTO::getIdIncidencia).toList());
+        assertEquals(Map.of(1L, 1), asignadorTecnicos.getCargas());
+        verify(eventosIncidencias, times(1)).publicar(argThat(evento -> evento.getIdIncidencia().equals(10L)));
+        verify(eventosIncidencias, times(1)).publicar(any());
+    }
+}
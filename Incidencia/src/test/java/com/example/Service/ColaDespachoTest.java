@@ -0,0 +1,156 @@
+package com.example.Service;
+
+import com.example.Model.IncidenciaModel;
+import com.example.Model.TecnicoModel;
+import com.example.Repository.IncidenciaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColaDespachoTest {
+
+    @Mock
+    private IncidenciaRepository incidenciaRepository;
+
+    private ColaDespacho colaDespacho;
+
+    @BeforeEach
+    void setUp() {
+        colaDespacho = new ColaDespacho(incidenciaRepository);
+    }
+
+    @Test
+    void cargar_DeberiaOrdenarPorPrioridadYLuegoPorFechaDeReporte() {
+        when(incidenciaRepository.findPendientesDeDespacho()).thenReturn(List.of(
+                new Object[]{1L, "BAJA", new Date(1000)},
+                new Object[]{2L, "ALTA", new Date(3000)},
+                new Object[]{3L, "CRITICA", new Date(5000)},
+                new Object[]{4L, "ALTA", new Date(2000)},
+                new Object[]{5L, "MEDIA", new Date(1000)}));
+
+        colaDespacho.cargar();
+
+        assertEquals(List.of(3L, 4L, 2L, 5L, 1L), colaDespacho.primeras(10));
+        assertEquals(List.of(3L, 4L), colaDespacho.primeras(2));
+    }
+
+    @Test
+    void actualizar_DeberiaReordenarOQuitarSegunElEstadoDeLaIncidencia() {
+        IncidenciaModel baja = incidencia(1L, "BAJA", 1000);
+        IncidenciaModel media = incidencia(2L, "MEDIA", 2000);
+        colaDespacho.actualizar(1L, ColaDespacho.entradaDe(baja));
+        colaDespacho.actualizar(2L, ColaDespacho.entradaDe(media));
+        assertEquals(List.of(2L, 1L), colaDespacho.primeras(10));
+
+        baja.setPrioridad("CRITICA");
+        colaDespacho.actualizar(1L, ColaDespacho.entradaDe(baja));
+        assertEquals(List.of(1L, 2L), colaDespacho.primeras(10));
+        assertEquals(2, colaDespacho.tamaño());
+
+        baja.setTecnico(new TecnicoModel());
+        colaDespacho.actualizar(1L, ColaDespacho.entradaDe(baja));
+        media.setEstado("CERRADA");
+        colaDespacho.actualizar(2L, ColaDespacho.entradaDe(media));
+        assertEquals(0, colaDespacho.tamaño());
+    }
+
+    @Test
+    void devolver_NoDeberiaPisarUnaVersionMasNuevaDeLaIncidencia() {
+        IncidenciaModel incidencia = incidencia(1L, "MEDIA", 1000);
+        colaDespacho.actualizar(1L, ColaDespacho.entradaDe(incidencia));
+        ColaDespacho.Entrada tomada = colaDespacho.tomar().orElseThrow();
+
+        incidencia.setPrioridad("CRITICA");
+        colaDespacho.actualizar(1L, ColaDespacho.entradaDe(incidencia));
+        colaDespacho.devolver(tomada);
+
+        assertEquals(1, colaDespacho.tamaño());
+        assertEquals(0, colaDespacho.tomar().orElseThrow().rango());
+        assertTrue(colaDespacho.tomar().isEmpty());
+    }
+
+    @Test
+    void refrescar_UnaLecturaAnteriorNoDeberiaQuitarUnaIncidenciaPendiente() {
+        // El callback de la asignación lee antes de que se confirme la desasignación, pero aplica después
+        when(incidenciaRepository.findPendientesDeDespachoByIds(List.of(1L)))
+                .thenAnswer(invocacion -> {
+                    colaDespacho.refrescar(List.of(1L));
+                    return List.of();
+                })
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "ALTA", new Date(1000)}));
+
+        colaDespacho.refrescar(List.of(1L));
+
+        assertEquals(List.of(1L), colaDespacho.primeras(10));
+        verify(incidenciaRepository, times(2)).findPendientesDeDespachoByIds(List.of(1L));
+    }
+
+    @Test
+    void cargar_NoDeberiaQuitarEntradasMasNuevasQueLaConsulta() {
+        when(incidenciaRepository.findPendientesDeDespacho()).thenAnswer(invocacion -> {
+            colaDespacho.actualizar(2L, ColaDespacho.entradaDe(incidencia(2L, "MEDIA", 2000)));
+            return List.<Object[]>of(new Object[]{1L, "BAJA", new Date(1000)});
+        });
+        colaDespacho.actualizar(3L, ColaDespacho.entradaDe(incidencia(3L, "ALTA", 3000)));
+
+        colaDespacho.cargar();
+
+        assertEquals(List.of(2L, 1L), colaDespacho.primeras(10));
+    }
+
+    @Test
+    void tomar_DespachadoresConcurrentesNuncaRecibenLaMismaIncidencia() throws Exception {
+        int incidencias = 2000;
+        for (long id = 1; id <= incidencias; id++) {
+            colaDespacho.actualizar(id, ColaDespacho.entradaDe(incidencia(id, "MEDIA", id)));
+        }
+        int despachadores = 8;
+        List<Long> tomadas = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(despachadores);
+        for (int i = 0; i < despachadores; i++) {
+            executor.submit(() -> {
+                inicio.await();
+                while (true) {
+                    var entrada = colaDespacho.tomar();
+                    if (entrada.isEmpty()) {
+                        return null;
+                    }
+                    tomadas.add(entrada.get().idIncidencia());
+                }
+            });
+        }
+        inicio.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(incidencias, tomadas.size());
+        assertEquals(incidencias, new HashSet<>(tomadas).size());
+        assertEquals(0, colaDespacho.tamaño());
+    }
+
+    private static IncidenciaModel incidencia(Long id, String prioridad, long fechaReporte) {
+        IncidenciaModel incidencia = new IncidenciaModel();
+        incidencia.setIdIncidencia(id);
+        incidencia.setEstado("ABIERTA");
+        incidencia.setPrioridad(prioridad);
+        incidencia.setFechaReporte(new Date(fechaReporte));
+        return incidencia;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.Service;
+
+import com.example.DTO.AsignacionDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.TecnicoModel;
+import com.example.Model.UsuarioModel;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DespachoIncidenciasTest {
+
+    private static final int INCIDENCIAS = 30;
+
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    @Autowired
+    private IncidenciaRepository incidenciaRepository;
+
+    @Autowired
+    private AsignadorTecnicos asignadorTecnicos;
+
+    @Autowired
+    private ColaDespacho colaDespacho;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UsuarioModel usuario;
+    private EquipoModel equipo;
+    private List<TecnicoModel> tecnicos;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            usuario = new UsuarioModel(null, "Juan", "Pérez", "juan@test.com", "password123", "123456789", 1L);
+            entityManager.persist(usuario);
+            equipo = new EquipoModel(null, "Tractor", "Tractor", "CASE", "4210A", "ACTIVO", 999.99, "ABC123", "MAQUINARIA");
+            entityManager.persist(equipo);
+            tecnicos = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                UsuarioModel usuarioTecnico = new UsuarioModel(null, "Técnico", "Norte", "tecnico" + i + "@test.com",
+                        "password45" + i, "98765432" + i, 2L);
+                entityManager.persist(usuarioTecnico);
+                TecnicoModel tecnico = new TecnicoModel(null, usuarioTecnico, "Mecánica", true, "Norte", null, null);
+                entityManager.persist(tecnico);
+                tecnicos.add(tecnico);
+            }
+        });
+        asignadorTecnicos.cargar();
+        colaDespacho.cargar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM IncidenciaModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM TecnicoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM EquipoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM UsuarioModel").executeUpdate();
+        });
+    }
+
+    @Test
+    void reclamarSiguiente_DeberiaEntregarPrimeroLaDeMayorPrioridad() {
+        guardar("BAJA", 1000);
+        IncidenciaModel critica = guardar("CRITICA", 3000);
+        guardar("ALTA", 2000);
+
+        IncidenciaModel reclamada = incidenciaService.reclamarSiguiente(tecnicos.get(0).getIdTecnico()).orElseThrow();
+
+        assertEquals(critica.getIdIncidencia(), reclamada.getIdIncidencia());
+        assertEquals("EN_PROCESO", reclamada.getEstado());
+        assertEquals(tecnicos.get(0).getIdTecnico(), reclamada.getTecnico().getIdTecnico());
+    }
+
+    @Test
+    void reclamarSiguiente_DespachadoresConcurrentesNuncaAsignanDosVecesLaMismaIncidencia() throws Exception {
+        for (int i = 0; i < INCIDENCIAS; i++) {
+            guardar(i % 2 == 0 ? "ALTA" : "MEDIA", i);
+        }
+        List<Long> reclamadas = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        for (int d = 0; d < 6; d++) {
+            Long idTecnico = tecnicos.get(d % tecnicos.size()).getIdTecnico();
+            executor.submit(() -> {
+                inicio.await();
+                Optional<IncidenciaModel> reclamada;
+                while ((reclamada = incidenciaService.reclamarSiguiente(idTecnico)).isPresent()) {
+                    reclamadas.add(reclamada.get().getIdIncidencia());
+                }
+                return null;
+            });
+        }
+        inicio.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(INCIDENCIAS, reclamadas.size());
+        assertEquals(INCIDENCIAS, new HashSet<>(reclamadas).size());
+        assertTrue(incidenciaRepository.findAll().stream()
+                .allMatch(i -> i.getTecnico() != null && "EN_PROCESO".equals(i.getEstado())));
+        assertTrue(incidenciaService.findColaDespacho(10).isEmpty());
+    }
+
+    @Test
+    void asignarPendientes_DeberiaRepartirUnaRafagaEnUnaSolaTransaccion() {
+        for (int i = 0; i < 500; i++) {
+            guardar("MEDIA", i);
+        }
+
+        List<AsignacionDTO> asignaciones = incidenciaService.asignarPendientes(500, null);
+
+        assertEquals(500, asignaciones.size());
+        assertTrue(incidenciaRepository.findAll().stream()
+                .allMatch(i -> i.getTecnico() != null && "EN_PROCESO".equals(i.getEstado())));
+        // Con el mismo puntaje para todos, la carga queda repartida en partes iguales
+        for (TecnicoModel tecnico : tecnicos) {
+            assertEquals(250, asignadorTecnicos.getCarga(tecnico.getIdTecnico()));
+            assertEquals(250, incidenciaRepository.findByTecnicoId(tecnico.getIdTecnico()).size());
+        }
+
+        incidenciaService.cerrarIncidencia(asignaciones.get(0).getIdIncidencia(), "Se reemplazó el filtro");
+        assertEquals(249, asignadorTecnicos.getCarga(asignaciones.get(0).getIdTecnico()));
+    }
+
+    private IncidenciaModel guardar(String prioridad, long fechaReporte) {
+        IncidenciaModel incidencia = new IncidenciaModel();
+        incidencia.setUsuario(usuario);
+        incidencia.setEquipo(equipo);
+        incidencia.setDescripcion("Falla en el tractor");
+        incidencia.setPrioridad(prioridad);
+        incidencia.setFechaReporte(new Date(fechaReporte));
+        return incidenciaService.save(incidencia);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.Service;
+
+import com.example.DTO.EstadisticasIncidenciasDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.TecnicoModel;
+import com.example.Model.UsuarioModel;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "incidencia.estadisticas.ttl-ms=60000")
+@ActiveProfiles("test")
+class EstadisticasIncidenciasTest {
+
+    private static final long HORA = 3_600_000L;
+
+    @Autowired
+    private EstadisticasIncidencias estadisticasIncidencias;
+
+    @Autowired
+    private IncidenciaRepository incidenciaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private EquipoModel tractor;
+    private EquipoModel cosechadora;
+    private TecnicoModel tecnico;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            UsuarioModel usuario = new UsuarioModel(null, "Juan", "Pérez", "juan@test.com", "password123", "123456789", 1L);
+            entityManager.persist(usuario);
+            tractor = equipo("Tractor", "ABC123");
+            cosechadora = equipo("Cosechadora", "DEF456");
+            tecnico = new TecnicoModel(null, usuario, "Mecánica", true, "Norte", null, null);
+            entityManager.persist(tecnico);
+
+            Date ahora = new Date();
+            incidencia(usuario, tractor, null, "ABIERTA", "MEDIA", ahora, null);
+            incidencia(usuario, tractor, null, "ABIERTA", "ALTA", ahora, null);
+            incidencia(usuario, cosechadora, tecnico, "EN_PROCESO", "ALTA", ahora, null);
+            incidencia(usuario, tractor, tecnico, "RESUELTA", "ALTA", new Date(ahora.getTime() - 10 * HORA), ahora);
+            incidencia(usuario, cosechadora, tecnico, "CERRADA", "CRITICA", new Date(ahora.getTime() - 20 * HORA), ahora);
+        });
+        estadisticasIncidencias.invalidar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM IncidenciaModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM TecnicoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM EquipoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM UsuarioModel").executeUpdate();
+        });
+    }
+
+    @Test
+    void obtener_DeberiaAgruparPorCadaDimension() {
+        EstadisticasIncidenciasDTO estadisticas = estadisticasIncidencias.obtener();
+
+        assertEquals(5L, estadisticas.getTotal());
+        assertEquals(2L, estadisticas.getAbiertas());
+        assertEquals(1L, estadisticas.getEnProceso());
+        assertEquals(1L, estadisticas.getResueltas());
+        assertEquals(1L, estadisticas.getCerradas());
+        assertEquals(15.0, estadisticas.getTiempoMedioResolucionHoras(), 0.01);
+
+        assertEquals(3L, estadisticas.getPorPrioridad().get("ALTA").getTotal());
+        assertEquals(10.0, estadisticas.getPorPrioridad().get("ALTA").getTiempoMedioResolucionHoras(), 0.01);
+        assertNull(estadisticas.getPorPrioridad().get("MEDIA").getTiempoMedioResolucionHoras());
+
+        assertEquals(2L, estadisticas.getPorTecnico().get("SIN_ASIGNAR").getTotal());
+        assertEquals(3L, estadisticas.getPorTecnico().get(tecnico.getIdTecnico().toString()).getTotal());
+        assertEquals(2L, estadisticas.getPorTecnico().get(tecnico.getIdTecnico().toString()).getResueltas());
+
+        assertEquals(3L, estadisticas.getPorEquipo().get(tractor.getIdEquipo().toString()).getTotal());
+        assertEquals(20.0, estadisticas.getPorEquipo().get(cosechadora.getIdEquipo().toString())
+                .getTiempoMedioResolucionHoras(), 0.01);
+    }
+
+    @Test
+    void obtener_DeberiaReutilizarLaInstantaneaHastaInvalidarla() {
+        EstadisticasIncidenciasDTO primera = estadisticasIncidencias.obtener();
+        transactionTemplate.executeWithoutResult(status -> incidenciaRepository.deleteAll());
+
+        assertSame(primera, estadisticasIncidencias.obtener());
+
+        estadisticasIncidencias.invalidar();
+        assertEquals(0L, estadisticasIncidencias.obtener().getTotal());
+    }
+
+    private EquipoModel equipo(String nombre, String patente) {
+        EquipoModel equipo = new EquipoModel();
+        equipo.setNombre(nombre);
+        equipo.setDescripcion(nombre);
+        equipo.setMarca("CASE");
+        equipo.setModelo("4210A");
+        equipo.setEstado("ACTIVO");
+        equipo.setPrecioventa(999.99);
+        equipo.setPatente(patente);
+        equipo.setTipoEquipo("MAQUINARIA");
+        entityManager.persist(equipo);
+        return equipo;
+    }
+
+    private void incidencia(UsuarioModel usuario, EquipoModel equipo, TecnicoModel tecnico, String estado,
+                            String prioridad, Date fechaReporte, Date fechaResolucion) {
+        IncidenciaModel incidencia = new IncidenciaModel();
+        incidencia.setUsuario(usuario);
+        incidencia.setEquipo(equipo);
+        incidencia.setTecnico(tecnico);
+        incidencia.setDescripcion("Falla en " + equipo.getNombre());
+        incidencia.setEstado(estado);
+        incidencia.setPrioridad(prioridad);
+        incidencia.setFechaReporte(fechaReporte);
+        incidencia.setFechaResolucion(fechaResolucion);
+        entityManager.persist(incidencia);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.Service;
+
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.TecnicoModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventosIncidenciasTest {
+
+    private EventosIncidencias eventos;
+
+    @BeforeEach
+    void setUp() {
+        eventos = new EventosIncidencias(5, 2, 60_000);
+    }
+
+    @Test
+    void cambio_DeberiaDistinguirCreacionAsignacionYCierre() {
+        IncidenciaModel incidencia = incidencia(1L, "EN_PROCESO", 3L);
+
+        assertEquals("CREADA", EventosIncidencias.cambio(incidencia, null).getTipo());
+        assertEquals("ASIGNADA", EventosIncidencias.cambio(incidencia,
+                new EventosIncidencias.Anterior("ABIERTA", null)).getTipo());
+        assertEquals("ACTUALIZADA", EventosIncidencias.cambio(incidencia,
+                new EventosIncidencias.Anterior("EN_PROCESO", 3L)).getTipo());
+        assertEquals("CERRADA", EventosIncidencias.cambio(incidencia(1L, "CERRADA", 3L),
+                new EventosIncidencias.Anterior("EN_PROCESO", 3L)).getTipo());
+    }
+
+    @Test
+    void suscribir_DeberiaFiltrarYAvisarCuandoUnaIncidenciaSaleDelFiltro() {
+        Lector abiertas = new Lector(Long.MAX_VALUE);
+        eventos.suscribir("ABIERTA", null, null).subscribe(abiertas);
+
+        eventos.publicar(EventosIncidencias.cambio(incidencia(1L, "ABIERTA", null), null));
+        eventos.publicar(EventosIncidencias.cambio(incidencia(2L, "EN_PROCESO", 3L), null));
+        eventos.publicar(EventosIncidencias.cambio(incidencia(1L, "EN_PROCESO", 3L),
+                new EventosIncidencias.Anterior("ABIERTA", null)));
+
+        assertEquals(List.of("CREADA", "ASIGNADA"), abiertas.tipos());
+        assertEquals(List.of(1L, 1L), abiertas.recibidos.stream().map(EventoIncidenciaDTO::getIdIncidencia).toList());
+    }
+
+    @Test
+    void suscribir_DesdeUnEventoReciente_DeberiaEntregarLosQueFaltanYSeguirConLosNuevos() {
+        for (long id = 1; id <= 3; id++) {
+            eventos.publicar(EventosIncidencias.cambio(incidencia(id, "ABIERTA", null), null));
+        }
+        Lector lector = new Lector(Long.MAX_VALUE);
+        eventos.suscribir(null, null, null).subscribe(lector);
+        eventos.publicar(EventosIncidencias.cambio(incidencia(4L, "ABIERTA", null), null));
+        long primero = lector.recibidos.get(0).getId() - 4;
+
+        Lector reanudado = new Lector(Long.MAX_VALUE);
+        eventos.suscribir(null, null, primero + 1).subscribe(reanudado);
+        eventos.publicar(EventosIncidencias.cambio(incidencia(5L, "ABIERTA", null), null));
+
+        assertEquals(List.of(2L, 3L, 4L, 5L),
+                reanudado.recibidos.stream().map(EventoIncidenciaDTO::getIdIncidencia).toList());
+        assertEquals(List.of(primero + 2, primero + 3, primero + 4, primero + 5),
+                reanudado.recibidos.stream().map(EventoIncidenciaDTO::getId).toList());
+    }
+
+    @Test
+    void suscribir_DesdeUnEventoQueYaNoEstaEntreLosRecientes_DeberiaPedirResincronizar() {
+        Lector lector = new Lector(Long.MAX_VALUE);
+        eventos.suscribir(null, null, null).subscribe(lector);
+        for (long id = 1; id <= 8; id++) {
+            eventos.publicar(EventosIncidencias.cambio(incidencia(id, "ABIERTA", null), null));
+        }
+        long primero = lector.recibidos.get(0).getId();
+
+        Lector antiguo = new Lector(Long.MAX_VALUE);
+        eventos.suscribir(null, null, primero).subscribe(antiguo);
+        Lector deOtroArranque = new Lector(Long.MAX_VALUE);
+        eventos.suscribir(null, null, 42L).subscribe(deOtroArranque);
+
+        assertEquals(List.of("RESINCRONIZAR"), antiguo.tipos());
+        assertEquals(primero + 7, antiguo.recibidos.get(0).getId());
+        assertEquals(List.of("RESINCRONIZAR"), deOtroArranque.tipos());
+    }
+
+    @Test
+    void publicar_ConUnClienteLento_DeberiaCerrarleElFlujoSinFrenarALosDemas() {
+        Lector rapido = new Lector(Long.MAX_VALUE);
+        Lector lento = new Lector(0);
+        eventos.suscribir(null, null, null).subscribe(rapido);
+        eventos.suscribir(null, null, null).subscribe(lento);
+
+        for (long id = 1; id <= 4; id++) {
+            eventos.publicar(EventosIncidencias.cambio(incidencia(id, "ABIERTA", null), null));
+        }
+
+        assertEquals(4, rapido.recibidos.size());
+        assertEquals(1, eventos.getSuscriptores());
+        // Recibe el evento ya pedido y los que alcanzaron a quedar en su búfer, y el flujo termina;
+        // se reconecta con el último ID
+        lento.request(Long.MAX_VALUE);
+        assertEquals(List.of(1L, 2L, 3L), lento.recibidos.stream().map(EventoIncidenciaDTO::getIdIncidencia).toList());
+        assertEquals(SignalType.ON_COMPLETE, lento.fin);
+    }
+
+    @Test
+    void suscribir_AlCancelar_DeberiaQuitarLaSuscripcion() {
+        Lector lector = new Lector(Long.MAX_VALUE);
+        eventos.suscribir(null, null, null).subscribe(lector);
+        assertEquals(1, eventos.getSuscriptores());
+
+        lector.dispose();
+
+        assertEquals(0, eventos.getSuscriptores());
+    }
+
+    private static IncidenciaModel incidencia(Long id, String estado, Long idTecnico) {
+        IncidenciaModel incidencia = new IncidenciaModel();
+        incidencia.setIdIncidencia(id);
+        incidencia.setEstado(estado);
+        incidencia.setPrioridad("MEDIA");
+        if (idTecnico != null) {
+            TecnicoModel tecnico = new TecnicoModel();
+            tecnico.setIdTecnico(idTecnico);
+            incidencia.setTecnico(tecnico);
+        }
+        return incidencia;
+    }
+
+    // Guarda los eventos recibidos (sin los latidos) y pide solo la demanda inicial indicada
+    private static class Lector extends BaseSubscriber<ServerSentEvent<EventoIncidenciaDTO>> {
+
+        private final long demandaInicial;
+        private final List<EventoIncidenciaDTO> recibidos = new CopyOnWriteArrayList<>();
+        private volatile SignalType fin;
+
+        Lector(long demandaInicial) {
+            this.demandaInicial = demandaInicial;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (demandaInicial > 0) {
+                request(demandaInicial);
+            }
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<EventoIncidenciaDTO> evento) {
+            if (evento.data() != null) {
+                recibidos.add(evento.data());
+            }
+        }
+
+        @Override
+        protected void hookFinally(SignalType tipo) {
+            fin = tipo;
+        }
+
+        List<String> tipos() {
+            return recibidos.stream().map(EventoIncidenciaDTO::getTipo).toList();
+        }
+    }
+}
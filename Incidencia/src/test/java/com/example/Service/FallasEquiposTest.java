@@ -0,0 +1,189 @@
+package com.example.Service;
+
+import com.example.DTO.FallasEquipoDTO;
+import com.example.Repository.IncidenciaArchivadaRepository;
+import com.example.Repository.IncidenciaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FallasEquiposTest {
+
+    private static final long HORA = Duration.ofHours(1).toMillis();
+    private static final long DIA = Duration.ofDays(1).toMillis();
+
+    @Mock
+    private IncidenciaRepository incidenciaRepository;
+
+    @Mock
+    private IncidenciaArchivadaRepository incidenciaArchivadaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FallasEquipos fallasEquipos;
+    private long ahora;
+
+    @BeforeEach
+    void setUp() {
+        fallasEquipos = new FallasEquipos(incidenciaRepository, incidenciaArchivadaRepository, transactionManager, 3);
+        // Mediodía de hoy: las fallas de las pruebas caen en la semana actual o en las anteriores, nunca en la siguiente
+        ahora = LocalDate.now().atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void reemplazar_DeberiaCalcularTiempoEntreFallasYTiempoDeReparacion() {
+        fallasEquipos.reemplazar(1L, null, new FallasEquipos.Falla(7L, ahora - 20 * DIA, ahora - 20 * DIA + 4 * HORA));
+        fallasEquipos.reemplazar(2L, null, new FallasEquipos.Falla(7L, ahora - 10 * DIA, null));
+        fallasEquipos.reemplazar(3L, null, new FallasEquipos.Falla(7L, ahora, null));
+        // El cierre de la segunda reemplaza su aporte: ahora cuenta como reparación de 8 horas
+        fallasEquipos.reemplazar(2L, new FallasEquipos.Falla(7L, ahora - 10 * DIA, null),
+                new FallasEquipos.Falla(7L, ahora - 10 * DIA, ahora - 10 * DIA + 8 * HORA));
+
+        FallasEquipoDTO fallas = fallasEquipos.obtener(7L, 52).orElseThrow();
+
+        assertEquals(3L, fallas.getFallas());
+        assertEquals(3L, fallas.getFallasPeriodo());
+        assertEquals(2L, fallas.getReparaciones());
+        assertEquals(240.0, fallas.getTiempoMedioEntreFallasHoras());
+        assertEquals(6.0, fallas.getTiempoMedioReparacionHoras());
+        assertEquals(3L, fallas.getPorSemana().values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(fallasEquipos.obtener(8L, 52).isEmpty());
+    }
+
+    @Test
+    void top_DeberiaOrdenarPorFallasEnElPeriodoYLuegoPorMenorTiempoEntreFallas() {
+        // Equipo 1: 3 fallas esta semana. Equipo 2: 2 fallas juntas. Equipo 3: 2 fallas separadas. Equipo 4: fuera del periodo.
+        fallasEquipos.reemplazar(1L, null, new FallasEquipos.Falla(1L, ahora, null));
+        fallasEquipos.reemplazar(2L, null, new FallasEquipos.Falla(1L, ahora - HORA, null));
+        fallasEquipos.reemplazar(3L, null, new FallasEquipos.Falla(1L, ahora - 2 * HORA, null));
+        fallasEquipos.reemplazar(4L, null, new FallasEquipos.Falla(2L, ahora, null));
+        fallasEquipos.reemplazar(5L, null, new FallasEquipos.Falla(2L, ahora - HORA, null));
+        fallasEquipos.reemplazar(6L, null, new FallasEquipos.Falla(3L, ahora, null));
+        fallasEquipos.reemplazar(7L, null, new FallasEquipos.Falla(3L, ahora - 5 * HORA, null));
+        fallasEquipos.reemplazar(8L, null, new FallasEquipos.Falla(4L, ahora - 100 * DIA, null));
+
+        List<FallasEquipoDTO> top = fallasEquipos.top(2, 4);
+        List<FallasEquipoDTO> todos = fallasEquipos.top(10, 4);
+
+        assertEquals(List.of(1L, 2L), top.stream().map(FallasEquipoDTO::getIdEquipo).toList());
+        assertEquals(List.of(1L, 2L, 3L), todos.stream().map(FallasEquipoDTO::getIdEquipo).toList());
+    }
+
+    @Test
+    void reemplazar_AlEliminarTodasLasFallas_DeberiaDejarDeInformarElEquipo() {
+        FallasEquipos.Falla falla = new FallasEquipos.Falla(5L, ahora, null);
+        fallasEquipos.reemplazar(1L, null, falla);
+        fallasEquipos.reemplazar(1L, falla, null);
+
+        assertTrue(fallasEquipos.obtener(5L, 4).isEmpty());
+        assertTrue(fallasEquipos.top(10, 4).isEmpty());
+    }
+
+    @Test
+    void reconstruir_DeberiaLeerLosTramosEnParaleloYReemplazarLoAcumulado() {
+        fallasEquipos.reemplazar(99L, null, new FallasEquipos.Falla(9L, ahora, null));
+        when(incidenciaRepository.findRangoIds()).thenReturn(List.<Object[]>of(new Object[]{1L, 30L}));
+        List<Long[]> tramosLeidos = new ArrayList<>();
+        when(incidenciaRepository.streamFallas(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long desde = invocation.getArgument(0);
+            long hasta = invocation.getArgument(1);
+            synchronized (tramosLeidos) {
+                tramosLeidos.add(new Long[]{desde, hasta});
+            }
+            return Stream.iterate(desde, id -> id <= hasta, id -> id + 1)
+                    .map(id -> new Object[]{id, id % 2 == 0 ? 1L : 2L, new Date(ahora - id * HORA), null});
+        });
+
+        assertEquals(30, fallasEquipos.reconstruir());
+
+        assertEquals(3, tramosLeidos.size());
+        assertEquals(15L, fallasEquipos.obtener(1L, 4).orElseThrow().getFallas());
+        assertEquals(15L, fallasEquipos.obtener(2L, 4).orElseThrow().getFallas());
+        assertTrue(fallasEquipos.obtener(9L, 4).isEmpty());
+    }
+
+    @Test
+    void reconstruir_DeberiaSumarLasIncidenciasArchivadas() {
+        when(incidenciaRepository.findRangoIds()).thenReturn(List.<Object[]>of(new Object[]{10L, 12L}));
+        when(incidenciaArchivadaRepository.findRangoIds()).thenReturn(List.<Object[]>of(new Object[]{1L, 3L}));
+        when(incidenciaRepository.streamFallas(anyLong(), anyLong())).thenAnswer(invocation -> Stream
+                .<Object[]>of(new Object[]{10L, 1L, new Date(ahora), null}, new Object[]{12L, 1L, new Date(ahora), null})
+                .filter(fila -> (Long) fila[0] >= (Long) invocation.getArgument(0)
+                        && (Long) fila[0] <= (Long) invocation.getArgument(1)));
+        when(incidenciaArchivadaRepository.streamFallas(anyLong(), anyLong())).thenAnswer(invocation -> Stream
+                .<Object[]>of(new Object[]{1L, 1L, new Date(ahora - 300 * DIA), new Date(ahora - 300 * DIA + 2 * HORA)})
+                .filter(fila -> (Long) fila[0] >= (Long) invocation.getArgument(0)
+                        && (Long) fila[0] <= (Long) invocation.getArgument(1)));
+
+        assertEquals(3, fallasEquipos.reconstruir());
+
+        FallasEquipoDTO fallas = fallasEquipos.obtener(1L, 4).orElseThrow();
+        assertEquals(3L, fallas.getFallas());
+        assertEquals(2L, fallas.getFallasPeriodo());
+        assertEquals(1L, fallas.getReparaciones());
+        assertEquals(150 * 24.0, fallas.getTiempoMedioEntreFallasHoras());
+    }
+
+    @Test
+    void reconstruir_DeberiaConservarLosCambiosQueLleganMientrasLeeLaTabla() {
+        fallasEquipos = new FallasEquipos(incidenciaRepository, incidenciaArchivadaRepository, transactionManager, 1);
+        when(incidenciaRepository.findRangoIds()).thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+        when(incidenciaRepository.streamFallas(1L, 2L)).thenAnswer(invocation -> {
+            // Se confirma un alta y un cierre cuando la lectura del tramo ya empezó
+            fallasEquipos.reemplazar(3L, null, new FallasEquipos.Falla(1L, ahora, null));
+            fallasEquipos.reemplazar(2L, new FallasEquipos.Falla(1L, ahora - HORA, null),
+                    new FallasEquipos.Falla(1L, ahora - HORA, ahora));
+            return Stream.<Object[]>of(new Object[]{1L, 1L, new Date(ahora - 2 * HORA), null},
+                    new Object[]{2L, 1L, new Date(ahora - HORA), null});
+        });
+        when(incidenciaRepository.findFallasByIds(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, 1L, new Date(ahora - HORA), null}));
+
+        fallasEquipos.reconstruir();
+
+        FallasEquipoDTO fallas = fallasEquipos.obtener(1L, 4).orElseThrow();
+        assertEquals(3L, fallas.getFallas());
+        assertEquals(1L, fallas.getReparaciones());
+        assertEquals(1.0, fallas.getTiempoMedioReparacionHoras());
+    }
+
+    @Test
+    void reconstruir_NoDeberiaContarDosVecesUnCambioQueYaEstabaEnLaInstantanea() {
+        fallasEquipos = new FallasEquipos(incidenciaRepository, incidenciaArchivadaRepository, transactionManager, 1);
+        when(incidenciaRepository.findRangoIds()).thenReturn(List.<Object[]>of(new Object[]{1L, 3L}));
+        Object[] cerrada = {2L, 1L, new Date(ahora - HORA), new Date(ahora)};
+        when(incidenciaRepository.streamFallas(1L, 3L)).thenAnswer(invocation -> {
+            // El cierre y la baja se confirmaron antes de la instantánea, pero sus callbacks llegan ya empezada la lectura
+            fallasEquipos.reemplazar(2L, new FallasEquipos.Falla(1L, ahora - HORA, null),
+                    new FallasEquipos.Falla(1L, ahora - HORA, ahora));
+            fallasEquipos.reemplazar(3L, new FallasEquipos.Falla(1L, ahora, null), null);
+            return Stream.<Object[]>of(new Object[]{1L, 1L, new Date(ahora - 2 * HORA), null}, cerrada);
+        });
+        when(incidenciaRepository.findFallasByIds(anyCollection())).thenReturn(List.<Object[]>of(cerrada));
+
+        fallasEquipos.reconstruir();
+
+        FallasEquipoDTO fallas = fallasEquipos.obtener(1L, 4).orElseThrow();
+        assertEquals(2L, fallas.getFallas());
+        assertEquals(1L, fallas.getReparaciones());
+        assertEquals(1.0, fallas.getTiempoMedioReparacionHoras());
+    }
+}
@@ -1,13 +1,20 @@
 package com.example.Service;
 
+import com.example.DTO.AsignacionDTO;
+import com.example.DTO.CacheEquiposDTO;
+import com.example.DTO.EstadisticasIncidenciasDTO;
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.DTO.ResultadoBusquedaDTO;
 import com.example.Model.IncidenciaModel;
 import com.example.Model.TecnicoModel;
 import com.example.Model.UsuarioModel;
 import com.example.Model.EquipoModel;
 import com.example.Repository.IncidenciaRepository;
+import com.example.Repository.TecnicoRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -25,6 +32,33 @@ class IncidenciaServiceTest {
     @Mock
     private IncidenciaRepository incidenciaRepository;
 
+    @Mock
+    private CatalogoEquipos catalogoEquipos;
+
+    @Mock
+    private EstadisticasIncidencias estadisticasIncidencias;
+
+    @Mock
+    private TecnicoRepository tecnicoRepository;
+
+    @Mock
+    private ColaDespacho colaDespacho;
+
+    @Mock
+    private AsignadorTecnicos asignadorTecnicos;
+
+    @Mock
+    private IndiceIncidencias indiceIncidencias;
+
+    @Mock
+    private FallasEquipos fallasEquipos;
+
+    @Mock
+    private EventosIncidencias eventosIncidencias;
+
+    @Mock
+    private VencimientosSla vencimientosSla;
+
     @InjectMocks
     private IncidenciaService incidenciaService;
 
@@ -225,6 +259,20 @@ class IncidenciaServiceTest {
         verify(incidenciaRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    void deleteById_DeberiaDescontarLaFallaDelEquipo() {
+        // Given
+        Date reporte = new Date(1_000_000L);
+        when(incidenciaRepository.existsById(1L)).thenReturn(true);
+        when(incidenciaRepository.findFallaById(1L)).thenReturn(List.<Object[]>of(new Object[]{1L, reporte, null}));
+
+        // When
+        incidenciaService.deleteById(1L);
+
+        // Then
+        verify(fallasEquipos).reemplazar(1L, new FallasEquipos.Falla(1L, reporte.getTime(), null), null);
+    }
+
     @Test
     void deleteById_CuandoIncidenciaNoExiste_DeberiaLanzarExcepcion() {
         // Given
@@ -287,4 +335,260 @@ class IncidenciaServiceTest {
         assertEquals(incidenciaTest, resultado.get(0));
         verify(incidenciaRepository, times(1)).findByEstado(estado);
     }
-}
\ No newline at end of file
+
+    @Test
+    void save_DeberiaPonerLaIncidenciaAbiertaEnLaColaDeDespacho() {
+        // Given
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenReturn(incidenciaTest);
+
+        // When
+        incidenciaService.save(incidenciaTest);
+
+        // Then
+        verify(colaDespacho, times(1)).refrescar(List.of(1L));
+    }
+
+    @Test
+    void asignarTecnico_DeberiaQuitarLaIncidenciaDeLaColaDeDespacho() {
+        // Given
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        incidenciaService.asignarTecnico(1L, tecnicoTest);
+
+        // Then
+        verify(colaDespacho, times(1)).refrescar(List.of(1L));
+    }
+
+    @Test
+    void cerrarIncidencia_DeberiaDescontarLaCargaDelTecnico() {
+        // Given
+        incidenciaTest.setTecnico(tecnicoTest);
+        incidenciaTest.setEstado("EN_PROCESO");
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        incidenciaService.cerrarIncidencia(1L, "Se reemplazó el filtro");
+
+        // Then
+        verify(asignadorTecnicos, times(1)).moverCarga(1L, null);
+    }
+
+    @Test
+    void asignarAutomaticamente_DeberiaAsignarElTecnicoElegido() {
+        // Given
+        List<AsignadorTecnicos.Candidato> candidatos =
+                List.of(new AsignadorTecnicos.Candidato(1L, "Reparación de equipos", "Norte"));
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(asignadorTecnicos.disponibles()).thenReturn(candidatos);
+        when(asignadorTecnicos.elegir(incidenciaTest, "Norte", candidatos))
+                .thenReturn(Optional.of(new AsignacionDTO(1L, 1L, 5, 0)));
+        when(tecnicoRepository.findById(1L)).thenReturn(Optional.of(tecnicoTest));
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        IncidenciaModel resultado = incidenciaService.asignarAutomaticamente(1L, "Norte");
+
+        // Then
+        assertEquals(tecnicoTest, resultado.getTecnico());
+        assertEquals("EN_PROCESO", resultado.getEstado());
+        verify(asignadorTecnicos, times(1)).moverCarga(null, 1L);
+    }
+
+    @Test
+    void asignarAutomaticamente_SinTecnicosDisponibles_DeberiaLanzarExcepcion() {
+        // Given
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(asignadorTecnicos.disponibles()).thenReturn(List.of());
+        when(asignadorTecnicos.elegir(incidenciaTest, null, List.of())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> incidenciaService.asignarAutomaticamente(1L, null));
+        verify(incidenciaRepository, never()).save(any());
+    }
+
+    @Test
+    void reclamarSiguiente_DeberiaSaltarIncidenciasYaAsignadasPorOtroCamino() {
+        // Given
+        ColaDespacho.Entrada yaAsignada = new ColaDespacho.Entrada(2L, 0, 1000L);
+        ColaDespacho.Entrada pendiente = new ColaDespacho.Entrada(1L, 2, 2000L);
+        when(tecnicoRepository.findById(1L)).thenReturn(Optional.of(tecnicoTest));
+        when(colaDespacho.tomar()).thenReturn(Optional.of(yaAsignada), Optional.of(pendiente));
+        when(incidenciaRepository.asignarSiPendiente(2L, tecnicoTest)).thenReturn(0);
+        when(incidenciaRepository.asignarSiPendiente(1L, tecnicoTest)).thenReturn(1);
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+
+        // When
+        Optional<IncidenciaModel> resultado = incidenciaService.reclamarSiguiente(1L);
+
+        // Then
+        assertTrue(resultado.isPresent());
+        assertEquals(incidenciaTest, resultado.get());
+        verify(colaDespacho, times(2)).tomar();
+    }
+
+    @Test
+    void reclamarSiguiente_CuandoLaColaEstaVacia_DeberiaRetornarEmpty() {
+        // Given
+        when(tecnicoRepository.findById(1L)).thenReturn(Optional.of(tecnicoTest));
+        when(colaDespacho.tomar()).thenReturn(Optional.empty());
+
+        // When
+        Optional<IncidenciaModel> resultado = incidenciaService.reclamarSiguiente(1L);
+
+        // Then
+        assertFalse(resultado.isPresent());
+        verify(incidenciaRepository, never()).asignarSiPendiente(anyLong(), any());
+    }
+
+    @Test
+    void reclamarSiguiente_CuandoTecnicoNoExiste_DeberiaLanzarExcepcion() {
+        // Given
+        when(tecnicoRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> incidenciaService.reclamarSiguiente(999L));
+        verify(colaDespacho, never()).tomar();
+    }
+
+    @Test
+    void buscar_DeberiaRetornarLasIncidenciasEnElOrdenDeRelevancia() {
+        // Given
+        IncidenciaModel otra = new IncidenciaModel();
+        otra.setIdIncidencia(2L);
+        when(indiceIncidencias.buscar("compresor", null, 0, 20)).thenReturn(new IndiceIncidencias.Pagina(2, true,
+                List.of(new IndiceIncidencias.Resultado(2L, 3.5f), new IndiceIncidencias.Resultado(1L, 1.2f))));
+        when(incidenciaRepository.findListadoByIds(List.of(2L, 1L))).thenReturn(List.of(incidenciaTest, otra));
+
+        // When
+        ResultadoBusquedaDTO resultado = incidenciaService.buscar("compresor", null, 0, 20);
+
+        // Then
+        assertEquals(2L, resultado.getTotal());
+        assertEquals(List.of(2L, 1L), resultado.getResultados().stream()
+                .map(coincidencia -> coincidencia.getIncidencia().getIdIncidencia()).toList());
+        assertEquals(3.5f, resultado.getResultados().get(0).getPuntaje());
+    }
+
+    @Test
+    void cerrarIncidencia_DeberiaActualizarElIndiceDeBusqueda() {
+        // Given
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        incidenciaService.cerrarIncidencia(1L, "Se reemplazó el filtro");
+
+        // Then
+        verify(indiceIncidencias).actualizar(new IndiceIncidencias.Documento(1L, incidenciaTest.getDescripcion(),
+                "Se reemplazó el filtro", "CERRADA"));
+    }
+
+    @Test
+    void cerrarIncidencia_DeberiaRegistrarLaReparacionEnLasFallasDelEquipo() {
+        // Given
+        long reporte = incidenciaTest.getFechaReporte().getTime();
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        IncidenciaModel cerrada = incidenciaService.cerrarIncidencia(1L, "Se reemplazó el filtro");
+
+        // Then
+        verify(fallasEquipos).reemplazar(1L, new FallasEquipos.Falla(1L, reporte, null),
+                new FallasEquipos.Falla(1L, reporte, cerrada.getFechaResolucion().getTime()));
+    }
+
+    @Test
+    void cerrarIncidencia_DeberiaPublicarElCierreConElEstadoAnterior() {
+        // Given
+        String estadoAnterior = incidenciaTest.getEstado();
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<EventoIncidenciaDTO> evento = ArgumentCaptor.forClass(EventoIncidenciaDTO.class);
+
+        // When
+        incidenciaService.cerrarIncidencia(1L, "Se reemplazó el filtro");
+
+        // Then
+        verify(eventosIncidencias).publicar(evento.capture());
+        assertEquals("CERRADA", evento.getValue().getTipo());
+        assertEquals(1L, evento.getValue().getIdIncidencia());
+        assertEquals("CERRADA", evento.getValue().getEstado());
+        assertEquals(estadoAnterior, evento.getValue().getEstadoAnterior());
+    }
+
+    @Test
+    void cerrarIncidencia_DeberiaCancelarElVencimientoSla() {
+        // Given
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        incidenciaService.cerrarIncidencia(1L, "Se reemplazó el filtro");
+
+        // Then
+        verify(vencimientosSla).actualizar(1L, null);
+    }
+
+    @Test
+    void update_AlCambiarLaPrioridad_DeberiaReprogramarElVencimientoDesdeElReporte() {
+        // Given
+        Date vencimientoMedia = new Date(2_000_000L);
+        Date vencimientoCritica = new Date(1_500_000L);
+        incidenciaTest.setVencimientoSla(vencimientoMedia);
+        IncidenciaModel cambios = new IncidenciaModel();
+        cambios.setPrioridad("CRITICA");
+        when(incidenciaRepository.findById(1L)).thenReturn(Optional.of(incidenciaTest));
+        when(incidenciaRepository.save(any(IncidenciaModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(vencimientosSla.vencimiento("CRITICA", incidenciaTest.getFechaReporte())).thenReturn(vencimientoCritica);
+
+        // When
+        IncidenciaModel actualizada = incidenciaService.update(1L, cambios);
+
+        // Then
+        assertEquals(vencimientoCritica, actualizada.getVencimientoSla());
+        verify(vencimientosSla).actualizar(1L, vencimientoCritica);
+    }
+
+    @Test
+    void getEstadisticas_DeberiaDelegarEnLaInstantaneaDeEstadisticas() {
+        // Given
+        EstadisticasIncidenciasDTO estadisticas = new EstadisticasIncidenciasDTO();
+        estadisticas.setTotal(5L);
+        when(estadisticasIncidencias.obtener()).thenReturn(estadisticas);
+
+        // When
+        EstadisticasIncidenciasDTO resultado = incidenciaService.getEstadisticas();
+
+        // Then
+        assertSame(estadisticas, resultado);
+        verify(incidenciaRepository, never()).findAll();
+    }
+
+    @Test
+    void getEstadisticasCacheEquipos_DeberiaRetornarMetricasDelCatalogo() {
+        // Given
+        CacheEquiposDTO metricas = new CacheEquiposDTO(9L, 1L, 1L, 0L, 0L, 0.9);
+        when(catalogoEquipos.estadisticas()).thenReturn(metricas);
+
+        // When
+        CacheEquiposDTO resultado = incidenciaService.getEstadisticasCacheEquipos();
+
+        // Then
+        assertEquals(metricas, resultado);
+    }
+
+    @Test
+    void invalidarCacheEquipos_DeberiaInvalidarEquipoOCatalogoCompleto() {
+        // When
+        incidenciaService.invalidarCacheEquipos(1L);
+        incidenciaService.invalidarCacheEquipos(null);
+
+        // Then
+        verify(catalogoEquipos, times(1)).invalidar(1L);
+        verify(catalogoEquipos, times(1)).invalidarTodo();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.Service;
+
+import com.example.Repository.IncidenciaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceIncidenciasTest {
+
+    @Mock
+    private IncidenciaRepository incidenciaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directorio;
+
+    private IndiceIncidencias indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceIncidencias(incidenciaRepository, transactionManager, directorio.toString(), 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        indice.cerrar();
+    }
+
+    @Test
+    void buscar_DeberiaOrdenarPorRelevanciaYDarMenosPesoALaSolucion() throws Exception {
+        indice.actualizar(new IndiceIncidencias.Documento(1L, "Tractor no arranca", "Se cambió el compresor", "CERRADA"));
+        indice.actualizar(new IndiceIncidencias.Documento(2L, "El compresor pierde presión", null, "ABIERTA"));
+        indice.actualizar(new IndiceIncidencias.Documento(3L, "Ruido en la cosechadora", null, "ABIERTA"));
+        indice.esperarCambios();
+
+        IndiceIncidencias.Pagina pagina = indice.buscar("compresor", null, 0, 10);
+
+        assertEquals(2, pagina.total());
+        assertTrue(pagina.totalExacto());
+        assertEquals(List.of(2L, 1L), ids(pagina));
+    }
+
+    @Test
+    void buscar_DeberiaEncontrarFormasDistintasDeLaMismaPalabraSinTildes() throws Exception {
+        indice.actualizar(new IndiceIncidencias.Documento(1L, "Pérdidas de presión en los neumáticos", null, "ABIERTA"));
+        indice.esperarCambios();
+
+        assertEquals(List.of(1L), ids(indice.buscar("perdida presion", null, 0, 10)));
+        assertEquals(List.of(), ids(indice.buscar("perdida motor", null, 0, 10)));
+    }
+
+    @Test
+    void buscar_DeberiaPaginarYFiltrarPorEstado() throws Exception {
+        for (long id = 1; id <= 25; id++) {
+            indice.actualizar(new IndiceIncidencias.Documento(id, "Falla hidráulica " + id,
+                    null, id % 5 == 0 ? "CERRADA" : "ABIERTA"));
+        }
+        indice.esperarCambios();
+
+        IndiceIncidencias.Pagina primera = indice.buscar("hidraulica", null, 0, 10);
+        IndiceIncidencias.Pagina tercera = indice.buscar("hidraulica", null, 2, 10);
+        IndiceIncidencias.Pagina cerradas = indice.buscar("hidraulica", "CERRADA", 0, 10);
+
+        assertEquals(25, primera.total());
+        assertEquals(10, primera.resultados().size());
+        assertEquals(5, tercera.resultados().size());
+        assertEquals(5, cerradas.total());
+        assertTrue(ids(cerradas).stream().allMatch(id -> id % 5 == 0));
+    }
+
+    @Test
+    void actualizarYEliminar_DeberianReemplazarElDocumentoSinDuplicarlo() throws Exception {
+        indice.actualizar(new IndiceIncidencias.Documento(1L, "Motor recalentado", null, "ABIERTA"));
+        indice.actualizar(new IndiceIncidencias.Documento(1L, "Motor recalentado", "Se cambió el radiador", "CERRADA"));
+        indice.esperarCambios();
+
+        assertEquals(List.of(1L), ids(indice.buscar("motor", null, 0, 10)));
+        assertEquals(List.of(1L), ids(indice.buscar("radiador", "CERRADA", 0, 10)));
+        assertEquals(List.of(), ids(indice.buscar("motor", "ABIERTA", 0, 10)));
+
+        indice.eliminar(1L);
+        indice.esperarCambios();
+
+        assertEquals(0, indice.buscar("motor", null, 0, 10).total());
+    }
+
+    @Test
+    void reconstruir_DeberiaReemplazarElIndiceConLasFilasDeLaTabla() {
+        indice.actualizar(new IndiceIncidencias.Documento(99L, "Incidencia que ya no existe", null, "ABIERTA"));
+        when(incidenciaRepository.streamTextos()).thenReturn(Stream.of(
+                new Object[]{1L, "Bomba de riego sin caudal", null, "ABIERTA"},
+                new Object[]{2L, "Bomba de riego con fuga", "Se cambió el sello", "CERRADA"}));
+
+        assertEquals(2, indice.reconstruir());
+
+        assertEquals(2, indice.getCantidad());
+        assertEquals(2, indice.buscar("bomba riego", null, 0, 10).total());
+        assertEquals(0, indice.buscar("existe", null, 0, 10).total());
+    }
+
+    @Test
+    void buscar_NoDeberiaVerLosCambiosHastaQueElHiloLosPublique() throws Exception {
+        indice.cerrar();
+        indice = new IndiceIncidencias(incidenciaRepository, transactionManager, directorio.toString(), 60_000);
+        indice.actualizar(new IndiceIncidencias.Documento(1L, "Motor recalentado", null, "ABIERTA"));
+
+        assertEquals(0, indice.buscar("motor", null, 0, 10).total());
+        indice.esperarCambios();
+        assertEquals(1, indice.buscar("motor", null, 0, 10).total());
+    }
+
+    @Test
+    void iniciar_ConOtraCantidadDeDocumentosQueFilas_DeberiaReconstruir() throws Exception {
+        indice.actualizar(new IndiceIncidencias.Documento(1L, "Bomba de riego sin caudal", null, "ABIERTA"));
+        when(incidenciaRepository.count()).thenReturn(2L);
+        when(incidenciaRepository.streamTextos()).thenReturn(Stream.of(
+                new Object[]{1L, "Bomba de riego sin caudal", null, "ABIERTA"},
+                new Object[]{2L, "Bomba de riego con fuga", null, "ABIERTA"}));
+
+        indice.iniciar();
+
+        long limite = System.currentTimeMillis() + 10_000;
+        while (indice.getCantidad() != 2 && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, indice.getCantidad());
+    }
+
+    @Test
+    void iniciar_ConLaMismaCantidadDeDocumentosQueFilas_NoDeberiaReconstruir() {
+        indice.actualizar(new IndiceIncidencias.Documento(1L, "Bomba de riego sin caudal", null, "ABIERTA"));
+        when(incidenciaRepository.count()).thenReturn(1L);
+
+        indice.iniciar();
+
+        verify(incidenciaRepository, never()).streamTextos();
+    }
+
+    @Test
+    void buscar_ConTextoVacioOPaginaFueraDeRango_DeberiaLanzarExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar(" ", null, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("motor", null, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("motor", null, 1000, 10));
+    }
+
+    private static List<Long> ids(IndiceIncidencias.Pagina pagina) {
+        return pagina.resultados().stream().map(IndiceIncidencias.Resultado::idIncidencia).toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.Service;
+
+import com.example.DTO.ResultadoIngestaDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.UsuarioModel;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"incidencia.ingesta.lote=500", "incidencia.ingesta.ventana-min=30"})
+@ActiveProfiles("test")
+class IngestaAlarmasTest {
+
+    private static final long MINUTO = TimeUnit.MINUTES.toMillis(1);
+
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    @Autowired
+    private IncidenciaRepository incidenciaRepository;
+
+    @Autowired
+    private ColaDespacho colaDespacho;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UsuarioModel usuario;
+    private EquipoModel tractor;
+    private EquipoModel cosechadora;
+    private long ahora;
+
+    @BeforeEach
+    void setUp() {
+        ahora = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            usuario = new UsuarioModel(null, "Juan", "Pérez", "juan@test.com", "password123", "123456789", 1L);
+            entityManager.persist(usuario);
+            tractor = new EquipoModel(null, "Tractor", "Tractor", "CASE", "4210A", "ACTIVO", 999.99, "ABC123", "MAQUINARIA");
+            entityManager.persist(tractor);
+            cosechadora = new EquipoModel(null, "Cosechadora", "Cosechadora", "John Deere", "S780", "ACTIVO", 1999.99,
+                    "DEF456", "MAQUINARIA");
+            entityManager.persist(cosechadora);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM IncidenciaModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM EquipoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM UsuarioModel").executeUpdate();
+        });
+        colaDespacho.cargar();
+    }
+
+    @Test
+    void ingerirAlarmas_DeberiaCrearDescartarLasRepetidasYRechazarLasLineasInvalidas() throws IOException {
+        String cuerpo = String.join("\n",
+                alarma(tractor.getIdEquipo(), "E-1", "\"prioridad\": \"ALTA\", ", ahora),
+                "",
+                alarma(tractor.getIdEquipo(), "E-1", "", ahora + 10 * MINUTO),
+                alarma(tractor.getIdEquipo(), "E-1", "", ahora + 40 * MINUTO),
+                alarma(cosechadora.getIdEquipo(), "E-1", "\"descripcion\": \"Presión de aceite baja\", ", ahora),
+                "{\"idEquipo\": ",
+                alarma(999_999L, "E-1", "", ahora),
+                alarma(cosechadora.getIdEquipo(), "E-2", "\"prioridad\": \"URGENTE\", ", ahora));
+
+        ResultadoIngestaDTO resultado = incidenciaService.ingerirAlarmas(new StringReader(cuerpo));
+
+        assertEquals(7L, resultado.getRecibidas());
+        assertEquals(3L, resultado.getCreadas());
+        assertEquals(1L, resultado.getDuplicadas());
+        assertEquals(3L, resultado.getRechazadas());
+        assertEquals(Set.of(6L, 7L, 8L), resultado.getErrores().stream()
+                .map(ResultadoIngestaDTO.Rechazo::getLinea).collect(Collectors.toSet()));
+        List<IncidenciaModel> creadas = incidenciaRepository.findAll().stream()
+                .sorted(Comparator.comparing(IncidenciaModel::getIdIncidencia)).toList();
+        assertEquals(List.of("ALTA", "MEDIA", "MEDIA"), creadas.stream().map(IncidenciaModel::getPrioridad).toList());
+        assertEquals(List.of("Alarma E-1", "Alarma E-1", "Presión de aceite baja"),
+                creadas.stream().map(IncidenciaModel::getDescripcion).toList());
+        assertTrue(creadas.stream().allMatch(incidencia -> "E-1".equals(incidencia.getCodigoFalla())
+                && "ABIERTA".equals(incidencia.getEstado()) && incidencia.getVencimientoSla() != null));
+        assertTrue(colaDespacho.primeras(10).containsAll(creadas.stream().map(IncidenciaModel::getIdIncidencia).toList()));
+
+        // Reenviar el mismo cuerpo no vuelve a crear las alarmas ya registradas
+        ResultadoIngestaDTO reenvio = incidenciaService.ingerirAlarmas(new StringReader(cuerpo));
+
+        assertEquals(0L, reenvio.getCreadas());
+        assertEquals(4L, reenvio.getDuplicadas());
+        assertEquals(3, incidenciaRepository.count());
+    }
+
+    @Test
+    void ingerirAlarmas_DeberiaInsertarEnLotesJdbc() throws IOException {
+        StringBuilder cuerpo = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            cuerpo.append(alarma(tractor.getIdEquipo(), "E-" + i, "", ahora)).append('\n');
+        }
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        ResultadoIngestaDTO resultado = incidenciaService.ingerirAlarmas(new StringReader(cuerpo.toString()));
+
+        assertEquals(120L, resultado.getCreadas());
+        assertEquals(120L, estadisticas.getEntityInsertCount());
+        // Tres consultas de validación, tres bloques de la secuencia y tres lotes de INSERT, no 120 sentencias
+        assertTrue(estadisticas.getPrepareStatementCount() <= 12,
+                "La ingesta preparó " + estadisticas.getPrepareStatementCount() + " sentencias");
+    }
+
+    private String alarma(Long idEquipo, String codigo, String extra, long fecha) {
+        return "{\"idEquipo\": " + idEquipo + ", \"idUsuario\": " + usuario.getIdusuario() + ", \"codigoFalla\": \"" + codigo
+                + "\", " + extra + "\"fecha\": " + fecha + "}";
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuedaTemporizadoresTest {
+
+    private RuedaTemporizadores rueda;
+
+    @BeforeEach
+    void setUp() {
+        // 4 ranuras de 10 ms: una vuelta completa son 40 ms
+        rueda = new RuedaTemporizadores(10, 4, 1_000);
+    }
+
+    @Test
+    void avanzar_DeberiaVencerCadaTemporizadorEnSuTickSinAdelantarse() {
+        rueda.programar(1L, 1_015);
+        rueda.programar(2L, 1_030);
+        rueda.programar(3L, 1_130);
+
+        assertEquals(List.of(), rueda.avanzar(1_019));
+        assertEquals(List.of(1L), rueda.avanzar(1_020));
+        assertEquals(List.of(2L), rueda.avanzar(1_100));
+        // Varias vueltas más tarde, aunque comparta ranura con los anteriores
+        assertEquals(List.of(), rueda.avanzar(1_129));
+        assertEquals(List.of(3L), rueda.avanzar(1_130));
+        assertEquals(0, rueda.tamaño());
+    }
+
+    @Test
+    void programar_ConUnVencimientoPasado_DeberiaVencerEnElSiguienteTick() {
+        rueda.programar(1L, 500);
+
+        assertEquals(List.of(1L), rueda.avanzar(1_010));
+    }
+
+    @Test
+    void programar_DeberiaReemplazarElVencimientoAnteriorDelMismoId() {
+        rueda.programar(1L, 1_020);
+        rueda.programar(1L, 1_080);
+
+        assertEquals(1, rueda.tamaño());
+        assertEquals(1_080L, rueda.vencimiento(1L));
+        assertEquals(List.of(), rueda.avanzar(1_070));
+        assertEquals(List.of(1L), rueda.avanzar(1_080));
+    }
+
+    @Test
+    void programarSiFalta_NoDeberiaPisarUnVencimientoYaProgramado() {
+        rueda.programar(1L, 1_080);
+
+        assertFalse(rueda.programarSiFalta(1L, 1_020));
+        assertTrue(rueda.programarSiFalta(2L, 1_020));
+        assertEquals(1_080L, rueda.vencimiento(1L));
+        assertEquals(List.of(2L), rueda.avanzar(1_070));
+    }
+
+    @Test
+    void cancelar_DeberiaQuitarSoloEseTemporizador() {
+        rueda.programar(1L, 1_020);
+        rueda.programar(2L, 1_020);
+
+        assertTrue(rueda.cancelar(1L));
+        assertFalse(rueda.cancelar(1L));
+
+        assertNull(rueda.vencimiento(1L));
+        assertEquals(List.of(2L), rueda.avanzar(1_020));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.Service;
+
+import com.example.DTO.EventoIncidenciaDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.IncidenciaModel;
+import com.example.Model.UsuarioModel;
+import com.example.Repository.IncidenciaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"incidencia.sla.tick-ms=10", "incidencia.sla.horas.baja=72",
+        "incidencia.sla.horas.media=24", "incidencia.sla.horas.critica=4"})
+@ActiveProfiles("test")
+class VencimientosSlaTest {
+
+    private static final long HORA = TimeUnit.HOURS.toMillis(1);
+
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    @Autowired
+    private IncidenciaRepository incidenciaRepository;
+
+    @Autowired
+    private VencimientosSla vencimientosSla;
+
+    @Autowired
+    private EventosIncidencias eventosIncidencias;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UsuarioModel usuario;
+    private EquipoModel equipo;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            usuario = new UsuarioModel(null, "Juan", "Pérez", "juan@test.com", "password123", "123456789", 1L);
+            entityManager.persist(usuario);
+            equipo = new EquipoModel(null, "Tractor", "Tractor", "CASE", "4210A", "ACTIVO", 999.99, "ABC123", "MAQUINARIA");
+            entityManager.persist(equipo);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM IncidenciaModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM EquipoModel").executeUpdate();
+            entityManager.createQuery("DELETE FROM UsuarioModel").executeUpdate();
+        });
+        vencimientosSla.cargar();
+    }
+
+    @Test
+    void revisar_ConElSlaVencido_DeberiaEscalarLaPrioridadYPublicarlo() throws InterruptedException {
+        List<EventoIncidenciaDTO> eventos = new CopyOnWriteArrayList<>();
+        Disposable suscripcion = eventosIncidencias.suscribir(null, null, null)
+                .mapNotNull(ServerSentEvent::data)
+                .subscribe(eventos::add);
+        long reporte = System.currentTimeMillis() - 100 * HORA;
+        IncidenciaModel vencida = guardar("BAJA", reporte);
+        IncidenciaModel vigente = guardar("CRITICA", System.currentTimeMillis());
+        assertEquals(new Date(reporte + 72 * HORA), vencida.getVencimientoSla());
+
+        revisarTrasUnTick();
+
+        IncidenciaModel escalada = incidenciaRepository.findById(vencida.getIdIncidencia()).orElseThrow();
+        assertEquals("MEDIA", escalada.getPrioridad());
+        assertTrue(escalada.getVencimientoSla().getTime() > System.currentTimeMillis() + 23 * HORA);
+        assertEquals("CRITICA", incidenciaRepository.findById(vigente.getIdIncidencia()).orElseThrow().getPrioridad());
+        EventoIncidenciaDTO evento = eventos.stream().filter(e -> "SLA_VENCIDA".equals(e.getTipo())).findFirst().orElseThrow();
+        assertEquals(vencida.getIdIncidencia(), evento.getIdIncidencia());
+        assertEquals("MEDIA", evento.getPrioridad());
+        // Queda programada con el plazo de la nueva prioridad
+        assertEquals(2, vencimientosSla.getPendientes());
+        suscripcion.dispose();
+    }
+
+    @Test
+    void revisar_AlPasarElVencimiento_DeberiaEscalarSoloDesdeEseTick() throws InterruptedException {
+        List<EventoIncidenciaDTO> eventos = new CopyOnWriteArrayList<>();
+        Disposable suscripcion = eventosIncidencias.suscribir(null, null, null)
+                .mapNotNull(ServerSentEvent::data)
+                .subscribe(eventos::add);
+        // ALTA usa el plazo por defecto de 8 horas: vence 200 ms después de guardarla
+        IncidenciaModel incidencia = guardar("ALTA", System.currentTimeMillis() - 8 * HORA + 200);
+
+        vencimientosSla.revisar();
+        assertEquals("ALTA", incidenciaRepository.findById(incidencia.getIdIncidencia()).orElseThrow().getPrioridad());
+        assertTrue(eventos.stream().noneMatch(e -> "SLA_VENCIDA".equals(e.getTipo())));
+
+        Thread.sleep(250);
+        vencimientosSla.revisar();
+
+        IncidenciaModel escalada = incidenciaRepository.findById(incidencia.getIdIncidencia()).orElseThrow();
+        assertEquals("CRITICA", escalada.getPrioridad());
+        assertTrue(escalada.getVencimientoSla().getTime() > System.currentTimeMillis() + 3 * HORA);
+        EventoIncidenciaDTO evento = eventos.stream().filter(e -> "SLA_VENCIDA".equals(e.getTipo())).findFirst().orElseThrow();
+        assertEquals(incidencia.getIdIncidencia(), evento.getIdIncidencia());
+        assertEquals("CRITICA", evento.getPrioridad());
+        suscripcion.dispose();
+    }
+
+    @Test
+    void cerrarIncidencia_DeberiaCancelarElVencimiento() throws InterruptedException {
+        IncidenciaModel vencida = guardar("BAJA", System.currentTimeMillis() - 100 * HORA);
+        assertEquals(1, vencimientosSla.getPendientes());
+
+        incidenciaService.cerrarIncidencia(vencida.getIdIncidencia(), "Se reemplazó el filtro");
+        revisarTrasUnTick();
+
+        assertEquals(0, vencimientosSla.getPendientes());
+        assertEquals("BAJA", incidenciaRepository.findById(vencida.getIdIncidencia()).orElseThrow().getPrioridad());
+    }
+
+    @Test
+    void cargar_DeberiaReconstruirLosVencimientosDeLasIncidenciasAbiertas() {
+        guardar("BAJA", System.currentTimeMillis() - 100 * HORA);
+        guardar("MEDIA", System.currentTimeMillis());
+        IncidenciaModel cerrada = guardar("ALTA", System.currentTimeMillis());
+        incidenciaService.cerrarIncidencia(cerrada.getIdIncidencia(), "Se reemplazó el filtro");
+        // Como si fuera anterior al SLA: sin vencimiento guardado
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("UPDATE IncidenciaModel i SET i.vencimientoSla = null").executeUpdate());
+
+        vencimientosSla.cargar();
+
+        assertEquals(2, vencimientosSla.getPendientes());
+    }
+
+    // La rueda solo vence en el tick siguiente al vencimiento
+    private void revisarTrasUnTick() throws InterruptedException {
+        Thread.sleep(30);
+        vencimientosSla.revisar();
+    }
+
+    private IncidenciaModel guardar(String prioridad, long reporte) {
+        IncidenciaModel incidencia = new IncidenciaModel();
+        incidencia.setUsuario(usuario);
+        incidencia.setEquipo(equipo);
+        incidencia.setDescripcion("Falla en el tractor");
+        incidencia.setPrioridad(prioridad);
+        incidencia.setFechaReporte(new Date(reporte));
+        return incidenciaService.save(incidencia);
+    }
+}
@@ -1,8 +1,19 @@
 package com.example.Controller;
 
+import com.example.DTO.CacheEquiposDTO;
+import com.example.DTO.DisponibilidadLoteRequest;
+import com.example.DTO.DisponibilidadLoteResponse;
+import com.example.DTO.PaginaInventarioDTO;
+import com.example.DTO.ResumenStockDTO;
+import com.example.DTO.StockHistoricoDTO;
 import com.example.Model.InventarioModel;
+import com.example.Model.MovimientoStockModel;
 import com.example.Service.InventarioService;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,11 +22,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +46,12 @@ public class InventarioController {
     @Autowired
     private InventarioService inventarioService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventario.exportacion.timeout-ms:600000}")
+    private long timeoutExportacionMs;
+
     @Operation(summary = "Obtener todos los inventarios", description = "Retorna una lista de todos los registros de inventario")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Lista obtenida exitosamente",
@@ -37,6 +62,57 @@ public class InventarioController {
         return ResponseEntity.ok(inventarioService.findAll());
     }
 
+    @Operation(summary = "Obtener inventarios paginados",
+               description = "Retorna una página de inventarios ordenada por ID. Para la página siguiente se envía " +
+                             "el siguienteCursor recibido como despuesDe")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente",
+                    content = @Content(schema = @Schema(implementation = PaginaInventarioDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Límite fuera de rango")
+    })
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaInventarioDTO> getPaginaInventarios(
+            @Parameter(description = "ID del último inventario de la página anterior") @RequestParam(required = false) Long despuesDe,
+            @Parameter(description = "Cantidad de registros por página (máximo 500)")
+            @RequestParam(defaultValue = "" + PaginaInventarioDTO.LIMITE_POR_DEFECTO) int limite) {
+        try {
+            return ResponseEntity.ok(inventarioService.findPagina(despuesDe, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Exportar todos los inventarios",
+               description = "Escribe todos los inventarios como un arreglo JSON a medida que se leen de la base de datos, " +
+                             "sin cargar la tabla completa en memoria")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Exportación generada exitosamente",
+                    content = @Content(schema = @Schema(implementation = InventarioModel.class)))
+    })
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_JSON_VALUE)
+    public WebAsyncTask<Void> exportarInventarios(HttpServletResponse response) {
+        // Sin flush por fila: el generador y el buffer del servlet deciden cuándo escribir al socket
+        ObjectWriter escritor = objectMapper.writerFor(InventarioModel.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // Se escribe en un WebAsyncTask para dar a la exportación su propio límite de tiempo, más amplio
+        // que el del resto de las peticiones asíncronas
+        return new WebAsyncTask<>(timeoutExportacionMs, () -> {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            try (JsonGenerator generador = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+                generador.writeStartArray();
+                inventarioService.exportar(inventario -> {
+                    try {
+                        escritor.writeValue(generador, inventario);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generador.writeEndArray();
+            }
+            return null;
+        });
+    }
+
     @Operation(summary = "Obtener inventario por ID", description = "Retorna un registro de inventario específico por su ID")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Inventario encontrado",
@@ -241,6 +317,60 @@ public class InventarioController {
         }
     }
 
+    @Operation(summary = "Obtener movimientos de stock",
+               description = "Retorna los movimientos registrados de un inventario en orden. Para la página siguiente " +
+                             "se envía el idMovimiento del último movimiento recibido como despuesDe")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Movimientos obtenidos exitosamente",
+                    content = @Content(schema = @Schema(implementation = MovimientoStockModel.class))),
+        @ApiResponse(responseCode = "400", description = "Límite fuera de rango")
+    })
+    @GetMapping("/{id}/movimientos")
+    public ResponseEntity<List<MovimientoStockModel>> getMovimientos(
+            @Parameter(description = "ID del inventario", required = true) @PathVariable Long id,
+            @Parameter(description = "ID del último movimiento de la página anterior") @RequestParam(required = false) Long despuesDe,
+            @Parameter(description = "Cantidad de movimientos por página (máximo 500)")
+            @RequestParam(defaultValue = "" + PaginaInventarioDTO.LIMITE_POR_DEFECTO) int limite) {
+        try {
+            return ResponseEntity.ok(inventarioService.findMovimientos(id, despuesDe, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Obtener stock a una fecha",
+               description = "Reconstruye el stock de un inventario a una fecha desde la última instantánea " +
+                             "y los movimientos registrados hasta esa fecha")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stock reconstruido exitosamente",
+                    content = @Content(schema = @Schema(implementation = StockHistoricoDTO.class)))
+    })
+    @GetMapping("/{id}/stock-historico")
+    public ResponseEntity<StockHistoricoDTO> getStockHistorico(
+            @Parameter(description = "ID del inventario", required = true) @PathVariable Long id,
+            @Parameter(description = "Fecha consultada (ISO 8601 con zona horaria)", required = true,
+                       example = "2025-07-06T10:30:00.000-04:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date fecha) {
+        return ResponseEntity.ok(inventarioService.getStockEn(id, fecha));
+    }
+
+    @Operation(summary = "Reconstruir stock",
+               description = "Recalcula los contadores de stock del inventario desde el registro de movimientos")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stock reconstruido exitosamente",
+                    content = @Content(schema = @Schema(implementation = InventarioModel.class))),
+        @ApiResponse(responseCode = "404", description = "Inventario no encontrado")
+    })
+    @PostMapping("/{id}/reconstruir-stock")
+    public ResponseEntity<InventarioModel> reconstruirStock(
+            @Parameter(description = "ID del inventario", required = true) @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(inventarioService.reconstruirStock(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @Operation(summary = "Verificar disponibilidad", description = "Verifica si hay suficiente stock disponible")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Verificación completada")
@@ -253,6 +383,43 @@ public class InventarioController {
         return ResponseEntity.ok(disponible);
     }
 
+    @Operation(summary = "Verificar disponibilidad de varios equipos",
+               description = "Verifica en una sola consulta la disponibilidad de una lista de equipos y cantidades. " +
+                             "Con reservar=true reserva todas las líneas en una transacción, o ninguna si alguna no alcanza")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Verificación completada (y reserva realizada si se solicitó)",
+                    content = @Content(schema = @Schema(implementation = DisponibilidadLoteResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Solicitud inválida"),
+        @ApiResponse(responseCode = "409", description = "No hay stock suficiente para reservar todas las líneas",
+                    content = @Content(schema = @Schema(implementation = DisponibilidadLoteResponse.class)))
+    })
+    @PostMapping("/verificar-disponibilidad")
+    public ResponseEntity<DisponibilidadLoteResponse> verificarDisponibilidadLote(
+            @Parameter(description = "Equipos y cantidades a verificar", required = true)
+            @Valid @RequestBody DisponibilidadLoteRequest solicitud,
+            @Parameter(description = "Reservar el stock de todas las líneas si están disponibles")
+            @RequestParam(defaultValue = "false") boolean reservar) {
+        List<DisponibilidadLoteRequest.Item> items = solicitud.getItems();
+        if (items == null || items.isEmpty() || items.size() > DisponibilidadLoteRequest.MAX_ITEMS
+                || items.stream().anyMatch(i -> i == null || i.getIdEquipo() == null
+                        || i.getCantidad() == null || i.getCantidad() <= 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!reservar) {
+            return ResponseEntity.ok(inventarioService.verificarDisponibilidadLote(items));
+        }
+        DisponibilidadLoteResponse resultado;
+        try {
+            resultado = inventarioService.reservarLote(items);
+        } catch (RuntimeException e) {
+            // Otra reserva ganó la carrera entre la verificación y el UPDATE: la transacción se deshizo
+            resultado = inventarioService.verificarDisponibilidadLote(items);
+        }
+        return resultado.isReservado()
+                ? ResponseEntity.ok(resultado)
+                : ResponseEntity.status(HttpStatus.CONFLICT).body(resultado);
+    }
+
     @Operation(summary = "Obtener stock total", description = "Retorna la suma total de stock en el sistema")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Total obtenido exitosamente")
@@ -279,4 +446,35 @@ public class InventarioController {
     public ResponseEntity<Long> getTotalStockArrendado() {
         return ResponseEntity.ok(inventarioService.getTotalStockArrendado());
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Obtener resumen de stock", description = "Retorna en una sola respuesta los totales de stock y sus desgloses por ubicación, tipo de equipo y estado")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Resumen obtenido exitosamente",
+                    content = @Content(schema = @Schema(implementation = ResumenStockDTO.class)))
+    })
+    @GetMapping("/reportes/resumen")
+    public ResponseEntity<ResumenStockDTO> getResumenStock() {
+        return ResponseEntity.ok(inventarioService.getResumenStock());
+    }
+
+    @Operation(summary = "Obtener métricas de la caché de equipos", description = "Retorna aciertos, fallos, inserciones, desalojos y expiraciones de la caché del catálogo de equipos")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Métricas obtenidas exitosamente",
+                    content = @Content(schema = @Schema(implementation = CacheEquiposDTO.class)))
+    })
+    @GetMapping("/catalogo-equipos/cache")
+    public ResponseEntity<CacheEquiposDTO> getEstadisticasCacheEquipos() {
+        return ResponseEntity.ok(inventarioService.getEstadisticasCacheEquipos());
+    }
+
+    @Operation(summary = "Invalidar la caché de equipos", description = "Descarta de la caché un equipo modificado en otro servicio, o todo el catálogo si no se indica el equipo")
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Caché invalidada exitosamente")
+    })
+    @DeleteMapping("/catalogo-equipos/cache")
+    public ResponseEntity<Void> invalidarCacheEquipos(
+            @Parameter(description = "ID del equipo a invalidar") @RequestParam(required = false) Long idEquipo) {
+        inventarioService.invalidarCacheEquipos(idEquipo);
+        return ResponseEntity.noContent().build();
+    }
+}
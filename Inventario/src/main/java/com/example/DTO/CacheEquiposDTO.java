@@ -0,0 +1,31 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Métricas de la caché del catálogo de equipos")
+public class CacheEquiposDTO {
+
+    @Schema(description = "Lecturas de equipos servidas desde la caché", example = "950")
+    private Long aciertos;
+
+    @Schema(description = "Lecturas de equipos que fueron a la base de datos", example = "50")
+    private Long fallos;
+
+    @Schema(description = "Equipos guardados en la caché", example = "50")
+    private Long inserciones;
+
+    @Schema(description = "Equipos desalojados por el límite de tamaño", example = "0")
+    private Long desalojos;
+
+    @Schema(description = "Equipos expirados por TTL", example = "3")
+    private Long expiraciones;
+
+    @Schema(description = "Proporción de aciertos sobre el total de lecturas", example = "0.95")
+    private Double tasaAciertos;
+}
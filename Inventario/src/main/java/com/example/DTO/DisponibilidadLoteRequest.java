@@ -0,0 +1,44 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Solicitud de verificación de disponibilidad para varios equipos")
+public class DisponibilidadLoteRequest {
+
+    public static final int MAX_ITEMS = 200;
+
+    @NotEmpty(message = "Debe indicar al menos un equipo")
+    @Size(max = MAX_ITEMS, message = "No se pueden verificar más de 200 equipos por solicitud")
+    @Valid
+    @Schema(description = "Líneas de la cotización", required = true)
+    private List<Item> items;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Equipo y cantidad requerida")
+    public static class Item {
+
+        @NotNull(message = "El equipo es obligatorio")
+        @Schema(description = "ID del equipo", example = "1", required = true)
+        private Long idEquipo;
+
+        @NotNull(message = "La cantidad es obligatoria")
+        @Positive(message = "La cantidad debe ser positiva")
+        @Schema(description = "Cantidad requerida", example = "2", required = true)
+        private Integer cantidad;
+    }
+}
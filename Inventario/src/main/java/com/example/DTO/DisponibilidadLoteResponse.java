@@ -0,0 +1,46 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de la verificación de disponibilidad de varios equipos")
+public class DisponibilidadLoteResponse {
+
+    @Schema(description = "Indica si todos los equipos tienen stock suficiente", example = "true")
+    private boolean todosDisponibles;
+
+    @Schema(description = "Indica si el stock de todas las líneas quedó reservado", example = "false")
+    private boolean reservado;
+
+    @Schema(description = "Resultado por equipo")
+    private List<Item> items;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Disponibilidad de un equipo")
+    public static class Item {
+
+        @Schema(description = "ID del equipo", example = "1")
+        private Long idEquipo;
+
+        @Schema(description = "ID del inventario del equipo; nulo si el equipo no tiene inventario", example = "1")
+        private Long idInventario;
+
+        @Schema(description = "Cantidad requerida (sumada si el equipo se repite en la solicitud)", example = "2")
+        private Integer cantidadSolicitada;
+
+        @Schema(description = "Stock disponible del equipo", example = "10")
+        private Integer stockDisponible;
+
+        @Schema(description = "Indica si el stock disponible cubre la cantidad solicitada", example = "true")
+        private boolean disponible;
+    }
+}
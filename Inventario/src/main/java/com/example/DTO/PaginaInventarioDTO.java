@@ -0,0 +1,28 @@
+package com.example.DTO;
+
+import com.example.Model.InventarioModel;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Página de inventarios ordenada por ID, paginada por cursor")
+public class PaginaInventarioDTO {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    @Schema(description = "Registros de inventario de la página")
+    private List<InventarioModel> items;
+
+    @Schema(description = "Cursor para pedir la página siguiente (despuesDe); nulo si no hay más registros", example = "150")
+    private Long siguienteCursor;
+
+    @Schema(description = "Tamaño de página aplicado", example = "50")
+    private Integer limite;
+}
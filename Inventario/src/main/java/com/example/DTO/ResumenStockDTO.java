@@ -0,0 +1,55 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resumen de stock del inventario con desgloses por ubicación, tipo de equipo y estado")
+public class ResumenStockDTO {
+
+    @Schema(description = "Cantidad de registros de inventario", example = "120")
+    private Long registros;
+
+    @Schema(description = "Suma del stock total", example = "1500")
+    private Long stockTotal;
+
+    @Schema(description = "Suma del stock disponible", example = "1200")
+    private Long stockDisponible;
+
+    @Schema(description = "Suma del stock arrendado", example = "300")
+    private Long stockArrendado;
+
+    @Schema(description = "Totales por ubicación")
+    private Map<String, Totales> porUbicacion;
+
+    @Schema(description = "Totales por tipo de equipo")
+    private Map<String, Totales> porTipoEquipo;
+
+    @Schema(description = "Totales por estado del inventario (DISPONIBLE, CRITICO, AGOTADO)")
+    private Map<String, Totales> porEstado;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Totales de stock de un grupo")
+    public static class Totales {
+
+        @Schema(description = "Cantidad de registros de inventario", example = "10")
+        private Long registros;
+
+        @Schema(description = "Suma del stock total", example = "150")
+        private Long stockTotal;
+
+        @Schema(description = "Suma del stock disponible", example = "120")
+        private Long stockDisponible;
+
+        @Schema(description = "Suma del stock arrendado", example = "30")
+        private Long stockArrendado;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Stock de un inventario reconstruido desde el registro de movimientos a una fecha dada")
+public class StockHistoricoDTO {
+
+    @Schema(description = "ID del inventario", example = "1")
+    private Long idInventario;
+
+    @Schema(description = "Fecha consultada", example = "2025-07-06T10:30:00")
+    private Date fecha;
+
+    @Schema(description = "Stock disponible a esa fecha", example = "8")
+    private Integer stockDisponible;
+
+    @Schema(description = "Stock arrendado a esa fecha", example = "2")
+    private Integer stockArrendado;
+
+    @Schema(description = "Stock total a esa fecha", example = "10")
+    private Integer stockTotal;
+
+    @Schema(description = "Último movimiento incluido; nulo si el inventario no tenía movimientos a esa fecha", example = "120")
+    private Long ultimoMovimiento;
+}
@@ -1,5 +1,6 @@
 package com.example.Model;
 
+import com.example.Service.CatalogoEquiposListener;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -8,12 +9,19 @@ import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "equipos")
+@Table(name = "equipos", indexes = {
+    @Index(name = "idx_equipos_tipo_equipo", columnList = "tipo_equipo")
+})
+@Cacheable
+@EntityListeners(CatalogoEquiposListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "equipos")
 @Schema(description = "Modelo que representa un equipo en el sistema")
 public class EquipoModel {
     
@@ -51,4 +59,4 @@ public class EquipoModel {
     @NotBlank(message = "El tipo de equipo es obligatorio")
     @Schema(description = "Tipo de equipo", example = "Tractor", allowableValues = {"TRACTOR", "COSECHADORA", "SEMBRADORA", "ARADO", "RASTRILLO", "OTRO"})
     private String tipoEquipo;
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -8,6 +8,8 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.Date;
 
@@ -15,7 +17,10 @@ import java.util.Date;
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "inventario")
+@Table(name = "inventario", indexes = {
+    @Index(name = "idx_inventario_estado", columnList = "estado, id_inventario"),
+    @Index(name = "idx_inventario_ubicacion_estado", columnList = "ubicacion, estado")
+})
 @Schema(description = "Modelo que representa el inventario de un equipo")
 public class InventarioModel {
     
@@ -24,7 +29,9 @@ public class InventarioModel {
     @Schema(description = "ID único del registro de inventario", example = "1")
     private Long idInventario;
     
+    // Carga por id en una consulta aparte, para que se resuelva desde la caché de equipos en lugar de un JOIN
     @ManyToOne(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "id_equipo", nullable = false)
     @NotNull(message = "El equipo es obligatorio")
     @Schema(description = "Equipo asociado al inventario", required = true)
@@ -78,12 +85,15 @@ public class InventarioModel {
     }
     
     private void actualizarEstado() {
+        this.estado = calcularEstado(stockDisponible, stockMinimo);
+    }
+    
+    public static String calcularEstado(int stockDisponible, int stockMinimo) {
         if (stockDisponible <= 0) {
-            this.estado = "AGOTADO";
+            return "AGOTADO";
         } else if (stockDisponible <= stockMinimo) {
-            this.estado = "CRITICO";
-        } else {
-            this.estado = "DISPONIBLE";
+            return "CRITICO";
         }
+        return "DISPONIBLE";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package com.example.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Instantánea de los contadores de un inventario tras aplicar todos sus movimientos hasta idMovimiento.
+// La fecha es la mayor fecha de esos movimientos, así la instantánea sirve para cualquier consulta posterior.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "inventario_snapshot", indexes = {
+    @Index(name = "idx_inventario_snapshot_movimiento", columnList = "id_inventario, id_movimiento")
+})
+public class InventarioSnapshotModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long idSnapshot;
+
+    @Column(nullable = false)
+    private Long idInventario;
+
+    @Column(nullable = false)
+    private Long idMovimiento;
+
+    @Column(nullable = false)
+    private Integer stockDisponible;
+
+    @Column(nullable = false)
+    private Integer stockArrendado;
+
+    @Column(nullable = false)
+    private Integer stockTotal;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date fecha;
+}
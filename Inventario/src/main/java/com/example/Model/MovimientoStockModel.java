@@ -0,0 +1,68 @@
+package com.example.Model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Registro append-only de cada cambio de stock. Los contadores de InventarioModel son una proyección
+// de este registro: se pueden reconstruir sumando sus deltas desde la última instantánea.
+// Sin clave foránea a inventario: los movimientos se conservan aunque el inventario se elimine.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "movimiento_stock", indexes = {
+    @Index(name = "idx_movimiento_stock_inventario", columnList = "id_inventario, id_movimiento"),
+    @Index(name = "idx_movimiento_stock_fecha", columnList = "id_inventario, fecha")
+})
+@Schema(description = "Movimiento de stock registrado sobre un inventario")
+public class MovimientoStockModel {
+
+    public static final String APERTURA = "APERTURA";
+    public static final String ALTA = "ALTA";
+    public static final String RESERVA = "RESERVA";
+    public static final String LIBERACION = "LIBERACION";
+    public static final String INGRESO = "INGRESO";
+    public static final String AJUSTE = "AJUSTE";
+    public static final String BAJA = "BAJA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "ID del movimiento, creciente por inventario", example = "120")
+    private Long idMovimiento;
+
+    @Column(nullable = false)
+    @Schema(description = "ID del inventario afectado", example = "1")
+    private Long idInventario;
+
+    @Column(nullable = false, length = 20)
+    @Schema(description = "Tipo de movimiento", example = "RESERVA",
+            allowableValues = {"APERTURA", "ALTA", "RESERVA", "LIBERACION", "INGRESO", "AJUSTE", "BAJA"})
+    private String tipo;
+
+    @Column(nullable = false)
+    @Schema(description = "Variación del stock disponible", example = "-2")
+    private Integer deltaDisponible;
+
+    @Column(nullable = false)
+    @Schema(description = "Variación del stock arrendado", example = "2")
+    private Integer deltaArrendado;
+
+    @Column(nullable = false)
+    @Schema(description = "Variación del stock total", example = "0")
+    private Integer deltaTotal;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @Schema(description = "Fecha del movimiento", example = "2025-07-06T10:30:00")
+    private Date fecha;
+
+    public static MovimientoStockModel de(Long idInventario, String tipo, int deltaDisponible,
+                                          int deltaArrendado, int deltaTotal) {
+        return new MovimientoStockModel(null, idInventario, tipo, deltaDisponible, deltaArrendado, deltaTotal, new Date());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Último segmento del journal de write-behind cuyos deltas ya están aplicados en la tabla inventario.
+// Se actualiza en la misma transacción que el volcado, así la recuperación nunca aplica dos veces un segmento.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "inventario_stock_checkpoint")
+public class StockCheckpointModel {
+
+    public static final Integer ID_UNICO = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long ultimoSegmento;
+}
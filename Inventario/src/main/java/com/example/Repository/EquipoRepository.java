@@ -0,0 +1,16 @@
+package com.example.Repository;
+
+import com.example.Model.EquipoModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EquipoRepository extends JpaRepository<EquipoModel, Long> {
+
+    // Base del índice en memoria por tipo de equipo: tipoEquipo, idEquipo
+    @Query("SELECT e.tipoEquipo, e.idEquipo FROM EquipoModel e")
+    List<Object[]> findTiposEquipo();
+}
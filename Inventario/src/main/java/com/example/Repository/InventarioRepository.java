@@ -1,27 +1,71 @@
 package com.example.Repository;
 
 import com.example.Model.InventarioModel;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventarioRepository extends JpaRepository<InventarioModel, Long> {
 
     Optional<InventarioModel> findByEquipoIdEquipo(Long idEquipo);
     
+    // Bloquea la fila para reconstruir sus contadores o tomar una instantánea del registro de movimientos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventarioModel i WHERE i.idInventario = :id")
+    Optional<InventarioModel> findByIdParaActualizar(@Param("id") Long id);
+    
+    // Paginación por cursor (keyset): recorre la clave primaria desde el último ID entregado,
+    // sin OFFSET, así que cada página cuesta lo mismo sin importar cuán adelante esté.
+    // Los equipos se resuelven desde la caché de equipos.
+    @Query("SELECT i FROM InventarioModel i WHERE i.idInventario > :despuesDe ORDER BY i.idInventario")
+    List<InventarioModel> findPagina(@Param("despuesDe") Long despuesDe, Limit limite);
+    
+    // Recorrido completo para exportar: las filas se leen del cursor JDBC de a FETCH_SIZE,
+    // en lugar de materializar la tabla entera. Debe consumirse dentro de una transacción.
+    // Sin JOIN FETCH: con el join el motor puede recorrer primero equipos y ordenar todo el resultado
+    // en memoria; cada equipo se resuelve desde la caché de equipos y queda en el contexto de persistencia.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM InventarioModel i ORDER BY i.idInventario")
+    Stream<InventarioModel> streamTodos();
+    
+    @Query("SELECT i FROM InventarioModel i WHERE i.equipo.idEquipo IN :idsEquipo")
+    List<InventarioModel> findByEquipoIdEquipoIn(@Param("idsEquipo") Collection<Long> idsEquipo);
+    
     List<InventarioModel> findByEstado(String estado);
     List<InventarioModel> findByUbicacion(String ubicacion);
     
-    @Query("SELECT i FROM InventarioModel i WHERE i.stockDisponible <= i.stockMinimo")
+    // El estado refleja stockDisponible <= stockMinimo y se mantiene en cada escritura, así que
+    // estas consultas usan el índice (estado, id_inventario) en lugar de comparar dos columnas.
+    @Query("SELECT i FROM InventarioModel i WHERE i.estado IN ('CRITICO', 'AGOTADO')")
     List<InventarioModel> findStockCritico();
     
-    @Query("SELECT i FROM InventarioModel i WHERE i.stockDisponible = 0")
+    @Query("SELECT i FROM InventarioModel i WHERE i.estado = 'AGOTADO'")
     List<InventarioModel> findStockAgotado();
     
+    @Query("SELECT i.idInventario FROM InventarioModel i WHERE i.estado = :estado")
+    List<Long> findIdsByEstado(@Param("estado") String estado);
+    
+    // Consulta y no findById: tras el commit el contexto de persistencia aún puede tener la entidad
+    @Query("SELECT i.estado FROM InventarioModel i WHERE i.idInventario = :id")
+    Optional<String> findEstadoById(@Param("id") Long id);
+    
    
     @Query("SELECT i FROM InventarioModel i WHERE i.equipo.tipoEquipo = :tipoEquipo")
     List<InventarioModel> findByTipoEquipo(@Param("tipoEquipo") String tipoEquipo);
@@ -37,4 +81,45 @@ public interface InventarioRepository extends JpaRepository<InventarioModel, Lon
     
     @Query("SELECT COALESCE(SUM(i.stockArrendado), 0) FROM InventarioModel i")
     Long getTotalStockArrendado();
-}
\ No newline at end of file
+    
+    // Base para reconstruir y reconciliar los agregados: ubicacion, tipoEquipo, estado, registros, total, disponible, arrendado
+    @Query("SELECT i.ubicacion, e.tipoEquipo, i.estado, COUNT(i), COALESCE(SUM(i.stockTotal), 0), " +
+           "COALESCE(SUM(i.stockDisponible), 0), COALESCE(SUM(i.stockArrendado), 0) " +
+           "FROM InventarioModel i JOIN i.equipo e GROUP BY i.ubicacion, e.tipoEquipo, i.estado")
+    List<Object[]> sumarStockAgrupado();
+    
+    // Actualizaciones condicionales de stock: una sola sentencia UPDATE, sin leer la entidad.
+    // El estado se asigna primero para que se calcule con los valores previos (MySQL evalúa el SET de izquierda a derecha).
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventarioModel i SET " +
+           "i.estado = CASE WHEN i.stockDisponible - :cantidad <= 0 THEN 'AGOTADO' " +
+           "WHEN i.stockDisponible - :cantidad <= i.stockMinimo THEN 'CRITICO' ELSE 'DISPONIBLE' END, " +
+           "i.stockDisponible = i.stockDisponible - :cantidad, " +
+           "i.stockArrendado = i.stockArrendado + :cantidad, " +
+           "i.fechaUltimaActualizacion = CURRENT_TIMESTAMP " +
+           "WHERE i.idInventario = :id AND i.stockDisponible >= :cantidad")
+    int reservarStock(@Param("id") Long id, @Param("cantidad") Integer cantidad);
+    
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventarioModel i SET " +
+           "i.estado = CASE WHEN i.stockDisponible + :cantidad <= 0 THEN 'AGOTADO' " +
+           "WHEN i.stockDisponible + :cantidad <= i.stockMinimo THEN 'CRITICO' ELSE 'DISPONIBLE' END, " +
+           "i.stockDisponible = i.stockDisponible + :cantidad, " +
+           "i.stockArrendado = i.stockArrendado - :cantidad, " +
+           "i.fechaUltimaActualizacion = CURRENT_TIMESTAMP " +
+           "WHERE i.idInventario = :id AND i.stockArrendado >= :cantidad")
+    int liberarStock(@Param("id") Long id, @Param("cantidad") Integer cantidad);
+    
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventarioModel i SET " +
+           "i.estado = CASE WHEN i.stockDisponible + :cantidad <= 0 THEN 'AGOTADO' " +
+           "WHEN i.stockDisponible + :cantidad <= i.stockMinimo THEN 'CRITICO' ELSE 'DISPONIBLE' END, " +
+           "i.stockDisponible = i.stockDisponible + :cantidad, " +
+           "i.stockTotal = i.stockTotal + :cantidad, " +
+           "i.fechaUltimaActualizacion = CURRENT_TIMESTAMP " +
+           "WHERE i.idInventario = :id")
+    int incrementarStock(@Param("id") Long id, @Param("cantidad") Integer cantidad);
+}
@@ -0,0 +1,15 @@
+package com.example.Repository;
+
+import com.example.Model.InventarioSnapshotModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+@Repository
+public interface InventarioSnapshotRepository extends JpaRepository<InventarioSnapshotModel, Long> {
+
+    Optional<InventarioSnapshotModel> findFirstByIdInventarioAndFechaLessThanEqualOrderByIdMovimientoDesc(
+            Long idInventario, Date fecha);
+}
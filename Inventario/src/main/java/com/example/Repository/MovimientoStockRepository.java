@@ -0,0 +1,31 @@
+package com.example.Repository;
+
+import com.example.Model.MovimientoStockModel;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface MovimientoStockRepository extends JpaRepository<MovimientoStockModel, Long> {
+
+    List<MovimientoStockModel> findByIdInventarioAndIdMovimientoGreaterThanOrderByIdMovimiento(
+            Long idInventario, Long despuesDe, Limit limite);
+
+    // Suma de los movimientos posteriores a una instantánea: cantidad, disponible, arrendado, total, último id, última fecha
+    @Query("SELECT COUNT(m), COALESCE(SUM(m.deltaDisponible), 0), COALESCE(SUM(m.deltaArrendado), 0), " +
+           "COALESCE(SUM(m.deltaTotal), 0), MAX(m.idMovimiento), MAX(m.fecha) FROM MovimientoStockModel m " +
+           "WHERE m.idInventario = :idInventario AND m.idMovimiento > :desde AND m.fecha <= :hasta")
+    List<Object[]> sumarDesde(@Param("idInventario") Long idInventario, @Param("desde") Long desde,
+                              @Param("hasta") Date hasta);
+
+    // Inventarios con al menos :minimo movimientos desde su última instantánea
+    @Query("SELECT m.idInventario FROM MovimientoStockModel m WHERE m.idMovimiento > COALESCE(" +
+           "(SELECT MAX(s.idMovimiento) FROM InventarioSnapshotModel s WHERE s.idInventario = m.idInventario), 0) " +
+           "GROUP BY m.idInventario HAVING COUNT(m) >= :minimo")
+    List<Long> findInventariosParaSnapshot(@Param("minimo") long minimo);
+}
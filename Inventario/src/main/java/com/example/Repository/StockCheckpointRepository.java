@@ -0,0 +1,9 @@
+package com.example.Repository;
+
+import com.example.Model.StockCheckpointModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockCheckpointRepository extends JpaRepository<StockCheckpointModel, Integer> {
+}
@@ -0,0 +1,95 @@
+package com.example.Service;
+
+import com.example.DTO.CacheEquiposDTO;
+import com.example.Model.EquipoModel;
+import com.example.Repository.EquipoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Catálogo de equipos. Las entidades EquipoModel se leen desde la región "equipos" de la caché de
+// segundo nivel (acotada por tamaño y TTL en ehcache-equipos.xml); este componente expone sus métricas,
+// permite invalidarla y mantiene el índice secundario tipoEquipo -> ids de equipo.
+@Component
+public class CatalogoEquipos {
+
+    public static final String REGION = "equipos";
+
+    private final EquipoRepository equipoRepository;
+    private final SessionFactory sessionFactory;
+    private volatile Map<String, Set<Long>> porTipo = Map.of();
+
+    @Autowired
+    public CatalogoEquipos(EquipoRepository equipoRepository, EntityManagerFactory entityManagerFactory) {
+        this.equipoRepository = equipoRepository;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    // El CacheManager de JCache se comparte por URI dentro de la JVM: se descarta lo que haya
+    // dejado otro contexto de Spring sobre otra base de datos (por ejemplo, entre pruebas).
+    @PostConstruct
+    public void iniciar() {
+        sessionFactory.getCache().evictEntityData(EquipoModel.class);
+        cargar();
+    }
+
+    // La recarga periódica recoge los equipos creados o modificados por otros servicios.
+    @Scheduled(initialDelayString = "${inventario.catalogo-equipos.recarga-ms:600000}",
+               fixedDelayString = "${inventario.catalogo-equipos.recarga-ms:600000}")
+    public void cargar() {
+        Map<String, Set<Long>> nuevo = new ConcurrentHashMap<>();
+        for (Object[] fila : equipoRepository.findTiposEquipo()) {
+            if (fila[0] != null) {
+                nuevo.computeIfAbsent((String) fila[0], k -> ConcurrentHashMap.newKeySet()).add((Long) fila[1]);
+            }
+        }
+        porTipo = nuevo;
+    }
+
+    public Set<Long> idsPorTipo(String tipoEquipo) {
+        Set<Long> ids = porTipo.get(tipoEquipo);
+        return ids == null ? Set.of() : Set.copyOf(ids);
+    }
+
+    // Escritura de un equipo a través de JPA: el equipo pasa al conjunto de su tipo actual.
+    public void registrar(EquipoModel equipo) {
+        quitar(equipo.getIdEquipo());
+        if (equipo.getTipoEquipo() != null) {
+            porTipo.computeIfAbsent(equipo.getTipoEquipo(), k -> ConcurrentHashMap.newKeySet())
+                    .add(equipo.getIdEquipo());
+        }
+    }
+
+    public void quitar(Long idEquipo) {
+        porTipo.values().forEach(ids -> ids.remove(idEquipo));
+    }
+
+    // Para equipos modificados fuera de este servicio, sin esperar al TTL.
+    public void invalidar(Long idEquipo) {
+        sessionFactory.getCache().evictEntityData(EquipoModel.class, idEquipo);
+        cargar();
+    }
+
+    public void invalidarTodo() {
+        sessionFactory.getCache().evictEntityData(EquipoModel.class);
+        cargar();
+    }
+
+    public CacheEquiposDTO estadisticas() {
+        CacheRegionStatistics region = sessionFactory.getStatistics().getDomainDataRegionStatistics(REGION);
+        long aciertos = region.getHitCount();
+        long fallos = region.getMissCount();
+        long lecturas = aciertos + fallos;
+        return new CacheEquiposDTO(aciertos, fallos, region.getPutCount(),
+                CatalogoEquiposEventos.getDesalojos(), CatalogoEquiposEventos.getExpiraciones(),
+                lecturas == 0 ? 0.0 : (double) aciertos / lecturas);
+    }
+}
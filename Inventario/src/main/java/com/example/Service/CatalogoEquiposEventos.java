@@ -0,0 +1,32 @@
+package com.example.Service;
+
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Cuenta los desalojos por tamaño y las expiraciones por TTL de la región "equipos".
+// Ehcache lo instancia desde ehcache-equipos.xml, por eso los contadores son estáticos.
+public class CatalogoEquiposEventos implements CacheEventListener<Object, Object> {
+
+    private static final LongAdder desalojos = new LongAdder();
+    private static final LongAdder expiraciones = new LongAdder();
+
+    @Override
+    public void onEvent(CacheEvent<?, ?> evento) {
+        if (evento.getType() == EventType.EVICTED) {
+            desalojos.increment();
+        } else if (evento.getType() == EventType.EXPIRED) {
+            expiraciones.increment();
+        }
+    }
+
+    static long getDesalojos() {
+        return desalojos.sum();
+    }
+
+    static long getExpiraciones() {
+        return expiraciones.sum();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.Service;
+
+import com.example.Model.EquipoModel;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Mantiene el índice por tipo de equipo al escribir equipos por JPA. La caché de segundo nivel
+// se invalida sola (READ_WRITE); el índice se corrige igual en la recarga periódica si la
+// transacción se deshace.
+@Component
+public class CatalogoEquiposListener {
+
+    private final CatalogoEquipos catalogoEquipos;
+
+    @Autowired
+    public CatalogoEquiposListener(@Lazy CatalogoEquipos catalogoEquipos) {
+        this.catalogoEquipos = catalogoEquipos;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void registrar(EquipoModel equipo) {
+        catalogoEquipos.registrar(equipo);
+    }
+
+    @PostRemove
+    public void quitar(EquipoModel equipo) {
+        catalogoEquipos.quitar(equipo.getIdEquipo());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.Service;
+
+import com.example.Model.InventarioModel;
+
+// Valores de un registro de inventario relevantes para agregados e índices en memoria,
+// capturados antes y después de cada cambio (la entidad gestionada se modifica en el lugar).
+public record FilaInventario(Long idInventario, String ubicacion, String tipoEquipo, String estado,
+                             int stockMinimo, int stockTotal, int stockDisponible, int stockArrendado) {
+
+    public static FilaInventario de(InventarioModel inventario) {
+        if (inventario == null) {
+            return null;
+        }
+        String tipoEquipo = inventario.getEquipo() == null ? null : inventario.getEquipo().getTipoEquipo();
+        int disponible = valor(inventario.getStockDisponible());
+        int minimo = valor(inventario.getStockMinimo());
+        return new FilaInventario(inventario.getIdInventario(), inventario.getUbicacion(), tipoEquipo,
+                InventarioModel.calcularEstado(disponible, minimo), minimo,
+                valor(inventario.getStockTotal()), disponible, valor(inventario.getStockArrendado()));
+    }
+
+    // Estado previo a un movimiento de stock ya aplicado, deducido restando sus deltas.
+    public FilaInventario anterior(int deltaDisponible, int deltaArrendado, int deltaTotal) {
+        int disponible = stockDisponible - deltaDisponible;
+        return new FilaInventario(idInventario, ubicacion, tipoEquipo,
+                InventarioModel.calcularEstado(disponible, stockMinimo), stockMinimo,
+                stockTotal - deltaTotal, disponible, stockArrendado - deltaArrendado);
+    }
+
+    private static int valor(Integer numero) {
+        return numero == null ? 0 : numero;
+    }
+}
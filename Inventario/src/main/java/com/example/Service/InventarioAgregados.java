@@ -0,0 +1,216 @@
+package com.example.Service;
+
+import com.example.DTO.ResumenStockDTO;
+import com.example.Repository.InventarioRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Totales de stock mantenidos de forma incremental desde los mismos caminos que modifican el inventario.
+// InventarioService entrega cada cambio ya confirmado. Los reportes se responden desde memoria;
+// una reconciliación periódica contra SUM(...) en SQL corrige la deriva.
+@Component
+public class InventarioAgregados {
+
+    private static final Logger log = LoggerFactory.getLogger(InventarioAgregados.class);
+    private static final String SIN_VALOR = "SIN_ASIGNAR";
+
+    private final InventarioRepository inventarioRepository;
+    private final StockWriteBehindBuffer stockWriteBehind;
+    private final Agregado agregado = new Agregado();
+    // Lock explícito: la reconciliación consulta la base con el lock tomado y puede correr en un hilo virtual
+    private final ReentrantLock reconciliacion = new ReentrantLock();
+    private Map<String, long[]> derivaAnterior = Map.of();
+
+    @Autowired
+    public InventarioAgregados(InventarioRepository inventarioRepository, StockWriteBehindBuffer stockWriteBehind) {
+        this.inventarioRepository = inventarioRepository;
+        this.stockWriteBehind = stockWriteBehind;
+    }
+
+    @PostConstruct
+    public void cargar() {
+        Agregado desdeBaseDeDatos = consultar();
+        desdeBaseDeDatos.aplanar().forEach((clave, valores) -> agregado.sumar(clave, valores, 1));
+    }
+
+    public void reemplazar(FilaInventario antes, FilaInventario despues) {
+        if (antes != null) {
+            agregado.sumar(antes, -1);
+        }
+        if (despues != null) {
+            agregado.sumar(despues, 1);
+        }
+    }
+
+    public long getTotalStock() {
+        return agregado.global.stockTotal.sum();
+    }
+
+    public long getTotalStockDisponible() {
+        return agregado.global.stockDisponible.sum();
+    }
+
+    public long getTotalStockArrendado() {
+        return agregado.global.stockArrendado.sum();
+    }
+
+    public ResumenStockDTO resumen() {
+        return new ResumenStockDTO(agregado.global.registros.sum(), getTotalStock(),
+                getTotalStockDisponible(), getTotalStockArrendado(),
+                agregado.desglose(agregado.porUbicacion),
+                agregado.desglose(agregado.porTipoEquipo),
+                agregado.desglose(agregado.porEstado));
+    }
+
+    // Solo corrige una deriva que se repite igual en dos reconciliaciones seguidas, para no
+    // confundir con deriva los movimientos confirmados en la base que aún no llegan a memoria.
+    @Scheduled(initialDelayString = "${inventario.agregados.reconciliacion-ms:60000}",
+               fixedDelayString = "${inventario.agregados.reconciliacion-ms:60000}")
+    public void reconciliar() {
+        reconciliacion.lock();
+        try {
+            reconciliarBloqueado();
+        } finally {
+            reconciliacion.unlock();
+        }
+    }
+
+    private void reconciliarBloqueado() {
+        stockWriteBehind.flush();
+        Map<String, long[]> esperado = consultar().aplanar();
+        Map<String, long[]> actual = agregado.aplanar();
+        Map<String, long[]> deriva = new HashMap<>();
+        for (String clave : union(esperado, actual)) {
+            long[] e = esperado.getOrDefault(clave, new long[4]);
+            long[] a = actual.getOrDefault(clave, new long[4]);
+            long[] diferencia = {e[0] - a[0], e[1] - a[1], e[2] - a[2], e[3] - a[3]};
+            if (diferencia[0] != 0 || diferencia[1] != 0 || diferencia[2] != 0 || diferencia[3] != 0) {
+                deriva.put(clave, diferencia);
+            }
+        }
+        if (deriva.isEmpty()) {
+            derivaAnterior = Map.of();
+            return;
+        }
+        if (mismaDeriva(deriva, derivaAnterior)) {
+            log.warn("Agregados de inventario con deriva en {} claves, corrigiendo", deriva.size());
+            deriva.forEach((clave, diferencia) -> agregado.sumar(clave, diferencia, 1));
+            derivaAnterior = Map.of();
+        } else {
+            derivaAnterior = deriva;
+        }
+    }
+
+    private Agregado consultar() {
+        Agregado resultado = new Agregado();
+        for (Object[] fila : inventarioRepository.sumarStockAgrupado()) {
+            long[] valores = {((Number) fila[3]).longValue(), ((Number) fila[4]).longValue(),
+                    ((Number) fila[5]).longValue(), ((Number) fila[6]).longValue()};
+            resultado.sumar("g", valores, 1);
+            resultado.sumar("u:" + clave((String) fila[0]), valores, 1);
+            resultado.sumar("t:" + clave((String) fila[1]), valores, 1);
+            resultado.sumar("e:" + clave((String) fila[2]), valores, 1);
+        }
+        return resultado;
+    }
+
+    private static boolean mismaDeriva(Map<String, long[]> a, Map<String, long[]> b) {
+        if (!a.keySet().equals(b.keySet())) {
+            return false;
+        }
+        return a.entrySet().stream().allMatch(e -> Arrays.equals(e.getValue(), b.get(e.getKey())));
+    }
+
+    private static Set<String> union(Map<String, long[]> a, Map<String, long[]> b) {
+        Set<String> claves = new HashSet<>(a.keySet());
+        claves.addAll(b.keySet());
+        return claves;
+    }
+
+    private static String clave(String valor) {
+        return Objects.requireNonNullElse(valor, SIN_VALOR);
+    }
+
+    private static final class Totales {
+        private final LongAdder registros = new LongAdder();
+        private final LongAdder stockTotal = new LongAdder();
+        private final LongAdder stockDisponible = new LongAdder();
+        private final LongAdder stockArrendado = new LongAdder();
+
+        private void sumar(long[] valores, int signo) {
+            registros.add(signo * valores[0]);
+            stockTotal.add(signo * valores[1]);
+            stockDisponible.add(signo * valores[2]);
+            stockArrendado.add(signo * valores[3]);
+        }
+
+        private long[] valores() {
+            return new long[]{registros.sum(), stockTotal.sum(), stockDisponible.sum(), stockArrendado.sum()};
+        }
+    }
+
+    private static final class Agregado {
+        private final Totales global = new Totales();
+        private final Map<String, Totales> porUbicacion = new ConcurrentHashMap<>();
+        private final Map<String, Totales> porTipoEquipo = new ConcurrentHashMap<>();
+        private final Map<String, Totales> porEstado = new ConcurrentHashMap<>();
+
+        private void sumar(FilaInventario fila, int signo) {
+            long[] valores = {1, fila.stockTotal(), fila.stockDisponible(), fila.stockArrendado()};
+            global.sumar(valores, signo);
+            porUbicacion.computeIfAbsent(clave(fila.ubicacion()), k -> new Totales()).sumar(valores, signo);
+            porTipoEquipo.computeIfAbsent(clave(fila.tipoEquipo()), k -> new Totales()).sumar(valores, signo);
+            porEstado.computeIfAbsent(clave(fila.estado()), k -> new Totales()).sumar(valores, signo);
+        }
+
+        // Claves planas: "g" global, "u:" ubicación, "t:" tipo de equipo, "e:" estado.
+        private void sumar(String clave, long[] valores, int signo) {
+            if (clave.equals("g")) {
+                global.sumar(valores, signo);
+                return;
+            }
+            Map<String, Totales> destino = switch (clave.charAt(0)) {
+                case 'u' -> porUbicacion;
+                case 't' -> porTipoEquipo;
+                default -> porEstado;
+            };
+            destino.computeIfAbsent(clave.substring(2), k -> new Totales()).sumar(valores, signo);
+        }
+
+        private Map<String, long[]> aplanar() {
+            Map<String, long[]> plano = new HashMap<>();
+            plano.put("g", global.valores());
+            porUbicacion.forEach((k, v) -> plano.put("u:" + k, v.valores()));
+            porTipoEquipo.forEach((k, v) -> plano.put("t:" + k, v.valores()));
+            porEstado.forEach((k, v) -> plano.put("e:" + k, v.valores()));
+            plano.values().removeIf(v -> v[0] == 0 && v[1] == 0 && v[2] == 0 && v[3] == 0);
+            return plano;
+        }
+
+        private Map<String, ResumenStockDTO.Totales> desglose(Map<String, Totales> mapa) {
+            Map<String, ResumenStockDTO.Totales> resultado = new TreeMap<>();
+            mapa.forEach((k, v) -> {
+                long[] valores = v.valores();
+                if (valores[0] != 0) {
+                    resultado.put(k, new ResumenStockDTO.Totales(valores[0], valores[1], valores[2], valores[3]));
+                }
+            });
+            return resultado;
+        }
+    }
+}
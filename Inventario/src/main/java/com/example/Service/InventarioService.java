@@ -1,35 +1,111 @@
 package com.example.Service;
 
+import com.example.DTO.CacheEquiposDTO;
+import com.example.DTO.DisponibilidadLoteRequest;
+import com.example.DTO.DisponibilidadLoteResponse;
+import com.example.DTO.PaginaInventarioDTO;
+import com.example.DTO.ResumenStockDTO;
+import com.example.DTO.StockHistoricoDTO;
 import com.example.Model.InventarioModel;
+import com.example.Model.MovimientoStockModel;
 import com.example.Repository.InventarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class InventarioService {
 
+    private static final int MAX_IDS_POR_CLAVE = 1000;
+
     private final InventarioRepository inventarioRepository;
+    private final StockWriteBehindBuffer stockWriteBehind;
+    private final InventarioAgregados inventarioAgregados;
+    private final StockCriticoIndice stockCriticoIndice;
+    private final CatalogoEquipos catalogoEquipos;
+    private final MovimientoStockLedger ledger;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public InventarioService(InventarioRepository inventarioRepository) {
+    public InventarioService(InventarioRepository inventarioRepository, StockWriteBehindBuffer stockWriteBehind,
+                             InventarioAgregados inventarioAgregados, StockCriticoIndice stockCriticoIndice,
+                             CatalogoEquipos catalogoEquipos, MovimientoStockLedger ledger,
+                             TransactionTemplate transactionTemplate) {
         this.inventarioRepository = inventarioRepository;
+        this.stockWriteBehind = stockWriteBehind;
+        this.inventarioAgregados = inventarioAgregados;
+        this.stockCriticoIndice = stockCriticoIndice;
+        this.catalogoEquipos = catalogoEquipos;
+        this.ledger = ledger;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public List<InventarioModel> findAll() {
         return inventarioRepository.findAll();
     }
 
+    public PaginaInventarioDTO findPagina(Long despuesDe, int limite) {
+        if (limite < 1 || limite > PaginaInventarioDTO.LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + PaginaInventarioDTO.LIMITE_MAXIMO);
+        }
+        // Se pide una fila extra solo para saber si existe una página siguiente
+        List<InventarioModel> filas = inventarioRepository.findPagina(
+                despuesDe == null ? 0L : despuesDe, Limit.of(limite + 1));
+        boolean hayMas = filas.size() > limite;
+        List<InventarioModel> items = (hayMas ? filas.subList(0, limite) : filas).stream()
+                .map(stockWriteBehind::aplicarPendientes)
+                .toList();
+        Long siguienteCursor = hayMas ? items.get(items.size() - 1).getIdInventario() : null;
+        return new PaginaInventarioDTO(items, siguienteCursor, limite);
+    }
+
+    // Entrega cada inventario al destino a medida que llega del cursor y lo separa del contexto
+    // de persistencia, para que la memoria usada no crezca con el tamaño de la tabla.
+    @Transactional(readOnly = true)
+    public long exportar(Consumer<InventarioModel> destino) {
+        long filas = 0;
+        try (Stream<InventarioModel> inventarios = inventarioRepository.streamTodos()) {
+            for (InventarioModel inventario : (Iterable<InventarioModel>) inventarios::iterator) {
+                entityManager.detach(inventario);
+                destino.accept(stockWriteBehind.aplicarPendientes(inventario));
+                filas++;
+            }
+        }
+        return filas;
+    }
+
     public InventarioModel findById(Long id) {
         return inventarioRepository.findById(id)
+              .map(stockWriteBehind::aplicarPendientes)
               .orElseThrow(() -> new RuntimeException("Inventario no encontrado con ID: " + id));
     }
     
     public Optional<InventarioModel> findByEquipo(Long idEquipo) {
-        return inventarioRepository.findByEquipoIdEquipo(idEquipo);
+        return inventarioRepository.findByEquipoIdEquipo(idEquipo)
+              .map(stockWriteBehind::aplicarPendientes);
     }
     
     public List<InventarioModel> findByEstado(String estado) {
@@ -41,15 +117,49 @@ public class InventarioService {
     }
     
     public List<InventarioModel> findStockCritico() {
-        return inventarioRepository.findStockCritico();
+        return findPorEstado(stockCriticoIndice.getCriticos(), inventarioRepository::findStockCritico, "CRITICO", "AGOTADO");
     }
     
     public List<InventarioModel> findStockAgotado() {
-        return inventarioRepository.findStockAgotado();
+        return findPorEstado(stockCriticoIndice.getAgotados(), inventarioRepository::findStockAgotado, "AGOTADO");
     }
     
+    // Con pocos IDs en el índice en memoria se leen por clave primaria; con muchos, una lista IN
+    // enorme sale más cara que recorrer el índice (estado, id_inventario) con la consulta por estado.
+    // Sin IDs también se consulta por estado: un índice vacío puede deberse a cambios que aún no llegan.
+    // En ambos casos se revalida el estado de cada fila.
+    private List<InventarioModel> findPorEstado(Collection<Long> ids, Supplier<List<InventarioModel>> consultaPorEstado,
+                                                String... estados) {
+        // En modo write-behind la base puede no reflejar todavía los movimientos hechos en memoria
+        Set<Long> enMemoria = new HashSet<>(stockWriteBehind.idsEnEstado(estados));
+        Set<Long> candidatosIds = new HashSet<>(ids);
+        candidatosIds.addAll(enMemoria);
+        List<InventarioModel> candidatos;
+        if (ids.isEmpty() || candidatosIds.size() > MAX_IDS_POR_CLAVE) {
+            candidatos = new ArrayList<>(consultaPorEstado.get());
+            candidatos.forEach(i -> enMemoria.remove(i.getIdInventario()));
+            if (!enMemoria.isEmpty()) {
+                candidatos.addAll(inventarioRepository.findAllById(enMemoria));
+            }
+        } else {
+            candidatos = inventarioRepository.findAllById(candidatosIds);
+        }
+        List<String> aceptados = Arrays.asList(estados);
+        return candidatos.stream()
+                .map(stockWriteBehind::aplicarPendientes)
+                .filter(i -> aceptados.contains(i.getEstado()))
+                .toList();
+    }
+    
+    // Los ids de equipo salen del índice por tipo del catálogo, y el inventario se lee por id_equipo
+    // sin cruzar con equipos. Un tipo desconocido puede ser un equipo creado en otro servicio
+    // después de la última recarga del índice, así que se consulta a la base.
     public List<InventarioModel> findByTipoEquipo(String tipoEquipo) {
-        return inventarioRepository.findByTipoEquipo(tipoEquipo);
+        Set<Long> idsEquipo = catalogoEquipos.idsPorTipo(tipoEquipo);
+        List<InventarioModel> inventarios = idsEquipo.isEmpty() || idsEquipo.size() > MAX_IDS_POR_CLAVE
+                ? inventarioRepository.findByTipoEquipo(tipoEquipo)
+                : inventarioRepository.findByEquipoIdEquipoIn(idsEquipo);
+        return inventarios.stream().map(stockWriteBehind::aplicarPendientes).toList();
     }
     
     public List<InventarioModel> findDisponiblesPorCantidad(Integer cantidad) {
@@ -58,12 +168,24 @@ public class InventarioService {
 
     @Transactional
     public InventarioModel save(InventarioModel inventario) {
-        return inventarioRepository.save(inventario);
+        if (inventario.getIdInventario() != null) {
+            stockWriteBehind.sincronizar(inventario.getIdInventario());
+        }
+        FilaInventario antes = inventario.getIdInventario() == null ? null
+                : inventarioRepository.findByIdParaActualizar(inventario.getIdInventario()).map(FilaInventario::de).orElse(null);
+        InventarioModel guardado = inventarioRepository.save(inventario);
+        inventarioRepository.flush();
+        FilaInventario despues = FilaInventario.de(guardado);
+        registrarAjuste(antes == null ? MovimientoStockModel.ALTA : MovimientoStockModel.AJUSTE, antes, despues);
+        registrarCambio(antes, despues);
+        return guardado;
     }
 
     @Transactional
     public InventarioModel update(Long id, InventarioModel inventarioDetails) {
-        InventarioModel inventario = findById(id);
+        stockWriteBehind.sincronizar(id);
+        InventarioModel inventario = findParaActualizar(id);
+        FilaInventario antes = FilaInventario.de(inventario);
         
         inventario.setStockDisponible(inventarioDetails.getStockDisponible());
         inventario.setStockMinimo(inventarioDetails.getStockMinimo());
@@ -72,67 +194,293 @@ public class InventarioService {
         inventario.setUbicacion(inventarioDetails.getUbicacion());
         inventario.setObservaciones(inventarioDetails.getObservaciones());
         
-        return inventarioRepository.save(inventario);
+        InventarioModel guardado = inventarioRepository.save(inventario);
+        inventarioRepository.flush();
+        FilaInventario despues = FilaInventario.de(guardado);
+        registrarAjuste(MovimientoStockModel.AJUSTE, antes, despues);
+        registrarCambio(antes, despues);
+        return guardado;
     }
     
     @Transactional
     public InventarioModel actualizarStock(Long id, Integer stockDisponible, Integer stockArrendado) {
-        InventarioModel inventario = findById(id);
+        stockWriteBehind.sincronizar(id);
+        InventarioModel inventario = findParaActualizar(id);
+        FilaInventario antes = FilaInventario.de(inventario);
         inventario.setStockDisponible(stockDisponible);
         inventario.setStockArrendado(stockArrendado);
-        return inventarioRepository.save(inventario);
+        InventarioModel guardado = inventarioRepository.save(inventario);
+        inventarioRepository.flush();
+        FilaInventario despues = FilaInventario.de(guardado);
+        registrarAjuste(MovimientoStockModel.AJUSTE, antes, despues);
+        registrarCambio(antes, despues);
+        return guardado;
     }
     
-    @Transactional
+    // Sin @Transactional: en modo write-behind el movimiento no abre ninguna transacción y llega
+    // al registro de movimientos con el volcado. En la base, el UPDATE condicional y su movimiento
+    // se confirman juntos; el UPDATE bloquea la fila antes de insertar el movimiento.
     public InventarioModel aumentarStock(Long id, Integer cantidad) {
-        InventarioModel inventario = findById(id);
-        inventario.setStockDisponible(inventario.getStockDisponible() + cantidad);
-        inventario.setStockTotal(inventario.getStockTotal() + cantidad);
-        return inventarioRepository.save(inventario);
+        validarCantidad(cantidad);
+        if (stockWriteBehind.isEnabled()) {
+            return registrarMovimiento(stockWriteBehind.incrementar(id, cantidad));
+        }
+        return transactionTemplate.execute(status -> {
+            if (inventarioRepository.incrementarStock(id, cantidad) == 0) {
+                throw new RuntimeException("Inventario no encontrado con ID: " + id);
+            }
+            ledger.registrar(id, MovimientoStockModel.INGRESO, cantidad, 0, cantidad);
+            return leerMovimiento(id, cantidad, 0, cantidad);
+        });
     }
     
-    @Transactional
     public InventarioModel reducirStock(Long id, Integer cantidad) {
-        InventarioModel inventario = findById(id);
-        if (inventario.getStockDisponible() < cantidad) {
-            throw new RuntimeException("Stock insuficiente. Disponible: " + inventario.getStockDisponible());
+        validarCantidad(cantidad);
+        if (stockWriteBehind.isEnabled()) {
+            return registrarMovimiento(stockWriteBehind.reservar(id, cantidad));
         }
-        inventario.setStockDisponible(inventario.getStockDisponible() - cantidad);
-        inventario.setStockArrendado(inventario.getStockArrendado() + cantidad);
-        return inventarioRepository.save(inventario);
+        return transactionTemplate.execute(status -> {
+            if (inventarioRepository.reservarStock(id, cantidad) == 0) {
+                throw new RuntimeException("Stock insuficiente. Disponible: " + findById(id).getStockDisponible());
+            }
+            ledger.registrar(id, MovimientoStockModel.RESERVA, -cantidad, cantidad, 0);
+            return leerMovimiento(id, -cantidad, cantidad, 0);
+        });
     }
     
-    @Transactional
     public InventarioModel devolverEquipo(Long id, Integer cantidad) {
-        InventarioModel inventario = findById(id);
-        inventario.setStockDisponible(inventario.getStockDisponible() + cantidad);
-        inventario.setStockArrendado(inventario.getStockArrendado() - cantidad);
-        return inventarioRepository.save(inventario);
+        validarCantidad(cantidad);
+        if (stockWriteBehind.isEnabled()) {
+            return registrarMovimiento(stockWriteBehind.liberar(id, cantidad));
+        }
+        return transactionTemplate.execute(status -> {
+            if (inventarioRepository.liberarStock(id, cantidad) == 0) {
+                throw new RuntimeException("Stock arrendado insuficiente. Arrendado: " + findById(id).getStockArrendado());
+            }
+            ledger.registrar(id, MovimientoStockModel.LIBERACION, cantidad, -cantidad, 0);
+            return leerMovimiento(id, cantidad, -cantidad, 0);
+        });
     }
 
     @Transactional
     public void deleteById(Long id) {
-        if (!inventarioRepository.existsById(id)) {
-            throw new RuntimeException("Inventario no encontrado con ID: " + id);
-        }
+        stockWriteBehind.sincronizar(id);
+        FilaInventario antes = FilaInventario.de(findParaActualizar(id));
         inventarioRepository.deleteById(id);
+        inventarioRepository.flush();
+        registrarAjuste(MovimientoStockModel.BAJA, antes, null);
+        registrarCambio(antes, null);
+    }
+    
+    public List<MovimientoStockModel> findMovimientos(Long id, Long despuesDe, int limite) {
+        if (limite < 1 || limite > PaginaInventarioDTO.LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + PaginaInventarioDTO.LIMITE_MAXIMO);
+        }
+        return ledger.listar(id, despuesDe, limite);
+    }
+    
+    public StockHistoricoDTO getStockEn(Long id, Date fecha) {
+        return ledger.estadoEn(id, fecha);
+    }
+    
+    // Recalcula los contadores desde el registro de movimientos, que es la fuente de verdad.
+    // La fila queda bloqueada mientras se suma, así ningún movimiento concurrente queda fuera.
+    @Transactional
+    public InventarioModel reconstruirStock(Long id) {
+        stockWriteBehind.sincronizar(id);
+        InventarioModel inventario = findParaActualizar(id);
+        FilaInventario antes = FilaInventario.de(inventario);
+        StockHistoricoDTO proyeccion = ledger.estadoActual(id);
+        inventario.setStockDisponible(proyeccion.getStockDisponible());
+        inventario.setStockArrendado(proyeccion.getStockArrendado());
+        inventario.setStockTotal(proyeccion.getStockTotal());
+        InventarioModel guardado = inventarioRepository.save(inventario);
+        registrarCambio(antes, FilaInventario.de(guardado));
+        return guardado;
     }
     
-    // Métodos para reportes
+    // Métodos para reportes: se responden desde los agregados en memoria
     public Long getTotalStock() {
-        return inventarioRepository.getTotalStock();
+        return inventarioAgregados.getTotalStock();
     }
     
     public Long getTotalStockDisponible() {
-        return inventarioRepository.getTotalStockDisponible();
+        return inventarioAgregados.getTotalStockDisponible();
     }
     
     public Long getTotalStockArrendado() {
-        return inventarioRepository.getTotalStockArrendado();
+        return inventarioAgregados.getTotalStockArrendado();
+    }
+    
+    public CacheEquiposDTO getEstadisticasCacheEquipos() {
+        return catalogoEquipos.estadisticas();
+    }
+
+    public void invalidarCacheEquipos(Long idEquipo) {
+        if (idEquipo == null) {
+            catalogoEquipos.invalidarTodo();
+        } else {
+            catalogoEquipos.invalidar(idEquipo);
+        }
+    }
+
+    public ResumenStockDTO getResumenStock() {
+        return inventarioAgregados.resumen();
     }
     
     public boolean verificarDisponibilidad(Long idEquipo, Integer cantidadRequerida) {
         Optional<InventarioModel> inventario = findByEquipo(idEquipo);
         return inventario.isPresent() && inventario.get().getStockDisponible() >= cantidadRequerida;
     }
-}
\ No newline at end of file
+    
+    // Verificación de varias líneas con una sola consulta IN sobre los equipos.
+    public DisponibilidadLoteResponse verificarDisponibilidadLote(List<DisponibilidadLoteRequest.Item> items) {
+        Map<Long, Integer> cantidades = agruparPorEquipo(items);
+        return resultadoLote(cantidades, inventariosPorEquipo(cantidades.keySet()), false);
+    }
+    
+    // Reserva todas las líneas o ninguna. Las filas se actualizan en orden de idInventario para que
+    // dos reservas concurrentes las bloqueen en el mismo orden y no se produzcan deadlocks.
+    @Transactional
+    public DisponibilidadLoteResponse reservarLote(List<DisponibilidadLoteRequest.Item> items) {
+        Map<Long, Integer> cantidades = agruparPorEquipo(items);
+        Map<Long, InventarioModel> inventarios = inventariosPorEquipo(cantidades.keySet());
+        DisponibilidadLoteResponse verificacion = resultadoLote(cantidades, inventarios, false);
+        if (!verificacion.isTodosDisponibles()) {
+            return verificacion;
+        }
+        
+        List<InventarioModel> lineas = inventarios.values().stream()
+                .sorted(Comparator.comparing(InventarioModel::getIdInventario))
+                .toList();
+        if (stockWriteBehind.isEnabled()) {
+            // En memoria no hay transacción que deshacer: se compensan las líneas ya reservadas.
+            // Cada reserva y cada compensación se registra, para que los agregados sigan la cadena completa.
+            Map<Long, InventarioModel> reservados = new LinkedHashMap<>();
+            try {
+                for (InventarioModel linea : lineas) {
+                    Long idEquipo = linea.getEquipo().getIdEquipo();
+                    reservados.put(idEquipo, registrarMovimiento(
+                            stockWriteBehind.reservar(linea.getIdInventario(), cantidades.get(idEquipo))));
+                }
+            } catch (RuntimeException e) {
+                reservados.forEach((idEquipo, inventario) -> registrarMovimiento(
+                        stockWriteBehind.liberar(inventario.getIdInventario(), cantidades.get(idEquipo))));
+                throw e;
+            }
+            return resultadoLote(cantidades, reservados, true);
+        }
+        
+        List<MovimientoStockModel> movimientos = new ArrayList<>(lineas.size());
+        for (InventarioModel linea : lineas) {
+            Long idEquipo = linea.getEquipo().getIdEquipo();
+            int cantidad = cantidades.get(idEquipo);
+            if (inventarioRepository.reservarStock(linea.getIdInventario(), cantidad) == 0) {
+                throw new RuntimeException("Stock insuficiente para el equipo con ID: " + idEquipo);
+            }
+            movimientos.add(MovimientoStockModel.de(linea.getIdInventario(), MovimientoStockModel.RESERVA,
+                    -cantidad, cantidad, 0));
+        }
+        ledger.registrar(movimientos);
+        // Las filas siguen bloqueadas por los UPDATE: se leen con exactamente esta reserva aplicada
+        Map<Long, InventarioModel> reservados = inventariosPorEquipo(cantidades.keySet());
+        reservados.forEach((idEquipo, inventario) -> {
+            int cantidad = cantidades.get(idEquipo);
+            FilaInventario despues = FilaInventario.de(inventario);
+            registrarCambio(despues.anterior(-cantidad, cantidad, 0), despues);
+        });
+        return resultadoLote(cantidades, reservados, true);
+    }
+    
+    // Los UPDATE condicionales solo comparan contra el stock: una cantidad negativa pasaría la condición
+    // disponible >= cantidad y sumaría stock en lugar de reservarlo.
+    private static void validarCantidad(Integer cantidad) {
+        if (cantidad == null || cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+        }
+    }
+    
+    private static Map<Long, Integer> agruparPorEquipo(List<DisponibilidadLoteRequest.Item> items) {
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (DisponibilidadLoteRequest.Item item : items) {
+            validarCantidad(item.getCantidad());
+            cantidades.merge(item.getIdEquipo(), item.getCantidad(), Integer::sum);
+        }
+        return cantidades;
+    }
+    
+    private Map<Long, InventarioModel> inventariosPorEquipo(Collection<Long> idsEquipo) {
+        Map<Long, InventarioModel> inventarios = new HashMap<>();
+        for (InventarioModel inventario : inventarioRepository.findByEquipoIdEquipoIn(idsEquipo)) {
+            inventarios.putIfAbsent(inventario.getEquipo().getIdEquipo(), stockWriteBehind.aplicarPendientes(inventario));
+        }
+        return inventarios;
+    }
+    
+    private static DisponibilidadLoteResponse resultadoLote(Map<Long, Integer> cantidades,
+                                                            Map<Long, InventarioModel> inventarios, boolean reservado) {
+        List<DisponibilidadLoteResponse.Item> resultado = new ArrayList<>(cantidades.size());
+        boolean todos = true;
+        for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+            InventarioModel inventario = inventarios.get(linea.getKey());
+            boolean disponible = inventario != null
+                    && (reservado || inventario.getStockDisponible() >= linea.getValue());
+            todos &= disponible;
+            resultado.add(new DisponibilidadLoteResponse.Item(linea.getKey(),
+                    inventario == null ? null : inventario.getIdInventario(), linea.getValue(),
+                    inventario == null ? 0 : inventario.getStockDisponible(), disponible));
+        }
+        return new DisponibilidadLoteResponse(todos, reservado, resultado);
+    }
+    
+    // Movimiento con la diferencia de contadores de una escritura directa del inventario.
+    private void registrarAjuste(String tipo, FilaInventario antes, FilaInventario despues) {
+        Long id = despues != null ? despues.idInventario() : antes.idInventario();
+        int disponible = (despues == null ? 0 : despues.stockDisponible()) - (antes == null ? 0 : antes.stockDisponible());
+        int arrendado = (despues == null ? 0 : despues.stockArrendado()) - (antes == null ? 0 : antes.stockArrendado());
+        int total = (despues == null ? 0 : despues.stockTotal()) - (antes == null ? 0 : antes.stockTotal());
+        if (antes == null || despues == null || disponible != 0 || arrendado != 0 || total != 0) {
+            ledger.registrar(id, tipo, disponible, arrendado, total);
+        }
+    }
+    
+    private InventarioModel findParaActualizar(Long id) {
+        return inventarioRepository.findByIdParaActualizar(id)
+                .orElseThrow(() -> new RuntimeException("Inventario no encontrado con ID: " + id));
+    }
+    
+    // Se llama dentro de la transacción del UPDATE condicional, que mantiene la fila bloqueada hasta el
+    // commit: la lectura ve este movimiento y ningún otro, así que el estado anterior deducido es exacto.
+    private InventarioModel leerMovimiento(Long id, int deltaDisponible, int deltaArrendado, int deltaTotal) {
+        InventarioModel inventario = inventarioRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Inventario no encontrado con ID: " + id));
+        FilaInventario despues = FilaInventario.de(inventario);
+        registrarCambio(despues.anterior(deltaDisponible, deltaArrendado, deltaTotal), despues);
+        return inventario;
+    }
+    
+    // Movimiento en memoria: el CAS del buffer ya entrega el par exacto. El índice de stock crítico no se
+    // toca; las consultas por estado suman los IDs del buffer.
+    private InventarioModel registrarMovimiento(StockWriteBehindBuffer.Cambio cambio) {
+        inventarioAgregados.reemplazar(FilaInventario.de(cambio.antes()), FilaInventario.de(cambio.despues()));
+        return cambio.despues();
+    }
+    
+    // Propaga el cambio a los agregados y al índice de stock crítico una vez confirmada la transacción.
+    // antes y después deben leerse con la fila bloqueada; los agregados solo suman y restan, así que el
+    // orden en que se ejecuten los callbacks de transacciones distintas no altera el resultado.
+    // Sobre una fila existente la escritura es absoluta: el contador write-behind que se haya cargado
+    // mientras tanto parte de la fila anterior y se invalida.
+    private void registrarCambio(FilaInventario antes, FilaInventario despues) {
+        Long id = despues != null ? despues.idInventario() : antes.idInventario();
+        Transacciones.despuesDeConfirmar(() -> {
+            if (antes != null) {
+                stockWriteBehind.invalidar(id);
+            }
+            inventarioAgregados.reemplazar(antes, despues);
+            // El índice no aplica el par antes/después: toma una marca y relee el estado ya confirmado
+            long marca = stockCriticoIndice.marca();
+            stockCriticoIndice.actualizar(id, inventarioRepository.findEstadoById(id).orElse(null), marca);
+        });
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.Service;
+
+import com.example.DTO.StockHistoricoDTO;
+import com.example.Model.InventarioSnapshotModel;
+import com.example.Model.MovimientoStockModel;
+import com.example.Repository.InventarioRepository;
+import com.example.Repository.InventarioSnapshotRepository;
+import com.example.Repository.MovimientoStockRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+// Registro append-only de movimientos de stock. Cada camino que modifica los contadores de inventario
+// inserta aquí sus deltas en la misma transacción, así que los contadores son una proyección que puede
+// recalcularse: última instantánea + suma de los movimientos posteriores.
+// Los movimientos se insertan con JDBC por lotes: Hibernate no agrupa inserts con ids IDENTITY.
+@Component
+public class MovimientoStockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(MovimientoStockLedger.class);
+
+    private static final String SQL_INSERTAR = "INSERT INTO movimiento_stock " +
+            "(id_inventario, tipo, delta_disponible, delta_arrendado, delta_total, fecha) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Movimiento inicial con los contadores vigentes para los inventarios creados antes del registro
+    private static final String SQL_APERTURA = "INSERT INTO movimiento_stock " +
+            "(id_inventario, tipo, delta_disponible, delta_arrendado, delta_total, fecha) " +
+            "SELECT i.id_inventario, '" + MovimientoStockModel.APERTURA + "', i.stock_disponible, i.stock_arrendado, " +
+            "i.stock_total, CURRENT_TIMESTAMP FROM inventario i " +
+            "WHERE NOT EXISTS (SELECT 1 FROM movimiento_stock m WHERE m.id_inventario = i.id_inventario)";
+
+    private static final Date SIN_LIMITE = new Date(Long.MAX_VALUE);
+
+    private final MovimientoStockRepository movimientoRepository;
+    private final InventarioSnapshotRepository snapshotRepository;
+    private final InventarioRepository inventarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long snapshotCada;
+
+    @Autowired
+    public MovimientoStockLedger(MovimientoStockRepository movimientoRepository,
+                                 InventarioSnapshotRepository snapshotRepository,
+                                 InventarioRepository inventarioRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${inventario.movimientos.snapshot-cada:100}") long snapshotCada) {
+        this.movimientoRepository = movimientoRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.inventarioRepository = inventarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotCada = snapshotCada;
+    }
+
+    // Debe ejecutarse antes de que el write-behind reaplique su journal; por eso el buffer depende de este componente.
+    @PostConstruct
+    public void abrir() {
+        int abiertos = jdbcTemplate.update(SQL_APERTURA);
+        if (abiertos > 0) {
+            log.info("Registro de movimientos: abiertos {} inventarios con sus contadores actuales", abiertos);
+        }
+    }
+
+    public void registrar(Long idInventario, String tipo, int deltaDisponible, int deltaArrendado, int deltaTotal) {
+        registrar(List.of(MovimientoStockModel.de(idInventario, tipo, deltaDisponible, deltaArrendado, deltaTotal)));
+    }
+
+    // Se ejecuta en la transacción del llamador, para que el movimiento y el cambio de contadores se confirmen juntos.
+    public void registrar(List<MovimientoStockModel> movimientos) {
+        if (movimientos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, movimientos, movimientos.size(), (ps, m) -> {
+            ps.setLong(1, m.getIdInventario());
+            ps.setString(2, m.getTipo());
+            ps.setInt(3, m.getDeltaDisponible());
+            ps.setInt(4, m.getDeltaArrendado());
+            ps.setInt(5, m.getDeltaTotal());
+            ps.setTimestamp(6, new Timestamp(m.getFecha().getTime()));
+        });
+    }
+
+    public List<MovimientoStockModel> listar(Long idInventario, Long despuesDe, int limite) {
+        return movimientoRepository.findByIdInventarioAndIdMovimientoGreaterThanOrderByIdMovimiento(
+                idInventario, despuesDe == null ? 0L : despuesDe, Limit.of(limite));
+    }
+
+    // Stock a una fecha: la última instantánea cuyos movimientos son todos anteriores a la fecha,
+    // más los movimientos posteriores a ella que también lo sean.
+    public StockHistoricoDTO estadoEn(Long idInventario, Date fecha) {
+        InventarioSnapshotModel snapshot = snapshotRepository
+                .findFirstByIdInventarioAndFechaLessThanEqualOrderByIdMovimientoDesc(idInventario, fecha)
+                .orElse(null);
+        long desde = snapshot == null ? 0L : snapshot.getIdMovimiento();
+        Object[] suma = movimientoRepository.sumarDesde(idInventario, desde, fecha).get(0);
+        int disponible = ((Number) suma[1]).intValue();
+        int arrendado = ((Number) suma[2]).intValue();
+        int total = ((Number) suma[3]).intValue();
+        Long ultimo = suma[4] == null ? null : ((Number) suma[4]).longValue();
+        if (snapshot != null) {
+            disponible += snapshot.getStockDisponible();
+            arrendado += snapshot.getStockArrendado();
+            total += snapshot.getStockTotal();
+            if (ultimo == null) {
+                ultimo = snapshot.getIdMovimiento();
+            }
+        }
+        return new StockHistoricoDTO(idInventario, fecha, disponible, arrendado, total, ultimo);
+    }
+
+    public StockHistoricoDTO estadoActual(Long idInventario) {
+        StockHistoricoDTO estado = estadoEn(idInventario, SIN_LIMITE);
+        estado.setFecha(new Date());
+        return estado;
+    }
+
+    @Scheduled(initialDelayString = "${inventario.movimientos.snapshot-ms:60000}",
+               fixedDelayString = "${inventario.movimientos.snapshot-ms:60000}")
+    public void tomarSnapshots() {
+        tomarSnapshots(snapshotCada);
+    }
+
+    // Cada instantánea bloquea la fila del inventario, así ningún movimiento del mismo inventario con un id
+    // menor queda sin confirmar mientras se suma. Los inventarios eliminados no necesitan instantánea.
+    int tomarSnapshots(long minimoMovimientos) {
+        int tomadas = 0;
+        for (Long idInventario : movimientoRepository.findInventariosParaSnapshot(minimoMovimientos)) {
+            Boolean tomada = transactionTemplate.execute(status -> {
+                if (inventarioRepository.findByIdParaActualizar(idInventario).isEmpty()) {
+                    return false;
+                }
+                InventarioSnapshotModel anterior = snapshotRepository
+                        .findFirstByIdInventarioAndFechaLessThanEqualOrderByIdMovimientoDesc(idInventario, SIN_LIMITE)
+                        .orElse(null);
+                Object[] suma = movimientoRepository.sumarDesde(idInventario,
+                        anterior == null ? 0L : anterior.getIdMovimiento(), SIN_LIMITE).get(0);
+                if (((Number) suma[0]).longValue() == 0) {
+                    return false;
+                }
+                InventarioSnapshotModel snapshot = new InventarioSnapshotModel(null, idInventario,
+                        ((Number) suma[4]).longValue(),
+                        ((Number) suma[1]).intValue() + (anterior == null ? 0 : anterior.getStockDisponible()),
+                        ((Number) suma[2]).intValue() + (anterior == null ? 0 : anterior.getStockArrendado()),
+                        ((Number) suma[3]).intValue() + (anterior == null ? 0 : anterior.getStockTotal()),
+                        masReciente((Date) suma[5], anterior == null ? null : anterior.getFecha()));
+                snapshotRepository.save(snapshot);
+                return true;
+            });
+            if (Boolean.TRUE.equals(tomada)) {
+                tomadas++;
+            }
+        }
+        return tomadas;
+    }
+
+    private static Date masReciente(Date a, Date b) {
+        if (b == null) {
+            return a;
+        }
+        return a.after(b) ? a : b;
+    }
+}
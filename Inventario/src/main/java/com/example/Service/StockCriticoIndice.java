@@ -0,0 +1,88 @@
+package com.example.Service;
+
+import com.example.Repository.InventarioRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Estado de cada inventario tocado desde la última recarga, con el que se responden las consultas de stock
+// CRITICO y AGOTADO. Los cambios llegan desde callbacks posteriores al commit, que pueden ejecutarse en
+// cualquier orden: cada uno toma una marca de la secuencia antes de leer el estado confirmado, y solo se
+// aplica si su marca es mayor que la ya registrada para ese inventario. Así una lectura tomada después de
+// otra nunca queda tapada por ella. Un ID de más lo descarta quien consulta al revalidar el estado;
+// un índice vacío no se toma como prueba de que no haya filas en esos estados.
+@Component
+public class StockCriticoIndice {
+
+    private final InventarioRepository inventarioRepository;
+    private final StockWriteBehindBuffer stockWriteBehind;
+    private final AtomicLong secuencia = new AtomicLong();
+    // Un estado null marca un inventario eliminado; los DISPONIBLE se conservan hasta la próxima recarga
+    // para que un callback atrasado no vuelva a agregarlos.
+    private final Map<Long, Entrada> estados = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockCriticoIndice(InventarioRepository inventarioRepository, StockWriteBehindBuffer stockWriteBehind) {
+        this.inventarioRepository = inventarioRepository;
+        this.stockWriteBehind = stockWriteBehind;
+    }
+
+    // Las filas leídas después de tomar la marca ya incluyen todo cambio confirmado con una marca menor.
+    @PostConstruct
+    @Scheduled(initialDelayString = "${inventario.stock-critico.recarga-ms:300000}",
+               fixedDelayString = "${inventario.stock-critico.recarga-ms:300000}")
+    public void cargar() {
+        long marca = marca();
+        stockWriteBehind.flush();
+        Map<Long, String> leidos = new HashMap<>();
+        inventarioRepository.findIdsByEstado("CRITICO").forEach(id -> leidos.put(id, "CRITICO"));
+        inventarioRepository.findIdsByEstado("AGOTADO").forEach(id -> leidos.put(id, "AGOTADO"));
+        leidos.forEach((id, estado) -> actualizar(id, estado, marca));
+        estados.forEach((id, entrada) -> {
+            if (entrada.marca() < marca && !leidos.containsKey(id)) {
+                estados.remove(id, entrada);
+            }
+        });
+    }
+
+    public long marca() {
+        return secuencia.incrementAndGet();
+    }
+
+    // estado es el leído después de tomar la marca, o null si el inventario ya no existe.
+    public void actualizar(Long id, String estado, long marca) {
+        estados.merge(id, new Entrada(estado, marca),
+                (actual, nueva) -> nueva.marca() > actual.marca() ? nueva : actual);
+    }
+
+    // Mismo criterio que stockDisponible <= stockMinimo: incluye los agotados.
+    public Set<Long> getCriticos() {
+        return ids(List.of("CRITICO", "AGOTADO"));
+    }
+
+    public Set<Long> getAgotados() {
+        return ids(List.of("AGOTADO"));
+    }
+
+    private Set<Long> ids(List<String> aceptados) {
+        Set<Long> ids = new HashSet<>();
+        estados.forEach((id, entrada) -> {
+            if (entrada.estado() != null && aceptados.contains(entrada.estado())) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private record Entrada(String estado, long marca) {
+    }
+}
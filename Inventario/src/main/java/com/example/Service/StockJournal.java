@@ -0,0 +1,121 @@
+package com.example.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Journal local de deltas de stock, dividido en segmentos numerados (stock-<n>.journal).
+// Cada registro ocupa 20 bytes: idInventario, delta disponible, delta arrendado y delta total.
+class StockJournal implements Closeable {
+
+    static final int TAMANO_REGISTRO = Long.BYTES + 3 * Integer.BYTES;
+
+    private static final String PREFIJO = "stock-";
+    private static final String SUFIJO = ".journal";
+
+    interface RegistroConsumer {
+        void aceptar(long idInventario, int deltaDisponible, int deltaArrendado, int deltaTotal);
+    }
+
+    private final Path directorio;
+    private final boolean fsync;
+    private FileChannel canal;
+    private long segmento;
+
+    StockJournal(Path directorio, boolean fsync) throws IOException {
+        this.directorio = Files.createDirectories(directorio);
+        this.fsync = fsync;
+    }
+
+    List<Long> segmentos() throws IOException {
+        List<Long> segmentos = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIJO) && n.endsWith(SUFIJO))
+                    .forEach(n -> segmentos.add(Long.parseLong(n.substring(PREFIJO.length(), n.length() - SUFIJO.length()))));
+        }
+        segmentos.sort(null);
+        return segmentos;
+    }
+
+    // Un registro incompleto al final del archivo (escritura cortada por una caída) se descarta.
+    void leer(long segmento, RegistroConsumer consumer) throws IOException {
+        ByteBuffer registro = ByteBuffer.allocate(TAMANO_REGISTRO);
+        try (FileChannel lectura = FileChannel.open(ruta(segmento), StandardOpenOption.READ)) {
+            while (true) {
+                registro.clear();
+                while (registro.hasRemaining() && lectura.read(registro) > 0) {
+                    // completar el registro
+                }
+                if (registro.hasRemaining()) {
+                    return;
+                }
+                registro.flip();
+                consumer.aceptar(registro.getLong(), registro.getInt(), registro.getInt(), registro.getInt());
+            }
+        }
+    }
+
+    void abrir(long segmento) throws IOException {
+        this.canal = FileChannel.open(ruta(segmento), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.segmento = segmento;
+    }
+
+    // Cierra el segmento actual y abre el siguiente. Devuelve el número del segmento cerrado.
+    // El llamador debe excluir cualquier registrar() concurrente.
+    long rotar() throws IOException {
+        long cerrado = segmento;
+        canal.force(false);
+        canal.close();
+        abrir(cerrado + 1);
+        return cerrado;
+    }
+
+    // FileChannel serializa las escrituras en modo APPEND, por lo que puede llamarse desde varios hilos.
+    void registrar(long idInventario, int deltaDisponible, int deltaArrendado, int deltaTotal) throws IOException {
+        ByteBuffer registro = ByteBuffer.allocate(TAMANO_REGISTRO)
+                .putLong(idInventario)
+                .putInt(deltaDisponible)
+                .putInt(deltaArrendado)
+                .putInt(deltaTotal)
+                .flip();
+        while (registro.hasRemaining()) {
+            canal.write(registro);
+        }
+        if (fsync) {
+            canal.force(false);
+        }
+    }
+
+    void eliminarHasta(long segmentoMaximo) throws IOException {
+        for (Long s : segmentos()) {
+            if (s <= segmentoMaximo) {
+                Files.deleteIfExists(ruta(s));
+            }
+        }
+    }
+
+    long segmentoActual() {
+        return segmento;
+    }
+
+    private Path ruta(long segmento) {
+        return directorio.resolve(PREFIJO + segmento + SUFIJO);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (canal != null && canal.isOpen()) {
+            canal.force(false);
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.Service;
+
+import com.example.Model.InventarioModel;
+import com.example.Model.MovimientoStockModel;
+import com.example.Model.StockCheckpointModel;
+import com.example.Repository.InventarioRepository;
+import com.example.Repository.StockCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Modo write-behind opcional para los movimientos de stock (inventario.write-behind.enabled).
+// Los movimientos se validan y aplican sobre contadores atómicos en memoria, se registran en un
+// journal local y un proceso programado vuelca los deltas netos por inventario en un UPDATE por lotes,
+// junto con los movimientos individuales en el registro de movimientos de stock.
+// Supone que una sola instancia del servicio modifica el stock de la base de datos.
+@Component
+public class StockWriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(StockWriteBehindBuffer.class);
+
+    private static final String SQL_APLICAR_DELTAS = "UPDATE inventario SET " +
+            "estado = CASE WHEN stock_disponible + ? <= 0 THEN 'AGOTADO' " +
+            "WHEN stock_disponible + ? <= stock_minimo THEN 'CRITICO' ELSE 'DISPONIBLE' END, " +
+            "stock_disponible = stock_disponible + ?, " +
+            "stock_arrendado = stock_arrendado + ?, " +
+            "stock_total = stock_total + ?, " +
+            "fecha_ultima_actualizacion = CURRENT_TIMESTAMP " +
+            "WHERE id_inventario = ?";
+
+    private final InventarioRepository inventarioRepository;
+    private final StockCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MovimientoStockLedger ledger;
+    private final boolean enabled;
+    private final Path directorioJournal;
+    private final boolean fsync;
+
+    // ConcurrentHashMap reparte los inventarios en bins independientes; cada contador se actualiza por CAS.
+    private final Map<Long, Contador> contadores = new ConcurrentHashMap<>();
+    // Lectura: movimientos (delta + journal). Escritura: rotación del journal y drenado de deltas.
+    private final ReentrantReadWriteLock rotacion = new ReentrantReadWriteLock();
+    // ReentrantLock y no synchronized: el volcado y la carga hacen JDBC con el lock tomado, y un monitor
+    // fijaría el hilo portador cuando los requests corren en hilos virtuales.
+    private final ReentrantLock volcado = new ReentrantLock();
+    private final AtomicLong movimientosPendientes = new AtomicLong();
+    private final Queue<MovimientoStockModel> movimientos = new ConcurrentLinkedQueue<>();
+    private StockJournal journal;
+
+    @Autowired
+    public StockWriteBehindBuffer(InventarioRepository inventarioRepository,
+                                  StockCheckpointRepository checkpointRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  MovimientoStockLedger ledger,
+                                  @Value("${inventario.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${inventario.write-behind.journal-dir:data/inventario-journal}") Path directorioJournal,
+                                  @Value("${inventario.write-behind.journal-fsync:true}") boolean fsync) {
+        this.inventarioRepository = inventarioRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ledger = ledger;
+        this.enabled = enabled;
+        this.directorioJournal = directorioJournal;
+        this.fsync = fsync;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Reaplica los segmentos del journal que no alcanzaron a volcarse antes de la última detención.
+    @PostConstruct
+    public void recuperar() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new StockJournal(directorioJournal, fsync);
+        List<Long> segmentos = journal.segmentos();
+        long aplicado = checkpointRepository.findById(StockCheckpointModel.ID_UNICO)
+                .map(StockCheckpointModel::getUltimoSegmento)
+                .orElse(0L);
+        long ultimo = segmentos.isEmpty() ? aplicado : Math.max(aplicado, segmentos.get(segmentos.size() - 1));
+        if (!segmentos.isEmpty()) {
+            Map<Long, int[]> lote = new HashMap<>();
+            List<MovimientoStockModel> recuperados = new ArrayList<>();
+            for (Long segmento : segmentos) {
+                if (segmento > aplicado) {
+                    journal.leer(segmento, (id, disponible, arrendado, total) -> {
+                        int[] delta = lote.computeIfAbsent(id, k -> new int[3]);
+                        delta[0] += disponible;
+                        delta[1] += arrendado;
+                        delta[2] += total;
+                        recuperados.add(MovimientoStockModel.de(id, tipoSegunDeltas(disponible, total),
+                                disponible, arrendado, total));
+                    });
+                }
+            }
+            if (!lote.isEmpty()) {
+                aplicar(lote, recuperados, ultimo);
+                log.info("Write-behind: recuperados deltas de {} inventarios desde el journal", lote.size());
+            }
+            journal.eliminarHasta(ultimo);
+        }
+        // Los segmentos nuevos se numeran por encima del checkpoint aunque el directorio se haya vaciado.
+        journal.abrir(ultimo + 1);
+    }
+
+    public Cambio reservar(Long id, int cantidad) {
+        return mover(id, MovimientoStockModel.RESERVA, -cantidad, cantidad, 0);
+    }
+
+    public Cambio liberar(Long id, int cantidad) {
+        return mover(id, MovimientoStockModel.LIBERACION, cantidad, -cantidad, 0);
+    }
+
+    public Cambio incrementar(Long id, int cantidad) {
+        return mover(id, MovimientoStockModel.INGRESO, cantidad, 0, cantidad);
+    }
+
+    // Los tres contadores cambian juntos en un solo CAS, así que el par antes/después de cada movimiento
+    // es exacto aunque otros hilos muevan el mismo inventario al mismo tiempo.
+    // El CAS y el registro en el journal van bajo el mismo lock de lectura con que volcar() retira contadores:
+    // un contador ya retirado no recibe movimientos y el movimiento se reintenta sobre el que se cargue.
+    private Cambio mover(Long id, String tipo, int disponible, int arrendado, int total) {
+        while (true) {
+            // La carga toma el lock de volcado, así que se hace antes de entrar al lock de lectura.
+            Contador contador = contador(id);
+            rotacion.readLock().lock();
+            try {
+                if (contador.retirado) {
+                    continue;
+                }
+                Stock antes;
+                Stock despues;
+                do {
+                    antes = contador.stock.get();
+                    despues = antes.mas(disponible, arrendado, total);
+                    if (despues.disponible() < 0) {
+                        throw new RuntimeException("Stock insuficiente. Disponible: " + antes.disponible());
+                    }
+                    if (despues.arrendado() < 0) {
+                        throw new RuntimeException("Stock arrendado insuficiente. Arrendado: " + antes.arrendado());
+                    }
+                } while (!contador.stock.compareAndSet(antes, despues));
+                registrar(id, contador, tipo, disponible, arrendado, total);
+                return new Cambio(contador.vista(antes), contador.vista(despues));
+            } finally {
+                rotacion.readLock().unlock();
+            }
+        }
+    }
+
+    // Superpone el estado en memoria sobre una entidad leída de la base de datos.
+    public InventarioModel aplicarPendientes(InventarioModel inventario) {
+        if (!enabled || inventario == null) {
+            return inventario;
+        }
+        Contador contador = contadores.get(inventario.getIdInventario());
+        return contador == null ? inventario : contador.vista(contador.stock.get());
+    }
+
+    // IDs cuyo estado en memoria es alguno de los indicados; la base puede no reflejarlo hasta el próximo volcado.
+    public Set<Long> idsEnEstado(String... estados) {
+        if (!enabled) {
+            return Set.of();
+        }
+        List<String> aceptados = Arrays.asList(estados);
+        Set<Long> ids = new HashSet<>();
+        contadores.forEach((id, contador) -> {
+            if (aceptados.contains(contador.estado())) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    // Vuelca los deltas pendientes y retira el inventario de memoria, antes de escribirlo por otra vía.
+    public void sincronizar(Long id) {
+        if (enabled) {
+            volcar(id);
+        }
+    }
+
+    // Tras confirmar una escritura absoluta del stock. Entre el sincronizar() previo y el commit otro hilo pudo
+    // cargar el contador desde la fila anterior; sus deltas se vuelcan sobre la fila nueva y el contador se retira
+    // para que el próximo movimiento parta de los valores confirmados.
+    public void invalidar(Long id) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            volcar(id);
+        } catch (RuntimeException e) {
+            // La escritura ya está confirmada; el contador queda en memoria y el próximo volcado lo reintenta.
+            log.warn("Write-behind: no se pudo invalidar el inventario {} tras escribirlo", id, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventario.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        if (enabled) {
+            volcar(null);
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws IOException {
+        if (enabled && journal != null) {
+            volcar(null);
+            journal.close();
+        }
+    }
+
+    private void volcar(Long idRetirar) {
+        volcado.lock();
+        try {
+            long segmento;
+            Map<Long, int[]> lote = new HashMap<>();
+            Map<Long, Contador> drenados = new HashMap<>();
+            List<MovimientoStockModel> registrados = new ArrayList<>();
+            rotacion.writeLock().lock();
+            try {
+                // Se consulta con el lock tomado: un movimiento registrado justo antes no debe retirarse sin drenar.
+                if (movimientosPendientes.get() == 0) {
+                    if (idRetirar != null) {
+                        retirar(idRetirar);
+                    }
+                    return;
+                }
+                segmento = journal.rotar();
+                movimientosPendientes.set(0);
+                contadores.forEach((id, contador) -> {
+                    int[] delta = contador.drenar();
+                    if (delta != null) {
+                        lote.put(id, delta);
+                        drenados.put(id, contador);
+                    }
+                });
+                for (MovimientoStockModel m; (m = movimientos.poll()) != null; ) {
+                    registrados.add(m);
+                }
+                if (idRetirar != null) {
+                    retirar(idRetirar);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("No se pudo rotar el journal de stock", e);
+            } finally {
+                rotacion.writeLock().unlock();
+            }
+
+            try {
+                aplicar(lote, registrados, segmento);
+            } catch (RuntimeException e) {
+                // Los registros siguen en el segmento cerrado; se devuelven a memoria para el próximo volcado.
+                restituir(lote, drenados, registrados);
+                log.warn("Write-behind: falló el volcado de {} inventarios, se reintentará", lote.size(), e);
+                throw e;
+            }
+            try {
+                journal.eliminarHasta(segmento);
+            } catch (IOException e) {
+                log.warn("Write-behind: no se pudieron eliminar segmentos ya aplicados del journal", e);
+            }
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    // Con el lock de escritura tomado: ningún movimiento queda entre su CAS y su registro en el journal.
+    private void retirar(Long id) {
+        Contador contador = contadores.remove(id);
+        if (contador != null) {
+            contador.retirado = true;
+        }
+    }
+
+    private void aplicar(Map<Long, int[]> lote, List<MovimientoStockModel> registrados, long segmento) {
+        List<Object[]> filas = new ArrayList<>(lote.size());
+        lote.forEach((id, d) -> filas.add(new Object[]{d[0], d[0], d[0], d[1], d[2], id}));
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!filas.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_APLICAR_DELTAS, filas);
+            }
+            ledger.registrar(registrados);
+            checkpointRepository.save(new StockCheckpointModel(StockCheckpointModel.ID_UNICO, segmento));
+        });
+    }
+
+    // Se llama con el volcado tomado, así que ningún otro hilo carga contadores mientras tanto.
+    // El lock de escritura hace que ningún movimiento vea el contador reinstalado a medio reactivar.
+    private void restituir(Map<Long, int[]> lote, Map<Long, Contador> drenados,
+                           List<MovimientoStockModel> registrados) {
+        rotacion.writeLock().lock();
+        try {
+            lote.forEach((id, d) -> {
+                // Si el contador salió de memoria, se reinstala el drenado: sus valores ya incluyen los deltas
+                // que la base no alcanzó a recibir, y sin él esos deltas no llegarían a ningún volcado.
+                Contador contador = contadores.computeIfAbsent(id, drenados::get);
+                contador.retirado = false;
+                contador.deltaDisponible.addAndGet(d[0]);
+                contador.deltaArrendado.addAndGet(d[1]);
+                contador.deltaTotal.addAndGet(d[2]);
+            });
+            movimientos.addAll(registrados);
+            // Un pendiente por movimiento, igual que en registrar(): el lote neto puede ser menor o quedar vacío.
+            movimientosPendientes.addAndGet(registrados.size());
+        } finally {
+            rotacion.writeLock().unlock();
+        }
+    }
+
+    // Se llama desde mover() con el lock de lectura ya tomado.
+    private void registrar(Long id, Contador contador, String tipo, int disponible, int arrendado, int total) {
+        try {
+            journal.registrar(id, disponible, arrendado, total);
+        } catch (IOException e) {
+            contador.stock.updateAndGet(s -> s.mas(-disponible, -arrendado, -total));
+            throw new RuntimeException("No se pudo registrar el movimiento de stock en el journal", e);
+        }
+        movimientos.add(MovimientoStockModel.de(id, tipo, disponible, arrendado, total));
+        contador.deltaDisponible.addAndGet(disponible);
+        contador.deltaArrendado.addAndGet(arrendado);
+        contador.deltaTotal.addAndGet(total);
+        movimientosPendientes.incrementAndGet();
+    }
+
+    // El journal no guarda el tipo; se deduce de los deltas de cada operación en memoria.
+    private static String tipoSegunDeltas(int disponible, int total) {
+        if (total > 0) {
+            return MovimientoStockModel.INGRESO;
+        }
+        return disponible < 0 ? MovimientoStockModel.RESERVA : MovimientoStockModel.LIBERACION;
+    }
+
+    private Contador contador(Long id) {
+        Contador contador = contadores.get(id);
+        if (contador != null) {
+            return contador;
+        }
+        // La carga espera a cualquier volcado en curso para no partir de valores ya superados.
+        volcado.lock();
+        try {
+            contador = contadores.get(id);
+            if (contador == null) {
+                InventarioModel inventario = inventarioRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Inventario no encontrado con ID: " + id));
+                contador = new Contador(inventario);
+                contadores.put(id, contador);
+            }
+            return contador;
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    // Estado de un inventario tras un movimiento y antes de él, como lo ve quien lo aplicó.
+    public record Cambio(InventarioModel antes, InventarioModel despues) {
+    }
+
+    private record Stock(int disponible, int arrendado, int total) {
+
+        private Stock mas(int deltaDisponible, int deltaArrendado, int deltaTotal) {
+            return new Stock(disponible + deltaDisponible, arrendado + deltaArrendado, total + deltaTotal);
+        }
+    }
+
+    private static final class Contador {
+        private final InventarioModel base;
+        private final AtomicReference<Stock> stock;
+        private final AtomicInteger deltaDisponible = new AtomicInteger();
+        private final AtomicInteger deltaArrendado = new AtomicInteger();
+        private final AtomicInteger deltaTotal = new AtomicInteger();
+        // Se escribe con el lock de escritura de la rotación y se lee con el de lectura.
+        private boolean retirado;
+
+        private Contador(InventarioModel base) {
+            this.base = base;
+            this.stock = new AtomicReference<>(
+                    new Stock(base.getStockDisponible(), base.getStockArrendado(), base.getStockTotal()));
+        }
+
+        private int[] drenar() {
+            int[] delta = {deltaDisponible.getAndSet(0), deltaArrendado.getAndSet(0), deltaTotal.getAndSet(0)};
+            return delta[0] == 0 && delta[1] == 0 && delta[2] == 0 ? null : delta;
+        }
+
+        private String estado() {
+            return InventarioModel.calcularEstado(stock.get().disponible(), base.getStockMinimo());
+        }
+
+        private InventarioModel vista(Stock valores) {
+            return new InventarioModel(base.getIdInventario(), base.getEquipo(), valores.disponible(),
+                    base.getStockMinimo(), valores.total(), valores.arrendado(), base.getUbicacion(),
+                    base.getFechaUltimaActualizacion(),
+                    InventarioModel.calcularEstado(valores.disponible(), base.getStockMinimo()),
+                    base.getObservaciones());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.Service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Callbacks de fin de transacción para las vistas en memoria (agregados, índice de stock crítico, write-behind).
+// Sin una transacción activa el cambio ya está confirmado y se aplica en el acto.
+final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    static void despuesDeConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+}
@@ -1,6 +1,13 @@
 package com.example.Controller;
 
+import com.example.DTO.CacheEquiposDTO;
+import com.example.DTO.DisponibilidadLoteRequest;
+import com.example.DTO.DisponibilidadLoteResponse;
+import com.example.DTO.PaginaInventarioDTO;
+import com.example.DTO.ResumenStockDTO;
+import com.example.DTO.StockHistoricoDTO;
 import com.example.Model.InventarioModel;
+import com.example.Model.MovimientoStockModel;
 import com.example.Model.EquipoModel;
 import com.example.Service.InventarioService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,11 +18,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -71,6 +83,56 @@ class InventarioControllerTest {
         verify(inventarioService).findAll();
     }
 
+    @Test
+    void testGetPaginaInventarios() throws Exception {
+        
+        when(inventarioService.findPagina(null, 50))
+                .thenReturn(new PaginaInventarioDTO(List.of(inventarioTest), 1L, 50));
+
+        
+        mockMvc.perform(get("/api/v1/inventario/pagina"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.siguienteCursor").value(1))
+                .andExpect(jsonPath("$.limite").value(50));
+
+        verify(inventarioService).findPagina(null, 50);
+    }
+
+    @Test
+    void testGetPaginaInventarios_LimiteInvalido() throws Exception {
+        
+        when(inventarioService.findPagina(5L, 1000)).thenThrow(new IllegalArgumentException("El límite debe estar entre 1 y 500"));
+
+        
+        mockMvc.perform(get("/api/v1/inventario/pagina?despuesDe=5&limite=1000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportarInventarios() throws Exception {
+        
+        when(inventarioService.exportar(any())).thenAnswer(invocation -> {
+            Consumer<InventarioModel> destino = invocation.getArgument(0);
+            destino.accept(inventarioTest);
+            destino.accept(inventarioTest);
+            return 2L;
+        });
+
+        
+        MvcResult resultado = mockMvc.perform(get("/api/v1/inventario/exportar"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Límite propio de la exportación, no el global de las peticiones asíncronas
+        assertEquals(600000L, resultado.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].ubicacion").value("Bodega A"));
+    }
+
     @Test
     void testGetInventarioById_Success() throws Exception {
         
@@ -332,6 +394,77 @@ class InventarioControllerTest {
         verify(inventarioService).verificarDisponibilidad(1L, 5);
     }
 
+    @Test
+    void testVerificarDisponibilidadLote() throws Exception {
+        
+        DisponibilidadLoteRequest solicitud = new DisponibilidadLoteRequest(List.of(
+                new DisponibilidadLoteRequest.Item(1L, 5), new DisponibilidadLoteRequest.Item(2L, 1)));
+        DisponibilidadLoteResponse respuesta = new DisponibilidadLoteResponse(false, false, List.of(
+                new DisponibilidadLoteResponse.Item(1L, 1L, 5, 10, true),
+                new DisponibilidadLoteResponse.Item(2L, null, 1, 0, false)));
+        when(inventarioService.verificarDisponibilidadLote(anyList())).thenReturn(respuesta);
+
+        
+        mockMvc.perform(post("/api/v1/inventario/verificar-disponibilidad")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(solicitud)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todosDisponibles").value(false))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].disponible").value(false));
+
+        verify(inventarioService).verificarDisponibilidadLote(anyList());
+        verify(inventarioService, never()).reservarLote(anyList());
+    }
+
+    @Test
+    void testVerificarDisponibilidadLote_ReservaSinStock() throws Exception {
+        
+        DisponibilidadLoteRequest solicitud = new DisponibilidadLoteRequest(List.of(
+                new DisponibilidadLoteRequest.Item(1L, 50)));
+        DisponibilidadLoteResponse respuesta = new DisponibilidadLoteResponse(false, false, List.of(
+                new DisponibilidadLoteResponse.Item(1L, 1L, 50, 10, false)));
+        when(inventarioService.reservarLote(anyList())).thenReturn(respuesta);
+
+        
+        mockMvc.perform(post("/api/v1/inventario/verificar-disponibilidad?reservar=true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(solicitud)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.reservado").value(false));
+
+        verify(inventarioService).reservarLote(anyList());
+    }
+
+    @Test
+    void testVerificarDisponibilidadLote_Reservado() throws Exception {
+        
+        DisponibilidadLoteRequest solicitud = new DisponibilidadLoteRequest(List.of(
+                new DisponibilidadLoteRequest.Item(1L, 5)));
+        DisponibilidadLoteResponse respuesta = new DisponibilidadLoteResponse(true, true, List.of(
+                new DisponibilidadLoteResponse.Item(1L, 1L, 5, 5, true)));
+        when(inventarioService.reservarLote(anyList())).thenReturn(respuesta);
+
+        
+        mockMvc.perform(post("/api/v1/inventario/verificar-disponibilidad?reservar=true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(solicitud)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reservado").value(true))
+                .andExpect(jsonPath("$.items[0].stockDisponible").value(5));
+    }
+
+    @Test
+    void testVerificarDisponibilidadLote_SolicitudInvalida() throws Exception {
+        
+        mockMvc.perform(post("/api/v1/inventario/verificar-disponibilidad")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"items\":[{\"idEquipo\":1,\"cantidad\":0}]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(inventarioService, never()).verificarDisponibilidadLote(anyList());
+    }
+
     @Test
     void testGetTotalStock() throws Exception {
     
@@ -371,6 +504,53 @@ class InventarioControllerTest {
         verify(inventarioService).getTotalStockArrendado();
     }
 
+    @Test
+    void testGetResumenStock() throws Exception {
+        
+        ResumenStockDTO resumen = new ResumenStockDTO(1L, 15L, 10L, 5L,
+                Map.of("Bodega A", new ResumenStockDTO.Totales(1L, 15L, 10L, 5L)),
+                Map.of("TRACTOR", new ResumenStockDTO.Totales(1L, 15L, 10L, 5L)),
+                Map.of("DISPONIBLE", new ResumenStockDTO.Totales(1L, 15L, 10L, 5L)));
+        when(inventarioService.getResumenStock()).thenReturn(resumen);
+
+        
+        mockMvc.perform(get("/api/v1/inventario/reportes/resumen"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockTotal").value(15))
+                .andExpect(jsonPath("$.stockDisponible").value(10))
+                .andExpect(jsonPath("$.stockArrendado").value(5))
+                .andExpect(jsonPath("$.porUbicacion['Bodega A'].stockTotal").value(15))
+                .andExpect(jsonPath("$.porEstado.DISPONIBLE.registros").value(1));
+
+        verify(inventarioService).getResumenStock();
+    }
+
+    @Test
+    void testGetEstadisticasCacheEquipos() throws Exception {
+        
+        when(inventarioService.getEstadisticasCacheEquipos())
+                .thenReturn(new CacheEquiposDTO(95L, 5L, 5L, 0L, 1L, 0.95));
+
+        
+        mockMvc.perform(get("/api/v1/inventario/catalogo-equipos/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aciertos").value(95))
+                .andExpect(jsonPath("$.fallos").value(5))
+                .andExpect(jsonPath("$.tasaAciertos").value(0.95));
+    }
+
+    @Test
+    void testInvalidarCacheEquipos() throws Exception {
+        
+        mockMvc.perform(delete("/api/v1/inventario/catalogo-equipos/cache?idEquipo=3"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/v1/inventario/catalogo-equipos/cache"))
+                .andExpect(status().isNoContent());
+
+        verify(inventarioService).invalidarCacheEquipos(3L);
+        verify(inventarioService).invalidarCacheEquipos(null);
+    }
+
     @Test
     void testGetDisponiblesPorCantidad() throws Exception {
        
@@ -400,4 +580,46 @@ class InventarioControllerTest {
 
         verify(inventarioService).findByTipoEquipo("LAPTOP");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetMovimientos() throws Exception {
+
+        MovimientoStockModel movimiento = new MovimientoStockModel(7L, 1L, MovimientoStockModel.RESERVA, -2, 2, 0, new Date());
+        when(inventarioService.findMovimientos(1L, 5L, 50)).thenReturn(List.of(movimiento));
+        when(inventarioService.findMovimientos(1L, null, 0)).thenThrow(new IllegalArgumentException("límite"));
+
+        mockMvc.perform(get("/api/v1/inventario/1/movimientos?despuesDe=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idMovimiento").value(7))
+                .andExpect(jsonPath("$[0].tipo").value("RESERVA"));
+        mockMvc.perform(get("/api/v1/inventario/1/movimientos?limite=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetStockHistorico() throws Exception {
+
+        when(inventarioService.getStockEn(eq(1L), any(Date.class)))
+                .thenAnswer(i -> new StockHistoricoDTO(1L, i.getArgument(1), 8, 2, 10, 7L));
+
+        mockMvc.perform(get("/api/v1/inventario/1/stock-historico?fecha=2025-07-06T10:30:00.000-04:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockDisponible").value(8))
+                .andExpect(jsonPath("$.ultimoMovimiento").value(7));
+        mockMvc.perform(get("/api/v1/inventario/1/stock-historico"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testReconstruirStock() throws Exception {
+
+        when(inventarioService.reconstruirStock(1L)).thenReturn(inventarioTest);
+        when(inventarioService.reconstruirStock(999L)).thenThrow(new RuntimeException("Inventario no encontrado con ID: 999"));
+
+        mockMvc.perform(post("/api/v1/inventario/1/reconstruir-stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockDisponible").value(10));
+        mockMvc.perform(post("/api/v1/inventario/999/reconstruir-stock"))
+                .andExpect(status().isNotFound());
+    }
+}
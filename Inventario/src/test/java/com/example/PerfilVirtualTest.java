@@ -0,0 +1,36 @@
+package com.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "virtual"})
+class PerfilVirtualTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext contexto;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testPerfilVirtual_TomcatUsaHilosVirtualesYPoolFijo() {
+        TomcatWebServer servidor = (TomcatWebServer) contexto.getWebServer();
+        assertInstanceOf(VirtualThreadExecutor.class,
+                servidor.getTomcat().getConnector().getProtocolHandler().getExecutor());
+
+        HikariDataSource pool = assertInstanceOf(HikariDataSource.class, dataSource);
+        assertEquals(20, pool.getMaximumPoolSize());
+        assertEquals(20, pool.getMinimumIdle());
+    }
+}
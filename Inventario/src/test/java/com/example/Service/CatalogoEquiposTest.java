@@ -0,0 +1,118 @@
+package com.example.Service;
+
+import com.example.DTO.CacheEquiposDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.InventarioModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogoEquiposTest {
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private CatalogoEquipos catalogoEquipos;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private EquipoModel equipo;
+    private Long idInventario;
+
+    @BeforeEach
+    void setUp() {
+        equipo = transactionTemplate.execute(status -> {
+            EquipoModel nuevo = new EquipoModel(null, "Pulverizadora Jacto", "Pulverizadora", "Jacto",
+                    "Advance", "NUEVO", 700.0, "JC-AD", "PULVERIZADORA");
+            entityManager.persist(nuevo);
+            return nuevo;
+        });
+        InventarioModel inventario = new InventarioModel();
+        inventario.setEquipo(equipo);
+        inventario.setStockDisponible(8);
+        inventario.setStockMinimo(2);
+        inventario.setStockTotal(8);
+        inventario.setStockArrendado(0);
+        inventario.setUbicacion("Bodega D");
+        idInventario = inventarioService.save(inventario).getIdInventario();
+        catalogoEquipos.invalidarTodo();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventarioService.deleteById(idInventario);
+    }
+
+    @Test
+    void testLecturasDeInventario_ResuelvenEquipoDesdeCache() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CacheEquiposDTO antes = catalogoEquipos.estadisticas();
+
+        inventarioService.findById(idInventario);
+        long consultasPrimera = estadisticas.getPrepareStatementCount();
+        InventarioModel leido = inventarioService.findById(idInventario);
+        long consultasSegunda = estadisticas.getPrepareStatementCount() - consultasPrimera;
+        CacheEquiposDTO despues = catalogoEquipos.estadisticas();
+
+        assertEquals("Pulverizadora Jacto", leido.getEquipo().getNombre());
+        // Segunda lectura: solo la fila de inventario, el equipo viene de la caché
+        assertEquals(1, consultasSegunda);
+        assertTrue(despues.getAciertos() > antes.getAciertos());
+        assertTrue(despues.getFallos() > antes.getFallos());
+    }
+
+    @Test
+    void testIndicePorTipo_SeActualizaAlEscribirEquipos() {
+        assertTrue(catalogoEquipos.idsPorTipo("PULVERIZADORA").contains(equipo.getIdEquipo()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            EquipoModel gestionado = entityManager.find(EquipoModel.class, equipo.getIdEquipo());
+            gestionado.setTipoEquipo("OTRO");
+        });
+
+        assertFalse(catalogoEquipos.idsPorTipo("PULVERIZADORA").contains(equipo.getIdEquipo()));
+        assertTrue(catalogoEquipos.idsPorTipo("OTRO").contains(equipo.getIdEquipo()));
+        assertEquals(List.of(idInventario), inventarioService.findByTipoEquipo("OTRO").stream()
+                .map(InventarioModel::getIdInventario).toList());
+        assertEquals("OTRO", inventarioService.findById(idInventario).getEquipo().getTipoEquipo());
+    }
+
+    @Test
+    void testInvalidar_RecogeCambiosHechosFueraDeJpa() {
+        inventarioService.findById(idInventario);
+        jdbcTemplate.update("UPDATE equipos SET nombre = 'Pulverizadora Jacto 2000' WHERE id_equipo = ?",
+                equipo.getIdEquipo());
+        assertEquals("Pulverizadora Jacto", inventarioService.findById(idInventario).getEquipo().getNombre());
+
+        catalogoEquipos.invalidar(equipo.getIdEquipo());
+
+        assertEquals("Pulverizadora Jacto 2000", inventarioService.findById(idInventario).getEquipo().getNombre());
+    }
+}
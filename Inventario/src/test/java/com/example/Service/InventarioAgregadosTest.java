@@ -0,0 +1,116 @@
+package com.example.Service;
+
+import com.example.DTO.ResumenStockDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.InventarioModel;
+import com.example.Repository.InventarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "inventario.agregados.reconciliacion-ms=3600000")
+@ActiveProfiles("test")
+class InventarioAgregadosTest {
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private InventarioAgregados inventarioAgregados;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private EquipoModel tractor;
+    private EquipoModel arado;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            tractor = new EquipoModel(null, "Tractor New Holland T7", "Tractor", "New Holland",
+                    "T7", "NUEVO", 1200.0, "NH-T7", "TRACTOR");
+            arado = new EquipoModel(null, "Arado de discos", "Arado", "Baldan",
+                    "AD-3", "USADO", 300.0, "BD-AD3", "ARADO");
+            entityManager.persist(tractor);
+            entityManager.persist(arado);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventarioRepository.findAll().forEach(i -> inventarioService.deleteById(i.getIdInventario()));
+    }
+
+    @Test
+    void testAgregados_CoincidenConSumasSql() {
+        InventarioModel a = inventarioService.save(nuevoInventario(tractor, 10, 3, "Bodega A"));
+        InventarioModel b = inventarioService.save(nuevoInventario(arado, 4, 2, "Bodega B"));
+
+        inventarioService.reducirStock(a.getIdInventario(), 8);
+        inventarioService.devolverEquipo(a.getIdInventario(), 2);
+        inventarioService.aumentarStock(b.getIdInventario(), 6);
+        inventarioService.actualizarStock(b.getIdInventario(), 1, 0);
+
+        assertEquals(inventarioRepository.getTotalStock(), inventarioService.getTotalStock());
+        assertEquals(inventarioRepository.getTotalStockDisponible(), inventarioService.getTotalStockDisponible());
+        assertEquals(inventarioRepository.getTotalStockArrendado(), inventarioService.getTotalStockArrendado());
+
+        ResumenStockDTO resumen = inventarioService.getResumenStock();
+        assertEquals(2L, resumen.getRegistros());
+        assertEquals(10L, resumen.getPorUbicacion().get("Bodega A").getStockTotal());
+        assertEquals(10L, resumen.getPorUbicacion().get("Bodega B").getStockTotal());
+        assertEquals(4L, resumen.getPorTipoEquipo().get("TRACTOR").getStockDisponible());
+        assertEquals(6L, resumen.getPorTipoEquipo().get("TRACTOR").getStockArrendado());
+        assertEquals(1L, resumen.getPorTipoEquipo().get("ARADO").getStockDisponible());
+        assertEquals(1L, resumen.getPorEstado().get("DISPONIBLE").getRegistros());
+        assertEquals(1L, resumen.getPorEstado().get("CRITICO").getRegistros());
+        assertNull(resumen.getPorEstado().get("AGOTADO"));
+    }
+
+    @Test
+    void testReconciliar_CorrigeDerivaPersistente() {
+        InventarioModel a = inventarioService.save(nuevoInventario(tractor, 10, 3, "Bodega A"));
+        long totalAntes = inventarioService.getTotalStock();
+
+        // Cambio fuera de los caminos instrumentados: los agregados quedan desfasados
+        jdbcTemplate.update("UPDATE inventario SET stock_total = stock_total + 5 WHERE id_inventario = ?",
+                a.getIdInventario());
+        assertEquals(totalAntes, inventarioService.getTotalStock());
+
+        inventarioAgregados.reconciliar();
+        assertEquals(totalAntes, inventarioService.getTotalStock());
+
+        inventarioAgregados.reconciliar();
+        assertEquals(totalAntes + 5, inventarioService.getTotalStock());
+        assertEquals(inventarioRepository.getTotalStock(), inventarioService.getTotalStock());
+    }
+
+    private InventarioModel nuevoInventario(EquipoModel equipo, int stock, int minimo, String ubicacion) {
+        InventarioModel inventario = new InventarioModel();
+        inventario.setEquipo(equipo);
+        inventario.setStockDisponible(stock);
+        inventario.setStockMinimo(minimo);
+        inventario.setStockTotal(stock);
+        inventario.setStockArrendado(0);
+        inventario.setUbicacion(ubicacion);
+        return inventario;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.Service;
+
+import com.example.DTO.PaginaInventarioDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.InventarioModel;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventarioExportacionTest {
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private EquipoModel equipo;
+
+    @BeforeEach
+    void setUp() {
+        equipo = transactionTemplate.execute(status -> {
+            EquipoModel nuevo = new EquipoModel(null, "Enfardadora Claas", "Enfardadora", "Claas",
+                    "Markant", "NUEVO", 950.0, "CL-MK", "ENFARDADORA");
+            entityManager.persist(nuevo);
+            return nuevo;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inventario");
+    }
+
+    @Test
+    void testPaginacion_RecorreTodoSinRepetir() {
+        insertarFilas(23);
+        Set<Long> vistos = new HashSet<>();
+        Long cursor = null;
+        int paginas = 0;
+        do {
+            PaginaInventarioDTO pagina = inventarioService.findPagina(cursor, 5);
+            pagina.getItems().forEach(i -> assertTrue(vistos.add(i.getIdInventario())));
+            pagina.getItems().forEach(i -> assertEquals("Enfardadora Claas", i.getEquipo().getNombre()));
+            cursor = pagina.getSiguienteCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertEquals(23, vistos.size());
+        assertEquals(5, paginas);
+    }
+
+    @Test
+    void testExportar_EntregaTodasLasFilasEnOrden() {
+        insertarFilas(12);
+        List<Long> ids = new ArrayList<>();
+
+        long filas = inventarioService.exportar(i -> ids.add(i.getIdInventario()));
+
+        assertEquals(12, filas);
+        assertEquals(12, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
+    // mvn test -Dtest=InventarioExportacionTest -Dbenchmark=true [-Dbenchmark.filas=200000]
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkMemoriaListadoVsExportacion() throws IOException {
+        int filas = Integer.getInteger("benchmark.filas", 200_000);
+        insertarFilas(filas);
+        ObjectWriter escritor = objectMapper.writerFor(InventarioModel.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        // Listado actual: toda la tabla en una List y luego serializada completa
+        long base = heapRetenido();
+        List<InventarioModel> todos = inventarioService.findAll();
+        long retenidoListado = heapRetenido() - base;
+        objectMapper.writeValue(OutputStream.nullOutputStream(), todos);
+        assertEquals(filas, todos.size());
+        todos = null;
+
+        // Exportación: se mide el heap retenido a mitad del recorrido, con el cursor abierto
+        base = heapRetenido();
+        AtomicLong retenidoExportacion = new AtomicLong();
+        long exportadas;
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generador.writeStartArray();
+            AtomicLong contador = new AtomicLong();
+            long baseExportacion = base;
+            exportadas = inventarioService.exportar(i -> {
+                try {
+                    escritor.writeValue(generador, i);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (contador.incrementAndGet() == filas / 2) {
+                    retenidoExportacion.set(heapRetenido() - baseExportacion);
+                }
+            });
+            generador.writeEndArray();
+        }
+
+        assertEquals(filas, exportadas);
+        assertTrue(retenidoExportacion.get() < retenidoListado / 4);
+    }
+
+    private static long heapRetenido() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+
+    private void insertarFilas(int filas) {
+        Timestamp ahora = new Timestamp(System.currentTimeMillis());
+        List<Object[]> lote = new ArrayList<>();
+        for (int i = 0; i < filas; i++) {
+            lote.add(new Object[]{equipo.getIdEquipo(), 20, 5, 20, 0, "Bodega " + (i % 10), "DISPONIBLE", ahora});
+            if (lote.size() == 10_000 || i == filas - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO inventario (id_equipo, stock_disponible, stock_minimo, " +
+                        "stock_total, stock_arrendado, ubicacion, estado, fecha_ultima_actualizacion) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", lote);
+                lote.clear();
+            }
+        }
+    }
+}
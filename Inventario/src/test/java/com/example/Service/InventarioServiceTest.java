@@ -1,7 +1,11 @@
 package com.example.Service;
 
+import com.example.DTO.DisponibilidadLoteRequest;
+import com.example.DTO.DisponibilidadLoteResponse;
+import com.example.DTO.PaginaInventarioDTO;
 import com.example.Model.InventarioModel;
 import com.example.Model.EquipoModel;
+import com.example.Model.MovimientoStockModel;
 import com.example.Repository.InventarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,10 +13,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,6 +35,24 @@ class InventarioServiceTest {
     @Mock
     private InventarioRepository inventarioRepository;
 
+    @Mock
+    private StockWriteBehindBuffer stockWriteBehind;
+
+    @Mock
+    private InventarioAgregados inventarioAgregados;
+
+    @Mock
+    private StockCriticoIndice stockCriticoIndice;
+
+    @Mock
+    private CatalogoEquipos catalogoEquipos;
+
+    @Mock
+    private MovimientoStockLedger ledger;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private InventarioService inventarioService;
 
@@ -33,6 +62,7 @@ class InventarioServiceTest {
     @BeforeEach
     void setUp() {
         equipoTest = new EquipoModel();
+        equipoTest.setIdEquipo(1L);
         
         inventarioTest = new InventarioModel();
         inventarioTest.setIdInventario(1L);
@@ -44,6 +74,15 @@ class InventarioServiceTest {
         inventarioTest.setUbicacion("Bodega A");
         inventarioTest.setEstado("DISPONIBLE");
         inventarioTest.setObservaciones("Test item");
+
+        lenient().when(stockWriteBehind.aplicarPendientes(any(InventarioModel.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -62,6 +101,64 @@ class InventarioServiceTest {
         verify(inventarioRepository).findAll();
     }
 
+    @Test
+    void testFindByTipoEquipo_DesdeIndice() {
+
+        when(catalogoEquipos.idsPorTipo("TRACTOR")).thenReturn(Set.of(1L));
+        when(inventarioRepository.findByEquipoIdEquipoIn(Set.of(1L))).thenReturn(List.of(inventarioTest));
+
+        List<InventarioModel> result = inventarioService.findByTipoEquipo("TRACTOR");
+
+        assertEquals(List.of(inventarioTest), result);
+        verify(inventarioRepository, never()).findByTipoEquipo(anyString());
+    }
+
+    @Test
+    void testFindByTipoEquipo_TipoDesconocidoConsultaBase() {
+
+        when(catalogoEquipos.idsPorTipo("ARADO")).thenReturn(Set.of());
+        when(inventarioRepository.findByTipoEquipo("ARADO")).thenReturn(List.of(inventarioTest));
+
+        List<InventarioModel> result = inventarioService.findByTipoEquipo("ARADO");
+
+        assertEquals(1, result.size());
+        verify(inventarioRepository, never()).findByEquipoIdEquipoIn(anyCollection());
+    }
+
+    @Test
+    void testFindPagina_ConSiguienteCursor() {
+
+        InventarioModel segundo = new InventarioModel();
+        segundo.setIdInventario(2L);
+        when(inventarioRepository.findPagina(eq(0L), any())).thenReturn(new ArrayList<>(List.of(inventarioTest, segundo)));
+
+        PaginaInventarioDTO result = inventarioService.findPagina(null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(1L, result.getSiguienteCursor());
+        assertEquals(1, result.getLimite());
+    }
+
+    @Test
+    void testFindPagina_UltimaPagina() {
+
+        when(inventarioRepository.findPagina(eq(1L), any())).thenReturn(List.of(inventarioTest));
+
+        PaginaInventarioDTO result = inventarioService.findPagina(1L, 10);
+
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getSiguienteCursor());
+    }
+
+    @Test
+    void testFindPagina_LimiteInvalido() {
+
+        assertThrows(IllegalArgumentException.class, () -> inventarioService.findPagina(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventarioService.findPagina(null, PaginaInventarioDTO.LIMITE_MAXIMO + 1));
+        verify(inventarioRepository, never()).findPagina(any(), any());
+    }
+
     @Test
     void testFindById_Success() {
         
@@ -137,8 +234,11 @@ class InventarioServiceTest {
     @Test
     void testFindStockCritico() {
         
-        List<InventarioModel> inventarios = Arrays.asList(inventarioTest);
-        when(inventarioRepository.findStockCritico()).thenReturn(inventarios);
+        InventarioModel critico = new InventarioModel();
+        critico.setIdInventario(2L);
+        critico.setEstado("CRITICO");
+        when(stockCriticoIndice.getCriticos()).thenReturn(Set.of(1L, 2L));
+        when(inventarioRepository.findAllById(Set.of(1L, 2L))).thenReturn(Arrays.asList(inventarioTest, critico));
 
        
         List<InventarioModel> result = inventarioService.findStockCritico();
@@ -146,14 +246,16 @@ class InventarioServiceTest {
        
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(inventarioRepository).findStockCritico();
+        assertEquals(critico, result.get(0));
+        verify(inventarioRepository, never()).findStockCritico();
     }
 
     @Test
     void testFindStockAgotado() {
     
-        List<InventarioModel> inventarios = Arrays.asList(inventarioTest);
-        when(inventarioRepository.findStockAgotado()).thenReturn(inventarios);
+        inventarioTest.setEstado("AGOTADO");
+        when(stockCriticoIndice.getAgotados()).thenReturn(Set.of(1L));
+        when(inventarioRepository.findAllById(Set.of(1L))).thenReturn(Arrays.asList(inventarioTest));
 
       
         List<InventarioModel> result = inventarioService.findStockAgotado();
@@ -161,7 +263,38 @@ class InventarioServiceTest {
        
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(inventarioRepository).findStockAgotado();
+        verify(inventarioRepository, never()).findStockAgotado();
+    }
+
+    @Test
+    void testFindStockAgotado_SinIdsConsultaPorEstado() {
+    
+        inventarioTest.setEstado("AGOTADO");
+        when(stockCriticoIndice.getAgotados()).thenReturn(Set.of());
+        when(inventarioRepository.findStockAgotado()).thenReturn(List.of(inventarioTest));
+
+      
+        List<InventarioModel> result = inventarioService.findStockAgotado();
+
+       
+        assertEquals(List.of(inventarioTest), result);
+        verify(inventarioRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testFindStockCritico_IncluyeIdsEnMemoria() {
+        
+        inventarioTest.setEstado("CRITICO");
+        when(stockCriticoIndice.getCriticos()).thenReturn(Set.of());
+        when(stockWriteBehind.idsEnEstado("CRITICO", "AGOTADO")).thenReturn(new HashSet<>(Set.of(1L)));
+        when(inventarioRepository.findStockCritico()).thenReturn(List.of());
+        when(inventarioRepository.findAllById(Set.of(1L))).thenReturn(List.of(inventarioTest));
+
+        
+        List<InventarioModel> result = inventarioService.findStockCritico();
+
+        
+        assertEquals(List.of(inventarioTest), result);
     }
 
     @Test
@@ -189,7 +322,7 @@ class InventarioServiceTest {
         updatedData.setUbicacion("Bodega B");
         updatedData.setObservaciones("Updated item");
 
-        when(inventarioRepository.findById(1L)).thenReturn(Optional.of(inventarioTest));
+        when(inventarioRepository.findByIdParaActualizar(1L)).thenReturn(Optional.of(inventarioTest));
         when(inventarioRepository.save(any(InventarioModel.class))).thenReturn(inventarioTest);
 
       
@@ -197,131 +330,201 @@ class InventarioServiceTest {
 
        
         assertNotNull(result);
-        verify(inventarioRepository).findById(1L);
+        verify(inventarioRepository).findByIdParaActualizar(1L);
         verify(inventarioRepository).save(any(InventarioModel.class));
     }
 
     @Test
     void testAumentarStock() {
      
+        when(inventarioRepository.incrementarStock(1L, 5)).thenReturn(1);
         when(inventarioRepository.findById(1L)).thenReturn(Optional.of(inventarioTest));
-        when(inventarioRepository.save(any(InventarioModel.class))).thenReturn(inventarioTest);
 
        
         InventarioModel result = inventarioService.aumentarStock(1L, 5);
 
       
         assertNotNull(result);
-        verify(inventarioRepository).findById(1L);
-        verify(inventarioRepository).save(any(InventarioModel.class));
+        verify(inventarioRepository).incrementarStock(1L, 5);
+        verify(ledger).registrar(1L, MovimientoStockModel.INGRESO, 5, 0, 5);
+        verify(inventarioRepository, never()).save(any(InventarioModel.class));
+    }
+
+    @Test
+    void testAumentarStock_NotFound() {
+     
+        when(inventarioRepository.incrementarStock(999L, 5)).thenReturn(0);
+
+       
+        RuntimeException exception = assertThrows(RuntimeException.class, 
+            () -> inventarioService.aumentarStock(999L, 5));
+        assertEquals("Inventario no encontrado con ID: 999", exception.getMessage());
+        verify(inventarioRepository, never()).findById(999L);
     }
 
     @Test
     void testReducirStock_Success() {
       
+        when(inventarioRepository.reservarStock(1L, 5)).thenReturn(1);
         when(inventarioRepository.findById(1L)).thenReturn(Optional.of(inventarioTest));
-        when(inventarioRepository.save(any(InventarioModel.class))).thenReturn(inventarioTest);
 
     
         InventarioModel result = inventarioService.reducirStock(1L, 5);
 
         
         assertNotNull(result);
-        verify(inventarioRepository).findById(1L);
-        verify(inventarioRepository).save(any(InventarioModel.class));
+        verify(inventarioRepository).reservarStock(1L, 5);
+        verify(inventarioRepository, never()).save(any(InventarioModel.class));
     }
 
     @Test
     void testReducirStock_StockInsuficiente() {
        
+        when(inventarioRepository.reservarStock(1L, 15)).thenReturn(0);
         when(inventarioRepository.findById(1L)).thenReturn(Optional.of(inventarioTest));
 
       
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> inventarioService.reducirStock(1L, 15));
         assertTrue(exception.getMessage().contains("Stock insuficiente"));
-        verify(inventarioRepository).findById(1L);
+        verify(inventarioRepository).reservarStock(1L, 15);
+        verifyNoInteractions(ledger);
         verify(inventarioRepository, never()).save(any(InventarioModel.class));
     }
 
+    @Test
+    void testMovimientos_CantidadNoPositiva() {
+        assertThrows(IllegalArgumentException.class, () -> inventarioService.reducirStock(1L, -5));
+        assertThrows(IllegalArgumentException.class, () -> inventarioService.aumentarStock(1L, 0));
+        assertThrows(IllegalArgumentException.class, () -> inventarioService.devolverEquipo(1L, null));
+        verifyNoInteractions(inventarioRepository, ledger);
+    }
+
+    @Test
+    void testReducirStock_NotFound() {
+       
+        when(inventarioRepository.reservarStock(999L, 1)).thenReturn(0);
+        when(inventarioRepository.findById(999L)).thenReturn(Optional.empty());
+
+      
+        RuntimeException exception = assertThrows(RuntimeException.class, 
+            () -> inventarioService.reducirStock(999L, 1));
+        assertEquals("Inventario no encontrado con ID: 999", exception.getMessage());
+    }
+
     @Test
     void testDevolverEquipo() {
       
+        when(inventarioRepository.liberarStock(1L, 3)).thenReturn(1);
         when(inventarioRepository.findById(1L)).thenReturn(Optional.of(inventarioTest));
-        when(inventarioRepository.save(any(InventarioModel.class))).thenReturn(inventarioTest);
 
        
         InventarioModel result = inventarioService.devolverEquipo(1L, 3);
 
         
         assertNotNull(result);
-        verify(inventarioRepository).findById(1L);
-        verify(inventarioRepository).save(any(InventarioModel.class));
+        verify(inventarioRepository).liberarStock(1L, 3);
+        verify(ledger).registrar(1L, MovimientoStockModel.LIBERACION, 3, -3, 0);
+        verify(inventarioRepository, never()).save(any(InventarioModel.class));
+    }
+
+    @Test
+    void testDevolverEquipo_ArrendadoInsuficiente() {
+      
+        when(inventarioRepository.liberarStock(1L, 10)).thenReturn(0);
+        when(inventarioRepository.findById(1L)).thenReturn(Optional.of(inventarioTest));
+
+       
+        RuntimeException exception = assertThrows(RuntimeException.class, 
+            () -> inventarioService.devolverEquipo(1L, 10));
+        assertTrue(exception.getMessage().contains("Stock arrendado insuficiente"));
     }
 
     @Test
     void testDeleteById_Success() {
     
-        when(inventarioRepository.existsById(1L)).thenReturn(true);
+        when(inventarioRepository.findByIdParaActualizar(1L)).thenReturn(Optional.of(inventarioTest));
 
        
         inventarioService.deleteById(1L);
 
        
-        verify(inventarioRepository).existsById(1L);
+        verify(inventarioRepository).findByIdParaActualizar(1L);
         verify(inventarioRepository).deleteById(1L);
+        verify(ledger).registrar(1L, MovimientoStockModel.BAJA, -10, -5, -15);
+        verify(inventarioAgregados).reemplazar(any(FilaInventario.class), isNull());
     }
 
     @Test
     void testDeleteById_NotFound() {
        
-        when(inventarioRepository.existsById(999L)).thenReturn(false);
+        when(inventarioRepository.findByIdParaActualizar(999L)).thenReturn(Optional.empty());
 
        
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> inventarioService.deleteById(999L));
         assertEquals("Inventario no encontrado con ID: 999", exception.getMessage());
-        verify(inventarioRepository).existsById(999L);
+        verify(inventarioRepository).findByIdParaActualizar(999L);
         verify(inventarioRepository, never()).deleteById(999L);
     }
 
     @Test
     void testGetTotalStock() {
        
-        when(inventarioRepository.getTotalStock()).thenReturn(100L);
+        when(inventarioAgregados.getTotalStock()).thenReturn(100L);
 
     
         Long result = inventarioService.getTotalStock();
 
         
         assertEquals(100L, result);
-        verify(inventarioRepository).getTotalStock();
+        verify(inventarioAgregados).getTotalStock();
+        verify(inventarioRepository, never()).getTotalStock();
     }
 
     @Test
     void testGetTotalStockDisponible() {
         
-        when(inventarioRepository.getTotalStockDisponible()).thenReturn(80L);
+        when(inventarioAgregados.getTotalStockDisponible()).thenReturn(80L);
 
        
         Long result = inventarioService.getTotalStockDisponible();
 
        
         assertEquals(80L, result);
-        verify(inventarioRepository).getTotalStockDisponible();
+        verify(inventarioAgregados).getTotalStockDisponible();
+        verify(inventarioRepository, never()).getTotalStockDisponible();
     }
 
     @Test
     void testGetTotalStockArrendado() {
         
-        when(inventarioRepository.getTotalStockArrendado()).thenReturn(20L);
+        when(inventarioAgregados.getTotalStockArrendado()).thenReturn(20L);
 
         
         Long result = inventarioService.getTotalStockArrendado();
 
         
         assertEquals(20L, result);
-        verify(inventarioRepository).getTotalStockArrendado();
+        verify(inventarioAgregados).getTotalStockArrendado();
+        verify(inventarioRepository, never()).getTotalStockArrendado();
+    }
+
+    @Test
+    void testReducirStock_ActualizaAgregados() {
+        
+        when(inventarioRepository.reservarStock(1L, 5)).thenReturn(1);
+        when(inventarioRepository.findById(1L)).thenReturn(Optional.of(inventarioTest));
+        when(inventarioRepository.findEstadoById(1L)).thenReturn(Optional.of("DISPONIBLE"));
+
+        
+        inventarioService.reducirStock(1L, 5);
+
+        
+        verify(inventarioAgregados).reemplazar(
+                argThat(antes -> antes.stockDisponible() == 15 && antes.stockArrendado() == 0),
+                argThat(despues -> despues.stockDisponible() == 10 && despues.stockArrendado() == 5));
+        verify(stockCriticoIndice).actualizar(eq(1L), eq("DISPONIBLE"), anyLong());
     }
 
     @Test
@@ -360,4 +563,55 @@ class InventarioServiceTest {
         assertFalse(result);
         verify(inventarioRepository).findByEquipoIdEquipo(999L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testVerificarDisponibilidadLote() {
+
+        when(inventarioRepository.findByEquipoIdEquipoIn(anyCollection())).thenReturn(List.of(inventarioTest));
+
+        DisponibilidadLoteResponse result = inventarioService.verificarDisponibilidadLote(List.of(
+                new DisponibilidadLoteRequest.Item(1L, 4),
+                new DisponibilidadLoteRequest.Item(1L, 4),
+                new DisponibilidadLoteRequest.Item(2L, 1)));
+
+        assertFalse(result.isTodosDisponibles());
+        assertFalse(result.isReservado());
+        assertEquals(2, result.getItems().size());
+        assertEquals(8, result.getItems().get(0).getCantidadSolicitada());
+        assertTrue(result.getItems().get(0).isDisponible());
+        assertNull(result.getItems().get(1).getIdInventario());
+        assertFalse(result.getItems().get(1).isDisponible());
+        verify(inventarioRepository).findByEquipoIdEquipoIn(anyCollection());
+        verify(inventarioRepository, never()).findByEquipoIdEquipo(anyLong());
+    }
+
+    @Test
+    void testReservarLote_Success() {
+
+        when(inventarioRepository.findByEquipoIdEquipoIn(anyCollection())).thenReturn(List.of(inventarioTest));
+        when(inventarioRepository.reservarStock(1L, 6)).thenReturn(1);
+
+        DisponibilidadLoteResponse result = inventarioService.reservarLote(List.of(
+                new DisponibilidadLoteRequest.Item(1L, 6)));
+
+        assertTrue(result.isReservado());
+        assertTrue(result.isTodosDisponibles());
+        verify(inventarioRepository).reservarStock(1L, 6);
+        verify(ledger).registrar(argThat((List<MovimientoStockModel> movimientos) -> movimientos.size() == 1
+                && movimientos.get(0).getTipo().equals(MovimientoStockModel.RESERVA)
+                && movimientos.get(0).getDeltaDisponible() == -6));
+    }
+
+    @Test
+    void testReservarLote_SinStockNoReservaNada() {
+
+        when(inventarioRepository.findByEquipoIdEquipoIn(anyCollection())).thenReturn(List.of(inventarioTest));
+
+        DisponibilidadLoteResponse result = inventarioService.reservarLote(List.of(
+                new DisponibilidadLoteRequest.Item(1L, 11)));
+
+        assertFalse(result.isReservado());
+        assertFalse(result.isTodosDisponibles());
+        verify(inventarioRepository, never()).reservarStock(anyLong(), anyInt());
+    }
+}
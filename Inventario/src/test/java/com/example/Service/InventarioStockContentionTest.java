@@ -0,0 +1,200 @@
+package com.example.Service;
+
+import com.example.DTO.DisponibilidadLoteRequest;
+import com.example.DTO.DisponibilidadLoteResponse;
+import com.example.Model.EquipoModel;
+import com.example.Model.InventarioModel;
+import com.example.Repository.InventarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Benchmark de contención: muchos hilos arrendando el mismo equipo no deben sobrevender stock.
+@SpringBootTest
+@ActiveProfiles("test")
+class InventarioStockContentionTest {
+
+    private static final int STOCK_INICIAL = 200;
+    private static final int HILOS = 32;
+    private static final int INTENTOS_POR_HILO = 25;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long idInventario;
+    private Long idEquipo;
+
+    @BeforeEach
+    void setUp() {
+        EquipoModel equipo = transactionTemplate.execute(status -> {
+            EquipoModel nuevo = new EquipoModel(null, "Tractor Case I.H. 4210A", "Tractor", "Case",
+                    "4210A", "NUEVO", 999.99, "ABC123", "TRACTOR");
+            entityManager.persist(nuevo);
+            return nuevo;
+        });
+        idEquipo = equipo.getIdEquipo();
+
+        // Por el servicio, para que los agregados en memoria compartidos entre pruebas queden consistentes
+        InventarioModel inventario = new InventarioModel();
+        inventario.setEquipo(equipo);
+        inventario.setStockDisponible(STOCK_INICIAL);
+        inventario.setStockMinimo(5);
+        inventario.setStockTotal(STOCK_INICIAL);
+        inventario.setStockArrendado(0);
+        inventario.setUbicacion("Bodega A");
+        idInventario = inventarioService.save(inventario).getIdInventario();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventarioRepository.findAll().forEach(i -> inventarioService.deleteById(i.getIdInventario()));
+    }
+
+    @Test
+    void testReducirStock_SinSobreventaBajoContencion() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        AtomicInteger exitosos = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(executor.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                    try {
+                        inventarioService.reducirStock(idInventario, 1);
+                        exitosos.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        rechazados.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        inicio.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int total = HILOS * INTENTOS_POR_HILO;
+
+        InventarioModel resultado = inventarioService.findById(idInventario);
+        assertEquals(STOCK_INICIAL, exitosos.get());
+        assertEquals(total - STOCK_INICIAL, rechazados.get());
+        assertEquals(0, resultado.getStockDisponible());
+        assertEquals(STOCK_INICIAL, resultado.getStockArrendado());
+        assertEquals("AGOTADO", resultado.getEstado());
+        assertNotNull(resultado.getFechaUltimaActualizacion());
+    }
+
+    @Test
+    void testReducirYDevolver_ConservaStockTotal() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(executor.submit(() -> {
+                for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                    try {
+                        inventarioService.reducirStock(idInventario, 2);
+                        inventarioService.devolverEquipo(idInventario, 2);
+                    } catch (RuntimeException e) {
+                        // stock insuficiente: reintento en la siguiente iteración
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        executor.shutdown();
+
+        InventarioModel resultado = inventarioService.findById(idInventario);
+        assertEquals(STOCK_INICIAL, resultado.getStockDisponible());
+        assertEquals(0, resultado.getStockArrendado());
+        assertEquals(STOCK_INICIAL, resultado.getStockTotal());
+        assertEquals("DISPONIBLE", resultado.getEstado());
+    }
+
+    @Test
+    void testReservarLote_TodoONadaBajoContencion() throws Exception {
+        EquipoModel rastrillo = transactionTemplate.execute(status -> {
+            EquipoModel equipo = new EquipoModel(null, "Rastrillo Hilerador", "Rastrillo", "Vicon",
+                    "H1", "NUEVO", 200.0, "VC-H1", "RASTRILLO");
+            entityManager.persist(equipo);
+            return equipo;
+        });
+        InventarioModel escaso = new InventarioModel();
+        escaso.setEquipo(rastrillo);
+        escaso.setStockDisponible(10);
+        escaso.setStockMinimo(1);
+        escaso.setStockTotal(10);
+        escaso.setStockArrendado(0);
+        escaso.setUbicacion("Bodega A");
+        inventarioService.save(escaso);
+        Long idEquipoEscaso = rastrillo.getIdEquipo();
+        List<DisponibilidadLoteRequest.Item> cotizacion = List.of(
+                new DisponibilidadLoteRequest.Item(idEquipo, 2),
+                new DisponibilidadLoteRequest.Item(idEquipoEscaso, 1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        AtomicInteger reservadas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(executor.submit(() -> {
+                for (int i = 0; i < 2; i++) {
+                    try {
+                        DisponibilidadLoteResponse respuesta = inventarioService.reservarLote(cotizacion);
+                        if (respuesta.isReservado()) {
+                            reservadas.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        // carrera perdida: la transacción completa se deshizo
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        executor.shutdown();
+
+        // El equipo escaso limita las reservas a 10; la otra línea no debe quedar reservada de más
+        DisponibilidadLoteResponse estado = inventarioService.verificarDisponibilidadLote(cotizacion);
+        assertEquals(10, reservadas.get());
+        assertEquals(STOCK_INICIAL - 2 * reservadas.get(), estado.getItems().get(0).getStockDisponible());
+        assertEquals(0, estado.getItems().get(1).getStockDisponible());
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.Service;
+
+import com.example.DTO.StockHistoricoDTO;
+import com.example.Model.EquipoModel;
+import com.example.Model.InventarioModel;
+import com.example.Model.InventarioSnapshotModel;
+import com.example.Model.MovimientoStockModel;
+import com.example.Repository.InventarioRepository;
+import com.example.Repository.InventarioSnapshotRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MovimientoStockLedgerTest {
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private MovimientoStockLedger ledger;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private InventarioSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long idInventario;
+
+    @BeforeEach
+    void setUp() {
+        EquipoModel sembradora = transactionTemplate.execute(status -> {
+            EquipoModel equipo = new EquipoModel(null, "Sembradora Agrometal", "Sembradora", "Agrometal",
+                    "MX-33", "NUEVO", 800.0, "AG-MX33", "SEMBRADORA");
+            entityManager.persist(equipo);
+            return equipo;
+        });
+        InventarioModel inventario = new InventarioModel();
+        inventario.setEquipo(sembradora);
+        inventario.setStockDisponible(10);
+        inventario.setStockMinimo(2);
+        inventario.setStockTotal(10);
+        inventario.setStockArrendado(0);
+        inventario.setUbicacion("Bodega C");
+        idInventario = inventarioService.save(inventario).getIdInventario();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventarioRepository.findAll().forEach(i -> inventarioService.deleteById(i.getIdInventario()));
+    }
+
+    @Test
+    void testMovimientos_RegistranCadaCambio() {
+        inventarioService.reducirStock(idInventario, 4);
+        inventarioService.devolverEquipo(idInventario, 1);
+        inventarioService.aumentarStock(idInventario, 5);
+        inventarioService.actualizarStock(idInventario, 11, 3);
+
+        List<MovimientoStockModel> movimientos = inventarioService.findMovimientos(idInventario, null, 50);
+        assertEquals(List.of("ALTA", "RESERVA", "LIBERACION", "INGRESO", "AJUSTE"),
+                movimientos.stream().map(MovimientoStockModel::getTipo).toList());
+
+        // Paginación por cursor
+        List<MovimientoStockModel> siguientes = inventarioService.findMovimientos(idInventario,
+                movimientos.get(2).getIdMovimiento(), 50);
+        assertEquals(2, siguientes.size());
+
+        InventarioModel actual = inventarioService.findById(idInventario);
+        StockHistoricoDTO proyeccion = ledger.estadoActual(idInventario);
+        assertEquals(actual.getStockDisponible(), proyeccion.getStockDisponible());
+        assertEquals(actual.getStockArrendado(), proyeccion.getStockArrendado());
+        assertEquals(actual.getStockTotal(), proyeccion.getStockTotal());
+    }
+
+    @Test
+    void testEstadoEn_ReconstruyeStockAUnaFecha() throws Exception {
+        Date inicio = pausa();
+        inventarioService.reducirStock(idInventario, 4);
+        Date trasReserva = pausa();
+        inventarioService.aumentarStock(idInventario, 5);
+
+        StockHistoricoDTO enInicio = inventarioService.getStockEn(idInventario, inicio);
+        assertEquals(10, enInicio.getStockDisponible());
+        assertEquals(0, enInicio.getStockArrendado());
+
+        StockHistoricoDTO enReserva = inventarioService.getStockEn(idInventario, trasReserva);
+        assertEquals(6, enReserva.getStockDisponible());
+        assertEquals(4, enReserva.getStockArrendado());
+        assertEquals(10, enReserva.getStockTotal());
+
+        StockHistoricoDTO antesDeCrear = inventarioService.getStockEn(idInventario, new Date(0));
+        assertEquals(0, antesDeCrear.getStockTotal());
+        assertNull(antesDeCrear.getUltimoMovimiento());
+    }
+
+    @Test
+    void testSnapshots_NoCambianElResultado() throws Exception {
+        inventarioService.reducirStock(idInventario, 3);
+        Date trasReserva = pausa();
+        inventarioService.devolverEquipo(idInventario, 2);
+        inventarioService.aumentarStock(idInventario, 1);
+
+        assertTrue(ledger.tomarSnapshots(3) >= 1);
+        InventarioSnapshotModel snapshot = snapshotRepository
+                .findFirstByIdInventarioAndFechaLessThanEqualOrderByIdMovimientoDesc(idInventario, new Date())
+                .orElseThrow();
+        assertEquals(10, snapshot.getStockDisponible());
+        assertEquals(1, snapshot.getStockArrendado());
+        assertEquals(11, snapshot.getStockTotal());
+        // Sin movimientos nuevos no se toma otra instantánea
+        assertEquals(0, ledger.tomarSnapshots(1));
+
+        inventarioService.reducirStock(idInventario, 5);
+        StockHistoricoDTO actual = ledger.estadoActual(idInventario);
+        assertEquals(5, actual.getStockDisponible());
+        assertEquals(6, actual.getStockArrendado());
+
+        // Una fecha anterior a la instantánea se sigue respondiendo desde los movimientos
+        StockHistoricoDTO enReserva = inventarioService.getStockEn(idInventario, trasReserva);
+        assertEquals(7, enReserva.getStockDisponible());
+        assertEquals(3, enReserva.getStockArrendado());
+    }
+
+    @Test
+    void testReconstruirStock_AplicaMovimientosSinContador() {
+        inventarioService.reducirStock(idInventario, 2);
+        // Un movimiento confirmado en el registro cuyo cambio de contadores se perdió
+        transactionTemplate.executeWithoutResult(status ->
+                ledger.registrar(idInventario, MovimientoStockModel.INGRESO, 3, 0, 3));
+        assertEquals(8, inventarioService.findById(idInventario).getStockDisponible());
+
+        InventarioModel reconstruido = inventarioService.reconstruirStock(idInventario);
+
+        assertEquals(11, reconstruido.getStockDisponible());
+        assertEquals(2, reconstruido.getStockArrendado());
+        assertEquals(13, reconstruido.getStockTotal());
+        assertEquals(13L, inventarioService.getResumenStock().getPorUbicacion().get("Bodega C").getStockTotal());
+    }
+
+    // Separa las fechas de los movimientos anteriores y posteriores al instante devuelto
+    private static Date pausa() throws InterruptedException {
+        Thread.sleep(5);
+        Date fecha = new Date();
+        Thread.sleep(5);
+        return fecha;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.Service;
+
+import com.example.Model.EquipoModel;
+import com.example.Model.InventarioModel;
+import com.example.Repository.InventarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockCriticoIndiceTest {
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private StockCriticoIndice stockCriticoIndice;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private EquipoModel equipo;
+
+    @BeforeEach
+    void setUp() {
+        equipo = transactionTemplate.execute(status -> {
+            EquipoModel nuevo = new EquipoModel(null, "Sembradora Agrometal", "Sembradora", "Agrometal",
+                    "MXY", "NUEVO", 800.0, "AG-MXY", "SEMBRADORA");
+            entityManager.persist(nuevo);
+            return nuevo;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inventario");
+        stockCriticoIndice.cargar();
+    }
+
+    @Test
+    void testTransiciones_ActualizanIndice() {
+        InventarioModel inventario = inventarioService.save(nuevoInventario(10, 4));
+        Long id = inventario.getIdInventario();
+        assertTrue(inventarioService.findStockCritico().isEmpty());
+
+        inventarioService.reducirStock(id, 7);
+        assertEquals(List.of(id), ids(inventarioService.findStockCritico()));
+        assertTrue(inventarioService.findStockAgotado().isEmpty());
+
+        inventarioService.reducirStock(id, 3);
+        assertEquals(List.of(id), ids(inventarioService.findStockCritico()));
+        assertEquals(List.of(id), ids(inventarioService.findStockAgotado()));
+
+        inventarioService.devolverEquipo(id, 10);
+        assertTrue(inventarioService.findStockCritico().isEmpty());
+        assertTrue(inventarioService.findStockAgotado().isEmpty());
+    }
+
+    @Test
+    void testActualizar_IgnoraCambiosConMarcaAnterior() {
+        Long id = inventarioService.save(nuevoInventario(0, 4)).getIdInventario();
+        long anterior = stockCriticoIndice.marca();
+        long posterior = stockCriticoIndice.marca();
+
+        // El callback del cambio anterior llega último
+        stockCriticoIndice.actualizar(id, "AGOTADO", posterior);
+        stockCriticoIndice.actualizar(id, "DISPONIBLE", anterior);
+
+        assertEquals(Set.of(id), stockCriticoIndice.getAgotados());
+        assertEquals(List.of(id), ids(inventarioService.findStockAgotado()));
+    }
+
+    @Test
+    void testIndiceVacio_ConsultaPorEstado() {
+        // Fila escrita por fuera del servicio: el índice no la conoce hasta la próxima recarga
+        jdbcTemplate.update("INSERT INTO inventario (id_equipo, stock_disponible, stock_minimo, stock_total, " +
+                "stock_arrendado, ubicacion, estado, fecha_ultima_actualizacion) VALUES (?, 2, 5, 2, 0, 'Bodega C', " +
+                "'CRITICO', CURRENT_TIMESTAMP)", equipo.getIdEquipo());
+        assertTrue(stockCriticoIndice.getCriticos().isEmpty());
+
+        assertEquals(1, inventarioService.findStockCritico().size());
+    }
+
+    @Test
+    void testConsultasPorEstado_UsanIndice() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id_inventario FROM inventario WHERE estado IN ('CRITICO', 'AGOTADO')", String.class);
+        assertTrue(plan.toUpperCase().contains("IDX_INVENTARIO_ESTADO"), plan);
+    }
+
+    // mvn test -Dtest=StockCriticoIndiceTest -Dbenchmark=true [-Dbenchmark.filas=1000000]
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkStockCritico() {
+        int filas = Integer.getInteger("benchmark.filas", 1_000_000);
+        insertarFilas(filas);
+        stockCriticoIndice.cargar();
+
+        Supplier<List<InventarioModel>> comparacionColumnas = () -> transactionTemplate.execute(status ->
+                entityManager.createQuery("SELECT i FROM InventarioModel i WHERE i.stockDisponible <= i.stockMinimo",
+                        InventarioModel.class).getResultList());
+        Supplier<List<InventarioModel>> indice = inventarioService::findStockCritico;
+
+        int esperados = comparacionColumnas.get().size();
+        assertEquals(esperados, indice.get().size());
+
+        // Filas leídas por cada plan: el recorrido completo lee la tabla entera, el índice solo los resultados
+        long filasColumnas = filasLeidas("SELECT id_inventario FROM inventario WHERE stock_disponible <= stock_minimo");
+        long filasIndice = filasLeidas("SELECT id_inventario FROM inventario WHERE estado IN ('CRITICO', 'AGOTADO')");
+        assertTrue(filasColumnas >= filas);
+        assertTrue(filasIndice <= esperados + 1);
+    }
+
+    private long filasLeidas(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN ANALYZE " + sql, String.class);
+        Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+        assertTrue(matcher.find(), plan);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private void insertarFilas(int filas) {
+        Timestamp ahora = new Timestamp(System.currentTimeMillis());
+        List<Object[]> lote = new ArrayList<>();
+        for (int i = 0; i < filas; i++) {
+            // 1% crítico, 0,5% agotado, el resto disponible
+            int disponible = i % 200 == 0 ? 0 : i % 100 == 1 ? 2 : 20;
+            lote.add(new Object[]{equipo.getIdEquipo(), disponible, 5, 20, 20 - disponible,
+                    "Bodega " + (i % 10), InventarioModel.calcularEstado(disponible, 5), ahora});
+            if (lote.size() == 10_000 || i == filas - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO inventario (id_equipo, stock_disponible, stock_minimo, " +
+                        "stock_total, stock_arrendado, ubicacion, estado, fecha_ultima_actualizacion) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private InventarioModel nuevoInventario(int stock, int minimo) {
+        InventarioModel inventario = new InventarioModel();
+        inventario.setEquipo(equipo);
+        inventario.setStockDisponible(stock);
+        inventario.setStockMinimo(minimo);
+        inventario.setStockTotal(stock);
+        inventario.setStockArrendado(0);
+        inventario.setUbicacion("Bodega C");
+        return inventario;
+    }
+
+    private static List<Long> ids(List<InventarioModel> inventarios) {
+        return inventarios.stream().map(InventarioModel::getIdInventario).toList();
+    }
+}
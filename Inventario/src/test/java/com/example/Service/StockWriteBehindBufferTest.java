@@ -0,0 +1,269 @@
+package com.example.Service;
+
+import com.example.Model.EquipoModel;
+import com.example.Model.InventarioModel;
+import com.example.Model.MovimientoStockModel;
+import com.example.Repository.InventarioRepository;
+import com.example.Repository.StockCheckpointRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockWriteBehindBufferTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void writeBehindProperties(DynamicPropertyRegistry registry) {
+        registry.add("inventario.write-behind.enabled", () -> "true");
+        registry.add("inventario.write-behind.flush-interval-ms", () -> "3600000");
+        registry.add("inventario.write-behind.journal-dir", () -> journalDir.toString());
+    }
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private StockWriteBehindBuffer stockWriteBehind;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private StockCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MovimientoStockLedger ledger;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long idInventario;
+
+    @BeforeEach
+    void setUp() {
+        idInventario = transactionTemplate.execute(status -> {
+            EquipoModel equipo = new EquipoModel(null, "Cosechadora John Deere S770", "Cosechadora", "John Deere",
+                    "S770", "NUEVO", 1500.0, "JD770", "COSECHADORA");
+            entityManager.persist(equipo);
+
+            InventarioModel inventario = new InventarioModel();
+            inventario.setEquipo(equipo);
+            inventario.setStockDisponible(100);
+            inventario.setStockMinimo(10);
+            inventario.setStockTotal(100);
+            inventario.setStockArrendado(0);
+            inventario.setUbicacion("Bodega B");
+            entityManager.persist(inventario);
+            return inventario.getIdInventario();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockWriteBehind.sincronizar(idInventario);
+        inventarioRepository.deleteAll();
+    }
+
+    @Test
+    void testMovimientos_VisiblesAntesDelVolcado() {
+        inventarioService.reducirStock(idInventario, 30);
+        inventarioService.devolverEquipo(idInventario, 10);
+        inventarioService.aumentarStock(idInventario, 5);
+
+        InventarioModel vista = inventarioService.findById(idInventario);
+        assertEquals(85, vista.getStockDisponible());
+        assertEquals(20, vista.getStockArrendado());
+        assertEquals(105, vista.getStockTotal());
+
+        InventarioModel enBaseDeDatos = inventarioRepository.findById(idInventario).orElseThrow();
+        assertEquals(100, enBaseDeDatos.getStockDisponible());
+
+        stockWriteBehind.flush();
+
+        enBaseDeDatos = inventarioRepository.findById(idInventario).orElseThrow();
+        assertEquals(85, enBaseDeDatos.getStockDisponible());
+        assertEquals(20, enBaseDeDatos.getStockArrendado());
+        assertEquals(105, enBaseDeDatos.getStockTotal());
+        assertEquals("DISPONIBLE", enBaseDeDatos.getEstado());
+    }
+
+    @Test
+    void testReducirStock_SinSobreventaBajoContencion() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger exitosos = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 16; h++) {
+            tareas.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        inventarioService.reducirStock(idInventario, 1);
+                        exitosos.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // stock insuficiente
+                    }
+                    if (i % 10 == 0) {
+                        stockWriteBehind.flush();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        executor.shutdown();
+        stockWriteBehind.flush();
+
+        InventarioModel enBaseDeDatos = inventarioRepository.findById(idInventario).orElseThrow();
+        assertEquals(100, exitosos.get());
+        assertEquals(0, enBaseDeDatos.getStockDisponible());
+        assertEquals(100, enBaseDeDatos.getStockArrendado());
+        assertEquals("AGOTADO", enBaseDeDatos.getEstado());
+    }
+
+    @Test
+    void testSincronizar_ConcurrenteConMovimientos_NoPierdeDeltasNiMovimientos() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        AtomicBoolean terminado = new AtomicBoolean();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            tareas.add(executor.submit(() -> {
+                for (int i = 0; i < 10; i++) {
+                    inventarioService.reducirStock(idInventario, 1);
+                }
+                return null;
+            }));
+        }
+        // Retira el contador una y otra vez mientras los movimientos están entre su CAS y el journal
+        Future<?> retiros = executor.submit(() -> {
+            while (!terminado.get()) {
+                stockWriteBehind.sincronizar(idInventario);
+            }
+            return null;
+        });
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        terminado.set(true);
+        retiros.get();
+        executor.shutdown();
+        stockWriteBehind.flush();
+
+        InventarioModel enBaseDeDatos = inventarioRepository.findById(idInventario).orElseThrow();
+        assertEquals(20, enBaseDeDatos.getStockDisponible());
+        assertEquals(80, enBaseDeDatos.getStockArrendado());
+        assertEquals(80, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM movimiento_stock WHERE id_inventario = ? AND tipo = 'RESERVA'",
+                Integer.class, idInventario));
+    }
+
+    @Test
+    void testActualizarStock_InvalidaElContadorCargadoAntesDelCommit() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        transactionTemplate.executeWithoutResult(status -> {
+            inventarioService.actualizarStock(idInventario, 50, 0);
+            try {
+                // Otro hilo carga el contador desde la fila aún sin confirmar (100 disponibles) y reserva
+                executor.submit(() -> inventarioService.reducirStock(idInventario, 1)).get();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        executor.shutdown();
+
+        // La reserva se aplica sobre los 50 confirmados, no sobre la base que leyó el contador
+        InventarioModel vista = inventarioService.findById(idInventario);
+        assertEquals(49, vista.getStockDisponible());
+        assertEquals(1, vista.getStockArrendado());
+        InventarioModel enBaseDeDatos = inventarioRepository.findById(idInventario).orElseThrow();
+        assertEquals(49, enBaseDeDatos.getStockDisponible());
+        assertEquals(1, enBaseDeDatos.getStockArrendado());
+    }
+
+    @Test
+    void testRecuperar_ReaplicaJournalTrasCaida() throws Exception {
+        Path directorio = journalDir.resolve("caida");
+        StockWriteBehindBuffer antes = new StockWriteBehindBuffer(inventarioRepository, checkpointRepository,
+                jdbcTemplate, transactionTemplate, ledger, true, directorio, false);
+        antes.recuperar();
+        antes.reservar(idInventario, 40);
+        antes.liberar(idInventario, 15);
+        // Sin volcado ni cierre ordenado: simula la caída del proceso
+
+        StockWriteBehindBuffer despues = new StockWriteBehindBuffer(inventarioRepository, checkpointRepository,
+                jdbcTemplate, transactionTemplate, ledger, true, directorio, false);
+        despues.recuperar();
+
+        InventarioModel enBaseDeDatos = inventarioRepository.findById(idInventario).orElseThrow();
+        assertEquals(75, enBaseDeDatos.getStockDisponible());
+        assertEquals(25, enBaseDeDatos.getStockArrendado());
+        // Los movimientos del journal también llegan al registro de movimientos
+        assertEquals(List.of("RESERVA", "LIBERACION"), ledger.listar(idInventario, null, 10).stream()
+                .map(MovimientoStockModel::getTipo).toList());
+
+        // Una segunda recuperación no vuelve a aplicar los mismos deltas
+        new StockWriteBehindBuffer(inventarioRepository, checkpointRepository,
+                jdbcTemplate, transactionTemplate, ledger, true, directorio, false).recuperar();
+        assertEquals(75, inventarioRepository.findById(idInventario).orElseThrow().getStockDisponible());
+        despues.detener();
+    }
+
+    @Test
+    void testVolcado_FallidoSeReintentaAunqueElDeltaNetoSeaCero() throws Exception {
+        MovimientoStockLedger ledgerQueFalla = mock(MovimientoStockLedger.class);
+        doThrow(new RuntimeException("sin conexión")).doNothing().when(ledgerQueFalla).registrar(anyList());
+        StockWriteBehindBuffer buffer = new StockWriteBehindBuffer(inventarioRepository, checkpointRepository,
+                jdbcTemplate, transactionTemplate, ledgerQueFalla, true, journalDir.resolve("reintento"), false);
+        buffer.recuperar();
+        buffer.reservar(idInventario, 10);
+        buffer.liberar(idInventario, 10);
+
+        assertThrows(RuntimeException.class, buffer::flush);
+        // Sin deltas netos que volcar, los dos movimientos siguen pendientes para el registro
+        buffer.flush();
+        ArgumentCaptor<List<MovimientoStockModel>> registrados = ArgumentCaptor.captor();
+        verify(ledgerQueFalla, times(2)).registrar(registrados.capture());
+        assertEquals(List.of("RESERVA", "LIBERACION"), registrados.getValue().stream()
+                .map(MovimientoStockModel::getTipo).toList());
+        assertEquals(100, inventarioRepository.findById(idInventario).orElseThrow().getStockDisponible());
+        buffer.detener();
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.Controller;
 
+import com.example.DTO.HorarioDTO;
+import com.example.DTO.ResultadoPlanificacionDTO;
+import com.example.DTO.ResultadoTransicionDTO;
+import com.example.DTO.SolicitudAgendaDTO;
+import com.example.DTO.TransicionMasivaDTO;
 import com.example.Model.PedidoModel;
 import com.example.Model.PedidoModel.EstadoPedido;
 import com.example.Model.PedidoModel.PrioridadPedido;
 import com.example.Service.PedidoService;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -67,13 +74,44 @@ public class PedidoController {
     @Operation(summary = "Actualizar un pedido existente", description = "Actualiza los detalles de un pedido por ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Pedido actualizado exitosamente"),
-        @ApiResponse(responseCode = "404", description = "Pedido no encontrado")
+        @ApiResponse(responseCode = "404", description = "Pedido no encontrado"),
+        @ApiResponse(responseCode = "409", description = "Versión desactualizada o cambio de estado no permitido")
     })
     @PutMapping("/{id}")
     public ResponseEntity<PedidoModel> updatePedido(@PathVariable Long id, @RequestBody PedidoModel pedido) {
         try {
             PedidoModel pedidoActualizado = pedidoService.updatePedido(id, pedido);
             return ResponseEntity.ok(pedidoActualizado);
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Modificar parte de un pedido",
+               description = "Aplica un JSON Merge Patch: reemplaza los campos enviados, borra los enviados como null " +
+                             "y no toca el resto. Con \"version\" en el cuerpo no lee el pedido: hace un solo UPDATE " +
+                             "condicionado a esa versión y responde 204 con la versión nueva en el ETag")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Pedido modificado (sin version en el cuerpo)"),
+        @ApiResponse(responseCode = "204", description = "Pedido modificado (con version en el cuerpo)"),
+        @ApiResponse(responseCode = "400", description = "Campo desconocido, no modificable o con un valor inválido"),
+        @ApiResponse(responseCode = "404", description = "Pedido no encontrado"),
+        @ApiResponse(responseCode = "409", description = "Versión desactualizada o cambio de estado no permitido")
+    })
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<?> patchPedido(@PathVariable Long id, @RequestBody JsonNode parche) {
+        try {
+            if (parche.hasNonNull("version")) {
+                long version = pedidoService.patchPedidoSinLeer(id, parche);
+                return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
+            }
+            return ResponseEntity.ok(pedidoService.patchPedido(id, parche));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -148,7 +186,14 @@ public class PedidoController {
         return ResponseEntity.ok(pedidoService.findPedidosCompletadosEnRango(fechaInicio, fechaFin));
     }
 
-    @Operation(summary = "Cambiar estado del pedido", description = "Permite cambiar el estado de un pedido por su ID")
+    @Operation(summary = "Cambiar estado del pedido", description = "Permite cambiar el estado de un pedido por su ID, " +
+               "solo a uno de los estados permitidos desde el actual")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado cambiado"),
+        @ApiResponse(responseCode = "400", description = "Estado inválido"),
+        @ApiResponse(responseCode = "404", description = "Pedido no encontrado"),
+        @ApiResponse(responseCode = "409", description = "Transición no permitida o el pedido cambió de estado entre medio")
+    })
     @PutMapping("/{id}/estado")
     public ResponseEntity<?> cambiarEstado(
             @PathVariable Long id,
@@ -159,17 +204,38 @@ public class PedidoController {
             return ResponseEntity.ok(pedido);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body("Estado inválido.");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Iniciar trabajo del pedido", description = "Marca el pedido como iniciado")
+    @Operation(summary = "Cambiar el estado de varios pedidos",
+               description = "Cambia en una sola sentencia todos los pedidos que pueden pasar al estado indicado. " +
+                             "Informa los que ya estaban en ese estado, los rechazados por su estado actual y los " +
+                             "IDs inexistentes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cambio aplicado"),
+        @ApiResponse(responseCode = "400", description = "Sin ids o estado, o más pedidos de los permitidos")
+    })
+    @PutMapping("/estado")
+    public ResponseEntity<ResultadoTransicionDTO> cambiarEstados(@RequestBody TransicionMasivaDTO transicion) {
+        try {
+            return ResponseEntity.ok(pedidoService.cambiarEstados(transicion.getIds(), transicion.getEstado()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Iniciar trabajo del pedido", description = "Marca el pedido como iniciado (desde ASIGNADO o PAUSADO)")
     @PutMapping("/{id}/iniciar")
     public ResponseEntity<?> iniciarTrabajo(@PathVariable Long id) {
         try {
             PedidoModel pedido = pedidoService.iniciarTrabajo(id);
             return ResponseEntity.ok(pedido);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -181,15 +247,75 @@ public class PedidoController {
         try {
             PedidoModel pedido = pedidoService.cancelarPedido(id);
             return ResponseEntity.ok(pedido);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @Operation(summary = "Buscar horario libre de un técnico",
+               description = "Primer horario desde la fecha indicada (o desde ahora) en que el técnico tiene libre " +
+                             "el tiempo que dura un servicio del tipo dado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Horario encontrado"),
+        @ApiResponse(responseCode = "400", description = "El servicio no cabe en una jornada"),
+        @ApiResponse(responseCode = "404", description = "Sin horario libre dentro del horizonte de la agenda")
+    })
+    @GetMapping("/agenda/tecnicos/{idTecnico}/horario")
+    public ResponseEntity<HorarioDTO> buscarHorario(
+            @PathVariable Long idTecnico,
+            @RequestParam String tipoServicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde) {
+        try {
+            return ResponseEntity.of(pedidoService.buscarHorario(idTecnico, tipoServicio, desde));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Agendar un pedido",
+               description = "Asigna el pedido PENDIENTE al primer horario libre entre los técnicos indicados y lo " +
+                             "deja ASIGNADO")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Pedido agendado"),
+        @ApiResponse(responseCode = "400", description = "Sin técnicos, o el servicio no cabe en una jornada"),
+        @ApiResponse(responseCode = "404", description = "Pedido no encontrado"),
+        @ApiResponse(responseCode = "409", description = "El pedido no está PENDIENTE o no hay horario libre")
+    })
+    @PostMapping("/{id}/agendar")
+    public ResponseEntity<?> agendarPedido(@PathVariable Long id, @RequestBody SolicitudAgendaDTO solicitud) {
+        try {
+            return ResponseEntity.ok(pedidoService.agendarPedido(id, solicitud.getTecnicos(), solicitud.getDesde()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Planificar los pedidos pendientes",
+               description = "Agenda todos los pedidos PENDIENTE entre los técnicos indicados, primero los de mayor " +
+                             "prioridad, e informa los que quedaron sin horario")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Planificación aplicada"),
+        @ApiResponse(responseCode = "400", description = "Sin técnicos, o un servicio no cabe en una jornada")
+    })
+    @PostMapping("/agenda/planificar")
+    public ResponseEntity<ResultadoPlanificacionDTO> planificar(@RequestBody SolicitudAgendaDTO solicitud) {
+        try {
+            return ResponseEntity.ok(pedidoService.planificar(solicitud.getTecnicos(), solicitud.getDesde()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(summary = "Contar pedidos por estado", description = "Retorna la cantidad de pedidos en un estado específico")
     @GetMapping("/estadisticas/por-estado/{estado}")
     public ResponseEntity<?> contarPedidosPorEstado(@PathVariable EstadoPedido estado) {
         long cantidad = pedidoService.contarPedidosPorEstado(estado);
         return ResponseEntity.ok(cantidad);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Horario de un técnico para atender un pedido")
+public class HorarioDTO {
+
+    @Schema(description = "ID del técnico", example = "5")
+    private Long idTecnico;
+
+    @Schema(description = "Inicio del servicio", example = "2025-07-14T08:00:00")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Término estimado según la duración del tipo de servicio", example = "2025-07-14T12:00:00")
+    private LocalDateTime fin;
+}
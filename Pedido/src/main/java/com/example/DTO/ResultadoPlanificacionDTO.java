@@ -0,0 +1,24 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de agendar los pedidos pendientes")
+public class ResultadoPlanificacionDTO {
+
+    @Schema(description = "Pedidos asignados a un técnico y horario", example = "4980")
+    private Integer agendados;
+
+    @Schema(description = "Pedidos sin horario libre dentro del horizonte de la agenda", example = "[4410, 4411]")
+    private List<Long> sinHorario;
+
+    @Schema(description = "Pedidos que dejaron de estar PENDIENTE mientras se planificaba", example = "[]")
+    private List<Long> conflictos;
+}
@@ -0,0 +1,27 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de un cambio de estado masivo")
+public class ResultadoTransicionDTO {
+
+    @Schema(description = "Pedidos que cambiaron al estado de destino", example = "298")
+    private Integer actualizados;
+
+    @Schema(description = "Pedidos que ya estaban en el estado de destino", example = "[5]")
+    private List<Long> sinCambios;
+
+    @Schema(description = "Pedidos cuyo estado actual no permite pasar al de destino", example = "[17, 42]")
+    private List<Long> rechazados;
+
+    @Schema(description = "IDs que no corresponden a ningún pedido", example = "[]")
+    private List<Long> noEncontrados;
+}
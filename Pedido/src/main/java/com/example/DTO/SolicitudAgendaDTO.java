@@ -0,0 +1,24 @@
+package com.example.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Técnicos disponibles y fecha desde la cual agendar")
+public class SolicitudAgendaDTO {
+
+    @Schema(description = "IDs de los técnicos que pueden tomar los pedidos; a igual horario, el primero de la lista",
+            example = "[5, 7]")
+    private List<Long> tecnicos;
+
+    @Schema(description = "Primer momento en que puede comenzar un servicio; sin valor, desde ahora",
+            example = "2025-07-14T08:00:00")
+    private LocalDateTime desde;
+}
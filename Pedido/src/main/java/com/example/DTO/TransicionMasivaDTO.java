@@ -0,0 +1,22 @@
+package com.example.DTO;
+
+import com.example.Model.PedidoModel.EstadoPedido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cambio de estado de varios pedidos a la vez")
+public class TransicionMasivaDTO {
+
+    @Schema(description = "IDs de los pedidos a cambiar", example = "[1, 2, 3]")
+    private List<Long> ids;
+
+    @Schema(description = "Estado de destino", example = "CANCELADO")
+    private EstadoPedido estado;
+}
@@ -3,12 +3,23 @@ package com.example.Model;
 import jakarta.persistence.*;
 import lombok.*;
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
-@Table(name = "pedido")
+// Los UPDATE llevan solo las columnas que cambiaron, no la fila completa
+@DynamicUpdate
+// idx_pedido_urgentes: estado y prioridad por igualdad, y dentro de cada par ya ordenado por fecha de creación
+@Table(name = "pedido", indexes = {
+    @Index(name = "idx_pedido_urgentes", columnList = "estado, prioridad, fecha_creacion")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,6 +34,15 @@ public class PedidoModel {
     @Schema(description = "ID único del pedido", example = "1")
     private Long idPedido;
 
+    // Cliente y técnico pertenecen a otros servicios: se guardan solo sus IDs (mismas columnas que usa Incidencia)
+    @Column(name = "id_cliente")
+    @Schema(description = "ID del usuario cliente que solicita el servicio", example = "1")
+    private Long idCliente;
+
+    @Column(name = "id_tecnico")
+    @Schema(description = "ID del técnico asignado", example = "3")
+    private Long idTecnico;
+
     @Column(name = "descripcion_servicio", nullable = false, length = 500)
     @Schema(description = "Descripción del servicio solicitado", example = "Instalación de sistema de riego")
     private String descripcionServicio;
@@ -77,6 +97,14 @@ public class PedidoModel {
     @Schema(description = "Lista de materiales necesarios", example = "Tuberías, aspersores, válvulas")
     private String materialesNecesarios;
 
+    // Bloqueo optimista: cada UPDATE de la entidad compara y aumenta la versión. Las transiciones de estado
+    // (compare-and-set sobre el estado en PedidoRepository) no la comparan, pero la aumentan: una copia leída
+    // antes de la transición ya no se puede guardar encima
+    @Version
+    @Column(name = "version", nullable = false)
+    @Schema(description = "Versión del pedido para control de concurrencia", example = "0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         if (this.fechaCreacion == null) {
@@ -85,10 +113,41 @@ public class PedidoModel {
     }
 
     public enum EstadoPedido {
-        PENDIENTE, ASIGNADO, EN_PROCESO, PAUSADO, COMPLETADO, CANCELADO
+        PENDIENTE, ASIGNADO, EN_PROCESO, PAUSADO, COMPLETADO, CANCELADO;
+
+        // Transiciones permitidas desde cada estado; COMPLETADO y CANCELADO son finales
+        private static final Map<EstadoPedido, Set<EstadoPedido>> TRANSICIONES = new EnumMap<>(EstadoPedido.class);
+
+        static {
+            TRANSICIONES.put(PENDIENTE, EnumSet.of(ASIGNADO, CANCELADO));
+            TRANSICIONES.put(ASIGNADO, EnumSet.of(PENDIENTE, EN_PROCESO, CANCELADO));
+            TRANSICIONES.put(EN_PROCESO, EnumSet.of(PAUSADO, COMPLETADO, CANCELADO));
+            TRANSICIONES.put(PAUSADO, EnumSet.of(EN_PROCESO, CANCELADO));
+            TRANSICIONES.put(COMPLETADO, EnumSet.noneOf(EstadoPedido.class));
+            TRANSICIONES.put(CANCELADO, EnumSet.noneOf(EstadoPedido.class));
+        }
+
+        public boolean puedePasarA(EstadoPedido destino) {
+            return TRANSICIONES.get(this).contains(destino);
+        }
+
+        public Set<EstadoPedido> siguientes() {
+            return Collections.unmodifiableSet(TRANSICIONES.get(this));
+        }
+
+        // Estados desde los que se puede llegar a destino
+        public static Set<EstadoPedido> origenesDe(EstadoPedido destino) {
+            Set<EstadoPedido> origenes = EnumSet.noneOf(EstadoPedido.class);
+            TRANSICIONES.forEach((origen, destinos) -> {
+                if (destinos.contains(destino)) {
+                    origenes.add(origen);
+                }
+            });
+            return origenes;
+        }
     }
 
     public enum PrioridadPedido {
         BAJA, MEDIA, ALTA, URGENTE
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -4,18 +4,21 @@ import com.example.Model.PedidoModel;
 import com.example.Model.PedidoModel.EstadoPedido;
 import com.example.Model.PedidoModel.PrioridadPedido;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<PedidoModel, Long> {
     
-    List<PedidoModel> findByClienteIdCliente(Long idCliente);
+    List<PedidoModel> findByIdCliente(Long idCliente);
     
-    List<PedidoModel> findByTecnicoIdTecnico(Long idTecnico);
+    List<PedidoModel> findByIdTecnico(Long idTecnico);
     
     List<PedidoModel> findByEstado(EstadoPedido estado);
     
@@ -29,24 +32,63 @@ public interface PedidoRepository extends JpaRepository<PedidoModel, Long> {
     
     List<PedidoModel> findByFechaProgramadaBetween(LocalDateTime fechaInicio, LocalDateTime fechaFin);
     
-    List<PedidoModel> findByTecnicoIsNull();
+    List<PedidoModel> findByIdTecnicoIsNull();
     
     List<PedidoModel> findByEstadoAndPrioridadOrderByFechaCreacionAsc(EstadoPedido estado, PrioridadPedido prioridad);
     
     long countByEstado(EstadoPedido estado);
     
-    long countByTecnicoIdTecnico(Long idTecnico);
+    long countByIdTecnico(Long idTecnico);
     
-    @Query("SELECT p FROM PedidoModel p WHERE p.prioridad = :prioridadUrgente OR p.prioridad = :prioridadAlta AND p.estado IN (:estadoPendiente, :estadoAsignado) ORDER BY p.prioridad DESC, p.fechaCreacion ASC")
-    List<PedidoModel> findPedidosUrgentes(@Param("prioridadUrgente") PrioridadPedido prioridadUrgente, 
-                                         @Param("prioridadAlta") PrioridadPedido prioridadAlta,
-                                         @Param("estadoPendiente") EstadoPedido estadoPendiente,
-                                         @Param("estadoAsignado") EstadoPedido estadoAsignado);
+    // Carga de ColaUrgentes, que los ordena; recorre idx_pedido_urgentes
+    @Query("SELECT p FROM PedidoModel p WHERE p.estado IN :estados AND p.prioridad IN :prioridades")
+    List<PedidoModel> findPedidosUrgentes(@Param("prioridades") Collection<PrioridadPedido> prioridades,
+                                         @Param("estados") Collection<EstadoPedido> estados);
     
-    List<PedidoModel> findByTecnicoIdTecnicoAndEstado(Long idTecnico, EstadoPedido estado);
+    List<PedidoModel> findByIdTecnicoAndEstado(Long idTecnico, EstadoPedido estado);
+    
+    // Pedidos que ocupan la agenda de un técnico
+    @Query("SELECT p FROM PedidoModel p WHERE p.estado IN :estados AND p.idTecnico IS NOT NULL AND p.fechaProgramada IS NOT NULL")
+    List<PedidoModel> findAgendados(@Param("estados") Collection<EstadoPedido> estados);
+    
+    // [idPedido, estado]
+    @Query("SELECT p.idPedido, p.estado FROM PedidoModel p WHERE p.idPedido IN :ids")
+    List<Object[]> findEstadosByIds(@Param("ids") Collection<Long> ids);
+    
+    // Compare-and-set del estado en un solo UPDATE: 0 filas si el pedido ya no está en estadoActual.
+    // Compara el estado, no la versión; la aumenta para invalidar las copias leídas antes.
+    // fechaCompletado nula conserva la que tenía
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PedidoModel p SET p.estado = :estadoNuevo, " +
+           "p.fechaCompletado = COALESCE(:fechaCompletado, p.fechaCompletado), p.version = p.version + 1 " +
+           "WHERE p.idPedido = :id AND p.estado = :estadoActual")
+    int cambiarEstadoSiEsta(@Param("id") Long id, @Param("estadoActual") EstadoPedido estadoActual,
+                            @Param("estadoNuevo") EstadoPedido estadoNuevo,
+                            @Param("fechaCompletado") LocalDateTime fechaCompletado);
+    
+    // Asigna técnico y horario con el mismo compare-and-set: 0 filas si el pedido ya no está en estadoActual
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PedidoModel p SET p.idTecnico = :idTecnico, p.fechaProgramada = :fechaProgramada, " +
+           "p.estado = :estadoNuevo, p.version = p.version + 1 WHERE p.idPedido = :id AND p.estado = :estadoActual")
+    int agendarSiEsta(@Param("id") Long id, @Param("estadoActual") EstadoPedido estadoActual,
+                      @Param("estadoNuevo") EstadoPedido estadoNuevo, @Param("idTecnico") Long idTecnico,
+                      @Param("fechaProgramada") LocalDateTime fechaProgramada);
+    
+    // Lo mismo para varios pedidos en una sentencia: solo cambian los que están en alguno de los estados de origen
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PedidoModel p SET p.estado = :estadoNuevo, " +
+           "p.fechaCompletado = COALESCE(:fechaCompletado, p.fechaCompletado), p.version = p.version + 1 " +
+           "WHERE p.idPedido IN :ids AND p.estado IN :estadosOrigen")
+    int cambiarEstadoSiEstanEn(@Param("ids") Collection<Long> ids,
+                               @Param("estadosOrigen") Collection<EstadoPedido> estadosOrigen,
+                               @Param("estadoNuevo") EstadoPedido estadoNuevo,
+                               @Param("fechaCompletado") LocalDateTime fechaCompletado);
      
     @Query("SELECT p FROM PedidoModel p WHERE p.estado = :estadoCompletado AND p.fechaCompletado BETWEEN :fechaInicio AND :fechaFin")
     List<PedidoModel> findPedidosCompletadosEnRango(@Param("estadoCompletado") EstadoPedido estadoCompletado,
                                                    @Param("fechaInicio") LocalDateTime fechaInicio, 
                                                    @Param("fechaFin") LocalDateTime fechaFin);
-}
\ No newline at end of file
+}
@@ -0,0 +1,321 @@
+package com.example.Service;
+
+import com.example.DTO.HorarioDTO;
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.EstadoPedido;
+import com.example.Repository.PedidoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Agenda de los técnicos para programar pedidos. La jornada de cada día hábil se divide en franjas de
+// pedido.agenda.minutos-franja y la ocupación de un técnico en un día es un long con un bit por franja, así que
+// buscar un hueco para un servicio son unas pocas operaciones de bits por día. Se carga al iniciar con los pedidos
+// ASIGNADO o EN_PROCESO que tienen técnico y fecha programada, y PedidoService la actualiza con cada pedido que
+// guarda, igual que ColaUrgentes. Cuánto dura un servicio depende de su tipo (pedido.agenda.duraciones).
+@Component
+public class AgendaTecnicos {
+
+    // Estados que ocupan la agenda del técnico
+    static final List<EstadoPedido> ESTADOS = List.of(EstadoPedido.ASIGNADO, EstadoPedido.EN_PROCESO);
+
+    private final PedidoRepository pedidoRepository;
+    private final int minutosFranja;
+    private final LocalTime horaInicio;
+    private final int franjasPorDia;
+    // Un bit por cada franja de la jornada
+    private final long jornada;
+    // Por DayOfWeek.ordinal()
+    private final boolean[] habiles = new boolean[7];
+    private final int horizonteDias;
+    private final int duracionPorDefecto;
+    private final Map<String, Integer> duraciones = new HashMap<>();
+
+    private final Map<Long, Agenda> agendas = new HashMap<>();
+    // Franjas que ocupa cada pedido agendado, para liberarlas sin buscarlas
+    private final Map<Long, Reserva> reservas = new HashMap<>();
+
+    @Autowired
+    public AgendaTecnicos(PedidoRepository pedidoRepository,
+                          @Value("${pedido.agenda.minutos-franja:30}") int minutosFranja,
+                          @Value("${pedido.agenda.hora-inicio:08:00}") String horaInicio,
+                          @Value("${pedido.agenda.hora-fin:18:00}") String horaFin,
+                          @Value("${pedido.agenda.dias:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}") Set<DayOfWeek> dias,
+                          @Value("${pedido.agenda.horizonte-dias:30}") int horizonteDias,
+                          @Value("${pedido.agenda.duracion-min:120}") int duracionPorDefecto,
+                          @Value("${pedido.agenda.duraciones:}") String duraciones) {
+        this.pedidoRepository = pedidoRepository;
+        this.minutosFranja = minutosFranja;
+        this.horaInicio = LocalTime.parse(horaInicio);
+        long minutosJornada = Duration.between(this.horaInicio, LocalTime.parse(horaFin)).toMinutes();
+        if (minutosFranja <= 0 || minutosJornada < minutosFranja || minutosJornada / minutosFranja > Long.SIZE) {
+            throw new IllegalArgumentException("La jornada debe tener entre 1 y " + Long.SIZE + " franjas de "
+                    + minutosFranja + " minutos");
+        }
+        this.franjasPorDia = (int) (minutosJornada / minutosFranja);
+        this.jornada = tramo(0, franjasPorDia);
+        dias.forEach(dia -> habiles[dia.ordinal()] = true);
+        this.horizonteDias = horizonteDias;
+        this.duracionPorDefecto = duracionPorDefecto;
+        // TIPO:minutos separados por comas, p. ej. INSTALACION:240,MANTENCION:120
+        for (String par : duraciones.split(",")) {
+            if (!par.isBlank()) {
+                String[] partes = par.split(":");
+                this.duraciones.put(clave(partes[0]), Integer.parseInt(partes[1].trim()));
+            }
+        }
+    }
+
+    // También sirve para recargar la agenda desde la base si se modificó por fuera del servicio
+    @PostConstruct
+    public synchronized void cargar() {
+        agendas.clear();
+        reservas.clear();
+        for (PedidoModel pedido : pedidoRepository.findAgendados(ESTADOS)) {
+            Reserva reserva = reservaDe(pedido);
+            if (reserva != null) {
+                poner(pedido.getIdPedido(), reserva);
+            }
+        }
+    }
+
+    public int duracionMinutos(String tipoServicio) {
+        return duraciones.getOrDefault(clave(tipoServicio), duracionPorDefecto);
+    }
+
+    // Primer horario del técnico, desde 'desde' y dentro del horizonte, con franjas libres seguidas para un servicio
+    // del tipo dado; vacío si no hay
+    public synchronized Optional<HorarioDTO> buscarHorario(Long idTecnico, String tipoServicio, LocalDateTime desde) {
+        int franjas = franjas(tipoServicio);
+        Hueco hueco = buscar(agendas.get(idTecnico), franjas, desde.toLocalDate().toEpochDay(),
+                primeraFranja(desde.toLocalTime()), horizonteDias);
+        return hueco == null ? Optional.empty() : Optional.of(horario(idTecnico, hueco, tipoServicio));
+    }
+
+    // Ocupa el primer horario libre entre los técnicos dados (a igual horario, el primero de la lista). La búsqueda
+    // y la reserva ocurren bajo el mismo lock, así que dos pedidos nunca reciben la misma franja.
+    // IllegalStateException si el pedido ya está en la agenda
+    public synchronized Optional<HorarioDTO> reservar(Long idPedido, Collection<Long> tecnicos, String tipoServicio,
+                                                      LocalDateTime desde) {
+        if (reservas.containsKey(idPedido)) {
+            throw new IllegalStateException("El pedido " + idPedido + " ya está agendado");
+        }
+        int franjas = franjas(tipoServicio);
+        long primerDia = desde.toLocalDate().toEpochDay();
+        int primeraFranja = primeraFranja(desde.toLocalTime());
+        Long elegido = null;
+        Hueco mejor = null;
+        for (Long idTecnico : tecnicos) {
+            // Un técnico solo puede mejorar el horario elegido hasta el día de ese horario
+            int dias = mejor == null ? horizonteDias : (int) (mejor.dia() - primerDia) + 1;
+            Hueco hueco = buscar(agendas.get(idTecnico), franjas, primerDia, primeraFranja, dias);
+            if (hueco != null && (mejor == null || hueco.antesQue(mejor))) {
+                elegido = idTecnico;
+                mejor = hueco;
+                if (hueco.dia() == primerDia && hueco.inicio() == primeraFranja) {
+                    // Nadie puede empezar antes
+                    break;
+                }
+            }
+        }
+        if (mejor == null) {
+            return Optional.empty();
+        }
+        poner(idPedido, new Reserva(elegido, mejor.dia(), mejor.franjas(), null));
+        return Optional.of(horario(elegido, mejor, tipoServicio));
+    }
+
+    // Pone, mueve o quita el pedido según su estado, técnico y fecha programada guardados. No pisa una versión más
+    // nueva que ya esté en la agenda
+    public synchronized void actualizar(PedidoModel pedido) {
+        Reserva anterior = reservas.get(pedido.getIdPedido());
+        if (anterior != null && anterior.version() != null && pedido.getVersion() != null
+                && anterior.version() > pedido.getVersion()) {
+            return;
+        }
+        liberar(pedido.getIdPedido());
+        Reserva reserva = reservaDe(pedido);
+        if (reserva != null) {
+            poner(pedido.getIdPedido(), reserva);
+        }
+    }
+
+    public synchronized void liberar(Long idPedido) {
+        Reserva reserva = reservas.remove(idPedido);
+        if (reserva != null) {
+            Agenda agenda = agendas.get(reserva.idTecnico());
+            agenda.quitar(idPedido, reserva.dia());
+            if (agenda.vacia()) {
+                agendas.remove(reserva.idTecnico());
+            }
+        }
+    }
+
+    private void poner(Long idPedido, Reserva reserva) {
+        reservas.put(idPedido, reserva);
+        agendas.computeIfAbsent(reserva.idTecnico(), id -> new Agenda()).poner(idPedido, reserva.dia(), reserva.franjas());
+    }
+
+    // Franjas que ocupa un pedido ya programado; null si no ocupa la agenda o cae fuera de la jornada
+    private Reserva reservaDe(PedidoModel pedido) {
+        if (!ESTADOS.contains(pedido.getEstado()) || pedido.getIdTecnico() == null || pedido.getFechaProgramada() == null) {
+            return null;
+        }
+        long minutos = Duration.between(horaInicio, pedido.getFechaProgramada().toLocalTime()).toMinutes();
+        int primera = (int) Math.max(0, Math.floorDiv(minutos, minutosFranja));
+        int ultima = (int) Math.min(franjasPorDia, Math.ceilDiv(minutos + duracionMinutos(pedido.getTipoServicio()), minutosFranja));
+        if (primera >= ultima) {
+            return null;
+        }
+        return new Reserva(pedido.getIdTecnico(), pedido.getFechaProgramada().toLocalDate().toEpochDay(),
+                tramo(primera, ultima - primera), pedido.getVersion());
+    }
+
+    // Franjas seguidas que necesita un servicio del tipo dado
+    private int franjas(String tipoServicio) {
+        int franjas = Math.ceilDiv(duracionMinutos(tipoServicio), minutosFranja);
+        if (franjas > franjasPorDia) {
+            throw new IllegalArgumentException("Un servicio de " + tipoServicio + " no cabe en una jornada");
+        }
+        return Math.max(1, franjas);
+    }
+
+    // Primer hueco en los 'dias' días desde primerDia, sin empezar antes de primeraFranja ese día; null si no hay
+    private Hueco buscar(Agenda agenda, int franjas, long primerDia, int primeraFranja, int dias) {
+        for (int i = 0; i < dias; i++) {
+            long dia = primerDia + i;
+            // El día 0 (1970-01-01) fue jueves
+            if (!habiles[(int) Math.floorMod(dia + DayOfWeek.THURSDAY.ordinal(), 7L)]) {
+                continue;
+            }
+            long libres = jornada & ~(agenda == null ? 0 : agenda.ocupadas(dia));
+            if (i == 0) {
+                libres &= primeraFranja == Long.SIZE ? 0 : -1L << primeraFranja;
+            }
+            int inicio = primerTramo(libres, franjas);
+            if (inicio >= 0) {
+                return new Hueco(dia, inicio, tramo(inicio, franjas));
+            }
+        }
+        return null;
+    }
+
+    // Primera franja que empieza en o después de la hora dada
+    private int primeraFranja(LocalTime hora) {
+        long segundos = Duration.between(horaInicio, hora).getSeconds();
+        return (int) Math.min(Long.SIZE, Math.max(0, Math.ceilDiv(segundos, minutosFranja * 60L)));
+    }
+
+    private HorarioDTO horario(Long idTecnico, Hueco hueco, String tipoServicio) {
+        LocalDateTime inicio = LocalDate.ofEpochDay(hueco.dia()).atTime(horaInicio)
+                .plusMinutes((long) hueco.inicio() * minutosFranja);
+        return new HorarioDTO(idTecnico, inicio, inicio.plusMinutes(duracionMinutos(tipoServicio)));
+    }
+
+    // Primera franja desde la que hay 'largo' bits libres seguidos, o -1. Cada paso deja en m los bits que inician
+    // un tramo libre del largo acumulado, así que bastan log2(largo) pasos
+    static int primerTramo(long libres, int largo) {
+        long m = libres;
+        int acumulado = 1;
+        while (acumulado < largo && m != 0) {
+            int paso = Math.min(acumulado, largo - acumulado);
+            m &= m >>> paso;
+            acumulado += paso;
+        }
+        return m == 0 ? -1 : Long.numberOfTrailingZeros(m);
+    }
+
+    static long tramo(int inicio, int largo) {
+        return (largo == Long.SIZE ? -1L : (1L << largo) - 1) << inicio;
+    }
+
+    // Tipos de servicio sin tildes ni mayúsculas: "Instalación" e "INSTALACION" duran lo mismo
+    private static String clave(String tipoServicio) {
+        String sinTildes = Normalizer.normalize(tipoServicio == null ? "" : tipoServicio.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        return sinTildes.toUpperCase(Locale.ROOT);
+    }
+
+    private record Reserva(long idTecnico, long dia, long franjas, Long version) {
+    }
+
+    private record Hueco(long dia, int inicio, long franjas) {
+
+        boolean antesQue(Hueco otro) {
+            return dia < otro.dia || (dia == otro.dia && inicio < otro.inicio);
+        }
+    }
+
+    // Ocupación de un técnico por día (epochDay). Las búsquedas leen un arreglo que cubre del primer al último día
+    // con pedidos, sin claves en caja; el mapa por día solo se usa al poner o quitar
+    private static final class Agenda {
+
+        private final Map<Long, Map<Long, Long>> pedidosPorDia = new HashMap<>();
+        private long primerDia;
+        private long[] ocupadas = new long[0];
+
+        long ocupadas(long dia) {
+            long indice = dia - primerDia;
+            return indice >= 0 && indice < ocupadas.length ? ocupadas[(int) indice] : 0;
+        }
+
+        void poner(Long idPedido, long dia, long franjas) {
+            pedidosPorDia.computeIfAbsent(dia, d -> new HashMap<>()).put(idPedido, franjas);
+            cubrir(dia);
+            ocupadas[(int) (dia - primerDia)] |= franjas;
+        }
+
+        // La unión se recalcula: pedidos cargados de la base pueden compartir franjas
+        void quitar(Long idPedido, long dia) {
+            Map<Long, Long> delDia = pedidosPorDia.get(dia);
+            if (delDia == null || delDia.remove(idPedido) == null) {
+                return;
+            }
+            long union = 0;
+            for (long franjas : delDia.values()) {
+                union |= franjas;
+            }
+            if (delDia.isEmpty()) {
+                pedidosPorDia.remove(dia);
+            }
+            ocupadas[(int) (dia - primerDia)] = union;
+        }
+
+        boolean vacia() {
+            return pedidosPorDia.isEmpty();
+        }
+
+        // Agranda el arreglo hacia atrás o hacia adelante hasta incluir el día
+        private void cubrir(long dia) {
+            if (ocupadas.length == 0) {
+                primerDia = dia;
+                ocupadas = new long[8];
+                return;
+            }
+            if (dia < primerDia) {
+                long[] mayor = new long[(int) (primerDia - dia) + ocupadas.length];
+                System.arraycopy(ocupadas, 0, mayor, (int) (primerDia - dia), ocupadas.length);
+                primerDia = dia;
+                ocupadas = mayor;
+            } else if (dia - primerDia >= ocupadas.length) {
+                ocupadas = Arrays.copyOf(ocupadas, (int) Math.max(dia - primerDia + 1, ocupadas.length * 2L));
+            }
+        }
+    }
+}
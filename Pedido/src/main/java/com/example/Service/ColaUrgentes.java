@@ -0,0 +1,112 @@
+package com.example.Service;
+
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.EstadoPedido;
+import com.example.Model.PedidoModel.PrioridadPedido;
+import com.example.Repository.PedidoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Pedidos urgentes por atender: prioridad URGENTE o ALTA en estado PENDIENTE o ASIGNADO, primero los URGENTE
+// y luego por fecha de creación. Se carga al iniciar y PedidoService la actualiza con cada pedido que guarda,
+// así /urgentes no vuelve a consultar ni ordenar la tabla. La lista que se entrega se arma una sola vez
+// después de cada cambio y las lecturas siguientes la reutilizan.
+@Component
+public class ColaUrgentes {
+
+    // En orden de atención
+    static final List<PrioridadPedido> PRIORIDADES = List.of(PrioridadPedido.URGENTE, PrioridadPedido.ALTA);
+    static final List<EstadoPedido> ESTADOS = List.of(EstadoPedido.PENDIENTE, EstadoPedido.ASIGNADO);
+
+    private static final Comparator<Entrada> ORDEN = Comparator.comparingInt(Entrada::rango)
+            .thenComparing(Entrada::fechaCreacion)
+            .thenComparingLong(Entrada::idPedido);
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private final TreeMap<Entrada, PedidoModel> cola = new TreeMap<>(ORDEN);
+    // Entrada vigente de cada pedido, para reemplazarla o quitarla sin recorrer la cola
+    private final Map<Long, Entrada> porId = new HashMap<>();
+    // null = hubo cambios desde la última lectura
+    private volatile List<PedidoModel> vista;
+
+    // También sirve para recargar la cola desde la base si se modificó por fuera del servicio
+    @PostConstruct
+    public synchronized void cargar() {
+        cola.clear();
+        porId.clear();
+        pedidoRepository.findPedidosUrgentes(PRIORIDADES, ESTADOS).forEach(this::poner);
+        vista = null;
+    }
+
+    public List<PedidoModel> pedidos() {
+        List<PedidoModel> actual = vista;
+        return actual != null ? actual : armarVista();
+    }
+
+    // Pedido tal como está en la cola, o vacío si no está
+    public synchronized Optional<PedidoModel> buscar(Long idPedido) {
+        Entrada entrada = porId.get(idPedido);
+        return entrada == null ? Optional.empty() : Optional.of(cola.get(entrada));
+    }
+
+    // Pone, reemplaza o quita el pedido según su estado y prioridad guardados. No pisa una versión más nueva
+    // que ya esté en la cola
+    public synchronized void actualizar(PedidoModel pedido) {
+        Entrada anterior = porId.get(pedido.getIdPedido());
+        if (anterior != null && esMasNueva(cola.get(anterior), pedido)) {
+            return;
+        }
+        quitarEntrada(pedido.getIdPedido());
+        if (ESTADOS.contains(pedido.getEstado()) && PRIORIDADES.contains(pedido.getPrioridad())) {
+            poner(pedido);
+        }
+        vista = null;
+    }
+
+    public synchronized void quitar(Long idPedido) {
+        if (quitarEntrada(idPedido)) {
+            vista = null;
+        }
+    }
+
+    private synchronized List<PedidoModel> armarVista() {
+        if (vista == null) {
+            vista = List.copyOf(cola.values());
+        }
+        return vista;
+    }
+
+    private void poner(PedidoModel pedido) {
+        LocalDateTime fechaCreacion = pedido.getFechaCreacion() == null ? LocalDateTime.MIN : pedido.getFechaCreacion();
+        Entrada entrada = new Entrada(pedido.getIdPedido(), PRIORIDADES.indexOf(pedido.getPrioridad()), fechaCreacion);
+        cola.put(entrada, pedido);
+        porId.put(pedido.getIdPedido(), entrada);
+    }
+
+    private static boolean esMasNueva(PedidoModel enCola, PedidoModel pedido) {
+        return enCola.getVersion() != null && pedido.getVersion() != null && enCola.getVersion() > pedido.getVersion();
+    }
+
+    private boolean quitarEntrada(Long idPedido) {
+        Entrada anterior = porId.remove(idPedido);
+        if (anterior == null) {
+            return false;
+        }
+        cola.remove(anterior);
+        return true;
+    }
+
+    private record Entrada(long idPedido, int rango, LocalDateTime fechaCreacion) {
+    }
+}
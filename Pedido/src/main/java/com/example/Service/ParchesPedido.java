@@ -0,0 +1,163 @@
+package com.example.Service;
+
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.EstadoPedido;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Aplica un JSON Merge Patch (RFC 7396) a un pedido: los campos presentes se reemplazan, los null se borran y los
+// ausentes no se tocan. PedidoModel tiene @DynamicUpdate, así que el UPDATE lleva solo las columnas que cambiaron.
+// Con la versión en el parche ni siquiera se lee el pedido: un único UPDATE con las columnas del parche,
+// condicionado a esa versión (y al estado de origen si el parche cambia el estado).
+@Component
+public class ParchesPedido {
+
+    // El ID, la versión y la fecha de creación no se modifican con un parche
+    private static final Set<String> MODIFICABLES = Set.of("idCliente", "idTecnico", "descripcionServicio",
+            "tipoServicio", "estado", "prioridad", "fechaProgramada", "fechaCompletado", "direccionServicio",
+            "telefonoContacto", "costoEstimado", "costoFinal", "observaciones", "materialesNecesarios");
+    private static final Set<String> OBLIGATORIOS = Set.of("descripcionServicio", "tipoServicio", "estado",
+            "prioridad", "direccionServicio", "telefonoContacto");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Lee el pedido y le aplica el parche; al confirmar, Hibernate compara la versión y escribe lo que cambió
+    @Transactional
+    public PedidoModel aplicar(Long id, JsonNode parche) {
+        Map<String, Object> valores = valores(id, parche);
+        PedidoModel pedido = entityManager.find(PedidoModel.class, id);
+        if (pedido == null) {
+            throw new RuntimeException("Pedido no encontrado con ID: " + id);
+        }
+        EstadoPedido estado = (EstadoPedido) valores.get("estado");
+        if (estado != null && estado != pedido.getEstado() && !pedido.getEstado().puedePasarA(estado)) {
+            throw new IllegalStateException("El pedido " + id + " no puede pasar de " + pedido.getEstado() + " a " + estado);
+        }
+        asignar(pedido, valores);
+        if (pedido.getEstado() == EstadoPedido.COMPLETADO && pedido.getFechaCompletado() == null) {
+            pedido.setFechaCompletado(LocalDateTime.now());
+        }
+        return pedido;
+    }
+
+    // Devuelve la versión nueva. Sin lectura previa, 0 filas puede ser un pedido inexistente (RuntimeException),
+    // otra versión o un estado de origen que no permite el cambio (ObjectOptimisticLockingFailureException)
+    @Transactional
+    public long aplicarSinLeer(Long id, JsonNode parche) {
+        long version = version(parche);
+        Map<String, Object> valores = valores(id, parche);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<PedidoModel> update = cb.createCriteriaUpdate(PedidoModel.class);
+        Root<PedidoModel> pedido = update.from(PedidoModel.class);
+        List<Predicate> condiciones = new ArrayList<>(List.of(
+                cb.equal(pedido.get("idPedido"), id),
+                cb.equal(pedido.get("version"), version)));
+        valores.forEach(update::set);
+        EstadoPedido estado = (EstadoPedido) valores.get("estado");
+        if (estado != null) {
+            // Repetir el estado actual no es una transición
+            Set<EstadoPedido> origenes = EstadoPedido.origenesDe(estado);
+            origenes.add(estado);
+            condiciones.add(pedido.get("estado").in(origenes));
+            if (estado == EstadoPedido.COMPLETADO && !valores.containsKey("fechaCompletado")) {
+                update.set(pedido.<LocalDateTime>get("fechaCompletado"),
+                        cb.coalesce(pedido.<LocalDateTime>get("fechaCompletado"), LocalDateTime.now()));
+            }
+        }
+        update.set(pedido.<Long>get("version"), cb.sum(pedido.<Long>get("version"), 1L));
+        update.where(condiciones.toArray(Predicate[]::new));
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            if (entityManager.find(PedidoModel.class, id) == null) {
+                throw new RuntimeException("Pedido no encontrado con ID: " + id);
+            }
+            throw new ObjectOptimisticLockingFailureException(PedidoModel.class, id);
+        }
+        return version + 1;
+    }
+
+    // Copia del pedido con el parche ya aplicado, para vistas en memoria que no vuelven a leerlo
+    public PedidoModel copiaConParche(PedidoModel pedido, JsonNode parche, long version) {
+        PedidoModel copia = objectMapper.convertValue(pedido, PedidoModel.class);
+        asignar(copia, valores(pedido.getIdPedido(), parche));
+        copia.setVersion(version);
+        return copia;
+    }
+
+    // IllegalArgumentException si el parche no es un objeto o no trae una versión entera
+    public static long version(JsonNode parche) {
+        JsonNode version = parche == null ? null : parche.get("version");
+        if (version == null || !version.isIntegralNumber()) {
+            throw new IllegalArgumentException("version debe ser un número entero");
+        }
+        return version.asLong();
+    }
+
+    // Campos del parche convertidos al tipo de su atributo; IllegalArgumentException ante un campo desconocido,
+    // no modificable, un null en un campo obligatorio o un valor que no se puede convertir
+    private Map<String, Object> valores(Long id, JsonNode parche) {
+        if (parche == null || !parche.isObject()) {
+            throw new IllegalArgumentException("El parche debe ser un objeto JSON");
+        }
+        Map<String, Object> valores = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> campos = parche.fields();
+        while (campos.hasNext()) {
+            Map.Entry<String, JsonNode> campo = campos.next();
+            String nombre = campo.getKey();
+            JsonNode valor = campo.getValue();
+            if ("version".equals(nombre)) {
+                continue;
+            }
+            if ("idPedido".equals(nombre)) {
+                if (!valor.isNull() && valor.asLong() != id) {
+                    throw new IllegalArgumentException("idPedido no coincide con el de la URL");
+                }
+                continue;
+            }
+            if (!MODIFICABLES.contains(nombre)) {
+                throw new IllegalArgumentException("Campo no modificable: " + nombre);
+            }
+            if (valor.isNull()) {
+                if (OBLIGATORIOS.contains(nombre)) {
+                    throw new IllegalArgumentException(nombre + " es requerido");
+                }
+                valores.put(nombre, null);
+            } else {
+                valores.put(nombre, objectMapper.convertValue(valor, tipo(nombre)));
+            }
+        }
+        return valores;
+    }
+
+    private Class<?> tipo(String campo) {
+        return entityManager.getMetamodel().entity(PedidoModel.class).getAttribute(campo).getJavaType();
+    }
+
+    private static void asignar(PedidoModel pedido, Map<String, Object> valores) {
+        BeanWrapper propiedades = PropertyAccessorFactory.forBeanPropertyAccess(pedido);
+        valores.forEach(propiedades::setPropertyValue);
+    }
+}
@@ -1,21 +1,61 @@
 package com.example.Service;
 
+import com.example.DTO.HorarioDTO;
+import com.example.DTO.ResultadoPlanificacionDTO;
+import com.example.DTO.ResultadoTransicionDTO;
 import com.example.Model.PedidoModel;
 import com.example.Model.PedidoModel.EstadoPedido;
 import com.example.Model.PedidoModel.PrioridadPedido;
 import com.example.Repository.PedidoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PedidoService {
 
+    // Pedidos por cambio masivo: todos van en el IN de un solo UPDATE
+    static final int MAX_TRANSICION_MASIVA = 1000;
+    // Filas por envío del lote JDBC que escribe una planificación
+    static final int LOTE_PLANIFICACION = 500;
+    // Campos de un parche que pueden cambiar la cola de urgentes o la agenda de los técnicos
+    private static final List<String> CAMPOS_DE_VISTAS = List.of("estado", "prioridad", "idTecnico",
+            "fechaProgramada", "tipoServicio");
+
     @Autowired
     private PedidoRepository pedidoRepository;
 
+    @Autowired
+    private ColaUrgentes colaUrgentes;
+
+    @Autowired
+    private AgendaTecnicos agendaTecnicos;
+
+    @Autowired
+    private ParchesPedido parchesPedido;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public List<PedidoModel> getPedidos() {
         return pedidoRepository.findAll();
     }
@@ -25,14 +65,54 @@ public class PedidoService {
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + id));
     }
 
+    // Solo altas: con idPedido, save() haría merge sobre esa fila sin validar la transición de estado.
+    // Todo pedido nace PENDIENTE; los demás estados se alcanzan con transiciones. La versión la inicia JPA
     public PedidoModel savePedido(PedidoModel pedido) {
-        return pedidoRepository.save(pedido);
+        if (pedido.getIdPedido() != null) {
+            throw new IllegalArgumentException("Un pedido nuevo no lleva idPedido; para modificarlo use PUT o PATCH");
+        }
+        if (pedido.getEstado() == null) {
+            pedido.setEstado(EstadoPedido.PENDIENTE);
+        } else if (pedido.getEstado() != EstadoPedido.PENDIENTE) {
+            throw new IllegalArgumentException("Un pedido nuevo debe crearse PENDIENTE, no " + pedido.getEstado());
+        }
+        pedido.setVersion(null);
+        return guardar(pedido);
     }
 
+    // Reemplaza el pedido completo salvo la fecha de creación, que fija el servidor. Sin versión en el cuerpo
+    // se compara con la recién leída; un cambio de estado debe estar permitido
     public PedidoModel updatePedido(Long id, PedidoModel pedidoActualizado) {
         PedidoModel existente = getPedidoPorId(id);
+        if (pedidoActualizado.getEstado() != existente.getEstado()) {
+            validarTransicion(existente, pedidoActualizado.getEstado());
+        }
         pedidoActualizado.setIdPedido(id);
-        return pedidoRepository.save(pedidoActualizado);
+        pedidoActualizado.setFechaCreacion(existente.getFechaCreacion());
+        if (pedidoActualizado.getVersion() == null) {
+            pedidoActualizado.setVersion(existente.getVersion());
+        }
+        return guardar(pedidoActualizado);
+    }
+
+    // JSON Merge Patch leyendo el pedido: escribe solo las columnas que cambian
+    public PedidoModel patchPedido(Long id, JsonNode parche) {
+        PedidoModel pedido = parchesPedido.aplicar(id, parche);
+        reflejar(pedido);
+        return pedido;
+    }
+
+    // JSON Merge Patch con "version": un solo UPDATE, sin leer el pedido. Devuelve la versión nueva
+    public long patchPedidoSinLeer(Long id, JsonNode parche) {
+        long version = parchesPedido.aplicarSinLeer(id, parche);
+        PedidoModel enCola = colaUrgentes.buscar(id).orElse(null);
+        if (enCola != null) {
+            reflejar(parchesPedido.copiaConParche(enCola, parche, version));
+        } else if (CAMPOS_DE_VISTAS.stream().anyMatch(parche::has)) {
+            // Puede haber pasado a ser urgente o cambiado su horario, y la cola no tiene el resto del pedido
+            reflejar(getPedidoPorId(id));
+        }
+        return version;
     }
 
     public void deletePedido(Long id) {
@@ -40,24 +120,200 @@ public class PedidoService {
             throw new RuntimeException("Pedido no encontrado con ID: " + id + " para eliminar");
         }
         pedidoRepository.deleteById(id);
+        colaUrgentes.quitar(id);
+        agendaTecnicos.liberar(id);
     }
 
     public PedidoModel iniciarTrabajo(Long id) {
-        PedidoModel pedido = getPedidoPorId(id);
-        pedido.setEstado(EstadoPedido.EN_PROCESO);
-        return pedidoRepository.save(pedido);
+        return cambiarEstado(id, EstadoPedido.EN_PROCESO);
     }
 
     public PedidoModel cancelarPedido(Long id) {
-        PedidoModel pedido = getPedidoPorId(id);
-        pedido.setEstado(EstadoPedido.CANCELADO);
-        return pedidoRepository.save(pedido);
+        return cambiarEstado(id, EstadoPedido.CANCELADO);
     }
 
+    // IllegalStateException si la transición no está permitida o si otro cambio ganó la carrera: el UPDATE
+    // solo se aplica si el pedido sigue en el estado leído
     public PedidoModel cambiarEstado(Long id, EstadoPedido nuevoEstado) {
         PedidoModel pedido = getPedidoPorId(id);
+        EstadoPedido actual = pedido.getEstado();
+        validarTransicion(pedido, nuevoEstado);
+        LocalDateTime fechaCompletado = nuevoEstado == EstadoPedido.COMPLETADO ? LocalDateTime.now() : null;
+        if (pedidoRepository.cambiarEstadoSiEsta(id, actual, nuevoEstado, fechaCompletado) == 0) {
+            throw new IllegalStateException("El pedido " + id + " ya no está en " + actual);
+        }
+        // Lo mismo que escribió el UPDATE, sin volver a leerlo
         pedido.setEstado(nuevoEstado);
-        return pedidoRepository.save(pedido);
+        pedido.setVersion(pedido.getVersion() + 1);
+        if (fechaCompletado != null) {
+            pedido.setFechaCompletado(fechaCompletado);
+        }
+        reflejar(pedido);
+        return pedido;
+    }
+
+    // Un SELECT clasifica los pedidos, un UPDATE cambia todos los que pueden pasar a nuevoEstado y un SELECT
+    // final detecta los que otro cambio movió entre medio
+    public ResultadoTransicionDTO cambiarEstados(List<Long> ids, EstadoPedido nuevoEstado) {
+        if (nuevoEstado == null || ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Se requieren ids y estado");
+        }
+        Set<Long> solicitados = new LinkedHashSet<>(ids);
+        if (solicitados.size() > MAX_TRANSICION_MASIVA) {
+            throw new IllegalArgumentException("Máximo " + MAX_TRANSICION_MASIVA + " pedidos por cambio masivo");
+        }
+        Map<Long, EstadoPedido> estados = new HashMap<>();
+        for (Object[] fila : pedidoRepository.findEstadosByIds(solicitados)) {
+            estados.put((Long) fila[0], (EstadoPedido) fila[1]);
+        }
+        List<Long> candidatos = new ArrayList<>();
+        List<Long> sinCambios = new ArrayList<>();
+        List<Long> rechazados = new ArrayList<>();
+        List<Long> noEncontrados = new ArrayList<>();
+        for (Long id : solicitados) {
+            EstadoPedido actual = estados.get(id);
+            if (actual == null) {
+                noEncontrados.add(id);
+            } else if (actual == nuevoEstado) {
+                sinCambios.add(id);
+            } else if (actual.puedePasarA(nuevoEstado)) {
+                candidatos.add(id);
+            } else {
+                rechazados.add(id);
+            }
+        }
+        int actualizados = 0;
+        if (!candidatos.isEmpty()) {
+            LocalDateTime fechaCompletado = nuevoEstado == EstadoPedido.COMPLETADO ? LocalDateTime.now() : null;
+            actualizados = pedidoRepository.cambiarEstadoSiEstanEn(candidatos,
+                    EstadoPedido.origenesDe(nuevoEstado), nuevoEstado, fechaCompletado);
+            for (PedidoModel pedido : pedidoRepository.findAllById(candidatos)) {
+                if (pedido.getEstado() != nuevoEstado) {
+                    rechazados.add(pedido.getIdPedido());
+                }
+                reflejar(pedido);
+            }
+        }
+        return new ResultadoTransicionDTO(actualizados, sinCambios, rechazados, noEncontrados);
+    }
+
+    // Primer horario libre del técnico para un servicio del tipo dado, desde 'desde' (o desde ahora)
+    public Optional<HorarioDTO> buscarHorario(Long idTecnico, String tipoServicio, LocalDateTime desde) {
+        if (idTecnico == null || tipoServicio == null) {
+            throw new IllegalArgumentException("Se requieren técnico y tipo de servicio");
+        }
+        return agendaTecnicos.buscarHorario(idTecnico, tipoServicio, desde != null ? desde : LocalDateTime.now());
+    }
+
+    // Reserva el primer horario libre entre los técnicos dados y asigna el pedido con un UPDATE condicionado a que
+    // siga PENDIENTE. IllegalStateException si no está PENDIENTE, si no hay horario en el horizonte de la agenda o
+    // si otro cambio ganó la carrera; en ese caso, o si el UPDATE falla, el horario se libera
+    public PedidoModel agendarPedido(Long id, List<Long> tecnicos, LocalDateTime desde) {
+        validarTecnicos(tecnicos);
+        PedidoModel pedido = getPedidoPorId(id);
+        if (pedido.getEstado() != EstadoPedido.PENDIENTE) {
+            throw new IllegalStateException("Solo se agendan pedidos PENDIENTE; el pedido " + id + " está " + pedido.getEstado());
+        }
+        HorarioDTO horario = agendaTecnicos.reservar(id, tecnicos, pedido.getTipoServicio(),
+                        desde != null ? desde : LocalDateTime.now())
+                .orElseThrow(() -> new IllegalStateException("Sin horario libre para el pedido " + id));
+        int cambiadas;
+        try {
+            cambiadas = pedidoRepository.agendarSiEsta(id, EstadoPedido.PENDIENTE, EstadoPedido.ASIGNADO,
+                    horario.getIdTecnico(), horario.getInicio());
+        } catch (RuntimeException e) {
+            agendaTecnicos.liberar(id);
+            throw e;
+        }
+        if (cambiadas == 0) {
+            agendaTecnicos.liberar(id);
+            throw new IllegalStateException("El pedido " + id + " ya no está en " + EstadoPedido.PENDIENTE);
+        }
+        asignar(pedido, horario);
+        reflejar(pedido);
+        return pedido;
+    }
+
+    // Agenda los pedidos PENDIENTE, primero los de mayor prioridad y luego por orden de creación, cada uno en el
+    // primer horario libre de los técnicos dados. Las asignaciones van en un lote JDBC dentro de una transacción;
+    // cada fila sigue condicionada a que el pedido esté PENDIENTE y las que no cambian liberan su horario.
+    // Si el lote falla se liberan todos los horarios reservados
+    public ResultadoPlanificacionDTO planificar(List<Long> tecnicos, LocalDateTime desde) {
+        validarTecnicos(tecnicos);
+        LocalDateTime inicio = desde != null ? desde : LocalDateTime.now();
+        List<PedidoModel> pendientes = new ArrayList<>(pedidoRepository.findByEstado(EstadoPedido.PENDIENTE));
+        pendientes.sort(Comparator.comparing(PedidoModel::getPrioridad).reversed()
+                .thenComparing(PedidoModel::getFechaCreacion)
+                .thenComparing(PedidoModel::getIdPedido));
+        List<Asignacion> asignaciones = new ArrayList<>();
+        List<Long> sinHorario = new ArrayList<>();
+        List<Long> conflictos = new ArrayList<>();
+        for (PedidoModel pedido : pendientes) {
+            try {
+                agendaTecnicos.reservar(pedido.getIdPedido(), tecnicos, pedido.getTipoServicio(), inicio)
+                        .ifPresentOrElse(horario -> asignaciones.add(new Asignacion(pedido, horario)),
+                                () -> sinHorario.add(pedido.getIdPedido()));
+            } catch (IllegalStateException e) {
+                // Otra planificación ya lo tomó
+                conflictos.add(pedido.getIdPedido());
+            }
+        }
+        if (asignaciones.isEmpty()) {
+            return new ResultadoPlanificacionDTO(0, sinHorario, conflictos);
+        }
+        int[][] filas;
+        try {
+            filas = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE pedido SET id_tecnico = ?, fecha_programada = ?, estado = ?, version = version + 1 " +
+                    "WHERE id_pedido = ? AND estado = ?",
+                    asignaciones, LOTE_PLANIFICACION, (ps, asignacion) -> {
+                        ps.setLong(1, asignacion.horario().getIdTecnico());
+                        ps.setTimestamp(2, Timestamp.valueOf(asignacion.horario().getInicio()));
+                        ps.setString(3, EstadoPedido.ASIGNADO.name());
+                        ps.setLong(4, asignacion.pedido().getIdPedido());
+                        ps.setString(5, EstadoPedido.PENDIENTE.name());
+                    }));
+        } catch (RuntimeException e) {
+            asignaciones.forEach(asignacion -> agendaTecnicos.liberar(asignacion.pedido().getIdPedido()));
+            throw e;
+        }
+        int agendados = 0;
+        int i = 0;
+        Map<Long, Asignacion> sinConteo = new LinkedHashMap<>();
+        for (int[] lote : filas) {
+            for (int cambiadas : lote) {
+                Asignacion asignacion = asignaciones.get(i++);
+                PedidoModel pedido = asignacion.pedido();
+                if (cambiadas == Statement.SUCCESS_NO_INFO) {
+                    sinConteo.put(pedido.getIdPedido(), asignacion);
+                } else if (cambiadas == 0) {
+                    agendaTecnicos.liberar(pedido.getIdPedido());
+                    conflictos.add(pedido.getIdPedido());
+                } else {
+                    asignar(pedido, asignacion.horario());
+                    reflejar(pedido);
+                    agendados++;
+                }
+            }
+        }
+        // El driver no informó cuántas filas cambió: se relee el pedido y cuenta como aplicada solo si quedó
+        // con el técnico y el horario de esta planificación
+        if (!sinConteo.isEmpty()) {
+            Map<Long, PedidoModel> releidos = new HashMap<>();
+            pedidoRepository.findAllById(sinConteo.keySet()).forEach(pedido -> releidos.put(pedido.getIdPedido(), pedido));
+            for (Asignacion asignacion : sinConteo.values()) {
+                Long id = asignacion.pedido().getIdPedido();
+                PedidoModel releido = releidos.get(id);
+                if (releido != null && aplicada(releido, asignacion.horario())) {
+                    reflejar(releido);
+                    agendados++;
+                } else {
+                    agendaTecnicos.liberar(id);
+                    conflictos.add(id);
+                }
+            }
+        }
+        return new ResultadoPlanificacionDTO(agendados, sinHorario, conflictos);
     }
 
     public long contarPedidosPorEstado(EstadoPedido estado) {
@@ -76,13 +332,9 @@ public class PedidoService {
         return pedidoRepository.findByFechaCreacionBetween(fechaInicio, fechaFin);
     }
 
+    // URGENTE antes que ALTA, solo PENDIENTE o ASIGNADO, y por fecha de creación
     public List<PedidoModel> findPedidosUrgentes() {
-        return pedidoRepository.findPedidosUrgentes(
-                PrioridadPedido.URGENTE,
-                PrioridadPedido.ALTA,
-                EstadoPedido.PENDIENTE,
-                EstadoPedido.ASIGNADO
-        );
+        return colaUrgentes.pedidos();
     }
 
     public List<PedidoModel> findByTipoServicio(String tipoServicio) {
@@ -98,6 +350,51 @@ public class PedidoService {
     }
 
     public List<PedidoModel> findByCliente(Long idCliente) {
-        return pedidoRepository.findByClienteIdCliente(idCliente);
+        return pedidoRepository.findByIdCliente(idCliente);
+    }
+
+    private static void validarTransicion(PedidoModel pedido, EstadoPedido nuevoEstado) {
+        if (nuevoEstado == null || !pedido.getEstado().puedePasarA(nuevoEstado)) {
+            throw new IllegalStateException("El pedido " + pedido.getIdPedido() + " no puede pasar de "
+                    + pedido.getEstado() + " a " + nuevoEstado);
+        }
+    }
+
+    private static void validarTecnicos(List<Long> tecnicos) {
+        if (tecnicos == null || tecnicos.isEmpty() || tecnicos.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Se requiere al menos un técnico");
+        }
+    }
+
+    private static boolean aplicada(PedidoModel pedido, HorarioDTO horario) {
+        return pedido.getEstado() == EstadoPedido.ASIGNADO
+                && Objects.equals(pedido.getIdTecnico(), horario.getIdTecnico())
+                && Objects.equals(pedido.getFechaProgramada(), horario.getInicio());
+    }
+
+    // Lo mismo que escribe el UPDATE de una asignación, sin volver a leer el pedido
+    private static void asignar(PedidoModel pedido, HorarioDTO horario) {
+        pedido.setIdTecnico(horario.getIdTecnico());
+        pedido.setFechaProgramada(horario.getInicio());
+        pedido.setEstado(EstadoPedido.ASIGNADO);
+        pedido.setVersion(pedido.getVersion() + 1);
+    }
+
+    // Todo cambio guardado pasa por aquí para mantener ColaUrgentes y AgendaTecnicos al día
+    private PedidoModel guardar(PedidoModel pedido) {
+        if (pedido.getEstado() == EstadoPedido.COMPLETADO && pedido.getFechaCompletado() == null) {
+            pedido.setFechaCompletado(LocalDateTime.now());
+        }
+        PedidoModel guardado = pedidoRepository.save(pedido);
+        reflejar(guardado);
+        return guardado;
+    }
+
+    private void reflejar(PedidoModel pedido) {
+        colaUrgentes.actualizar(pedido);
+        agendaTecnicos.actualizar(pedido);
+    }
+
+    private record Asignacion(PedidoModel pedido, HorarioDTO horario) {
     }
-}
\ No newline at end of file
+}
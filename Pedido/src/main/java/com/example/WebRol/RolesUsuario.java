@@ -1,39 +1,181 @@
 package com.example.WebRol;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+// Cliente del servicio Usuario. Las llamadas no bloquean: van por un pool de conexiones propio y cada una tiene
+// un plazo (microservicio.usuario.timeout-ms). Los usuarios encontrados se guardan por cache.ttl-ms en
+// una cache acotada a cache.maximo entradas, y las consultas simultáneas de un mismo ID que no están en la cache
+// comparten una sola llamada. Tras circuito.fallas fallas seguidas el circuito se abre por circuito.abierto-ms:
+// no se llama a Usuario y se responde con la entrada de la cache aunque esté vencida; después una sola llamada de
+// prueba decide si se cierra. Una falla con una entrada vencida en la cache también responde con ella.
 @Component
 public class RolesUsuario {
-  private WebClient webClient = null;
 
-    public void UsuarioCliente(@Value("${usuario-service.url}") String usuarioServiceUrl) {
+    private static final ParameterizedTypeReference<Map<String, Object>> USUARIO = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final ConnectionProvider conexiones;
+    private final Duration plazo;
+    private final long ttlMs;
+    // Sin expiración propia: las entradas vencidas se conservan para responder con el circuito abierto
+    private final Cache<Long, Entrada> cache;
+    private final Map<Long, Mono<Map<String, Object>>> enVuelo = new ConcurrentHashMap<>();
+    private final Circuito circuito;
+
+    @Autowired
+    public RolesUsuario(@Value("${microservicio.usuario.url}") String usuarioServiceUrl,
+                        @Value("${microservicio.usuario.timeout-ms:800}") long timeoutMs,
+                        @Value("${microservicio.usuario.conexiones:50}") int maxConexiones,
+                        @Value("${microservicio.usuario.cache.ttl-ms:60000}") long ttlMs,
+                        @Value("${microservicio.usuario.cache.maximo:10000}") long maximo,
+                        @Value("${microservicio.usuario.circuito.fallas:5}") int fallas,
+                        @Value("${microservicio.usuario.circuito.abierto-ms:10000}") long abiertoMs) {
+        this.plazo = Duration.ofMillis(timeoutMs);
+        this.conexiones = ConnectionProvider.builder("usuario")
+            .maxConnections(maxConexiones)
+            .pendingAcquireTimeout(plazo)
+            .maxIdleTime(Duration.ofSeconds(30))
+            .build();
+        HttpClient httpClient = HttpClient.create(conexiones)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeoutMs)
+            .responseTimeout(plazo);
         this.webClient = WebClient.builder()
             .baseUrl(usuarioServiceUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
             .build();
+        this.ttlMs = ttlMs;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximo).build();
+        this.circuito = new Circuito(fallas, abiertoMs);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        conexiones.dispose();
+    }
+
+    // Vacío si el usuario no existe. La cache y el circuito se consultan al suscribirse: un Mono armado y nunca
+    // suscrito no gasta la llamada de prueba del circuito. Sumarse a una llamada en curso no pide permiso
+    public Mono<Map<String, Object>> buscarUsuario(Long id) {
+        return Mono.defer(() -> {
+            Entrada entrada = cache.getIfPresent(id);
+            if (entrada != null && System.currentTimeMillis() < entrada.vence()) {
+                return Mono.just(entrada.usuario());
+            }
+            Mono<Map<String, Object>> llamada = enVuelo.get(id);
+            if (llamada == null) {
+                if (!circuito.permiteLlamar()) {
+                    return entrada != null
+                        ? Mono.just(entrada.usuario())
+                        : Mono.error(new RuntimeException("Servicio de usuario no disponible (circuito abierto)"));
+                }
+                llamada = enVuelo.computeIfAbsent(id, this::consultar);
+            }
+            return llamada.onErrorResume(e -> entrada != null ? Mono.just(entrada.usuario()) : Mono.error(e));
+        });
     }
 
+    // Para quienes necesitan el usuario en el mismo hilo (controladores MVC)
     public Map<String, Object> getUsuarioById(Long id) {
-        try {
-            return this.webClient.get()
-                .uri("/api/v1/usuario/{id}", id)
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                    response -> response.bodyToMono(String.class)
-                        .flatMap(body -> Mono.error(new RuntimeException("Error al obtener usuario: " + body)))
-                )
-                .bodyToMono(Map.class)
-                .block();
-        } catch (WebClientResponseException e) {
-            throw new RuntimeException("Error HTTP al consumir servicio de usuario: " + e.getResponseBodyAsString(), e);
-        } catch (Exception e) {
-            throw new RuntimeException("Error al conectar con el servicio de usuario", e);
+        Map<String, Object> usuario = buscarUsuario(id).block();
+        if (usuario == null) {
+            throw new RuntimeException("Usuario no encontrado con ID: " + id);
+        }
+        return usuario;
+    }
+
+    public String getEstadoCircuito() {
+        return circuito.estado();
+    }
+
+    // Una llamada compartida por todos los que piden el mismo ID mientras está en curso. Un 4xx es una respuesta
+    // de Usuario y no abre el circuito; un 404 es un usuario inexistente
+    private Mono<Map<String, Object>> consultar(Long id) {
+        return webClient.get()
+            .uri("/{id}", id)
+            .retrieve()
+            .bodyToMono(USUARIO)
+            .timeout(plazo)
+            .onErrorResume(WebClientResponseException.class,
+                e -> e.getStatusCode().value() == HttpStatus.NOT_FOUND.value() ? Mono.empty() : Mono.error(e))
+            .doOnNext(usuario -> cache.put(id, new Entrada(usuario, System.currentTimeMillis() + ttlMs)))
+            .doOnSuccess(usuario -> circuito.exito())
+            .doOnError(e -> {
+                if (e instanceof WebClientResponseException respuesta && respuesta.getStatusCode().is4xxClientError()) {
+                    circuito.exito();
+                } else {
+                    circuito.falla();
+                }
+            })
+            .onErrorMap(e -> !(e instanceof WebClientResponseException),
+                e -> new RuntimeException("Error al conectar con el servicio de usuario", e))
+            .doFinally(senal -> enVuelo.remove(id))
+            .cache();
+    }
+
+    private record Entrada(Map<String, Object> usuario, long vence) {
+    }
+
+    private static final class Circuito {
+
+        private final int maxFallas;
+        private final long abiertoMs;
+        private final AtomicBoolean prueba = new AtomicBoolean();
+        private int fallas;
+        private long abiertoHasta;
+
+        private Circuito(int maxFallas, long abiertoMs) {
+            this.maxFallas = Math.max(1, maxFallas);
+            this.abiertoMs = abiertoMs;
+        }
+
+        // Abierto: solo pasa una llamada de prueba cuando vence el plazo
+        private synchronized boolean permiteLlamar() {
+            if (fallas < maxFallas) {
+                return true;
+            }
+            return System.currentTimeMillis() >= abiertoHasta && prueba.compareAndSet(false, true);
+        }
+
+        private synchronized void exito() {
+            fallas = 0;
+            prueba.set(false);
+        }
+
+        private synchronized void falla() {
+            fallas++;
+            if (fallas >= maxFallas) {
+                abiertoHasta = System.currentTimeMillis() + abiertoMs;
+                prueba.set(false);
+            }
+        }
+
+        private synchronized String estado() {
+            if (fallas < maxFallas) {
+                return "CERRADO";
+            }
+            return System.currentTimeMillis() < abiertoHasta ? "ABIERTO" : "SEMIABIERTO";
         }
     }
 }
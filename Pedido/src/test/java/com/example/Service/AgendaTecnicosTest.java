@@ -0,0 +1,252 @@
+package com.example.Service;
+
+import com.example.DTO.HorarioDTO;
+import com.example.DTO.ResultadoPlanificacionDTO;
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.EstadoPedido;
+import com.example.Model.PedidoModel.PrioridadPedido;
+import com.example.Repository.PedidoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Jornada de 08:00 a 18:00 en franjas de 30 minutos, de lunes a viernes; INSTALACION dura 240 minutos y el resto 120
+@SpringBootTest(properties = {"pedido.agenda.horizonte-dias=7", "pedido.agenda.duraciones=INSTALACION:240"})
+@ActiveProfiles("test")
+class AgendaTecnicosTest {
+
+    private static final LocalDateTime LUNES = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @MockitoSpyBean
+    private PedidoRepository pedidoRepository;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ColaUrgentes colaUrgentes;
+
+    @Autowired
+    private AgendaTecnicos agendaTecnicos;
+
+    @AfterEach
+    void tearDown() {
+        pedidoRepository.deleteAll();
+        colaUrgentes.cargar();
+        agendaTecnicos.cargar();
+    }
+
+    @Test
+    void buscarHorario_DeberiaSaltarLasFranjasOcupadasYLosDiasNoHabiles() {
+        PedidoModel manana = crear("Instalación", PrioridadPedido.MEDIA);
+        manana.setEstado(EstadoPedido.ASIGNADO);
+        manana.setIdTecnico(1L);
+        manana.setFechaProgramada(LUNES);
+        pedidoService.updatePedido(manana.getIdPedido(), manana);
+        PedidoModel tarde = crear("Mantención", PrioridadPedido.MEDIA);
+        tarde.setEstado(EstadoPedido.ASIGNADO);
+        tarde.setIdTecnico(1L);
+        tarde.setFechaProgramada(LUNES.withHour(14));
+        tarde = pedidoService.updatePedido(tarde.getIdPedido(), tarde);
+
+        // Entre 12:00 y 14:00 caben 120 minutos pero no 240
+        assertEquals(LUNES.withHour(12), horario(1L, "MANTENCION", LUNES).getInicio());
+        HorarioDTO instalacion = horario(1L, "INSTALACION", LUNES);
+        assertEquals(LUNES.plusDays(1), instalacion.getInicio());
+        assertEquals(LUNES.plusDays(1).withHour(12), instalacion.getFin());
+        // Desde las 16:10 del viernes, el lunes siguiente
+        assertEquals(LUNES.plusDays(7), horario(1L, "REPARACION", LUNES.plusDays(4).withHour(16).withMinute(10)).getInicio());
+        assertEquals(LUNES, horario(2L, "INSTALACION", LUNES).getInicio());
+
+        // Al cancelarse, el pedido de la tarde libera sus franjas
+        pedidoService.cancelarPedido(tarde.getIdPedido());
+        assertEquals(LUNES.withHour(12), horario(1L, "INSTALACION", LUNES).getInicio());
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.buscarHorario(null, "INSTALACION", LUNES));
+    }
+
+    @Test
+    void agendarPedido_DeberiaAsignarElPrimerHorarioLibreYNoRepetirlo() {
+        PedidoModel primero = crear("Reparación", PrioridadPedido.MEDIA);
+        PedidoModel segundo = crear("Reparación", PrioridadPedido.MEDIA);
+        PedidoModel tercero = crear("Reparación", PrioridadPedido.MEDIA);
+
+        PedidoModel agendado = pedidoService.agendarPedido(primero.getIdPedido(), List.of(1L, 2L), LUNES);
+        assertEquals(EstadoPedido.ASIGNADO, agendado.getEstado());
+        assertEquals(1L, agendado.getIdTecnico());
+        assertEquals(LUNES, agendado.getFechaProgramada());
+        assertEquals(primero.getVersion() + 1, agendado.getVersion());
+        assertEquals(agendado.getVersion(), pedidoService.getPedidoPorId(primero.getIdPedido()).getVersion());
+
+        // A igual horario, el primer técnico de la lista
+        assertEquals(2L, pedidoService.agendarPedido(segundo.getIdPedido(), List.of(1L, 2L), LUNES).getIdTecnico());
+        PedidoModel otro = pedidoService.agendarPedido(tercero.getIdPedido(), List.of(1L, 2L), LUNES);
+        assertEquals(1L, otro.getIdTecnico());
+        assertEquals(LUNES.withHour(10), otro.getFechaProgramada());
+
+        assertThrows(IllegalStateException.class, () -> pedidoService.agendarPedido(primero.getIdPedido(), List.of(3L), LUNES));
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.agendarPedido(primero.getIdPedido(), List.of(), LUNES));
+    }
+
+    @Test
+    void agendarPedido_Concurrente_NoDeberiaSuperponerHorarios() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(crear(i % 2 == 0 ? "Instalación" : "Mantención", PrioridadPedido.MEDIA).getIdPedido());
+        }
+
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        List<Future<PedidoModel>> resultados = new ArrayList<>();
+        try {
+            for (Long id : ids) {
+                resultados.add(hilos.submit(() -> pedidoService.agendarPedido(id, List.of(1L, 2L, 3L), LUNES)));
+            }
+            List<PedidoModel> agendados = new ArrayList<>();
+            for (Future<PedidoModel> resultado : resultados) {
+                agendados.add(resultado.get());
+            }
+            assertSinSuperposiciones(agendados);
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    @Test
+    void planificar_DeberiaAgendarPorPrioridadHastaLlenarLaSemana() {
+        // 2 técnicos x 5 días x 5 servicios de 120 minutos = 50 horarios
+        List<Long> bajas = new ArrayList<>();
+        List<Long> urgentes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bajas.add(crear("Mantención", PrioridadPedido.BAJA).getIdPedido());
+        }
+        for (int i = 0; i < 10; i++) {
+            urgentes.add(crear("Reparación", PrioridadPedido.URGENTE).getIdPedido());
+        }
+
+        ResultadoPlanificacionDTO resultado = pedidoService.planificar(List.of(1L, 2L), LUNES);
+
+        assertEquals(50, resultado.getAgendados());
+        assertEquals(bajas.subList(40, 50), resultado.getSinHorario());
+        assertTrue(resultado.getConflictos().isEmpty());
+        List<PedidoModel> asignados = pedidoRepository.findByEstado(EstadoPedido.ASIGNADO);
+        assertEquals(50, asignados.size());
+        assertSinSuperposiciones(asignados);
+        for (Long id : urgentes) {
+            assertEquals(LUNES.toLocalDate(), pedidoService.getPedidoPorId(id).getFechaProgramada().toLocalDate());
+        }
+        // Los urgentes en la cola reflejan la asignación
+        assertTrue(pedidoService.findPedidosUrgentes().stream().allMatch(p -> p.getEstado() == EstadoPedido.ASIGNADO));
+
+        // Recargada desde la base, la agenda sigue llena
+        agendaTecnicos.cargar();
+        assertTrue(pedidoService.buscarHorario(1L, "MANTENCION", LUNES).isEmpty());
+        assertEquals(0, pedidoService.planificar(List.of(1L, 2L), LUNES).getAgendados());
+    }
+
+    @Test
+    void agendarPedido_SiElUpdateFalla_DeberiaLiberarElHorario() {
+        PedidoModel pedido = crear("Reparación", PrioridadPedido.MEDIA);
+        doThrow(new DataAccessResourceFailureException("Base no disponible")).when(pedidoRepository)
+                .agendarSiEsta(any(), any(), any(), any(), any());
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> pedidoService.agendarPedido(pedido.getIdPedido(), List.of(1L), LUNES));
+
+        assertEquals(LUNES, horario(1L, "INSTALACION", LUNES).getInicio());
+        assertEquals(EstadoPedido.PENDIENTE, pedidoService.getPedidoPorId(pedido.getIdPedido()).getEstado());
+    }
+
+    @Test
+    void planificar_SiElLoteFalla_DeberiaLiberarTodosLosHorarios() {
+        crear("Mantención", PrioridadPedido.MEDIA);
+        crear("Mantención", PrioridadPedido.URGENTE);
+        doThrow(new DataAccessResourceFailureException("Base no disponible")).when(jdbcTemplate)
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> pedidoService.planificar(List.of(1L), LUNES));
+
+        assertEquals(LUNES, horario(1L, "INSTALACION", LUNES).getInicio());
+        assertEquals(2, pedidoRepository.findByEstado(EstadoPedido.PENDIENTE).size());
+    }
+
+    @Test
+    void planificar_SinConteoDeFilas_DeberiaReleerLosPedidosEnVezDeDarlosPorAplicados() {
+        PedidoModel urgente = crear("Mantención", PrioridadPedido.URGENTE);
+        PedidoModel cancelado = crear("Mantención", PrioridadPedido.MEDIA);
+        // El driver no informa conteos, y el segundo pedido se cancela antes de que el lote lo alcance
+        doAnswer(invocacion -> {
+            jdbcTemplate.update("UPDATE pedido SET estado = 'CANCELADO' WHERE id_pedido = ?", cancelado.getIdPedido());
+            int[][] filas = (int[][]) invocacion.callRealMethod();
+            for (int[] lote : filas) {
+                Arrays.fill(lote, Statement.SUCCESS_NO_INFO);
+            }
+            return filas;
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+        ResultadoPlanificacionDTO resultado = pedidoService.planificar(List.of(1L), LUNES);
+
+        assertEquals(1, resultado.getAgendados());
+        assertEquals(List.of(cancelado.getIdPedido()), resultado.getConflictos());
+        assertEquals(EstadoPedido.CANCELADO, pedidoService.getPedidoPorId(cancelado.getIdPedido()).getEstado());
+        PedidoModel asignado = pedidoService.getPedidoPorId(urgente.getIdPedido());
+        assertEquals(EstadoPedido.ASIGNADO, asignado.getEstado());
+        assertEquals(LUNES, asignado.getFechaProgramada());
+        // El horario del cancelado quedó libre y la cola refleja la versión releída
+        assertEquals(LUNES.withHour(10), horario(1L, "MANTENCION", LUNES).getInicio());
+        assertEquals(asignado.getVersion(), pedidoService.findPedidosUrgentes().get(0).getVersion());
+    }
+
+    private HorarioDTO horario(Long idTecnico, String tipoServicio, LocalDateTime desde) {
+        return pedidoService.buscarHorario(idTecnico, tipoServicio, desde).orElseThrow();
+    }
+
+    private void assertSinSuperposiciones(List<PedidoModel> pedidos) {
+        Map<Long, List<PedidoModel>> porTecnico = pedidos.stream().collect(Collectors.groupingBy(PedidoModel::getIdTecnico));
+        porTecnico.values().forEach(delTecnico -> {
+            delTecnico.sort(Comparator.comparing(PedidoModel::getFechaProgramada));
+            for (int i = 1; i < delTecnico.size(); i++) {
+                PedidoModel anterior = delTecnico.get(i - 1);
+                LocalDateTime fin = anterior.getFechaProgramada()
+                        .plusMinutes(agendaTecnicos.duracionMinutos(anterior.getTipoServicio()));
+                assertFalse(fin.isAfter(delTecnico.get(i).getFechaProgramada()),
+                        "Se superponen los pedidos " + anterior.getIdPedido() + " y " + delTecnico.get(i).getIdPedido());
+            }
+        });
+    }
+
+    private PedidoModel crear(String tipoServicio, PrioridadPedido prioridad) {
+        PedidoModel pedido = new PedidoModel();
+        pedido.setIdCliente(1L);
+        pedido.setDescripcionServicio("Servicio de riego");
+        pedido.setTipoServicio(tipoServicio);
+        pedido.setPrioridad(prioridad);
+        pedido.setDireccionServicio("Av. Los Agricultores 123, Chillán");
+        pedido.setTelefonoContacto("+56912345678");
+        pedido.setCostoEstimado(BigDecimal.valueOf(150_000));
+        return pedidoService.savePedido(pedido);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.Service;
+
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.EstadoPedido;
+import com.example.Model.PedidoModel.PrioridadPedido;
+import com.example.Repository.PedidoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ColaUrgentesTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ColaUrgentes colaUrgentes;
+
+    @AfterEach
+    void tearDown() {
+        pedidoRepository.deleteAll();
+        colaUrgentes.cargar();
+    }
+
+    @Test
+    void cargar_DeberiaExcluirLosUrgentesCompletadosYCancelados() {
+        PedidoModel pendiente = guardar(PrioridadPedido.URGENTE, EstadoPedido.PENDIENTE, INICIO);
+        guardar(PrioridadPedido.URGENTE, EstadoPedido.COMPLETADO, INICIO.minusDays(2));
+        guardar(PrioridadPedido.URGENTE, EstadoPedido.CANCELADO, INICIO.minusDays(1));
+        guardar(PrioridadPedido.MEDIA, EstadoPedido.PENDIENTE, INICIO.minusDays(3));
+
+        colaUrgentes.cargar();
+
+        assertEquals(List.of(pendiente.getIdPedido()), ids(colaUrgentes.pedidos()));
+    }
+
+    @Test
+    void actualizar_AlCompletarseOCancelarse_DeberiaQuitarElPedido() {
+        PedidoModel completado = guardar(PrioridadPedido.URGENTE, EstadoPedido.EN_PROCESO, INICIO);
+        PedidoModel cancelado = guardar(PrioridadPedido.URGENTE, EstadoPedido.ASIGNADO, INICIO.plusHours(1));
+        colaUrgentes.cargar();
+        assertEquals(List.of(cancelado.getIdPedido()), ids(colaUrgentes.pedidos()));
+
+        completado.setEstado(EstadoPedido.COMPLETADO);
+        colaUrgentes.actualizar(pedidoRepository.save(completado));
+        cancelado.setEstado(EstadoPedido.CANCELADO);
+        colaUrgentes.actualizar(pedidoRepository.save(cancelado));
+
+        assertTrue(colaUrgentes.pedidos().isEmpty());
+        assertTrue(colaUrgentes.buscar(cancelado.getIdPedido()).isEmpty());
+    }
+
+    @Test
+    void pedidos_DeberiaOrdenarPorPrioridadYLuegoPorFechaDeCreacion() {
+        PedidoModel altaAntigua = guardar(PrioridadPedido.ALTA, EstadoPedido.PENDIENTE, INICIO.minusDays(5));
+        PedidoModel urgenteReciente = guardar(PrioridadPedido.URGENTE, EstadoPedido.ASIGNADO, INICIO.plusHours(2));
+        PedidoModel urgenteAntiguo = guardar(PrioridadPedido.URGENTE, EstadoPedido.PENDIENTE, INICIO);
+        PedidoModel altaReciente = guardar(PrioridadPedido.ALTA, EstadoPedido.ASIGNADO, INICIO.plusDays(1));
+
+        colaUrgentes.cargar();
+
+        List<Long> esperados = List.of(urgenteAntiguo.getIdPedido(), urgenteReciente.getIdPedido(),
+                altaAntigua.getIdPedido(), altaReciente.getIdPedido());
+        assertEquals(esperados, ids(colaUrgentes.pedidos()));
+
+        // Al subir de prioridad pasa delante de los ALTA, pero detrás del URGENTE más antiguo
+        altaReciente.setPrioridad(PrioridadPedido.URGENTE);
+        colaUrgentes.actualizar(pedidoRepository.save(altaReciente));
+
+        assertEquals(List.of(urgenteAntiguo.getIdPedido(), urgenteReciente.getIdPedido(),
+                altaReciente.getIdPedido(), altaAntigua.getIdPedido()), ids(colaUrgentes.pedidos()));
+    }
+
+    @Test
+    void actualizar_ConUnaCopiaVieja_NoDeberiaPisarLaVersionMasNueva() {
+        PedidoModel original = guardar(PrioridadPedido.ALTA, EstadoPedido.PENDIENTE, INICIO);
+        PedidoModel nueva = pedidoRepository.findById(original.getIdPedido()).orElseThrow();
+        nueva.setPrioridad(PrioridadPedido.URGENTE);
+        nueva = pedidoRepository.save(nueva);
+        colaUrgentes.actualizar(nueva);
+
+        // La copia leída antes del cambio llega tarde, con otra prioridad y otro estado
+        original.setEstado(EstadoPedido.CANCELADO);
+        colaUrgentes.actualizar(original);
+
+        PedidoModel enCola = colaUrgentes.buscar(original.getIdPedido()).orElseThrow();
+        assertEquals(nueva.getVersion(), enCola.getVersion());
+        assertEquals(PrioridadPedido.URGENTE, enCola.getPrioridad());
+        assertEquals(List.of(original.getIdPedido()), ids(colaUrgentes.pedidos()));
+    }
+
+    private PedidoModel guardar(PrioridadPedido prioridad, EstadoPedido estado, LocalDateTime fechaCreacion) {
+        PedidoModel pedido = new PedidoModel();
+        pedido.setIdCliente(1L);
+        pedido.setDescripcionServicio("Reparación de bomba de riego");
+        pedido.setTipoServicio("Reparación");
+        pedido.setPrioridad(prioridad);
+        pedido.setEstado(estado);
+        pedido.setFechaCreacion(fechaCreacion);
+        pedido.setDireccionServicio("Av. Los Agricultores 123, Chillán");
+        pedido.setTelefonoContacto("+56912345678");
+        pedido.setCostoEstimado(BigDecimal.valueOf(150_000));
+        return pedidoRepository.save(pedido);
+    }
+
+    private static List<Long> ids(List<PedidoModel> pedidos) {
+        return pedidos.stream().map(PedidoModel::getIdPedido).toList();
+    }
+}
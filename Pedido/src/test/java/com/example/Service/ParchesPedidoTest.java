@@ -0,0 +1,140 @@
+package com.example.Service;
+
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.EstadoPedido;
+import com.example.Model.PedidoModel.PrioridadPedido;
+import com.example.Repository.PedidoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ParchesPedidoTest {
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ColaUrgentes colaUrgentes;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        pedidoRepository.deleteAll();
+        colaUrgentes.cargar();
+    }
+
+    @Test
+    void patchPedido_DeberiaModificarSoloLosCamposDelParche() throws Exception {
+        PedidoModel pedido = crear();
+
+        PedidoModel modificado = pedidoService.patchPedido(pedido.getIdPedido(),
+                parche("{\"costoFinal\": 155000.00, \"observaciones\": null}"));
+
+        PedidoModel guardado = pedidoService.getPedidoPorId(pedido.getIdPedido());
+        assertEquals(0, new BigDecimal("155000.00").compareTo(guardado.getCostoFinal()));
+        assertNull(guardado.getObservaciones());
+        assertEquals("Instalación de sistema de riego", guardado.getDescripcionServicio());
+        assertEquals("Tuberías, aspersores", guardado.getMaterialesNecesarios());
+        assertEquals(pedido.getVersion() + 1, guardado.getVersion());
+        assertEquals(guardado.getVersion(), modificado.getVersion());
+    }
+
+    @Test
+    void patchPedidoSinLeer_DeberiaHacerUnSoloUpdateSinLeerElPedido() throws Exception {
+        PedidoModel pedido = crear();
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        long version = pedidoService.patchPedidoSinLeer(pedido.getIdPedido(),
+                parche("{\"version\": " + pedido.getVersion() + ", \"costoFinal\": 155000.00, \"observaciones\": null}"));
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+        PedidoModel guardado = pedidoService.getPedidoPorId(pedido.getIdPedido());
+        assertEquals(pedido.getVersion() + 1, version);
+        assertEquals(version, guardado.getVersion());
+        assertEquals(0, new BigDecimal("155000.00").compareTo(guardado.getCostoFinal()));
+        assertNull(guardado.getObservaciones());
+        assertEquals("Tuberías, aspersores", guardado.getMaterialesNecesarios());
+
+        // La misma versión ya no coincide
+        JsonNode repetido = parche("{\"version\": " + pedido.getVersion() + ", \"costoFinal\": 1}");
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> pedidoService.patchPedidoSinLeer(pedido.getIdPedido(), repetido));
+        assertThrows(RuntimeException.class, () -> pedidoService.patchPedidoSinLeer(999_999L, repetido));
+    }
+
+    @Test
+    void patchPedidoSinLeer_DeberiaRespetarLasTransicionesYActualizarLosUrgentes() throws Exception {
+        PedidoModel pedido = crear();
+        assertTrue(pedidoService.findPedidosUrgentes().isEmpty());
+
+        long version = pedidoService.patchPedidoSinLeer(pedido.getIdPedido(),
+                parche("{\"version\": " + pedido.getVersion() + ", \"prioridad\": \"URGENTE\", \"estado\": \"ASIGNADO\"}"));
+
+        List<PedidoModel> urgentes = pedidoService.findPedidosUrgentes();
+        assertEquals(1, urgentes.size());
+        assertEquals(version, urgentes.get(0).getVersion());
+        assertEquals("Tuberías, aspersores", urgentes.get(0).getMaterialesNecesarios());
+
+        // ASIGNADO no puede pasar a COMPLETADO
+        JsonNode completar = parche("{\"version\": " + version + ", \"estado\": \"COMPLETADO\"}");
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> pedidoService.patchPedidoSinLeer(pedido.getIdPedido(), completar));
+
+        pedidoService.patchPedidoSinLeer(pedido.getIdPedido(), parche("{\"version\": " + version + ", \"observaciones\": \"Llamar antes\"}"));
+        assertEquals("Llamar antes", pedidoService.findPedidosUrgentes().get(0).getObservaciones());
+        assertEquals(EstadoPedido.ASIGNADO, pedidoService.getPedidoPorId(pedido.getIdPedido()).getEstado());
+    }
+
+    @Test
+    void patchPedido_ConCamposInvalidos_DeberiaRechazarElParche() throws Exception {
+        Long id = crear().getIdPedido();
+
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.patchPedido(id, parche("{\"direccionServicio\": null}")));
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.patchPedido(id, parche("{\"fechaCreacion\": \"2025-07-09T12:30:00\"}")));
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.patchPedido(id, parche("{\"prioridad\": \"MAXIMA\"}")));
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.patchPedido(id, parche("[]")));
+        assertThrows(IllegalStateException.class, () -> pedidoService.patchPedido(id, parche("{\"estado\": \"COMPLETADO\"}")));
+    }
+
+    private PedidoModel crear() {
+        PedidoModel pedido = new PedidoModel();
+        pedido.setDescripcionServicio("Instalación de sistema de riego");
+        pedido.setTipoServicio("Instalación");
+        pedido.setPrioridad(PrioridadPedido.BAJA);
+        pedido.setDireccionServicio("Av. Los Agricultores 123, Chillán");
+        pedido.setTelefonoContacto("+56912345678");
+        pedido.setCostoEstimado(BigDecimal.valueOf(150_000));
+        pedido.setObservaciones("Requiere aprobación del supervisor.");
+        pedido.setMaterialesNecesarios("Tuberías, aspersores");
+        return pedidoService.savePedido(pedido);
+    }
+
+    private JsonNode parche(String json) throws Exception {
+        return objectMapper.readTree(json);
+    }
+}
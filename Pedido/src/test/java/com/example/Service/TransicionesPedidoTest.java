@@ -0,0 +1,195 @@
+package com.example.Service;
+
+import com.example.DTO.ResultadoTransicionDTO;
+import com.example.Model.PedidoModel;
+import com.example.Model.PedidoModel.EstadoPedido;
+import com.example.Model.PedidoModel.PrioridadPedido;
+import com.example.Repository.PedidoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransicionesPedidoTest {
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ColaUrgentes colaUrgentes;
+
+    @AfterEach
+    void tearDown() {
+        pedidoRepository.deleteAll();
+        colaUrgentes.cargar();
+    }
+
+    @Test
+    void cambiarEstado_ConTransicionNoPermitida_DeberiaRechazarlaSinModificarElPedido() {
+        PedidoModel pedido = crear(EstadoPedido.CANCELADO);
+
+        assertThrows(IllegalStateException.class, () -> pedidoService.cambiarEstado(pedido.getIdPedido(), EstadoPedido.EN_PROCESO));
+        assertThrows(IllegalStateException.class, () -> pedidoService.iniciarTrabajo(crear(EstadoPedido.PENDIENTE).getIdPedido()));
+
+        PedidoModel guardado = pedidoService.getPedidoPorId(pedido.getIdPedido());
+        assertEquals(EstadoPedido.CANCELADO, guardado.getEstado());
+        assertEquals(pedido.getVersion(), guardado.getVersion());
+    }
+
+    @Test
+    void cambiarEstado_ACompletado_DeberiaRegistrarLaFechaYSacarloDeLosUrgentes() {
+        PedidoModel pedido = crear(EstadoPedido.ASIGNADO);
+        assertEquals(List.of(pedido.getIdPedido()), ids(pedidoService.findPedidosUrgentes()));
+
+        pedidoService.iniciarTrabajo(pedido.getIdPedido());
+        PedidoModel completado = pedidoService.cambiarEstado(pedido.getIdPedido(), EstadoPedido.COMPLETADO);
+
+        PedidoModel guardado = pedidoService.getPedidoPorId(pedido.getIdPedido());
+        assertEquals(EstadoPedido.COMPLETADO, guardado.getEstado());
+        assertNotNull(guardado.getFechaCompletado());
+        assertEquals(pedido.getVersion() + 2, guardado.getVersion());
+        assertEquals(guardado.getVersion(), completado.getVersion());
+        assertTrue(pedidoService.findPedidosUrgentes().isEmpty());
+    }
+
+    @Test
+    void cambiarEstado_Concurrente_DeberiaAplicarUnaSolaTransicionPorPedido() throws Exception {
+        List<PedidoModel> pedidos = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            pedidos.add(crear(EstadoPedido.EN_PROCESO));
+        }
+        // Desde EN_PROCESO las dos son válidas, pero ambas son finales: solo una puede ganar
+        EstadoPedido[] destinos = {EstadoPedido.COMPLETADO, EstadoPedido.CANCELADO};
+        int hilos = 8;
+        Map<Long, List<EstadoPedido>> ganadores = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            for (PedidoModel pedido : pedidos) {
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<?>> intentos = new ArrayList<>();
+                for (int h = 0; h < hilos; h++) {
+                    EstadoPedido destino = destinos[h % 2];
+                    intentos.add(executor.submit(() -> {
+                        largada.await();
+                        try {
+                            pedidoService.cambiarEstado(pedido.getIdPedido(), destino);
+                            ganadores.computeIfAbsent(pedido.getIdPedido(), id -> new CopyOnWriteArrayList<>()).add(destino);
+                        } catch (IllegalStateException e) {
+                            // Perdió la carrera o el pedido ya estaba en un estado final
+                        }
+                        return null;
+                    }));
+                }
+                largada.countDown();
+                for (Future<?> intento : intentos) {
+                    intento.get(10, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (PedidoModel pedido : pedidos) {
+            List<EstadoPedido> ganador = ganadores.get(pedido.getIdPedido());
+            assertNotNull(ganador, "Ninguna transición ganó en el pedido " + pedido.getIdPedido());
+            assertEquals(1, ganador.size(), "Más de una transición en el pedido " + pedido.getIdPedido());
+            PedidoModel guardado = pedidoService.getPedidoPorId(pedido.getIdPedido());
+            assertEquals(ganador.get(0), guardado.getEstado());
+            assertEquals(pedido.getVersion() + 1, guardado.getVersion());
+            assertEquals(guardado.getEstado() == EstadoPedido.COMPLETADO, guardado.getFechaCompletado() != null);
+        }
+    }
+
+    @Test
+    void cambiarEstados_DeberiaCambiarSoloLosPedidosQuePuedenPasarAlEstado() {
+        PedidoModel pendiente = crear(EstadoPedido.PENDIENTE);
+        PedidoModel enProceso = crear(EstadoPedido.EN_PROCESO);
+        PedidoModel completado = crear(EstadoPedido.COMPLETADO);
+        PedidoModel cancelado = crear(EstadoPedido.CANCELADO);
+
+        ResultadoTransicionDTO resultado = pedidoService.cambiarEstados(List.of(pendiente.getIdPedido(),
+                enProceso.getIdPedido(), completado.getIdPedido(), cancelado.getIdPedido(), 999_999L), EstadoPedido.CANCELADO);
+
+        assertEquals(2, resultado.getActualizados());
+        assertEquals(List.of(cancelado.getIdPedido()), resultado.getSinCambios());
+        assertEquals(List.of(completado.getIdPedido()), resultado.getRechazados());
+        assertEquals(List.of(999_999L), resultado.getNoEncontrados());
+        assertEquals(EstadoPedido.CANCELADO, pedidoService.getPedidoPorId(pendiente.getIdPedido()).getEstado());
+        assertEquals(EstadoPedido.CANCELADO, pedidoService.getPedidoPorId(enProceso.getIdPedido()).getEstado());
+        assertEquals(EstadoPedido.COMPLETADO, pedidoService.getPedidoPorId(completado.getIdPedido()).getEstado());
+        assertTrue(pedidoService.findPedidosUrgentes().isEmpty());
+    }
+
+    @Test
+    void savePedido_ConIdDeUnPedidoExistente_NoDeberiaSobrescribirlo() {
+        PedidoModel pedido = crear(EstadoPedido.CANCELADO);
+        PedidoModel copia = pedidoService.getPedidoPorId(pedido.getIdPedido());
+        copia.setEstado(EstadoPedido.PENDIENTE);
+
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.savePedido(copia));
+
+        PedidoModel guardado = pedidoService.getPedidoPorId(pedido.getIdPedido());
+        assertEquals(EstadoPedido.CANCELADO, guardado.getEstado());
+        assertEquals(pedido.getVersion(), guardado.getVersion());
+    }
+
+    @Test
+    void savePedido_ConEstadoInicialDistintoDePendiente_DeberiaRechazarlo() {
+        PedidoModel cancelado = nuevo();
+        cancelado.setEstado(EstadoPedido.CANCELADO);
+        PedidoModel sinEstado = nuevo();
+        sinEstado.setEstado(null);
+
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.savePedido(cancelado));
+        assertEquals(EstadoPedido.PENDIENTE, pedidoService.savePedido(sinEstado).getEstado());
+        assertEquals(1, pedidoRepository.count());
+    }
+
+    // Se crea PENDIENTE como cualquier alta y se lleva al estado pedido directo en el repositorio,
+    // sin pasar por las transiciones que las pruebas ejercitan
+    private PedidoModel crear(EstadoPedido estado) {
+        PedidoModel pedido = pedidoService.savePedido(nuevo());
+        if (estado == EstadoPedido.PENDIENTE) {
+            return pedido;
+        }
+        pedido.setEstado(estado);
+        pedido = pedidoRepository.save(pedido);
+        colaUrgentes.actualizar(pedido);
+        return pedido;
+    }
+
+    private static PedidoModel nuevo() {
+        PedidoModel pedido = new PedidoModel();
+        pedido.setDescripcionServicio("Instalación de sistema de riego");
+        pedido.setTipoServicio("Instalación");
+        pedido.setPrioridad(PrioridadPedido.URGENTE);
+        pedido.setDireccionServicio("Av. Los Agricultores 123, Chillán");
+        pedido.setTelefonoContacto("+56912345678");
+        pedido.setCostoEstimado(BigDecimal.valueOf(150_000));
+        return pedido;
+    }
+
+    private static List<Long> ids(List<PedidoModel> pedidos) {
+        return pedidos.stream().map(PedidoModel::getIdPedido).toList();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.WebRol;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Contra un servidor HTTP local que simula el servicio Usuario en /api/v1/usuarios/{id}
+class RolesUsuarioTest {
+
+    private HttpServer servidor;
+    private final AtomicInteger llamadas = new AtomicInteger();
+    private volatile int estado = 200;
+    private volatile long demoraMs = 0;
+    private RolesUsuario rolesUsuario;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.createContext("/api/v1/usuarios/", intercambio -> {
+            llamadas.incrementAndGet();
+            try {
+                Thread.sleep(demoraMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String id = intercambio.getRequestURI().getPath().substring("/api/v1/usuarios/".length());
+            byte[] cuerpo = (estado == 200 ? "{\"idusuario\": " + id + ", \"nombre\": \"Juan\"}" : "error")
+                    .getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders("999".equals(id) ? 404 : estado, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        servidor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (rolesUsuario != null) {
+            rolesUsuario.cerrar();
+        }
+        servidor.stop(0);
+    }
+
+    @Test
+    void buscarUsuario_Concurrente_DeberiaCompartirUnaSolaLlamadaYGuardarlaEnCache() {
+        rolesUsuario = cliente(1000, 60_000, 5, 10_000);
+        demoraMs = 200;
+
+        List<Map<String, Object>> usuarios = Flux.range(0, 20)
+                .flatMap(i -> rolesUsuario.buscarUsuario(1L))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(20, usuarios.size());
+        assertTrue(usuarios.stream().allMatch(usuario -> Integer.valueOf(1).equals(usuario.get("idusuario"))));
+        assertEquals(1, llamadas.get());
+        assertEquals("Juan", rolesUsuario.getUsuarioById(1L).get("nombre"));
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void buscarUsuario_ConUsuarioCaido_DeberiaAbrirElCircuitoYResponderConLaCacheVencida() throws InterruptedException {
+        rolesUsuario = cliente(1000, 50, 2, 60_000);
+        assertEquals("Juan", rolesUsuario.getUsuarioById(1L).get("nombre"));
+        estado = 500;
+        Thread.sleep(80);
+
+        // Vencida: se intenta la llamada y, al fallar, se responde con la entrada de la cache
+        assertEquals("Juan", rolesUsuario.getUsuarioById(1L).get("nombre"));
+        assertThrows(RuntimeException.class, () -> rolesUsuario.getUsuarioById(2L));
+        assertEquals("ABIERTO", rolesUsuario.getEstadoCircuito());
+        int antes = llamadas.get();
+
+        // Con el circuito abierto no se llama a Usuario
+        assertEquals("Juan", rolesUsuario.getUsuarioById(1L).get("nombre"));
+        assertThrows(RuntimeException.class, () -> rolesUsuario.getUsuarioById(3L));
+        assertEquals(antes, llamadas.get());
+    }
+
+    @Test
+    void buscarUsuario_TrasElPlazoAbierto_DeberiaCerrarElCircuitoConUnaLlamadaDePrueba() throws InterruptedException {
+        rolesUsuario = cliente(1000, 60_000, 1, 100);
+        estado = 500;
+        assertThrows(RuntimeException.class, () -> rolesUsuario.getUsuarioById(1L));
+        assertEquals("ABIERTO", rolesUsuario.getEstadoCircuito());
+
+        estado = 200;
+        Thread.sleep(150);
+        assertEquals("SEMIABIERTO", rolesUsuario.getEstadoCircuito());
+
+        assertEquals("Juan", rolesUsuario.getUsuarioById(1L).get("nombre"));
+        assertEquals("CERRADO", rolesUsuario.getEstadoCircuito());
+    }
+
+    @Test
+    void buscarUsuario_SinSuscribirse_NoDeberiaGastarLaLlamadaDePrueba() throws InterruptedException {
+        rolesUsuario = cliente(1000, 60_000, 1, 100);
+        estado = 500;
+        assertThrows(RuntimeException.class, () -> rolesUsuario.getUsuarioById(1L));
+
+        estado = 200;
+        Thread.sleep(150);
+        Mono<Map<String, Object>> sinSuscribir = rolesUsuario.buscarUsuario(1L);
+        assertNotNull(sinSuscribir);
+        assertEquals(1, llamadas.get());
+
+        assertEquals("Juan", rolesUsuario.getUsuarioById(1L).get("nombre"));
+        assertEquals("CERRADO", rolesUsuario.getEstadoCircuito());
+    }
+
+    @Test
+    void buscarUsuario_DeberiaRespetarElPlazoYDistinguirUnUsuarioInexistente() {
+        rolesUsuario = cliente(100, 60_000, 5, 10_000);
+
+        assertNull(rolesUsuario.buscarUsuario(999L).block(Duration.ofSeconds(5)));
+        assertEquals("CERRADO", rolesUsuario.getEstadoCircuito());
+
+        demoraMs = 1000;
+        long inicio = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> rolesUsuario.getUsuarioById(1L));
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 800);
+    }
+
+    private RolesUsuario cliente(long timeoutMs, long ttlMs, int fallas, long abiertoMs) {
+        String url = "http://localhost:" + servidor.getAddress().getPort() + "/api/v1/usuarios";
+        return new RolesUsuario(url, timeoutMs, 10, ttlMs, 1000, fallas, abiertoMs);
+    }
+}
@@ -0,0 +1,134 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Prueba de carga HTTP: N clientes concurrentes, cada uno repite GET sobre la URL hasta cumplir la duración,
+// y se reporta throughput y latencias p50/p99/máx. Las respuestas del calentamiento no se cuentan.
+// Cada cliente es un hilo virtual, así que 2.000 clientes no exigen 2.000 hilos de plataforma al generador.
+//
+// Programa de un solo archivo (Java 21), sin compilación previa:
+//   java PruebaCarga/PruebaCarga.java --modo virtual --clientes 2000 --duracion 30 --calentamiento 10 \
+//       http://localhost:8089/api/v1/inventario http://localhost:8083/api/v1/pedidos
+public class PruebaCarga {
+
+    public static void main(String[] args) throws Exception {
+        String modo = "-";
+        int clientes = 2000;
+        int duracion = 30;
+        int calentamiento = 10;
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--modo" -> modo = args[++i];
+                case "--clientes" -> clientes = Integer.parseInt(args[++i]);
+                case "--duracion" -> duracion = Integer.parseInt(args[++i]);
+                case "--calentamiento" -> calentamiento = Integer.parseInt(args[++i]);
+                default -> urls.add(args[i]);
+            }
+        }
+        if (urls.isEmpty()) {
+            System.err.println("Uso: java PruebaCarga.java [--modo etiqueta] [--clientes N] [--duracion s] " +
+                    "[--calentamiento s] URL...");
+            System.exit(2);
+        }
+
+        System.out.printf("%-10s %-45s %8s %10s %8s %10s %9s %9s %9s%n",
+                "modo", "url", "clientes", "requests", "errores", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (String url : urls) {
+            Resultado r = medir(URI.create(url), clientes, duracion, calentamiento);
+            System.out.printf("%-10s %-45s %8d %10d %8d %10.1f %9.1f %9.1f %9.1f%n",
+                    modo, url, clientes, r.latencias.length, r.errores, r.latencias.length / (double) duracion,
+                    percentil(r.latencias, 50), percentil(r.latencias, 99), percentil(r.latencias, 100));
+        }
+    }
+
+    private static Resultado medir(URI uri, int clientes, int duracion, int calentamiento) throws Exception {
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .executor(hilos)
+                     .build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+            long inicioMedicion = System.nanoTime() + Duration.ofSeconds(calentamiento).toNanos();
+            long fin = inicioMedicion + Duration.ofSeconds(duracion).toNanos();
+
+            List<Future<Cliente>> tareas = new ArrayList<>(clientes);
+            for (int c = 0; c < clientes; c++) {
+                tareas.add(hilos.submit(() -> {
+                    Cliente cliente = new Cliente();
+                    long ahora;
+                    while ((ahora = System.nanoTime()) < fin) {
+                        boolean ok;
+                        try {
+                            ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long terminado = System.nanoTime();
+                        // Solo cuentan los requests que empiezan y terminan dentro de la ventana medida
+                        if (ahora >= inicioMedicion && terminado <= fin) {
+                            if (ok) {
+                                cliente.agregar(terminado - ahora);
+                            } else {
+                                cliente.errores++;
+                            }
+                        }
+                    }
+                    return cliente;
+                }));
+            }
+
+            long errores = 0;
+            List<long[]> porCliente = new ArrayList<>(clientes);
+            int total = 0;
+            for (Future<Cliente> tarea : tareas) {
+                Cliente cliente = tarea.get();
+                errores += cliente.errores;
+                porCliente.add(Arrays.copyOf(cliente.latencias, cliente.cantidad));
+                total += cliente.cantidad;
+            }
+            long[] latencias = new long[total];
+            int posicion = 0;
+            for (long[] l : porCliente) {
+                System.arraycopy(l, 0, latencias, posicion, l.length);
+                posicion += l.length;
+            }
+            Arrays.sort(latencias);
+            return new Resultado(latencias, errores);
+        }
+    }
+
+    // Percentil por rango más cercano, en milisegundos
+    private static double percentil(long[] ordenadas, int p) {
+        if (ordenadas.length == 0) {
+            return Double.NaN;
+        }
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+    }
+
+    private record Resultado(long[] latencias, long errores) {
+    }
+
+    private static final class Cliente {
+        private long[] latencias = new long[256];
+        private int cantidad;
+        private long errores;
+
+        private void agregar(long nanos) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Compara los servicios Inventario y Pedido con hilos de plataforma (perfil por defecto) y con hilos virtuales
+# (perfil "virtual"), bajo la misma carga. Requiere MySQL con db_agrotech_vm y Java 21 en el PATH.
+#
+# Uso: PruebaCarga/ejecutar.sh [clientes=2000] [duracion-s=30] [calentamiento-s=10]
+# Los resultados quedan en PruebaCarga/resultados-<fecha>.txt y los logs de cada servicio en PruebaCarga/*.log
+set -euo pipefail
+
+RAIZ=$(cd "$(dirname "$0")/.." && pwd)
+DIR="$RAIZ/PruebaCarga"
+CLIENTES=${1:-2000}
+DURACION=${2:-30}
+CALENTAMIENTO=${3:-10}
+RESULTADOS="$DIR/resultados-$(date +%Y%m%d-%H%M%S).txt"
+
+# 2.000 clientes abren 2.000 sockets en el generador y otros tantos en cada servicio
+ulimit -n 65536 2>/dev/null || echo "Aviso: no se pudo subir el límite de archivos abiertos ($(ulimit -n))"
+
+PIDS=()
+detener() {
+    for pid in "${PIDS[@]}"; do
+        kill "$pid" 2>/dev/null || true
+        wait "$pid" 2>/dev/null || true
+    done
+    PIDS=()
+}
+trap detener EXIT
+
+empaquetar() {
+    (cd "$RAIZ/$1" && ./mvnw -q -DskipTests package)
+}
+
+iniciar() {
+    local modulo=$1 puerto=$2 perfil=$3
+    local jar
+    jar=$(ls "$RAIZ/$modulo"/target/*.jar | head -n 1)
+    java -jar "$jar" ${perfil:+--spring.profiles.active=$perfil} > "$DIR/$modulo-${perfil:-plataforma}.log" 2>&1 &
+    PIDS+=($!)
+    for _ in $(seq 1 120); do
+        if (exec 3<>"/dev/tcp/localhost/$puerto") 2>/dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "El servicio $modulo no abrió el puerto $puerto" >&2
+    exit 1
+}
+
+empaquetar Inventario
+empaquetar Pedido
+
+for perfil in "" virtual; do
+    iniciar Inventario 8089 "$perfil"
+    iniciar Pedido 8083 "$perfil"
+    java "$DIR/PruebaCarga.java" --modo "${perfil:-plataforma}" --clientes "$CLIENTES" \
+        --duracion "$DURACION" --calentamiento "$CALENTAMIENTO" \
+        http://localhost:8089/api/v1/inventario http://localhost:8083/api/v1/pedidos | tee -a "$RESULTADOS"
+    detener
+done
+
+echo "Resultados en $RESULTADOS"